@@ -0,0 +1,47 @@
+package com.solvd.schoolschedule.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.solvd.schoolschedule.model.ConflictType;
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.impl.FitnessServiceImpl;
+import com.solvd.schoolschedule.service.interfaces.IConflictStrategy;
+
+/**
+ * Throughput of every conflict strategy on one timetable of the instance, copied for every
+ * invocation so the lesson lookups are built as in a real evaluation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ConflictStrategyBenchmark {
+
+    @Param({"ROOM_CONFLICTS", "ROOM_ACCOMODATE", "GROUP_GAPS", "TEACHER_GAPS", "MAX_LESSONS_PER_DAY",
+            "INVALID_ASSIGMENTS", "GROUP_COLLISIONS", "TEACHER_COLLISIONS", "LAST_LESSON", "ADJUSTMENT"})
+    public ConflictType conflictType;
+
+    private SchoolInstance instance;
+    private IConflictStrategy strategy;
+    private Timetable timetable;
+
+    @Setup(Level.Trial)
+    public void setUp(SchoolInstance instance) {
+        strategy = new FitnessServiceImpl(instance.populationService).createConflictStrategies().keySet().stream()
+                .filter(s -> s.getConflictType() == conflictType)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No strategy for " + conflictType));
+        this.instance = instance;
+    }
+
+    @Setup(Level.Invocation)
+    public void copyTimetable() {
+        timetable = instance.copy(0);
+    }
+
+    @Benchmark
+    public int calculateConflicts() {
+        return strategy.calculateConflicts(timetable);
+    }
+}
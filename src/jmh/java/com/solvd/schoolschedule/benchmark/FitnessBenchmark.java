@@ -0,0 +1,47 @@
+package com.solvd.schoolschedule.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.solvd.schoolschedule.model.EvaluationMode;
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.impl.FitnessServiceImpl;
+
+/**
+ * Throughput of a full fitness calculation, with every evaluation mode that scores from scratch.
+ * The timetable is copied for every invocation so the lesson lookups are built as in a real evaluation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class FitnessBenchmark {
+
+    @Param({"STRATEGIES", "FUSED"})
+    public EvaluationMode evaluationMode;
+
+    private SchoolInstance instance;
+    private FitnessServiceImpl fitnessService;
+    private Timetable timetable;
+
+    @Setup(Level.Trial)
+    public void setUp(SchoolInstance instance) {
+        fitnessService = new FitnessServiceImpl(instance.populationService, 1, evaluationMode);
+        this.instance = instance;
+    }
+
+    @Setup(Level.Invocation)
+    public void copyTimetable() {
+        timetable = instance.copy(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fitnessService.close();
+    }
+
+    @Benchmark
+    public double calculateFitness() {
+        return fitnessService.calculateFitness(timetable);
+    }
+}
@@ -0,0 +1,96 @@
+package com.solvd.schoolschedule.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.solvd.schoolschedule.model.GeneticAlgorithmSettings;
+import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.impl.ConstraintRepairOperator;
+import com.solvd.schoolschedule.service.impl.FitnessServiceImpl;
+import com.solvd.schoolschedule.service.impl.GeneticOperatorServiceImpl;
+import com.solvd.schoolschedule.service.impl.SelectionServiceImpl;
+
+/**
+ * Throughput of the genetic operators, tournament selection and one full generation step.
+ * The services are set up as a sequential run of the engine sets them up with the default
+ * {@link GeneticAlgorithmSettings} and {@link SchoolConfig}, and the parents are copied for every
+ * invocation so their lesson lookups and hashes are built as in a real generation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class GeneticOperatorBenchmark {
+
+    private SchoolInstance instance;
+    private FitnessServiceImpl fitnessService;
+    private GeneticOperatorServiceImpl geneticOperatorService;
+    private SelectionServiceImpl selectionService;
+    private List<Timetable> population;
+    private Timetable parent1;
+    private Timetable parent2;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp(SchoolInstance instance) {
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.defaults();
+        SplittableRandom seed = new SplittableRandom(42);
+        fitnessService = new FitnessServiceImpl(instance.populationService, 1, SchoolConfig.GA_EVALUATION_MODE,
+                settings.getFitnessCacheSize());
+        selectionService = new SelectionServiceImpl(SchoolConfig.GA_TOURNAMENT_SIZE, seed.split());
+        geneticOperatorService = GeneticOperatorServiceImpl.builder(instance.populationService,
+                        SchoolConfig.GA_MUTATION_RATE)
+                .deltaEvaluator(fitnessService.getDeltaEvaluator())
+                .repairOperator(settings.isConstraintRepair()
+                        ? new ConstraintRepairOperator(instance.populationService, fitnessService.getConflictWeights())
+                        : null)
+                .mutationMode(settings.getMutationMode(), SchoolConfig.GA_EXPLORATION_RATE)
+                .conflictMarker(fitnessService::markConflicts)
+                .genomeHashing(fitnessService.getFitnessCache() != null)
+                .random(seed.split())
+                .build();
+        random = seed.split();
+        this.instance = instance;
+    }
+
+    @Setup(Level.Invocation)
+    public void copyParents() {
+        population = instance.copyPopulation();
+        parent1 = population.get(0);
+        parent2 = population.get(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geneticOperatorService.close();
+        fitnessService.close();
+    }
+
+    @Benchmark
+    public Timetable crossover() {
+        return geneticOperatorService.crossover(parent1, parent2);
+    }
+
+    @Benchmark
+    public Timetable mutate() {
+        return geneticOperatorService.mutate(parent1);
+    }
+
+    @Benchmark
+    public Timetable[] tournamentSelection() {
+        return selectionService.selectParents(population);
+    }
+
+    @Benchmark
+    public List<Timetable> createNewGeneration() {
+        return geneticOperatorService.createNewGeneration(population, selectionService);
+    }
+
+    @Benchmark
+    public List<Timetable> createNewGenerationSplitRandom() {
+        return geneticOperatorService.createNewGeneration(population, selectionService, random);
+    }
+}
@@ -0,0 +1,76 @@
+package com.solvd.schoolschedule.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.impl.FitnessServiceImpl;
+import com.solvd.schoolschedule.service.impl.PopulationServiceImpl;
+import com.solvd.schoolschedule.util.SyntheticInstanceGenerator;
+
+/**
+ * Benchmark instance: the stock school (4 groups) or a school scaled up to more groups,
+ * with an evaluated random population. With a positive tightness the school is a synthetic
+ * instance of {@link SyntheticInstanceGenerator} instead.
+ *
+ * <p>Timetables cache their lesson lookups and hashes on first use, so benchmarks take
+ * {@link #copy fresh copies} per invocation instead of scoring the same timetable again.</p>
+ */
+@State(Scope.Benchmark)
+public class SchoolInstance {
+
+    /**
+     * Number of student groups, 4 is the stock instance
+     */
+    @Param({"4", "16", "64"})
+    public int groups;
+
+    /**
+     * Tightness of a synthetic instance, 0 scales the stock school
+     */
+    @Param({"0", "0.5", "0.9"})
+    public double tightness;
+
+    public PopulationServiceImpl populationService;
+    public List<Timetable> population;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        populationService = tightness > 0
+                ? new PopulationServiceImpl(new SyntheticInstanceGenerator(42).generate(groups, tightness))
+                : new PopulationServiceImpl(groups);
+        population = populationService.initializePopulation(SchoolConfig.GA_POPULATION_SIZE, new SplittableRandom(42));
+        new FitnessServiceImpl(populationService).evaluatePopulation(population);
+    }
+
+    /**
+     * Copy of an evaluated timetable, keeping its fitness and conflict marks but none of its cached lookups
+     *
+     * @param index position in the population
+     * @return fresh copy
+     */
+    public Timetable copy(int index) {
+        Timetable timetable = population.get(index);
+        Timetable copy = timetable.copy();
+        copy.setFitness(timetable.getFitness());
+        copy.setConflictMask(timetable.getConflictMask());
+        return copy;
+    }
+
+    /**
+     * Fresh copies of the whole population, see {@link #copy(int)}
+     *
+     * @return copied population
+     */
+    public List<Timetable> copyPopulation() {
+        List<Timetable> copies = new ArrayList<>(population.size());
+        for (int i = 0; i < population.size(); i++) {
+            copies.add(copy(i));
+        }
+        return copies;
+    }
+}
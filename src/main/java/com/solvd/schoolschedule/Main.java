@@ -1,5 +1,12 @@
 package com.solvd.schoolschedule;
 
+import java.nio.file.Path;
+
+import com.solvd.schoolschedule.model.GeneticAlgorithmSettings;
+import com.solvd.schoolschedule.model.ProblemDefinition;
+import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.service.impl.PopulationServiceImpl;
+import com.solvd.schoolschedule.service.impl.SimulatedAnnealingGeneratorServiceImpl;
 import com.solvd.schoolschedule.service.impl.TimetableGeneratorServiceImpl;
 import com.solvd.schoolschedule.service.interfaces.ITimetableGeneratorService;
 import com.solvd.schoolschedule.util.DatabaseInitializer;
@@ -11,21 +18,34 @@ import com.solvd.schoolschedule.util.DatabaseInitializer;
  *
  * <p>The application flow:</p>
  * <ol>
- *   <li>Initialize the database with reference data (subjects, groups, teachers, classrooms)</li>
+ *   <li>Initialize the database with the reference data of the school (subjects, groups, teachers, classrooms)</li>
  *   <li>Run the genetic algorithm to generate an optimized timetable</li>
  *   <li>Persist the best timetable to the database</li>
  *   <li>Display the timetable in the console</li>
  * </ol>
+ *
+ * <p>The stock school of {@link SchoolConfig} is scheduled unless the path of a problem
+ * definition properties file is given as the first argument, see {@link ProblemDefinition}.
+ * The same file may enable the optional modes of the genetic algorithm, see {@link GeneticAlgorithmSettings}.</p>
  */
 public class Main {
     public static void main(String[] args) {
 
-        // Initialize database with initial data (except for timetable and lesson tables)
+        ProblemDefinition problem = args.length > 0 ? ProblemDefinition.load(Path.of(args[0]))
+                : ProblemDefinition.defaults();
+        GeneticAlgorithmSettings settings = args.length > 0 ? GeneticAlgorithmSettings.load(Path.of(args[0]))
+                : GeneticAlgorithmSettings.defaults();
+
+        // Initialize database with the school of the problem (except for timetable and lesson tables),
+        // so the lessons of its timetables reference existing groups, teachers and classrooms
         DatabaseInitializer initializer = new DatabaseInitializer();
-        initializer.populateDatabase();
+        initializer.populateDatabase(new PopulationServiceImpl(problem).getCatalog());
 
-        // Generate optimized timetable using genetic algorithm
-        ITimetableGeneratorService timetableGenerator = new TimetableGeneratorServiceImpl();
+        // Generate optimized timetable using the configured search algorithm
+        ITimetableGeneratorService timetableGenerator = switch (SchoolConfig.SOLVER_TYPE) {
+            case GENETIC_ALGORITHM -> new TimetableGeneratorServiceImpl(problem, settings);
+            case SIMULATED_ANNEALING -> new SimulatedAnnealingGeneratorServiceImpl(problem);
+        };
         timetableGenerator.findSolution(10);
 
     }
@@ -7,6 +7,7 @@ import java.util.List;
 import com.solvd.schoolschedule.dao.interfaces.ITimetableDAO;
 import com.solvd.schoolschedule.model.Timetable;
 import com.solvd.schoolschedule.util.ConnectionPool;
+import com.solvd.schoolschedule.util.jfr.TimetablePersistEvent;
 
 /**
  * Implementation of {@link ITimetableDAO} for Timetable entity persistence.
@@ -36,6 +37,8 @@ public class TimetableDAOImpl implements ITimetableDAO {
     public void create(Timetable timetable) {
         String sql = "INSERT INTO timetable (name, fitness_score, generation_number) VALUES (?, ?, ?)";
         Connection conn = null;
+        TimetablePersistEvent event = new TimetablePersistEvent();
+        event.begin();
         try {
             conn = connectionPool.getConnection();
             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
@@ -64,6 +67,13 @@ public class TimetableDAOImpl implements ITimetableDAO {
                 connectionPool.releaseConnection(conn);
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.fitness = timetable.getFitness();
+            event.generation = timetable.getGeneration();
+            event.lessonCount = timetable.getLessons().size();
+            event.commit();
+        }
     }
 
     /**
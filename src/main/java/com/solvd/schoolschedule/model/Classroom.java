@@ -48,6 +48,11 @@ public class Classroom implements ITimetableFilter {
         return id == classroom.id;
     }
 
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
     /**
      * Get the ITimetableFilter object from a lesson.
      * In this case, get classroom.
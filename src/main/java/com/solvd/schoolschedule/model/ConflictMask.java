@@ -0,0 +1,73 @@
+package com.solvd.schoolschedule.model;
+
+import java.util.BitSet;
+
+/**
+ * Positions of the lessons of one timetable found in a conflict during one evaluation.
+ *
+ * <p>Every evaluation writes into its own mask, so scoring never changes the lessons, which
+ * stay shareable between timetables and threads. A lesson is marked at every position the
+ * timetable holds it. The finished mask is published with {@link Timetable#setConflictMask(BitSet)}.</p>
+ */
+public final class ConflictMask {
+
+    private static final ConflictMask DISCARDING = new ConflictMask(null);
+
+    private final Timetable timetable;
+    private final BitSet positions;
+
+    /**
+     * @param timetable the timetable being evaluated
+     */
+    public ConflictMask(Timetable timetable) {
+        this.timetable = timetable;
+        this.positions = new BitSet(timetable != null ? timetable.getLessons().size() : 0);
+    }
+
+    /**
+     * A mask ignoring every mark, for callers that only need the conflict counts
+     *
+     * @return shared discarding mask
+     */
+    public static ConflictMask discarding() {
+        return DISCARDING;
+    }
+
+    /**
+     * Mark a lesson of the timetable as conflicted
+     *
+     * @param lesson the lesson
+     */
+    public void mark(Lesson lesson) {
+        if (timetable == null) {
+            return;
+        }
+        for (int position : timetable.getPositionsOf(lesson)) {
+            positions.set(position);
+        }
+    }
+
+    /**
+     * Mark a lesson position as conflicted
+     *
+     * @param position the position
+     */
+    public void mark(int position) {
+        if (timetable != null) {
+            positions.set(position);
+        }
+    }
+
+    public boolean isMarked(int position) {
+        return positions.get(position);
+    }
+
+    /**
+     * Returns a copy of the marked positions
+     *
+     * @return marked positions
+     */
+    public BitSet toBitSet() {
+        return (BitSet) positions.clone();
+    }
+}
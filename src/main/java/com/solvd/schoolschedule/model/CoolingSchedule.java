@@ -0,0 +1,45 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * Temperature of simulated annealing after a number of steps since the last (re)heat.
+ * The cooling rate is the share of the temperature kept per step, e.g. 0.9999.
+ */
+public enum CoolingSchedule {
+    /**
+     * T = T0 * rate^step
+     */
+    GEOMETRIC {
+        @Override
+        public double temperature(double initialTemperature, double coolingRate, long step) {
+            return initialTemperature * Math.pow(coolingRate, step);
+        }
+    },
+    /**
+     * T = T0 * (1 - (1 - rate) * step), down to 0
+     */
+    LINEAR {
+        @Override
+        public double temperature(double initialTemperature, double coolingRate, long step) {
+            return initialTemperature * Math.max(0, 1 - (1 - coolingRate) * step);
+        }
+    },
+    /**
+     * T = T0 / (1 + ln(1 + (1 - rate) * step)), slow cooling that never reaches 0
+     */
+    LOGARITHMIC {
+        @Override
+        public double temperature(double initialTemperature, double coolingRate, long step) {
+            return initialTemperature / (1 + Math.log1p((1 - coolingRate) * step));
+        }
+    };
+
+    /**
+     * Temperature after a number of steps
+     *
+     * @param initialTemperature temperature at step 0
+     * @param coolingRate        share of the temperature kept per step, between 0 and 1
+     * @param step               steps since the last (re)heat
+     * @return temperature
+     */
+    public abstract double temperature(double initialTemperature, double coolingRate, long step);
+}
@@ -0,0 +1,77 @@
+package com.solvd.schoolschedule.model;
+
+import java.util.List;
+
+/**
+ * Two preallocated encoded populations of the same size, used in turn as parents and offspring.
+ *
+ * <p>A generation is bred by writing the offspring genes into the timetables of the next
+ * buffer, then {@link #swap() swapping} the buffers. The timetables and their gene arrays
+ * are recycled from one generation to the next, so a steady-state generation allocates
+ * nothing.</p>
+ */
+public final class DoubleBufferedPopulation {
+    private EncodedTimetable[] current;
+    private EncodedTimetable[] next;
+
+    /**
+     * @param initial evaluated starting population, becomes the current buffer
+     * @throws IllegalArgumentException if the population is empty
+     */
+    public DoubleBufferedPopulation(List<EncodedTimetable> initial) {
+        if (initial.isEmpty()) {
+            throw new IllegalArgumentException("Population must not be empty");
+        }
+        this.current = initial.toArray(new EncodedTimetable[0]);
+        this.next = new EncodedTimetable[current.length];
+        for (int i = 0; i < next.length; i++) {
+            next[i] = current[i].copy();
+        }
+    }
+
+    public int size() {
+        return current.length;
+    }
+
+    /**
+     * Current generation. The array is shared and its timetables are recycled after two swaps.
+     *
+     * @return current timetables
+     */
+    public EncodedTimetable[] getCurrent() {
+        return current;
+    }
+
+    /**
+     * Buffer the next generation is written into
+     *
+     * @return recycled timetables
+     */
+    public EncodedTimetable[] getNext() {
+        return next;
+    }
+
+    /**
+     * Make the next generation current, the old current buffer becomes the next one
+     */
+    public void swap() {
+        EncodedTimetable[] previous = current;
+        current = next;
+        next = previous;
+    }
+
+    /**
+     * Best timetable of the current generation, the first one on ties
+     *
+     * @return best timetable
+     */
+    public EncodedTimetable getBest() {
+        EncodedTimetable best = current[0];
+        for (int i = 1; i < current.length; i++) {
+            if (current[i].getFitness() > best.getFitness()) {
+                best = current[i];
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,222 @@
+package com.solvd.schoolschedule.model;
+
+import com.solvd.schoolschedule.util.ZobristHash;
+
+/**
+ * A timetable stored as one packed (slot, classroom) gene per lesson position.
+ * The group, subject and teacher of each position come from the shared {@link TimetableEncoding}.
+ */
+public class EncodedTimetable {
+    private final TimetableEncoding encoding;
+    private final short[] genes;
+    private double fitness;
+    private int generation;
+    private long genomeHash;
+    private boolean genomeHashed;
+    /**
+     * Zobrist hash of each group block, allocated on first use and reused, valid if blocksHashed
+     */
+    private long[] blockHashes;
+    private boolean blocksHashed;
+
+    /**
+     * @param encoding shared layout
+     * @param genes    genes, owned by the new timetable
+     */
+    public EncodedTimetable(TimetableEncoding encoding, short[] genes) {
+        if (genes.length != encoding.size()) {
+            throw new IllegalArgumentException("Expected " + encoding.size() + " genes but got " + genes.length);
+        }
+        this.encoding = encoding;
+        this.genes = genes;
+    }
+
+    public TimetableEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Returns the gene array itself, so operators can read it without copying
+     *
+     * @return genes
+     */
+    public short[] getGenes() {
+        return genes;
+    }
+
+    public double getFitness() {
+        return fitness;
+    }
+
+    public void setFitness(double fitness) {
+        this.fitness = fitness;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(int generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Returns the Zobrist hash of the genes, computed on first use.
+     * Genes rewritten in place after the hash has been computed need {@link #resetGenomeHash()},
+     * or have to be written through {@link #setGene}.
+     *
+     * @return genome hash
+     */
+    public long getGenomeHash() {
+        if (!genomeHashed) {
+            hashBlocks();
+        }
+        return genomeHash;
+    }
+
+    /**
+     * Returns the Zobrist hash of one group block, the genome hash is the XOR of all of them
+     *
+     * @param block block index of the encoding
+     * @return block hash
+     */
+    public long getBlockHash(int block) {
+        if (!blocksHashed) {
+            hashBlocks();
+        }
+        return blockHashes[block];
+    }
+
+    private void hashBlocks() {
+        if (blockHashes == null) {
+            blockHashes = new long[encoding.getBlockCount()];
+        }
+        long hash = 0;
+        for (int block = 0; block < blockHashes.length; block++) {
+            long blockHash = 0;
+            for (int i = encoding.getBlockStart(block); i < encoding.getBlockEnd(block); i++) {
+                blockHash ^= ZobristHash.key(i, genes[i]);
+            }
+            blockHashes[block] = blockHash;
+            hash ^= blockHash;
+        }
+        genomeHash = hash;
+        genomeHashed = true;
+        blocksHashed = true;
+    }
+
+    /**
+     * Sets a genome hash that is already known, e.g. updated incrementally by an operator
+     *
+     * @param genomeHash Zobrist hash of the current genes
+     */
+    public void setGenomeHash(long genomeHash) {
+        this.genomeHash = genomeHash;
+        this.genomeHashed = true;
+        this.blocksHashed = false;
+    }
+
+    /**
+     * Sets the hash of one group block that is already known, e.g. of the parent block the crossover
+     * copied. Once every block is set, {@link #completeBlockHashes()} derives the genome hash.
+     *
+     * @param block     block index of the encoding
+     * @param blockHash Zobrist hash of the current genes of the block
+     */
+    public void setBlockHash(int block, long blockHash) {
+        if (blockHashes == null) {
+            blockHashes = new long[encoding.getBlockCount()];
+        }
+        blockHashes[block] = blockHash;
+    }
+
+    /**
+     * Takes the hashes set for every block as known, the genome hash being their XOR
+     */
+    public void completeBlockHashes() {
+        long hash = 0;
+        for (long blockHash : blockHashes) {
+            hash ^= blockHash;
+        }
+        genomeHash = hash;
+        genomeHashed = true;
+        blocksHashed = true;
+    }
+
+    /**
+     * Rewrites one gene in place, updating the hashes if they are known
+     *
+     * @param block    block index of the position
+     * @param position gene position
+     * @param gene     new gene
+     */
+    public void setGene(int block, int position, short gene) {
+        if (genomeHashed) {
+            long delta = ZobristHash.key(position, genes[position]) ^ ZobristHash.key(position, gene);
+            genomeHash ^= delta;
+            if (blocksHashed) {
+                blockHashes[block] ^= delta;
+            }
+        }
+        genes[position] = gene;
+    }
+
+    /**
+     * Forget the genome hash, after the genes were rewritten in place
+     */
+    public void resetGenomeHash() {
+        this.genomeHashed = false;
+        this.blocksHashed = false;
+    }
+
+    /**
+     * Overwrite this timetable with the genes, fitness, generation and hash of another one,
+     * reusing the gene array
+     *
+     * @param other timetable of the same encoding
+     */
+    public void copyFrom(EncodedTimetable other) {
+        if (other.encoding != encoding) {
+            throw new IllegalArgumentException("Timetables use different encodings");
+        }
+        System.arraycopy(other.genes, 0, genes, 0, genes.length);
+        this.fitness = other.fitness;
+        this.generation = other.generation;
+        copyHashes(other);
+    }
+
+    /**
+     * Copy with the same genes and hashes, but no fitness
+     *
+     * @return copy
+     */
+    public EncodedTimetable copy() {
+        EncodedTimetable copy = new EncodedTimetable(encoding, genes.clone());
+        copy.copyHashes(this);
+        return copy;
+    }
+
+    private void copyHashes(EncodedTimetable other) {
+        this.genomeHash = other.genomeHash;
+        this.genomeHashed = other.genomeHashed;
+        this.blocksHashed = other.blocksHashed;
+        if (other.blocksHashed) {
+            if (blockHashes == null) {
+                blockHashes = new long[other.blockHashes.length];
+            }
+            System.arraycopy(other.blockHashes, 0, blockHashes, 0, blockHashes.length);
+        }
+    }
+
+    /**
+     * Decode into a regular timetable with the same fitness and generation
+     *
+     * @return decoded timetable
+     */
+    public Timetable decode() {
+        Timetable timetable = encoding.decode(genes);
+        timetable.setFitness(fitness);
+        timetable.setGeneration(generation);
+        return timetable;
+    }
+}
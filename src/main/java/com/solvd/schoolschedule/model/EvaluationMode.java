@@ -0,0 +1,20 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * How the fitness service counts the conflicts of a timetable.
+ */
+public enum EvaluationMode {
+    /**
+     * Every conflict strategy walks the timetable separately (reference implementation)
+     */
+    STRATEGIES,
+    /**
+     * All conflict types are counted in one sweep over the lessons
+     */
+    FUSED,
+    /**
+     * Occupancy counters are kept per timetable and offspring are scored
+     * from their parent's counters, re-evaluating only the changed lessons
+     */
+    INCREMENTAL
+}
@@ -0,0 +1,475 @@
+package com.solvd.schoolschedule.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Run settings of the genetic algorithm that can differ between two generators of one process.
+ *
+ * <p>Instances are immutable. {@link #defaults()} reads {@link SchoolConfig}, {@link #builder()}
+ * starts from the same values. Parameters not listed here are read from {@link SchoolConfig} directly.
+ * {@link #load(Properties)} reads settings from keys named after the builder methods, like</p>
+ * <pre>
+ * ga.maxGenerations=2000
+ * ga.stagnationWindow=100
+ * ga.adaptiveParameters=true
+ * ga.memeticElites=2
+ * ga.constraintRepair=true
+ * ga.mutationMode=TARGETED
+ * ga.seedingRatio=0.2
+ * ga.exactPresolve=true
+ * </pre>
+ * <p>Missing keys keep their default value.</p>
+ */
+public final class GeneticAlgorithmSettings {
+
+    private static final String PREFIX = "ga.";
+
+    private final int maxGenerations;
+    private final int attemptConcurrency;
+    private final int islandCount;
+    private final boolean exactPresolve;
+    private final boolean encodedChromosomes;
+    private final int stagnationWindow;
+    private final boolean adaptiveParameters;
+    private final int memeticElites;
+    private final boolean profiling;
+    private final int fitnessCacheSize;
+    private final double seedingRatio;
+    private final boolean constraintRepair;
+    private final MutationMode mutationMode;
+
+    private GeneticAlgorithmSettings(Builder builder) {
+        this.maxGenerations = builder.maxGenerations;
+        this.attemptConcurrency = builder.attemptConcurrency;
+        this.islandCount = builder.islandCount;
+        this.exactPresolve = builder.exactPresolve;
+        this.encodedChromosomes = builder.encodedChromosomes;
+        this.stagnationWindow = builder.stagnationWindow;
+        this.adaptiveParameters = builder.adaptiveParameters;
+        this.memeticElites = builder.memeticElites;
+        this.profiling = builder.profiling;
+        this.fitnessCacheSize = builder.fitnessCacheSize;
+        this.seedingRatio = builder.seedingRatio;
+        this.constraintRepair = builder.constraintRepair;
+        this.mutationMode = builder.mutationMode;
+    }
+
+    /**
+     * The settings of {@link SchoolConfig}
+     *
+     * @return the default settings
+     */
+    public static GeneticAlgorithmSettings defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Starts building settings from the values of {@link SchoolConfig}
+     *
+     * @return a builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads settings from properties, missing keys keep the value of {@link #defaults()}
+     *
+     * @param properties settings properties
+     * @return the settings
+     * @throws IllegalArgumentException if a value is not a number, not a mutation mode or out of range
+     */
+    public static GeneticAlgorithmSettings load(Properties properties) {
+        GeneticAlgorithmSettings defaults = defaults();
+        return builder()
+                .maxGenerations(intProperty(properties, "maxGenerations", defaults.maxGenerations))
+                .attemptConcurrency(intProperty(properties, "attemptConcurrency", defaults.attemptConcurrency))
+                .islandCount(intProperty(properties, "islandCount", defaults.islandCount))
+                .exactPresolve(booleanProperty(properties, "exactPresolve", defaults.exactPresolve))
+                .encodedChromosomes(booleanProperty(properties, "encodedChromosomes", defaults.encodedChromosomes))
+                .stagnationWindow(intProperty(properties, "stagnationWindow", defaults.stagnationWindow))
+                .adaptiveParameters(booleanProperty(properties, "adaptiveParameters", defaults.adaptiveParameters))
+                .memeticElites(intProperty(properties, "memeticElites", defaults.memeticElites))
+                .profiling(booleanProperty(properties, "profiling", defaults.profiling))
+                .fitnessCacheSize(intProperty(properties, "fitnessCacheSize", defaults.fitnessCacheSize))
+                .seedingRatio(doubleProperty(properties, "seedingRatio", defaults.seedingRatio))
+                .constraintRepair(booleanProperty(properties, "constraintRepair", defaults.constraintRepair))
+                .mutationMode(mutationModeProperty(properties, "mutationMode", defaults.mutationMode))
+                .build();
+    }
+
+    /**
+     * Reads settings from a properties file
+     *
+     * @param path the properties file
+     * @return the settings
+     * @throws UncheckedIOException     if the file cannot be read
+     * @throws IllegalArgumentException if a value is not a number, not a mutation mode or out of range
+     */
+    public static GeneticAlgorithmSettings load(Path path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read genetic algorithm settings " + path, e);
+        }
+        return load(properties);
+    }
+
+    /**
+     * Copy of these settings with another chromosome representation
+     *
+     * @param encodedChromosomes evolve compact short[] chromosomes instead of lesson lists
+     * @return the changed copy
+     */
+    public GeneticAlgorithmSettings withEncodedChromosomes(boolean encodedChromosomes) {
+        return toBuilder().encodedChromosomes(encodedChromosomes).build();
+    }
+
+    private Builder toBuilder() {
+        return builder()
+                .maxGenerations(maxGenerations)
+                .attemptConcurrency(attemptConcurrency)
+                .islandCount(islandCount)
+                .exactPresolve(exactPresolve)
+                .encodedChromosomes(encodedChromosomes)
+                .stagnationWindow(stagnationWindow)
+                .adaptiveParameters(adaptiveParameters)
+                .memeticElites(memeticElites)
+                .profiling(profiling)
+                .fitnessCacheSize(fitnessCacheSize)
+                .seedingRatio(seedingRatio)
+                .constraintRepair(constraintRepair)
+                .mutationMode(mutationMode);
+    }
+
+    private static String property(Properties properties, String key) {
+        String value = properties.getProperty(PREFIX + key);
+        return value == null ? null : value.trim();
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = property(properties, key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX + key + ": " + value, e);
+        }
+    }
+
+    private static double doubleProperty(Properties properties, String key, double defaultValue) {
+        String value = property(properties, key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX + key + ": " + value, e);
+        }
+    }
+
+    private static boolean booleanProperty(Properties properties, String key, boolean defaultValue) {
+        String value = property(properties, key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX + key + ": " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static MutationMode mutationModeProperty(Properties properties, String key, MutationMode defaultValue) {
+        String value = property(properties, key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return MutationMode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX + key + ": " + value, e);
+        }
+    }
+
+    public int getMaxGenerations() {
+        return maxGenerations;
+    }
+
+    public int getAttemptConcurrency() {
+        return attemptConcurrency;
+    }
+
+    public int getIslandCount() {
+        return islandCount;
+    }
+
+    public boolean isExactPresolve() {
+        return exactPresolve;
+    }
+
+    public boolean isEncodedChromosomes() {
+        return encodedChromosomes;
+    }
+
+    public int getStagnationWindow() {
+        return stagnationWindow;
+    }
+
+    public boolean isAdaptiveParameters() {
+        return adaptiveParameters;
+    }
+
+    public int getMemeticElites() {
+        return memeticElites;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    public int getFitnessCacheSize() {
+        return fitnessCacheSize;
+    }
+
+    public double getSeedingRatio() {
+        return seedingRatio;
+    }
+
+    public boolean isConstraintRepair() {
+        return constraintRepair;
+    }
+
+    public MutationMode getMutationMode() {
+        return mutationMode;
+    }
+
+    @Override
+    public String toString() {
+        return "GeneticAlgorithmSettings{" +
+                "maxGenerations=" + maxGenerations +
+                ", attemptConcurrency=" + attemptConcurrency +
+                ", islandCount=" + islandCount +
+                ", exactPresolve=" + exactPresolve +
+                ", encodedChromosomes=" + encodedChromosomes +
+                ", stagnationWindow=" + stagnationWindow +
+                ", adaptiveParameters=" + adaptiveParameters +
+                ", memeticElites=" + memeticElites +
+                ", profiling=" + profiling +
+                ", fitnessCacheSize=" + fitnessCacheSize +
+                ", seedingRatio=" + seedingRatio +
+                ", constraintRepair=" + constraintRepair +
+                ", mutationMode=" + mutationMode +
+                '}';
+    }
+
+    /**
+     * Options of a {@link GeneticAlgorithmSettings}, initialized from {@link SchoolConfig}
+     */
+    public static final class Builder {
+
+        private int maxGenerations = SchoolConfig.GA_MAX_GENERATIONS;
+        private int attemptConcurrency = SchoolConfig.GA_ATTEMPT_CONCURRENCY;
+        private int islandCount = SchoolConfig.GA_ISLAND_COUNT;
+        private boolean exactPresolve = SchoolConfig.GA_EXACT_PRESOLVE;
+        private boolean encodedChromosomes = SchoolConfig.GA_ENCODED_CHROMOSOMES;
+        private int stagnationWindow = SchoolConfig.GA_STAGNATION_WINDOW;
+        private boolean adaptiveParameters = SchoolConfig.GA_ADAPTIVE_PARAMETERS;
+        private int memeticElites = SchoolConfig.GA_MEMETIC_ELITES;
+        private boolean profiling = SchoolConfig.GA_PROFILING;
+        private int fitnessCacheSize = SchoolConfig.GA_FITNESS_CACHE_SIZE;
+        private double seedingRatio = SchoolConfig.GA_SEEDING_RATIO;
+        private boolean constraintRepair = SchoolConfig.GA_CONSTRAINT_REPAIR;
+        private MutationMode mutationMode = SchoolConfig.GA_MUTATION_MODE;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxGenerations generations per attempt
+         * @return this builder
+         */
+        public Builder maxGenerations(int maxGenerations) {
+            if (maxGenerations < 0) {
+                throw new IllegalArgumentException("Maximum generations must be at least 0: " + maxGenerations);
+            }
+            this.maxGenerations = maxGenerations;
+            return this;
+        }
+
+        /**
+         * @param attemptConcurrency attempts of findSolution running at the same time, 1 = one after another
+         * @return this builder
+         */
+        public Builder attemptConcurrency(int attemptConcurrency) {
+            if (attemptConcurrency < 1) {
+                throw new IllegalArgumentException("Attempt concurrency must be at least 1: " + attemptConcurrency);
+            }
+            this.attemptConcurrency = attemptConcurrency;
+            return this;
+        }
+
+        /**
+         * @param islandCount populations evolved in parallel by every attempt, 1 = a single population
+         * @return this builder
+         */
+        public Builder islandCount(int islandCount) {
+            if (islandCount < 1) {
+                throw new IllegalArgumentException("Island count must be at least 1: " + islandCount);
+            }
+            this.islandCount = islandCount;
+            return this;
+        }
+
+        /**
+         * @param exactPresolve solve the hard rules exactly before evolving
+         * @return this builder
+         */
+        public Builder exactPresolve(boolean exactPresolve) {
+            this.exactPresolve = exactPresolve;
+            return this;
+        }
+
+        /**
+         * @param encodedChromosomes evolve compact short[] chromosomes instead of lesson lists, without
+         *                           the modes that only apply to lesson chromosomes
+         * @return this builder
+         */
+        public Builder encodedChromosomes(boolean encodedChromosomes) {
+            this.encodedChromosomes = encodedChromosomes;
+            return this;
+        }
+
+        /**
+         * @param stagnationWindow generations without improvement before a partial restart, 0 = never restart
+         * @return this builder
+         */
+        public Builder stagnationWindow(int stagnationWindow) {
+            if (stagnationWindow < 0) {
+                throw new IllegalArgumentException("Stagnation window must be at least 0: " + stagnationWindow);
+            }
+            this.stagnationWindow = stagnationWindow;
+            return this;
+        }
+
+        /**
+         * @param adaptiveParameters adapt mutation rate, tournament size and population size of lesson
+         *                           chromosomes during the run
+         * @return this builder
+         */
+        public Builder adaptiveParameters(boolean adaptiveParameters) {
+            this.adaptiveParameters = adaptiveParameters;
+            return this;
+        }
+
+        /**
+         * @param memeticElites best lesson timetables improved by tabu search every
+         *                      {@link SchoolConfig#GA_MEMETIC_INTERVAL} generations, 0 = no local search
+         * @return this builder
+         */
+        public Builder memeticElites(int memeticElites) {
+            if (memeticElites < 0) {
+                throw new IllegalArgumentException("Memetic elites must be at least 0: " + memeticElites);
+            }
+            this.memeticElites = memeticElites;
+            return this;
+        }
+
+        /**
+         * @param profiling record every attempt per phase and display its profile report at the end
+         * @return this builder
+         */
+        public Builder profiling(boolean profiling) {
+            this.profiling = profiling;
+            return this;
+        }
+
+        /**
+         * @param fitnessCacheSize fitness values memoized by genome hash per attempt, 0 = no cache
+         * @return this builder
+         */
+        public Builder fitnessCacheSize(int fitnessCacheSize) {
+            if (fitnessCacheSize < 0) {
+                throw new IllegalArgumentException("Fitness cache size must be at least 0: " + fitnessCacheSize);
+            }
+            this.fitnessCacheSize = fitnessCacheSize;
+            return this;
+        }
+
+        /**
+         * @param seedingRatio share of every new population built with the greedy colouring heuristic,
+         *                     0 = fully random populations
+         * @return this builder
+         */
+        public Builder seedingRatio(double seedingRatio) {
+            if (!(seedingRatio >= 0 && seedingRatio <= 1)) {
+                throw new IllegalArgumentException("Seeding ratio must be in [0, 1]: " + seedingRatio);
+            }
+            this.seedingRatio = seedingRatio;
+            return this;
+        }
+
+        /**
+         * @param constraintRepair repair the hard rules of every lesson offspring
+         * @return this builder
+         */
+        public Builder constraintRepair(boolean constraintRepair) {
+            this.constraintRepair = constraintRepair;
+            return this;
+        }
+
+        /**
+         * @param mutationMode how lessons are picked for mutation
+         * @return this builder
+         */
+        public Builder mutationMode(MutationMode mutationMode) {
+            if (mutationMode == null) {
+                throw new IllegalArgumentException("Mutation mode must not be null");
+            }
+            this.mutationMode = mutationMode;
+            return this;
+        }
+
+        /**
+         * @return the settings
+         * @throws IllegalArgumentException if encoded chromosomes are combined with partial restarts, adaptive
+         *                                  parameters, memetic elites, constraint repair or targeted mutation,
+         *                                  which only apply to lesson chromosomes
+         */
+        public GeneticAlgorithmSettings build() {
+            if (encodedChromosomes) {
+                List<String> lessonModes = new ArrayList<>();
+                if (stagnationWindow > 0) {
+                    lessonModes.add("stagnationWindow=" + stagnationWindow);
+                }
+                if (adaptiveParameters) {
+                    lessonModes.add("adaptiveParameters");
+                }
+                if (memeticElites > 0) {
+                    lessonModes.add("memeticElites=" + memeticElites);
+                }
+                if (constraintRepair) {
+                    lessonModes.add("constraintRepair");
+                }
+                if (mutationMode == MutationMode.TARGETED) {
+                    lessonModes.add("mutationMode=TARGETED");
+                }
+                if (!lessonModes.isEmpty()) {
+                    throw new IllegalArgumentException("Encoded chromosomes do not support " + lessonModes);
+                }
+            }
+            return new GeneticAlgorithmSettings(this);
+        }
+    }
+}
@@ -4,15 +4,14 @@ import com.solvd.schoolschedule.model.interfaces.ITimetableFilter;
 
 /**
  * Represents a lesson in the school schedule.
+ * Immutable, so timetables and threads can share it.
  */
-public class Lesson {
+public final class Lesson {
     private final Subject subject;
     private final Teacher teacher;
     private final Classroom classroom;
     private final TimeSlot timeSlot;
     private final Group group;
-    private boolean conflicted = false;
-
 
     public Lesson(Subject subject, Teacher teacher, Classroom classroom, TimeSlot timeSlot, Group group) {
         this.subject = subject;
@@ -42,14 +41,6 @@ public class Lesson {
         return group;
     }
 
-    public boolean isConflicted() {
-        return conflicted;
-    }
-
-    public void setConflicted(boolean conflicted) {
-        this.conflicted = conflicted;
-    }
-
     @Override
     public String toString() {
         return subject.getDisplayName() + " - " + teacher.getName() + " - " + classroom.getName();
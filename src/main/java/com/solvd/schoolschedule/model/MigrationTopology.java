@@ -0,0 +1,15 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * Which islands receive the emigrants of an island in the island-model genetic algorithm.
+ */
+public enum MigrationTopology {
+    /**
+     * Island i sends its best individuals to island i + 1, the last one to the first
+     */
+    RING,
+    /**
+     * Every island sends its best individuals to every other island
+     */
+    FULLY_CONNECTED
+}
@@ -0,0 +1,16 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * How the genetic operators choose the lessons to mutate.
+ */
+public enum MutationMode {
+    /**
+     * Every lesson is mutated with the mutation rate, conflicted lessons more often
+     */
+    RANDOM,
+    /**
+     * Only the lessons reported in a conflict by the evaluator, plus a few others at the
+     * exploration rate, are mutated, and they are moved to slots where they collide with nothing
+     */
+    TARGETED
+}
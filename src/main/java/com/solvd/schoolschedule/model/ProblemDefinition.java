@@ -0,0 +1,272 @@
+package com.solvd.schoolschedule.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Size of one scheduling problem: the week, the number of groups, the weekly lessons and the
+ * teachers of every subject and the classrooms, plus the population size of the search.
+ *
+ * <p>Instances are immutable and passed to the services at construction, so one process can
+ * solve problems of different sizes without recompiling {@link SchoolConfig}.
+ * {@link #defaults()} is the stock school of {@link SchoolConfig}; {@link #load(Properties)}
+ * reads a problem from keys like</p>
+ * <pre>
+ * school.days=5
+ * school.periodsPerDay=8
+ * school.groups=300
+ * school.populationSize=100
+ * school.lessons.math=6
+ * school.teachers.math=50
+ * school.classrooms.general=120
+ * school.classrooms.physicsLab=10
+ * school.classrooms.computerLab=10
+ * </pre>
+ * <p>Missing keys keep their default value.</p>
+ */
+public final class ProblemDefinition {
+
+    /**
+     * Largest number of periods per day, the fused evaluator keeps the periods of a day in a 64 bit mask
+     */
+    public static final int MAX_PERIODS_PER_DAY = Long.SIZE;
+
+    private static final String PREFIX = "school.";
+
+    private final int days;
+    private final int periodsPerDay;
+    private final int numberOfGroups;
+    private final int populationSize;
+    private final Map<Subject, Integer> weeklyLessons;
+    private final Map<Subject, Integer> teachersPerSubject;
+    private final int generalClassrooms;
+    private final int physicsLabs;
+    private final int computerLabs;
+
+    /**
+     * Problem with the weekly lessons of {@link SubjectConfig}
+     *
+     * @param days               working days per week
+     * @param periodsPerDay      periods per day, at most {@value #MAX_PERIODS_PER_DAY}
+     * @param numberOfGroups     number of student groups
+     * @param populationSize     population size of the genetic algorithm
+     * @param teachersPerSubject number of teachers of every subject, missing subjects get one teacher
+     * @param generalClassrooms  classrooms for every subject but informatics
+     * @param physicsLabs        classrooms for physics only
+     * @param computerLabs       classrooms for informatics only
+     * @throws IllegalArgumentException if a count is out of range
+     */
+    public ProblemDefinition(int days, int periodsPerDay, int numberOfGroups, int populationSize,
+                             Map<Subject, Integer> teachersPerSubject,
+                             int generalClassrooms, int physicsLabs, int computerLabs) {
+        this(days, periodsPerDay, numberOfGroups, populationSize, Map.of(), teachersPerSubject,
+                generalClassrooms, physicsLabs, computerLabs);
+    }
+
+    /**
+     * @param days               working days per week
+     * @param periodsPerDay      periods per day, at most {@value #MAX_PERIODS_PER_DAY}
+     * @param numberOfGroups     number of student groups
+     * @param populationSize     population size of the genetic algorithm
+     * @param weeklyLessons      lessons of every subject per group and week, missing subjects keep {@link SubjectConfig}
+     * @param teachersPerSubject number of teachers of every subject, missing subjects get one teacher
+     * @param generalClassrooms  classrooms for every subject but informatics
+     * @param physicsLabs        classrooms for physics only
+     * @param computerLabs       classrooms for informatics only
+     * @throws IllegalArgumentException if a count is out of range, or if the week and the classrooms
+     *                                  do not fit in a gene of {@link TimetableEncoding}
+     */
+    public ProblemDefinition(int days, int periodsPerDay, int numberOfGroups, int populationSize,
+                             Map<Subject, Integer> weeklyLessons, Map<Subject, Integer> teachersPerSubject,
+                             int generalClassrooms, int physicsLabs, int computerLabs) {
+        requireAtLeast("Working days", days, 1);
+        requireAtLeast("Periods per day", periodsPerDay, 1);
+        if (periodsPerDay > MAX_PERIODS_PER_DAY) {
+            throw new IllegalArgumentException("Periods per day must be at most " + MAX_PERIODS_PER_DAY + ": " + periodsPerDay);
+        }
+        requireAtLeast("Number of groups", numberOfGroups, 1);
+        requireAtLeast("Population size", populationSize, 2);
+        requireAtLeast("General classrooms", generalClassrooms, 0);
+        requireAtLeast("Physics labs", physicsLabs, 0);
+        requireAtLeast("Computer labs", computerLabs, 0);
+
+        long genes = (long) days * periodsPerDay * (generalClassrooms + physicsLabs + computerLabs);
+        if (genes > TimetableEncoding.MAX_GENE_VALUES) {
+            throw new IllegalArgumentException("Too many time slots and classrooms for a gene: " + days * periodsPerDay
+                    + " x " + (generalClassrooms + physicsLabs + computerLabs));
+        }
+
+        Map<Subject, Integer> lessons = new EnumMap<>(Subject.class);
+        Map<Subject, Integer> teachers = new EnumMap<>(Subject.class);
+        for (Subject subject : Subject.values()) {
+            int lessonCount = weeklyLessons.getOrDefault(subject, SubjectConfig.getWeeklyLessons(subject));
+            requireAtLeast("Weekly lessons of " + subject, lessonCount, 1);
+            lessons.put(subject, lessonCount);
+            int count = teachersPerSubject.getOrDefault(subject, 1);
+            requireAtLeast("Teachers of " + subject, count, 1);
+            teachers.put(subject, count);
+        }
+
+        this.days = days;
+        this.periodsPerDay = periodsPerDay;
+        this.numberOfGroups = numberOfGroups;
+        this.populationSize = populationSize;
+        this.weeklyLessons = Collections.unmodifiableMap(lessons);
+        this.teachersPerSubject = Collections.unmodifiableMap(teachers);
+        this.generalClassrooms = generalClassrooms;
+        this.physicsLabs = physicsLabs;
+        this.computerLabs = computerLabs;
+    }
+
+    /**
+     * The stock school of {@link SchoolConfig}: one teacher per subject, three rooms and two labs
+     *
+     * @return the default problem
+     */
+    public static ProblemDefinition defaults() {
+        return new ProblemDefinition(SchoolConfig.WORKING_DAYS_PER_WEEK, SchoolConfig.MAX_PERIODS_PER_DAY,
+                SchoolConfig.NUM_GROUPS, SchoolConfig.GA_POPULATION_SIZE, Map.of(), 3, 1, 1);
+    }
+
+    /**
+     * Reads a problem from properties, missing keys keep the value of {@link #defaults()}
+     *
+     * @param properties problem properties
+     * @return the problem
+     * @throws IllegalArgumentException if a value is not a number or out of range
+     */
+    public static ProblemDefinition load(Properties properties) {
+        ProblemDefinition defaults = defaults();
+        Map<Subject, Integer> lessons = new EnumMap<>(Subject.class);
+        Map<Subject, Integer> teachers = new EnumMap<>(Subject.class);
+        for (Subject subject : Subject.values()) {
+            lessons.put(subject, intProperty(properties, "lessons." + subject.name().toLowerCase(Locale.ROOT),
+                    defaults.getWeeklyLessons(subject)));
+            teachers.put(subject, intProperty(properties, "teachers." + subject.name().toLowerCase(Locale.ROOT),
+                    defaults.getTeachers(subject)));
+        }
+        return new ProblemDefinition(
+                intProperty(properties, "days", defaults.days),
+                intProperty(properties, "periodsPerDay", defaults.periodsPerDay),
+                intProperty(properties, "groups", defaults.numberOfGroups),
+                intProperty(properties, "populationSize", defaults.populationSize),
+                lessons,
+                teachers,
+                intProperty(properties, "classrooms.general", defaults.generalClassrooms),
+                intProperty(properties, "classrooms.physicsLab", defaults.physicsLabs),
+                intProperty(properties, "classrooms.computerLab", defaults.computerLabs));
+    }
+
+    /**
+     * Reads a problem from a properties file
+     *
+     * @param path the properties file
+     * @return the problem
+     * @throws UncheckedIOException     if the file cannot be read
+     * @throws IllegalArgumentException if a value is not a number or out of range
+     */
+    public static ProblemDefinition load(Path path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read problem definition " + path, e);
+        }
+        return load(properties);
+    }
+
+    /**
+     * Same problem with another number of groups
+     *
+     * @param groups number of student groups
+     * @return the resized problem
+     */
+    public ProblemDefinition withGroups(int groups) {
+        return new ProblemDefinition(days, periodsPerDay, groups, populationSize, weeklyLessons, teachersPerSubject,
+                generalClassrooms, physicsLabs, computerLabs);
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getPeriodsPerDay() {
+        return periodsPerDay;
+    }
+
+    public int getNumberOfGroups() {
+        return numberOfGroups;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public int getWeeklyLessons(Subject subject) {
+        return weeklyLessons.get(subject);
+    }
+
+    /**
+     * Lessons of one group per week over all subjects
+     *
+     * @return total weekly lessons
+     */
+    public int getTotalWeeklyLessons() {
+        return weeklyLessons.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getTeachers(Subject subject) {
+        return teachersPerSubject.get(subject);
+    }
+
+    public int getGeneralClassrooms() {
+        return generalClassrooms;
+    }
+
+    public int getPhysicsLabs() {
+        return physicsLabs;
+    }
+
+    public int getComputerLabs() {
+        return computerLabs;
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(PREFIX + key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX + key + ": " + value, e);
+        }
+    }
+
+    private static void requireAtLeast(String name, int value, int min) {
+        if (value < min) {
+            throw new IllegalArgumentException(name + " must be at least " + min + ": " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProblemDefinition{" +
+                "days=" + days +
+                ", periodsPerDay=" + periodsPerDay +
+                ", groups=" + numberOfGroups +
+                ", populationSize=" + populationSize +
+                ", weeklyLessons=" + weeklyLessons +
+                ", teachers=" + teachersPerSubject +
+                ", classrooms=" + generalClassrooms + "+" + physicsLabs + "+" + computerLabs +
+                '}';
+    }
+}
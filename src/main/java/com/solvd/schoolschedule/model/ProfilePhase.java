@@ -0,0 +1,25 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * Phases of a generation run measured by the run profiler.
+ */
+public enum ProfilePhase {
+    INITIALIZATION("Initialization"),
+    EVALUATION("Evaluation"),
+    SELECTION("Selection"),
+    CROSSOVER("Crossover"),
+    MUTATION("Mutation"),
+    REPAIR("Repair"),
+    LOCAL_SEARCH("Local search"),
+    PERSISTENCE("Persistence");
+
+    private final String displayName;
+
+    ProfilePhase(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
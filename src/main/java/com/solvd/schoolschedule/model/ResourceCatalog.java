@@ -0,0 +1,300 @@
+package com.solvd.schoolschedule.model;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable lookup tables of the school resources, built once and shared by every service.
+ *
+ * <p>Groups, teachers and classrooms get dense ids (their index in the lists), so
+ * per-resource counters can live in plain arrays. The time slots of the week are
+ * interned flyweights, one per (day, period), indexed {@code day * periods + period}.
+ * The classrooms able to host a subject and the teachers of a subject are precomputed.</p>
+ *
+ * <p>Every (group, subject) pair is assigned one teacher of the subject. Groups are taken in
+ * catalog order and each pair goes to the subject teacher with the fewest weekly lessons so
+ * far, so the lessons of a subject are spread evenly over its teachers.</p>
+ */
+public final class ResourceCatalog {
+    private final List<Group> groups;
+    private final List<Teacher> teachers;
+    private final List<Classroom> classrooms;
+    private final Map<Group, Integer> groupIds = new HashMap<>();
+    private final Map<Teacher, Integer> teacherIds = new HashMap<>();
+    private final Map<Classroom, Integer> classroomIds = new HashMap<>();
+    private final Map<Subject, List<Classroom>> suitableClassrooms = new EnumMap<>(Subject.class);
+    private final Map<Subject, int[]> suitableClassroomIds = new EnumMap<>(Subject.class);
+    private final Map<Subject, List<Teacher>> teachersBySubject = new EnumMap<>(Subject.class);
+    private final int[] weeklyLessons;
+    private final int totalWeeklyLessons;
+    private final Teacher[][] assignedTeachers;
+    private final int[] teacherLoads;
+    private final int days;
+    private final int periods;
+    private final TimeSlot[] timeSlots;
+
+    /**
+     * Builds the catalog with the weekly lessons of {@link SubjectConfig}
+     *
+     * @param groups     student groups
+     * @param teachers   teachers
+     * @param classrooms classrooms
+     * @param days       working days per week
+     * @param periods    periods per day
+     */
+    public ResourceCatalog(List<Group> groups, List<Teacher> teachers, List<Classroom> classrooms,
+                           int days, int periods) {
+        this(groups, teachers, classrooms, days, periods, SubjectConfig::getWeeklyLessons);
+    }
+
+    /**
+     * Builds the catalog
+     *
+     * @param groups        student groups
+     * @param teachers      teachers
+     * @param classrooms    classrooms
+     * @param days          working days per week
+     * @param periods       periods per day
+     * @param weeklyLessons lessons of a subject per group and week
+     */
+    public ResourceCatalog(List<Group> groups, List<Teacher> teachers, List<Classroom> classrooms,
+                           int days, int periods, ToIntFunction<Subject> weeklyLessons) {
+        if (days < 1 || periods < 1) {
+            throw new IllegalArgumentException("Days and periods must be at least 1: " + days + " x " + periods);
+        }
+        this.groups = List.copyOf(groups);
+        this.teachers = List.copyOf(teachers);
+        this.classrooms = List.copyOf(classrooms);
+        for (int g = 0; g < groups.size(); g++) {
+            groupIds.putIfAbsent(groups.get(g), g);
+        }
+        for (int t = 0; t < teachers.size(); t++) {
+            teacherIds.putIfAbsent(teachers.get(t), t);
+        }
+        for (int c = 0; c < classrooms.size(); c++) {
+            classroomIds.putIfAbsent(classrooms.get(c), c);
+        }
+        for (Subject subject : Subject.values()) {
+            int[] suitable = IntStream.range(0, classrooms.size())
+                    .filter(c -> classrooms.get(c).canAccommodate(subject))
+                    .toArray();
+            suitableClassroomIds.put(subject, suitable);
+            suitableClassrooms.put(subject, Arrays.stream(suitable).mapToObj(classrooms::get).toList());
+            teachersBySubject.put(subject, teachers.stream()
+                    .filter(teacher -> teacher.getSubject() == subject)
+                    .toList());
+        }
+
+        this.weeklyLessons = new int[Subject.values().length];
+        for (Subject subject : Subject.values()) {
+            this.weeklyLessons[subject.ordinal()] = weeklyLessons.applyAsInt(subject);
+        }
+        this.totalWeeklyLessons = Arrays.stream(this.weeklyLessons).sum();
+
+        this.teacherLoads = new int[teachers.size()];
+        this.assignedTeachers = new Teacher[groups.size()][Subject.values().length];
+        for (int g = 0; g < groups.size(); g++) {
+            for (Subject subject : Subject.values()) {
+                Teacher leastLoaded = null;
+                for (Teacher teacher : teachersBySubject.get(subject)) {
+                    if (leastLoaded == null || teacherLoads[teacherId(teacher)] < teacherLoads[teacherId(leastLoaded)]) {
+                        leastLoaded = teacher;
+                    }
+                }
+                if (leastLoaded != null) {
+                    assignedTeachers[g][subject.ordinal()] = leastLoaded;
+                    teacherLoads[teacherId(leastLoaded)] += getWeeklyLessons(subject);
+                }
+            }
+        }
+
+        this.days = days;
+        this.periods = periods;
+        this.timeSlots = new TimeSlot[days * periods];
+        for (int day = 0; day < days; day++) {
+            for (int period = 0; period < periods; period++) {
+                timeSlots[day * periods + period] = new TimeSlot(day, period);
+            }
+        }
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public List<Teacher> getTeachers() {
+        return teachers;
+    }
+
+    public List<Classroom> getClassrooms() {
+        return classrooms;
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    public int getTeacherCount() {
+        return teachers.size();
+    }
+
+    public int getClassroomCount() {
+        return classrooms.size();
+    }
+
+    /**
+     * Dense id of a group
+     *
+     * @param group the group
+     * @return id, or -1 if the group is not in the catalog
+     */
+    public int groupId(Group group) {
+        return groupIds.getOrDefault(group, -1);
+    }
+
+    /**
+     * Dense id of a teacher
+     *
+     * @param teacher the teacher
+     * @return id, or -1 if the teacher is not in the catalog
+     */
+    public int teacherId(Teacher teacher) {
+        return teacherIds.getOrDefault(teacher, -1);
+    }
+
+    /**
+     * Dense id of a classroom
+     *
+     * @param classroom the classroom
+     * @return id, or -1 if the classroom is not in the catalog
+     */
+    public int classroomId(Classroom classroom) {
+        return classroomIds.getOrDefault(classroom, -1);
+    }
+
+    public Classroom getClassroom(int classroomId) {
+        return classrooms.get(classroomId);
+    }
+
+    /**
+     * Classrooms able to host a subject, in catalog order
+     *
+     * @param subject the subject
+     * @return read-only list, empty if no classroom can host the subject
+     */
+    public List<Classroom> getSuitableClassrooms(Subject subject) {
+        return suitableClassrooms.get(subject);
+    }
+
+    /**
+     * Ids of the classrooms able to host a subject, in catalog order.
+     * The array is shared and must not be modified.
+     *
+     * @param subject the subject
+     * @return classroom ids
+     */
+    public int[] getSuitableClassroomIds(Subject subject) {
+        return suitableClassroomIds.get(subject);
+    }
+
+    /**
+     * Teachers of a subject, in catalog order
+     *
+     * @param subject the subject
+     * @return read-only list, empty if nobody teaches the subject
+     */
+    public List<Teacher> getTeachers(Subject subject) {
+        return teachersBySubject.get(subject);
+    }
+
+    /**
+     * Teacher assigned to teach a subject to a group
+     *
+     * @param group   the group
+     * @param subject the subject
+     * @return the assigned teacher, the first teacher of the subject for a group outside the catalog
+     * @throws IllegalStateException if nobody teaches the subject
+     */
+    public Teacher getAssignedTeacher(Group group, Subject subject) {
+        List<Teacher> subjectTeachers = teachersBySubject.get(subject);
+        if (subjectTeachers.isEmpty()) {
+            throw new IllegalStateException("No teacher found for subject: " + subject);
+        }
+        int groupId = groupId(group);
+        return groupId < 0 ? subjectTeachers.get(0) : assignedTeachers[groupId][subject.ordinal()];
+    }
+
+    /**
+     * Weekly lessons of a teacher over all its assigned (group, subject) pairs
+     *
+     * @param teacher the teacher
+     * @return number of lessons, 0 for a teacher outside the catalog
+     */
+    public int getTeacherLoad(Teacher teacher) {
+        int teacherId = teacherId(teacher);
+        return teacherId < 0 ? 0 : teacherLoads[teacherId];
+    }
+
+    /**
+     * Lessons of a subject per group and week
+     *
+     * @param subject the subject
+     * @return number of lessons
+     */
+    public int getWeeklyLessons(Subject subject) {
+        return weeklyLessons[subject.ordinal()];
+    }
+
+    public int getTotalWeeklyLessons() {
+        return totalWeeklyLessons;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getPeriods() {
+        return periods;
+    }
+
+    public int getSlotCount() {
+        return timeSlots.length;
+    }
+
+    /**
+     * Interned time slot of a slot index
+     *
+     * @param slot slot index, {@code day * periods + period}
+     * @return the time slot
+     */
+    public TimeSlot getTimeSlot(int slot) {
+        return timeSlots[slot];
+    }
+
+    /**
+     * Interned time slot of a day and period inside the week
+     *
+     * @param day    the day
+     * @param period the period
+     * @return the time slot
+     */
+    public TimeSlot getTimeSlot(int day, int period) {
+        return timeSlots[day * periods + period];
+    }
+
+    /**
+     * Slot index of a time slot
+     *
+     * @param timeSlot the time slot
+     * @return {@code day * periods + period}, or -1 if the time slot is outside the week
+     */
+    public int slotOf(TimeSlot timeSlot) {
+        int day = timeSlot.getDay();
+        int period = timeSlot.getPeriod();
+        if (day < 0 || day >= days || period < 0 || period >= periods) {
+            return -1;
+        }
+        return day * periods + period;
+    }
+}
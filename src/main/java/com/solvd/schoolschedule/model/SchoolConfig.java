@@ -2,6 +2,10 @@ package com.solvd.schoolschedule.model;
 
 /**
  * Central configuration for all school scheduling parameters.
+ *
+ * <p>The optional search modes of the genetic algorithm (targeted mutation, greedy seeding, memetic
+ * elites, adaptive parameters, constraint repair, exact presolve, partial restarts) are off by default.
+ * {@link GeneticAlgorithmSettings} enables them per generator, in code or from a properties file.</p>
  */
 public class SchoolConfig {
 
@@ -61,12 +65,230 @@ public class SchoolConfig {
      */
     public static final double GA_MUTATION_RATE = 0.05;
 
+    /**
+     * How lessons are picked for mutation
+     * RANDOM = every lesson rolls against the mutation rate, TARGETED = lessons the evaluator
+     * reported in a conflict, plus a few others at the exploration rate, moved to free slots
+     */
+    public static final MutationMode GA_MUTATION_MODE = MutationMode.RANDOM;
+
+    /**
+     * Probability that a lesson outside any conflict is mutated anyway, in targeted mutation mode
+     */
+    public static final double GA_EXPLORATION_RATE = 0.01;
+
     /**
      * Tournament size for selection
      * Larger tournament = stronger selection pressure
      */
     public static final int GA_TOURNAMENT_SIZE = 5;
 
+    /**
+     * Share of every new population built with the randomized greedy colouring heuristic
+     * 0 = fully random populations
+     */
+    public static final double GA_SEEDING_RATIO = 0.0;
+
+    /**
+     * Number of best timetables improved by tabu search (memetic mode)
+     * 0 = no local search
+     */
+    public static final int GA_MEMETIC_ELITES = 0;
+
+    /**
+     * Generations between two local searches on the best timetables
+     */
+    public static final int GA_MEMETIC_INTERVAL = 5;
+
+    /**
+     * Tabu search iterations per improved timetable
+     */
+    public static final int GA_TABU_ITERATIONS = 100;
+
+    /**
+     * Number of recently visited timetables that tabu search may not return to
+     */
+    public static final int GA_TABU_TENURE = 50;
+
+    /**
+     * Candidate moves and swaps sampled per tabu search iteration
+     */
+    public static final int GA_TABU_NEIGHBOURHOOD = 40;
+
+    /**
+     * Adapt mutation rate, tournament size and population size during the run
+     * (1/5 success rule, diversity feedback and progress feedback)
+     */
+    public static final boolean GA_ADAPTIVE_PARAMETERS = false;
+
+    /**
+     * Repair collisions, wrong teachers or classrooms and lesson-count mismatches in every offspring
+     */
+    public static final boolean GA_CONSTRAINT_REPAIR = false;
+
+    /**
+     * Solve the hard rules exactly (backtracking) before evolving: an infeasible school is reported
+     * without running the genetic algorithm, and the solution found seeds the population
+     * Off by default: on large schools the search runs up to EXACT_SOLVER_NODE_LIMIT nodes before the first generation
+     */
+    public static final boolean GA_EXACT_PRESOLVE = false;
+
+    /**
+     * Search nodes the exact solver may visit before giving up
+     */
+    public static final long EXACT_SOLVER_NODE_LIMIT = 200_000L;
+
+    /**
+     * Generations without improvement of the best fitness before a partial restart
+     * 0 = never restart
+     */
+    public static final int GA_STAGNATION_WINDOW = 0;
+
+    /**
+     * Population diversity (share of lessons placed differently from the best timetable)
+     * below which a population that stopped improving is restarted
+     */
+    public static final double GA_DIVERSITY_THRESHOLD = 0.02;
+
+    /**
+     * Best timetables kept by a partial restart, the rest of the population is reseeded
+     */
+    public static final int GA_RESTART_ELITE_COUNT = 5;
+
+    /**
+     * Number of worker threads used to evaluate the population fitness
+     * 1 = sequential evaluation on the calling thread
+     */
+    public static final int GA_EVALUATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * How conflicts are counted during fitness evaluation
+     * FUSED = one sweep over the lessons, INCREMENTAL = offspring scored from their parent
+     */
+    public static final EvaluationMode GA_EVALUATION_MODE = EvaluationMode.FUSED;
+
+    /**
+     * Evolve compact short[] chromosomes instead of lesson lists
+     * Only the best timetable is decoded, for conflict reports and persistence
+     * Partial restarts, adaptive parameters, memetic elites, constraint repair and targeted mutation
+     * only apply to lesson lists and must stay off
+     */
+    public static final boolean GA_ENCODED_CHROMOSOMES = false;
+
+    /**
+     * Breed encoded generations into two preallocated populations used in turn,
+     * recycling the offspring timetables instead of allocating new ones
+     * Only applies with GA_ENCODED_CHROMOSOMES. The generations allocate nothing only without a
+     * fitness cache (GA_FITNESS_CACHE_SIZE = 0), without profiling (GA_PROFILING) and with sequential
+     * evaluation (GA_EVALUATION_THREADS = 1, or concurrent attempts, which evaluate on their own thread).
+     * The best timetable is still decoded every 20 generations for its conflict history.
+     */
+    public static final boolean GA_DOUBLE_BUFFERED_POPULATION = true;
+
+    /**
+     * Number of fitness values memoized by genome hash across generations
+     * 0 = no cache
+     */
+    public static final int GA_FITNESS_CACHE_SIZE = 4096;
+
+    /**
+     * Number of populations evolved in parallel by every attempt, sequential or concurrent, one thread each
+     * 1 = a single population, without migration
+     */
+    public static final int GA_ISLAND_COUNT = 1;
+
+    /**
+     * Generations between two migrations of the island model
+     */
+    public static final int GA_MIGRATION_INTERVAL = 25;
+
+    /**
+     * Number of best individuals each island sends per migration
+     */
+    public static final int GA_MIGRANT_COUNT = 2;
+
+    /**
+     * Islands that receive the emigrants of an island
+     */
+    public static final MigrationTopology GA_MIGRATION_TOPOLOGY = MigrationTopology.RING;
+
+    /**
+     * Number of generation attempts of findSolution running at the same time
+     * 1 = attempts run one after another
+     */
+    public static final int GA_ATTEMPT_CONCURRENCY = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of worker threads producing the offspring of a generation
+     * 1 = offspring produced on the calling thread
+     */
+    public static final int GA_OFFSPRING_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Seed of the random streams used for initialization and offspring production
+     * 0 = a different seed for every run
+     */
+    public static final long GA_RANDOM_SEED = 0L;
+
+    /**
+     * Record wall time, CPU time and allocations per phase and display a profile report after each attempt,
+     * concurrent ones included
+     * CPU time and allocations are read on the calling thread, so the work of the evaluation and offspring
+     * pools only shows in the wall time. Off by default, the measurements cost time on every phase.
+     */
+    public static final boolean GA_PROFILING = false;
+
+    // ========== Simulated Annealing Parameters ==========
+
+    /**
+     * Search algorithm used by the application
+     */
+    public static final SolverType SOLVER_TYPE = SolverType.GENETIC_ALGORITHM;
+
+    /**
+     * Maximum number of moves tried per annealing attempt
+     */
+    public static final long SA_MAX_ITERATIONS = 1_000_000L;
+
+    /**
+     * Starting temperature, in fitness points
+     * A move losing this much fitness is accepted with probability 1/e at the start
+     */
+    public static final double SA_INITIAL_TEMPERATURE = 100.0;
+
+    /**
+     * Share of the temperature kept per move
+     */
+    public static final double SA_COOLING_RATE = 0.9999;
+
+    /**
+     * Cooling schedule of the temperature
+     */
+    public static final CoolingSchedule SA_COOLING_SCHEDULE = CoolingSchedule.GEOMETRIC;
+
+    /**
+     * Moves without improvement of the best fitness before reheating
+     */
+    public static final long SA_REHEAT_AFTER = 50_000L;
+
+    /**
+     * Temperature after a reheat, as a share of the starting temperature
+     */
+    public static final double SA_REHEAT_RATIO = 0.5;
+
+    /**
+     * Progress update frequency (every N moves)
+     */
+    public static final long SA_PROGRESS_UPDATE_FREQUENCY = 100_000L;
+
+    // ========== Monitoring Configuration ==========
+
+    /**
+     * One in N conflict strategy invocations is recorded as a JFR event
+     * 1 = every invocation
+     */
+    public static final int JFR_STRATEGY_SAMPLE_RATE = 100;
+
     // ========== Display Configuration ==========
 
     /**
@@ -0,0 +1,19 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * Outcome of the exact (backtracking) solver.
+ */
+public enum SolverStatus {
+    /**
+     * Every lesson got a slot and classroom satisfying the hard rules
+     */
+    SOLVED,
+    /**
+     * No assignment satisfies the hard rules
+     */
+    INFEASIBLE,
+    /**
+     * The search stopped at its node limit before reaching a conclusion
+     */
+    UNKNOWN
+}
@@ -0,0 +1,15 @@
+package com.solvd.schoolschedule.model;
+
+/**
+ * Search algorithm used to generate the timetable.
+ */
+public enum SolverType {
+    /**
+     * Population-based genetic algorithm
+     */
+    GENETIC_ALGORITHM,
+    /**
+     * Simulated annealing over a single timetable
+     */
+    SIMULATED_ANNEALING
+}
@@ -41,6 +41,11 @@ public class Teacher implements ITimetableFilter {
         return id == teacher.id;
     }
 
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
     /**
      * Get the ITimetableFilter object from a lesson.
      * In this case, get teacher.
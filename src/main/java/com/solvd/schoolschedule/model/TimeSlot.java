@@ -27,6 +27,8 @@ public class TimeSlot {
             case 2 -> "Wednesday";
             case 3 -> "Thursday";
             case 4 -> "Friday";
+            case 5 -> "Saturday";
+            case 6 -> "Sunday";
             default -> "Unknown";
         };
     }
@@ -1,23 +1,56 @@
 package com.solvd.schoolschedule.model;
 
 import com.solvd.schoolschedule.model.interfaces.ITimetableFilter;
+import com.solvd.schoolschedule.util.ZobristHash;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Represents a timetable for a school.
+ *
+ * <p>The lessons are changed only through {@link #addLesson} and {@link #setLesson}, which drop the
+ * cached lookups and hashes. {@link #getLessons()} returns a read-only view: code that used to add,
+ * remove or replace lessons through the returned list now gets an {@link UnsupportedOperationException}
+ * and should copy the list, or build a new timetable, instead.</p>
  */
 public class Timetable {
     private final List<Lesson> lessons;
+    private final List<Lesson> lessonsView;
     private double fitness;
     private int generation;
     private List<Conflict> conflicts;
+    /**
+     * Lessons bucketed by resource and day, and their positions, built on first lookup
+     * and dropped whenever the lesson list changes
+     */
+    private volatile LessonIndex index;
+    /**
+     * Zobrist hash of the lessons, computed on first use
+     */
+    private volatile long genomeHash;
+    private volatile boolean genomeHashed;
+    /**
+     * Zobrist hash of each group block, null if unknown or the lessons are not laid out in group blocks
+     */
+    private volatile long[] groupBlockHashes;
+    private volatile boolean scatteredGroups;
+    /**
+     * Positions of the lessons found in a conflict by the last evaluation, null if unknown.
+     * Never modified once published, a new evaluation replaces it.
+     */
+    private volatile BitSet conflictMask;
 
     public Timetable() {
         this.lessons = new ArrayList<>();
+        this.lessonsView = Collections.unmodifiableList(lessons);
         this.fitness = 0.0;
         this.generation = 0;
         this.conflicts = new ArrayList<>();
@@ -25,6 +58,7 @@ public class Timetable {
 
     public Timetable(List<Lesson> lessons) {
         this.lessons = new ArrayList<>(lessons);
+        this.lessonsView = Collections.unmodifiableList(this.lessons);
         this.fitness = 0.0;
         this.generation = 0;
         this.conflicts = new ArrayList<>();
@@ -32,17 +66,187 @@ public class Timetable {
 
     public Timetable(List<Lesson> lessons, int generation) {
         this.lessons = new ArrayList<>(lessons);
+        this.lessonsView = Collections.unmodifiableList(this.lessons);
         this.fitness = 0.0;
         this.generation = generation;
         this.conflicts = new ArrayList<>();
     }
 
+    /**
+     * Returns a read-only view of the lessons, use addLesson or setLesson to modify the timetable.
+     * The view follows later changes of the timetable, its mutators throw UnsupportedOperationException.
+     *
+     * @return lessons
+     */
     public List<Lesson> getLessons() {
-        return lessons;
+        return lessonsView;
     }
 
     public void addLesson(Lesson lesson) {
         lessons.add(lesson);
+        index = null;
+        genomeHashed = false;
+        groupBlockHashes = null;
+        scatteredGroups = false;
+        conflictMask = null;
+    }
+
+    /**
+     * Replaces the lesson at a position, e.g. when an operator mutates an offspring it owns
+     *
+     * @param position lesson position
+     * @param lesson   new lesson
+     */
+    public void setLesson(int position, Lesson lesson) {
+        lessons.set(position, lesson);
+        index = null;
+        genomeHashed = false;
+        groupBlockHashes = null;
+        scatteredGroups = false;
+        conflictMask = null;
+    }
+
+    /**
+     * Returns the Zobrist hash of the lessons, equal for timetables with the same lessons at the same positions
+     *
+     * @return genome hash
+     */
+    public long getGenomeHash() {
+        if (!genomeHashed) {
+            long hash = 0;
+            for (int i = 0; i < lessons.size(); i++) {
+                hash ^= ZobristHash.key(i, lessons.get(i));
+            }
+            genomeHash = hash;
+            genomeHashed = true;
+        }
+        return genomeHash;
+    }
+
+    /**
+     * Sets a genome hash that is already known, e.g. updated incrementally by an operator
+     *
+     * @param genomeHash Zobrist hash of the current lessons
+     */
+    public void setGenomeHash(long genomeHash) {
+        this.groupBlockHashes = null;
+        this.genomeHash = genomeHash;
+        this.genomeHashed = true;
+    }
+
+    /**
+     * Returns the Zobrist hash of each group block, when the lessons are laid out in one contiguous
+     * block per group in catalog order, as the population service and the crossover lay them out.
+     * Computes the genome hash on the way, the XOR of the block hashes.
+     *
+     * @param catalog catalog of the school the timetable belongs to
+     * @return block hashes indexed by group id, shared and not to be modified, or null if not in blocks
+     * @throws IllegalArgumentException if a lesson belongs to a group unknown to the catalog
+     */
+    public long[] getGroupBlockHashes(ResourceCatalog catalog) {
+        long[] hashes = groupBlockHashes;
+        if (hashes == null && !scatteredGroups) {
+            hashes = new long[catalog.getGroupCount()];
+            long hash = 0;
+            int previousGroup = 0;
+            for (int i = 0; i < lessons.size(); i++) {
+                int group = catalog.groupId(lessons.get(i).getGroup());
+                if (group < 0) {
+                    throw new IllegalArgumentException("Lesson at position " + i
+                            + " belongs to a group unknown to the catalog: " + lessons.get(i).getGroup());
+                }
+                if (group < previousGroup) {
+                    scatteredGroups = true;
+                    return null;
+                }
+                long key = ZobristHash.key(i, lessons.get(i));
+                hashes[group] ^= key;
+                hash ^= key;
+                previousGroup = group;
+            }
+            genomeHash = hash;
+            genomeHashed = true;
+            groupBlockHashes = hashes;
+        }
+        return hashes;
+    }
+
+    /**
+     * Sets group block hashes that are already known, e.g. taken from the parents by the crossover,
+     * and the genome hash they add up to
+     *
+     * @param groupBlockHashes Zobrist hash of each group block of the current lessons, owned by the timetable
+     */
+    public void setGroupBlockHashes(long[] groupBlockHashes) {
+        long hash = 0;
+        for (long blockHash : groupBlockHashes) {
+            hash ^= blockHash;
+        }
+        this.genomeHash = hash;
+        this.genomeHashed = true;
+        this.groupBlockHashes = groupBlockHashes;
+    }
+
+    /**
+     * Publishes the conflict marks of an evaluation, replacing the previous ones.
+     * The timetable takes the mask over, the caller must not modify it afterwards.
+     *
+     * @param conflictMask positions of the conflicted lessons, or null if unknown
+     */
+    public void setConflictMask(BitSet conflictMask) {
+        this.conflictMask = conflictMask;
+    }
+
+    /**
+     * Checks whether an evaluation marked the conflicted lessons. Timetables scored by the
+     * incremental evaluator or improved by local search have no conflict marks until
+     * {@code FitnessServiceImpl.markConflicts} sweeps them.
+     *
+     * @return true if the conflicted positions are known
+     */
+    public boolean hasConflictMask() {
+        return conflictMask != null;
+    }
+
+    /**
+     * Returns the conflict marks of the last evaluation, e.g. to cache them with the fitness
+     *
+     * @return positions of the conflicted lessons, shared and not to be modified, or null if unknown
+     */
+    public BitSet getConflictMask() {
+        return conflictMask;
+    }
+
+    /**
+     * Checks whether the last evaluation marked the lesson at a position as conflicted
+     *
+     * @param position lesson position
+     * @return true if conflicted, false if not or unknown
+     */
+    public boolean isConflicted(int position) {
+        BitSet mask = conflictMask;
+        return mask != null && mask.get(position);
+    }
+
+    /**
+     * Returns the first conflicted position at or after a position, to iterate over the conflicted lessons
+     *
+     * @param from first position to check
+     * @return conflicted position, or -1 if there is none or the conflicts are unknown
+     */
+    public int nextConflictedPosition(int from) {
+        BitSet mask = conflictMask;
+        return mask != null ? mask.nextSetBit(from) : -1;
+    }
+
+    /**
+     * Returns the positions holding a lesson, compared by identity
+     *
+     * @param lesson the lesson
+     * @return positions, empty if the lesson is not in the timetable
+     */
+    public int[] getPositionsOf(Lesson lesson) {
+        return getIndex().getPositionsOf(lesson);
     }
 
     public double getFitness() {
@@ -74,43 +278,134 @@ public class Timetable {
     }
 
     /**
-     * Returns the lesson list of an ITimetableFilter object.
+     * Returns the lesson list of an ITimetableFilter object, in timetable order.
+     * The returned list is read-only and shared between calls.
      *
      * @param object (Group, Teacher or Classroom)
      * @return dayLessons
      */
     public List<Lesson> getLessonsFor(ITimetableFilter object) {
-        return object.filter(this);
+        return getIndex().getLessonsFor(object);
     }
 
     /**
-     * Get all lessons for a specific ITimetableFilter object on a specific day, sorted by period
+     * Get all lessons for a specific ITimetableFilter object on a specific day, sorted by period.
+     * The returned list is read-only and shared between calls.
      *
      * @param object (Group, Teacher or Classroom)
      * @param day    the day to filter by (0-4)
      * @return list of lessons for the teacher on that day, sorted by period
      */
     public List<Lesson> getLessonsOnDayFor(ITimetableFilter object, int day) {
-        List<Lesson> lessons = this.getLessonsFor(object);
-        return filterByDay(lessons, day);
+        return getIndex().getLessonsOnDayFor(object, day);
     }
 
     /**
-     * Filters a lesson list  by a specific day, sorted by period
+     * Returns the lesson index, building it if the lessons changed since the last lookup.
+     * Concurrent first lookups may build it twice, both results are equal.
      *
-     * @param lessons list of the lessons
-     * @param day     the day to filter by (0-4)
-     * @return list of lessons on that day, sorted by period
+     * @return lesson index
      */
-    private List<Lesson> filterByDay(List<Lesson> lessons, int day) {
-        return lessons.stream()
-                .filter(lesson -> lesson.getTimeSlot().getDay() == day)
-                .sorted(Comparator.comparingInt(l -> l.getTimeSlot().getPeriod()))
-                .collect(Collectors.toList());
+    private LessonIndex getIndex() {
+        LessonIndex current = index;
+        if (current == null) {
+            current = new LessonIndex(lessons);
+            index = current;
+        }
+        return current;
     }
 
     public void addConflict(Conflict conflict) {
         conflicts.add(conflict);
     }
 
-}
\ No newline at end of file
+    /**
+     * Read-only lookup tables from a resource (Group, Teacher or Classroom)
+     * to its lessons, overall and per day sorted by period, and from a lesson to its positions
+     */
+    private static final class LessonIndex {
+        private final Map<ITimetableFilter, List<Lesson>> lessonsByResource = new HashMap<>();
+        private final Map<ITimetableFilter, List<List<Lesson>>> lessonsByResourceAndDay = new HashMap<>();
+        private final Map<Lesson, int[]> positions = new IdentityHashMap<>();
+
+        LessonIndex(List<Lesson> lessons) {
+            Map<ITimetableFilter, List<Lesson>> buckets = new HashMap<>();
+            for (int i = 0; i < lessons.size(); i++) {
+                Lesson lesson = lessons.get(i);
+                addToBucket(buckets, lesson.getGroup(), lesson);
+                addToBucket(buckets, lesson.getTeacher(), lesson);
+                addToBucket(buckets, lesson.getClassroom(), lesson);
+                int position = i;
+                positions.merge(lesson, new int[]{i}, (first, added) -> {
+                    int[] merged = Arrays.copyOf(first, first.length + 1);
+                    merged[first.length] = position;
+                    return merged;
+                });
+            }
+
+            for (Map.Entry<ITimetableFilter, List<Lesson>> entry : buckets.entrySet()) {
+                lessonsByResource.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+                lessonsByResourceAndDay.put(entry.getKey(), splitByDay(entry.getValue()));
+            }
+        }
+
+        private static void addToBucket(Map<ITimetableFilter, List<Lesson>> buckets,
+                                        ITimetableFilter key, Lesson lesson) {
+            if (key != null) {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(lesson);
+            }
+        }
+
+        /**
+         * Splits a resource's lessons into one list per day up to its last day with a lesson, each sorted by period.
+         * The sort is stable, so lessons in the same period keep their timetable order.
+         *
+         * @param lessons lessons of one resource
+         * @return read-only lists indexed by day
+         */
+        private static List<List<Lesson>> splitByDay(List<Lesson> lessons) {
+            int dayCount = 0;
+            for (Lesson lesson : lessons) {
+                dayCount = Math.max(dayCount, lesson.getTimeSlot().getDay() + 1);
+            }
+            List<List<Lesson>> days = new ArrayList<>(dayCount);
+            for (int day = 0; day < dayCount; day++) {
+                days.add(new ArrayList<>());
+            }
+            for (Lesson lesson : lessons) {
+                int day = lesson.getTimeSlot().getDay();
+                if (day >= 0) {
+                    days.get(day).add(lesson);
+                }
+            }
+            for (int day = 0; day < days.size(); day++) {
+                List<Lesson> dayLessons = days.get(day);
+                if (dayLessons.isEmpty()) {
+                    days.set(day, List.of());
+                } else {
+                    dayLessons.sort(Comparator.comparingInt(l -> l.getTimeSlot().getPeriod()));
+                    days.set(day, Collections.unmodifiableList(dayLessons));
+                }
+            }
+            return days;
+        }
+
+        List<Lesson> getLessonsFor(ITimetableFilter object) {
+            return lessonsByResource.getOrDefault(object, List.of());
+        }
+
+        int[] getPositionsOf(Lesson lesson) {
+            int[] found = positions.get(lesson);
+            return found != null ? found : new int[0];
+        }
+
+        List<Lesson> getLessonsOnDayFor(ITimetableFilter object, int day) {
+            List<List<Lesson>> days = lessonsByResourceAndDay.get(object);
+            if (days == null || day < 0 || day >= days.size()) {
+                return List.of();
+            }
+            return days.get(day);
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.solvd.schoolschedule.model;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Compact chromosome layout shared by a whole population.
+ *
+ * <p>The lesson list of a school is fixed: every group gets the weekly lessons of every
+ * subject, always taught by the same teacher. Only the time slot and the classroom of a
+ * lesson evolve, so an individual is stored as one {@code short} gene per lesson
+ * position, packing {@code slot * numberOfClassrooms + classroom} as an unsigned value. Groups, subjects,
+ * teachers, classrooms and time slots are kept here once and decoded on demand.</p>
+ *
+ * <p>Positions are laid out group by group, in the same order as the lessons of the
+ * timetables built by the population service.</p>
+ */
+public class TimetableEncoding {
+
+    /**
+     * Number of distinct genes, the product of the time slots and the classrooms must not exceed it
+     */
+    public static final int MAX_GENE_VALUES = 1 << Short.SIZE;
+
+    private final Group[] groups;
+    private final Subject[] subjects;
+    private final Teacher[] teachers;
+    private final List<Classroom> classrooms;
+    private final ResourceCatalog catalog;
+    private final Map<Subject, int[]> suitableClassrooms = new EnumMap<>(Subject.class);
+    private final TimeSlot[] timeSlots;
+    private final int periods;
+    private final int[] blockStarts;
+
+    /**
+     * Builds the layout over the groups, classrooms and time slots of a catalog:
+     * for each group, for each subject, one position per weekly lesson
+     *
+     * @param catalog           resources of the school, classrooms indexed by catalog id
+     * @param teacherAssignment teacher of a group for a subject
+     * @throws IllegalArgumentException if the slots and classrooms do not fit in a short gene
+     */
+    public TimetableEncoding(ResourceCatalog catalog, BiFunction<Group, Subject, Teacher> teacherAssignment) {
+        this.catalog = catalog;
+        List<Group> groups = catalog.getGroups();
+        this.classrooms = catalog.getClassrooms();
+        this.periods = catalog.getPeriods();
+        if ((long) catalog.getSlotCount() * classrooms.size() > MAX_GENE_VALUES) {
+            throw new IllegalArgumentException("Too many time slots and classrooms for a gene: "
+                    + catalog.getSlotCount() + " x " + classrooms.size());
+        }
+
+        List<Group> groupList = new ArrayList<>();
+        List<Subject> subjectList = new ArrayList<>();
+        List<Teacher> teacherList = new ArrayList<>();
+        this.blockStarts = new int[groups.size() + 1];
+        for (int g = 0; g < groups.size(); g++) {
+            Group group = groups.get(g);
+            blockStarts[g] = groupList.size();
+            for (Subject subject : Subject.values()) {
+                Teacher teacher = teacherAssignment.apply(group, subject);
+                for (int i = 0; i < catalog.getWeeklyLessons(subject); i++) {
+                    groupList.add(group);
+                    subjectList.add(subject);
+                    teacherList.add(teacher);
+                }
+            }
+        }
+        blockStarts[groups.size()] = groupList.size();
+        this.groups = groupList.toArray(new Group[0]);
+        this.subjects = subjectList.toArray(new Subject[0]);
+        this.teachers = teacherList.toArray(new Teacher[0]);
+
+        for (Subject subject : Subject.values()) {
+            suitableClassrooms.put(subject, catalog.getSuitableClassroomIds(subject));
+        }
+
+        this.timeSlots = new TimeSlot[catalog.getSlotCount()];
+        for (int slot = 0; slot < timeSlots.length; slot++) {
+            timeSlots[slot] = catalog.getTimeSlot(slot);
+        }
+    }
+
+    /**
+     * Number of lesson positions (genes) of every individual
+     *
+     * @return number of lessons
+     */
+    public int size() {
+        return groups.length;
+    }
+
+    public Group getGroup(int position) {
+        return groups[position];
+    }
+
+    public Subject getSubject(int position) {
+        return subjects[position];
+    }
+
+    public Teacher getTeacher(int position) {
+        return teachers[position];
+    }
+
+    public int getClassroomCount() {
+        return classrooms.size();
+    }
+
+    public Classroom getClassroom(int classroom) {
+        return classrooms.get(classroom);
+    }
+
+    /**
+     * Indexes of the classrooms that can accommodate a subject.
+     * The returned array is shared and must not be modified.
+     *
+     * @param subject the subject
+     * @return classroom indexes
+     */
+    public int[] getSuitableClassrooms(Subject subject) {
+        return suitableClassrooms.get(subject);
+    }
+
+    public int getPeriods() {
+        return periods;
+    }
+
+    public int getSlotCount() {
+        return timeSlots.length;
+    }
+
+    /**
+     * Returns the shared time slot instance of a slot index (day * periods + period)
+     *
+     * @param slot slot index
+     * @return time slot
+     */
+    public TimeSlot getTimeSlot(int slot) {
+        return timeSlots[slot];
+    }
+
+    /**
+     * Number of group blocks, each group's lessons occupy consecutive positions
+     *
+     * @return number of groups
+     */
+    public int getBlockCount() {
+        return blockStarts.length - 1;
+    }
+
+    public int getBlockStart(int block) {
+        return blockStarts[block];
+    }
+
+    public int getBlockEnd(int block) {
+        return blockStarts[block + 1];
+    }
+
+    public short gene(int slot, int classroom) {
+        return (short) (slot * classrooms.size() + classroom);
+    }
+
+    public int slotOf(short gene) {
+        return Short.toUnsignedInt(gene) / classrooms.size();
+    }
+
+    public int classroomOf(short gene) {
+        return Short.toUnsignedInt(gene) % classrooms.size();
+    }
+
+    /**
+     * Decode the lesson at a position
+     *
+     * @param position lesson position
+     * @param gene     gene of the position
+     * @return lesson view of the gene
+     */
+    public Lesson decode(int position, short gene) {
+        return new Lesson(subjects[position], teachers[position], getClassroom(classroomOf(gene)),
+                getTimeSlot(slotOf(gene)), groups[position]);
+    }
+
+    /**
+     * Decode a whole chromosome into a timetable
+     *
+     * @param genes one gene per position
+     * @return timetable with one lesson per position
+     */
+    public Timetable decode(short[] genes) {
+        List<Lesson> lessons = new ArrayList<>(genes.length);
+        for (int i = 0; i < genes.length; i++) {
+            lessons.add(decode(i, genes[i]));
+        }
+        return new Timetable(lessons);
+    }
+
+    /**
+     * Encode a timetable whose lessons follow this layout
+     *
+     * @param timetable the timetable
+     * @return one gene per position
+     * @throws IllegalArgumentException if the timetable does not match the layout
+     */
+    public short[] encode(Timetable timetable) {
+        List<Lesson> lessons = timetable.getLessons();
+        if (lessons.size() != size()) {
+            throw new IllegalArgumentException("Expected " + size() + " lessons but got " + lessons.size());
+        }
+        short[] genes = new short[lessons.size()];
+        for (int i = 0; i < genes.length; i++) {
+            Lesson lesson = lessons.get(i);
+            int classroom = catalog.classroomId(lesson.getClassroom());
+            if (!lesson.getGroup().equals(groups[i]) || lesson.getSubject() != subjects[i] || classroom < 0) {
+                throw new IllegalArgumentException("Lesson " + i + " does not match the encoding: " + lesson);
+            }
+            TimeSlot timeSlot = lesson.getTimeSlot();
+            genes[i] = gene(timeSlot.getDay() * periods + timeSlot.getPeriod(), classroom);
+        }
+        return genes;
+    }
+}
@@ -0,0 +1,96 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.List;
+
+import com.solvd.schoolschedule.model.Timetable;
+
+/**
+ * Runtime control of the genetic algorithm parameters from the observed progress and diversity.
+ *
+ * <ul>
+ *   <li>Tournament size (selection pressure) grows while the population is more diverse than
+ *   the target band and shrinks when it converges below it.</li>
+ *   <li>Mutation rate follows the same diversity feedback in the opposite direction: a converged
+ *   population mutates more, a scattered one less. It stays between half and twice the initial rate.</li>
+ *   <li>Population size shrinks while the best fitness improves and grows after a few
+ *   generations without improvement.</li>
+ * </ul>
+ */
+public class AdaptiveParameterController {
+
+    private static final double LOW_DIVERSITY = 0.05;
+    private static final double HIGH_DIVERSITY = 0.15;
+    private static final double MUTATION_FACTOR = 0.9;
+    private static final int MIN_TOURNAMENT_SIZE = 2;
+    private static final int MAX_TOURNAMENT_SIZE = 10;
+    private static final int GROWTH_PATIENCE = 10;
+
+    private final double minMutationRate;
+    private final double maxMutationRate;
+    private final int minPopulationSize;
+    private final int maxPopulationSize;
+    private double mutationRate;
+    private int tournamentSize;
+    private int populationSize;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private int generationsWithoutImprovement;
+
+    /**
+     * @param mutationRate   initial mutation rate, the rate varies between half and twice this value
+     * @param tournamentSize initial tournament size
+     * @param populationSize initial population size, the size varies between half and twice this value
+     */
+    public AdaptiveParameterController(double mutationRate, int tournamentSize, int populationSize) {
+        if (mutationRate <= 0 || mutationRate > 0.5) {
+            throw new IllegalArgumentException("Mutation rate must be in (0, 0.5]: " + mutationRate);
+        }
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("Population size must be at least 2: " + populationSize);
+        }
+        this.mutationRate = mutationRate;
+        this.minMutationRate = mutationRate / 2;
+        this.maxMutationRate = mutationRate * 2;
+        this.tournamentSize = Math.max(MIN_TOURNAMENT_SIZE, Math.min(MAX_TOURNAMENT_SIZE, tournamentSize));
+        this.populationSize = populationSize;
+        this.minPopulationSize = Math.max(2, populationSize / 2);
+        this.maxPopulationSize = populationSize * 2;
+    }
+
+    /**
+     * Adjust the parameters from a newly evaluated generation
+     *
+     * @param population    evaluated generation
+     * @param bestTimetable best timetable of the generation
+     */
+    public void update(List<Timetable> population, Timetable bestTimetable) {
+        double diversity = StagnationDetector.diversity(population, bestTimetable);
+        if (diversity > HIGH_DIVERSITY) {
+            tournamentSize = Math.min(MAX_TOURNAMENT_SIZE, tournamentSize + 1);
+            mutationRate = Math.max(minMutationRate, mutationRate * MUTATION_FACTOR);
+        } else if (diversity < LOW_DIVERSITY) {
+            tournamentSize = Math.max(MIN_TOURNAMENT_SIZE, tournamentSize - 1);
+            mutationRate = Math.min(maxMutationRate, mutationRate / MUTATION_FACTOR);
+        }
+
+        if (bestTimetable.getFitness() > bestFitness) {
+            bestFitness = bestTimetable.getFitness();
+            generationsWithoutImprovement = 0;
+            populationSize = Math.max(minPopulationSize, (int) (populationSize * 0.95));
+        } else if (++generationsWithoutImprovement >= GROWTH_PATIENCE) {
+            generationsWithoutImprovement = 0;
+            populationSize = Math.min(maxPopulationSize, (int) Math.ceil(populationSize * 1.1));
+        }
+    }
+
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+}
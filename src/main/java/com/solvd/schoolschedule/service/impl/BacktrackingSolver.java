@@ -0,0 +1,445 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+import com.solvd.schoolschedule.model.*;
+
+/**
+ * Exact solver for the hard rules: no group, teacher or classroom collision, every lesson in
+ * a classroom able to host its subject, every group with its weekly lessons per subject.
+ *
+ * <p>Lessons are the positions of a {@link TimetableEncoding}, so lesson counts hold by
+ * construction, and a group never has more lessons in a day than the day has periods since
+ * its lessons never share a slot. Each lesson keeps its remaining slots as a bitset domain.
+ * The search assigns the lesson with the fewest remaining slots first (MRV), then checks
+ * forward: the slot leaves the domains of the lessons of the same group or teacher, and of
+ * the lessons left without a free suitable classroom in it. Lessons of the same group and
+ * subject are interchangeable, so they are kept in increasing slot order.</p>
+ *
+ * <p>Counting checks run before the search, so most impossible instances (a teacher or group
+ * with more lessons than slots, too few suitable classrooms) are reported without searching.</p>
+ */
+public class BacktrackingSolver {
+
+    private final TimetableEncoding encoding;
+    private final long nodeLimit;
+    private final int size;
+    private final int slots;
+    private final int words;
+    private final int[] groupOf;
+    private final int[] teacherOf;
+    private final int[][] suitable;
+    private final int[] previousSibling;
+    private final int[] nextSibling;
+    private final int[][] neighbours;
+    private final boolean[][] suitableFor;
+
+    // Search state
+    private long[][] domains;
+    private int[] assignedSlots;
+    private int[] assignedRooms;
+    private boolean[] roomBusy;
+    private int[] trailLesson;
+    private int[] trailWord;
+    private long[] trailBits;
+    private int trailSize;
+    private long nodes;
+
+    /**
+     * @param encoding  lesson layout to assign
+     * @param nodeLimit maximum number of search nodes before giving up with {@link SolverStatus#UNKNOWN}
+     */
+    public BacktrackingSolver(TimetableEncoding encoding, long nodeLimit) {
+        if (nodeLimit < 1) {
+            throw new IllegalArgumentException("Node limit must be at least 1: " + nodeLimit);
+        }
+        this.encoding = encoding;
+        this.nodeLimit = nodeLimit;
+        this.size = encoding.size();
+        this.slots = encoding.getSlotCount();
+        this.words = (slots + 63) / 64;
+
+        this.groupOf = new int[size];
+        for (int block = 0; block < encoding.getBlockCount(); block++) {
+            Arrays.fill(groupOf, encoding.getBlockStart(block), encoding.getBlockEnd(block), block);
+        }
+        Map<Teacher, Integer> teacherIds = new HashMap<>();
+        this.teacherOf = new int[size];
+        this.suitable = new int[size][];
+        this.suitableFor = new boolean[size][encoding.getClassroomCount()];
+        for (int lesson = 0; lesson < size; lesson++) {
+            teacherOf[lesson] = teacherIds.computeIfAbsent(encoding.getTeacher(lesson), teacher -> teacherIds.size());
+            suitable[lesson] = encoding.getSuitableClassrooms(encoding.getSubject(lesson));
+            for (int classroom : suitable[lesson]) {
+                suitableFor[lesson][classroom] = true;
+            }
+        }
+
+        // Interchangeable lessons: same group and subject, consecutive positions
+        this.previousSibling = new int[size];
+        this.nextSibling = new int[size];
+        Arrays.fill(previousSibling, -1);
+        Arrays.fill(nextSibling, -1);
+        for (int lesson = 1; lesson < size; lesson++) {
+            if (groupOf[lesson] == groupOf[lesson - 1]
+                    && encoding.getSubject(lesson) == encoding.getSubject(lesson - 1)) {
+                previousSibling[lesson] = lesson - 1;
+                nextSibling[lesson - 1] = lesson;
+            }
+        }
+
+        // Lessons that can never share a slot: the lessons of the same group and of the same teacher
+        int[][] groupLessons = lessonsBy(groupOf, encoding.getBlockCount());
+        int[][] teacherLessons = lessonsBy(teacherOf, teacherIds.size());
+        this.neighbours = new int[size][];
+        int[] seenBy = new int[size];
+        Arrays.fill(seenBy, -1);
+        for (int lesson = 0; lesson < size; lesson++) {
+            int[] sameGroup = groupLessons[groupOf[lesson]];
+            int[] sameTeacher = teacherLessons[teacherOf[lesson]];
+            int[] adjacent = new int[sameGroup.length + sameTeacher.length];
+            int count = 0;
+            seenBy[lesson] = lesson;
+            for (int other : sameGroup) {
+                if (seenBy[other] != lesson) {
+                    seenBy[other] = lesson;
+                    adjacent[count++] = other;
+                }
+            }
+            for (int other : sameTeacher) {
+                if (seenBy[other] != lesson) {
+                    seenBy[other] = lesson;
+                    adjacent[count++] = other;
+                }
+            }
+            neighbours[lesson] = Arrays.copyOf(adjacent, count);
+        }
+    }
+
+    /**
+     * Lessons of every owner, e.g. of every group or of every teacher
+     *
+     * @param ownerOf    owner of each lesson
+     * @param ownerCount number of owners
+     * @return lessons of each owner, in increasing position
+     */
+    private static int[][] lessonsBy(int[] ownerOf, int ownerCount) {
+        int[] counts = new int[ownerCount];
+        for (int owner : ownerOf) {
+            counts[owner]++;
+        }
+        int[][] lessons = new int[ownerCount][];
+        for (int owner = 0; owner < ownerCount; owner++) {
+            lessons[owner] = new int[counts[owner]];
+            counts[owner] = 0;
+        }
+        for (int lesson = 0; lesson < ownerOf.length; lesson++) {
+            lessons[ownerOf[lesson]][counts[ownerOf[lesson]]++] = lesson;
+        }
+        return lessons;
+    }
+
+    /**
+     * Assign every lesson a slot and a classroom
+     *
+     * @param random random stream choosing the first slot tried, so repeated calls give different solutions
+     * @return outcome of the search
+     */
+    public Result solve(RandomGenerator random) {
+        String reason = checkCounts();
+        if (reason != null) {
+            return new Result(SolverStatus.INFEASIBLE, null, 0, reason);
+        }
+
+        domains = new long[size][words];
+        for (long[] domain : domains) {
+            for (int slot = 0; slot < slots; slot++) {
+                domain[slot >>> 6] |= 1L << slot;
+            }
+        }
+        assignedSlots = new int[size];
+        assignedRooms = new int[size];
+        Arrays.fill(assignedSlots, -1);
+        roomBusy = new boolean[encoding.getClassroomCount() * slots];
+        // The trail grows on demand, deep searches on large schools would not fit a worst-case trail
+        int capacity = size + slots + 1;
+        trailLesson = new int[capacity];
+        trailWord = new int[capacity];
+        trailBits = new long[capacity];
+        trailSize = 0;
+        nodes = 0;
+
+        Boolean solved = search(size, random.nextInt(slots));
+        if (solved == null) {
+            return new Result(SolverStatus.UNKNOWN, null, nodes, "Node limit of " + nodeLimit + " reached");
+        }
+        if (!solved) {
+            return new Result(SolverStatus.INFEASIBLE, null, nodes, "Search exhausted without a solution");
+        }
+        short[] genes = new short[size];
+        for (int lesson = 0; lesson < size; lesson++) {
+            genes[lesson] = encoding.gene(assignedSlots[lesson], assignedRooms[lesson]);
+        }
+        return new Result(SolverStatus.SOLVED, genes, nodes, null);
+    }
+
+    /**
+     * Counting conditions every solution must meet
+     *
+     * @return why the instance is infeasible, or null if the counts allow a solution
+     */
+    private String checkCounts() {
+        for (int lesson = 0; lesson < size; lesson++) {
+            if (suitable[lesson].length == 0) {
+                return "No classroom can host " + encoding.getSubject(lesson).getDisplayName();
+            }
+        }
+        int[] groupLoads = new int[encoding.getBlockCount()];
+        int[] teacherLoads = new int[size];
+        for (int lesson = 0; lesson < size; lesson++) {
+            groupLoads[groupOf[lesson]]++;
+            teacherLoads[teacherOf[lesson]]++;
+        }
+        for (int group = 0; group < groupLoads.length; group++) {
+            if (groupLoads[group] > slots) {
+                return encoding.getGroup(encoding.getBlockStart(group)).getName() + " has " + groupLoads[group]
+                        + " lessons for " + slots + " slots";
+            }
+        }
+        for (int lesson = 0; lesson < size; lesson++) {
+            if (teacherLoads[teacherOf[lesson]] > slots) {
+                return encoding.getTeacher(lesson).getName() + " has " + teacherLoads[teacherOf[lesson]]
+                        + " lessons for " + slots + " slots";
+            }
+        }
+        // Lessons that only fit in a set of classrooms cannot outnumber the slots of that set
+        for (Subject subject : Subject.values()) {
+            int[] rooms = encoding.getSuitableClassrooms(subject);
+            Set<Integer> roomSet = new HashSet<>();
+            for (int room : rooms) {
+                roomSet.add(room);
+            }
+            long lessons = 0;
+            for (int lesson = 0; lesson < size; lesson++) {
+                if (Arrays.stream(suitable[lesson]).allMatch(roomSet::contains)) {
+                    lessons++;
+                }
+            }
+            if (rooms.length > 0 && lessons > (long) rooms.length * slots) {
+                return lessons + " lessons share the " + rooms.length + " classroom(s) able to host "
+                        + subject.getDisplayName() + ", which offer " + rooms.length * slots + " slots";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Depth-first search
+     *
+     * @param unassigned number of lessons still without a slot
+     * @param offset     first slot tried in every domain
+     * @return true if solved, false if this branch has no solution, null if the node limit was reached
+     */
+    private Boolean search(int unassigned, int offset) {
+        if (unassigned == 0) {
+            return true;
+        }
+        if (++nodes > nodeLimit) {
+            return null;
+        }
+
+        int lesson = selectLesson();
+        long[] domain = domains[lesson].clone();
+        for (int i = 0; i < slots; i++) {
+            int slot = (i + offset) % slots;
+            if ((domain[slot >>> 6] & 1L << slot) == 0) {
+                continue;
+            }
+            for (int room : suitable[lesson]) {
+                if (roomBusy[room * slots + slot]) {
+                    continue;
+                }
+                int mark = trailSize;
+                assignedSlots[lesson] = slot;
+                assignedRooms[lesson] = room;
+                roomBusy[room * slots + slot] = true;
+                if (propagate(lesson, slot, room)) {
+                    Boolean result = search(unassigned - 1, offset);
+                    if (result == null || result) {
+                        return result;
+                    }
+                }
+                undo(mark);
+                roomBusy[room * slots + slot] = false;
+                assignedSlots[lesson] = -1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unassigned lesson with the fewest remaining slots, the most constrained one on ties
+     */
+    private int selectLesson() {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int lesson = 0; lesson < size; lesson++) {
+            if (assignedSlots[lesson] >= 0) {
+                continue;
+            }
+            int count = 0;
+            for (long word : domains[lesson]) {
+                count += Long.bitCount(word);
+            }
+            if (count < bestCount || count == bestCount && neighbours[lesson].length > neighbours[best].length) {
+                best = lesson;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Forward checking after assigning a lesson
+     *
+     * @return false if some unassigned lesson has no slot left
+     */
+    private boolean propagate(int lesson, int slot, int room) {
+        for (int other : neighbours[lesson]) {
+            if (assignedSlots[other] < 0 && !remove(other, slot)) {
+                return false;
+            }
+        }
+        // Lessons that needed this classroom and have no other free suitable one in this slot
+        for (int other = 0; other < size; other++) {
+            if (assignedSlots[other] >= 0 || !suitableFor[other][room] || !contains(other, slot)) {
+                continue;
+            }
+            boolean freeRoom = false;
+            for (int candidate : suitable[other]) {
+                if (!roomBusy[candidate * slots + slot]) {
+                    freeRoom = true;
+                    break;
+                }
+            }
+            if (!freeRoom && !remove(other, slot)) {
+                return false;
+            }
+        }
+        // Interchangeable lessons stay in increasing slot order
+        for (int sibling = nextSibling[lesson]; sibling >= 0; sibling = nextSibling[sibling]) {
+            if (assignedSlots[sibling] < 0 && !removeRange(sibling, 0, slot + 1)) {
+                return false;
+            }
+        }
+        for (int sibling = previousSibling[lesson]; sibling >= 0; sibling = previousSibling[sibling]) {
+            if (assignedSlots[sibling] < 0 && !removeRange(sibling, slot, slots)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contains(int lesson, int slot) {
+        return (domains[lesson][slot >>> 6] & 1L << slot) != 0;
+    }
+
+    /**
+     * Remove a slot from a domain, recording it on the trail
+     *
+     * @return false if the domain became empty
+     */
+    private boolean remove(int lesson, int slot) {
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        if ((domains[lesson][word] & bit) != 0) {
+            record(lesson, word, bit);
+            domains[lesson][word] &= ~bit;
+        }
+        return !isEmpty(lesson);
+    }
+
+    /**
+     * Remove the slots from (inclusive) to (exclusive) from a domain
+     *
+     * @return false if the domain became empty
+     */
+    private boolean removeRange(int lesson, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            int word = slot >>> 6;
+            long bit = 1L << slot;
+            if ((domains[lesson][word] & bit) != 0) {
+                record(lesson, word, bit);
+                domains[lesson][word] &= ~bit;
+            }
+        }
+        return !isEmpty(lesson);
+    }
+
+    private boolean isEmpty(int lesson) {
+        for (long word : domains[lesson]) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void record(int lesson, int word, long bits) {
+        if (trailSize == trailLesson.length) {
+            int capacity = Math.max(16, trailSize * 2);
+            trailLesson = Arrays.copyOf(trailLesson, capacity);
+            trailWord = Arrays.copyOf(trailWord, capacity);
+            trailBits = Arrays.copyOf(trailBits, capacity);
+        }
+        trailLesson[trailSize] = lesson;
+        trailWord[trailSize] = word;
+        trailBits[trailSize] = bits;
+        trailSize++;
+    }
+
+    /**
+     * Restore every domain value removed since the trail had the given size
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            domains[trailLesson[trailSize]][trailWord[trailSize]] |= trailBits[trailSize];
+        }
+    }
+
+    /**
+     * Outcome of a search: status, genes of the solution if any, nodes visited and
+     * the reason of an infeasible or unknown outcome
+     */
+    public static final class Result {
+        private final SolverStatus status;
+        private final short[] genes;
+        private final long nodes;
+        private final String reason;
+
+        private Result(SolverStatus status, short[] genes, long nodes, String reason) {
+            this.status = status;
+            this.genes = genes;
+            this.nodes = nodes;
+            this.reason = reason;
+        }
+
+        public SolverStatus getStatus() {
+            return status;
+        }
+
+        public short[] getGenes() {
+            return genes;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.solvd.schoolschedule.model.Timetable;
+
+/**
+ * Lock-free best-so-far timetable shared by concurrent generation attempts.
+ *
+ * <p>Attempts offer their best timetable after every generation and poll
+ * {@link #isSolved()} to stop cooperatively once any attempt reached a perfect fitness.
+ * {@link #claimSolution()} lets exactly one attempt present and persist the solution.</p>
+ */
+public class BestTimetableHolder {
+
+    private final double targetFitness;
+    private final AtomicReference<Timetable> best = new AtomicReference<>();
+    private final AtomicBoolean solutionClaimed = new AtomicBoolean();
+
+    /**
+     * @param targetFitness fitness at which the search is solved
+     */
+    public BestTimetableHolder(double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    /**
+     * Keep the candidate if it is better than the current best
+     *
+     * @param candidate an evaluated timetable
+     * @return true if the candidate became the best timetable
+     */
+    public boolean offer(Timetable candidate) {
+        while (true) {
+            Timetable current = best.get();
+            if (current != null && current.getFitness() >= candidate.getFitness()) {
+                return false;
+            }
+            if (best.compareAndSet(current, candidate)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the best timetable offered so far
+     *
+     * @return best timetable, or null if none was offered
+     */
+    public Timetable get() {
+        return best.get();
+    }
+
+    /**
+     * Checks whether the best timetable reached the target fitness
+     *
+     * @return true if solved
+     */
+    public boolean isSolved() {
+        Timetable current = best.get();
+        return current != null && current.getFitness() >= targetFitness;
+    }
+
+    /**
+     * Claim the right to present the solution, only the first caller succeeds
+     *
+     * @return true for the first caller after the search is solved
+     */
+    public boolean claimSolution() {
+        return isSolved() && solutionClaimed.compareAndSet(false, true);
+    }
+}
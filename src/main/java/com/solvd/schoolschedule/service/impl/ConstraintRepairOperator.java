@@ -0,0 +1,218 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Deterministic repair of cheap hard constraint violations in an offspring.
+ *
+ * <ol>
+ *   <li>Lessons taught by a teacher of another subject get the teacher of their subject, and
+ *   lessons in a classroom that cannot host their subject get a suitable classroom
+ *   ({@code InvalidAssignments}, {@code RoomAccomodate}).</li>
+ *   <li>Surplus lessons of a subject are dropped and missing ones are added, so every group
+ *   has its weekly number of lessons per subject ({@code Adjustment}).</li>
+ *   <li>Lessons colliding with another lesson of their group, teacher or classroom are moved
+ *   to the free (time slot, classroom) pair, found through an occupancy index, that improves
+ *   the fitness most. A move that would not improve the fitness is not made.</li>
+ * </ol>
+ *
+ * <p>The same input always gives the same output, and a timetable with nothing to repair is
+ * returned as is. Statistics are kept across calls and are safe to update from several threads.</p>
+ */
+public class ConstraintRepairOperator {
+
+    private final ResourceCatalog catalog;
+    private final DeltaFitnessEvaluator evaluator;
+    private final int days;
+    private final int periods;
+
+    private final AtomicLong repairedTimetables = new AtomicLong();
+    private final AtomicLong reassignedLessons = new AtomicLong();
+    private final AtomicLong adjustedLessons = new AtomicLong();
+    private final AtomicLong movedLessons = new AtomicLong();
+
+    /**
+     * @param populationService population service providing the school resources
+     * @param weights           penalty per conflict, used to accept or reject moves
+     */
+    public ConstraintRepairOperator(IPopulationService populationService, Map<ConflictType, Integer> weights) {
+        this.catalog = populationService.getCatalog();
+        this.evaluator = new DeltaFitnessEvaluator(populationService, weights);
+        this.days = catalog.getDays();
+        this.periods = catalog.getPeriods();
+    }
+
+    /**
+     * Repair a timetable
+     *
+     * @param timetable the timetable to repair
+     * @return the repaired timetable, or the same timetable if nothing was changed
+     */
+    public Timetable repair(Timetable timetable) {
+        List<Lesson> lessons = new ArrayList<>(timetable.getLessons());
+        OccupancyIndex index = new OccupancyIndex(catalog);
+
+        boolean changed = reassignResources(lessons, index);
+        changed |= adjustLessonCounts(lessons, index);
+        for (Lesson lesson : lessons) {
+            index.add(lesson, 1);
+        }
+        // Incremental evaluation only knows the school classrooms
+        if (lessons.stream().allMatch(lesson -> catalog.classroomId(lesson.getClassroom()) >= 0)) {
+            changed |= resolveCollisions(lessons, index);
+        }
+
+        if (!changed) {
+            return timetable;
+        }
+        repairedTimetables.incrementAndGet();
+        return new Timetable(lessons, timetable.getGeneration());
+    }
+
+    /**
+     * Give every lesson with a teacher of another subject its assigned teacher, a suitable known classroom and a slot inside the week
+     */
+    private boolean reassignResources(List<Lesson> lessons, OccupancyIndex index) {
+        boolean changed = false;
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            Subject subject = lesson.getSubject();
+            Teacher teacher = lesson.getTeacher();
+            Classroom classroom = lesson.getClassroom();
+            TimeSlot timeSlot = lesson.getTimeSlot();
+
+            if (teacher.getSubject() != subject && !catalog.getTeachers(subject).isEmpty()) {
+                teacher = catalog.getAssignedTeacher(lesson.getGroup(), subject);
+            }
+            if (!index.isInsideWeek(timeSlot)) {
+                timeSlot = catalog.getTimeSlot(0);
+            }
+            List<Classroom> suitable = catalog.getSuitableClassrooms(subject);
+            if ((!classroom.canAccommodate(subject) || catalog.classroomId(classroom) < 0) && !suitable.isEmpty()) {
+                classroom = suitable.get(0);
+            }
+
+            if (teacher != lesson.getTeacher() || classroom != lesson.getClassroom() || timeSlot != lesson.getTimeSlot()) {
+                lessons.set(i, new Lesson(subject, teacher, classroom, timeSlot, lesson.getGroup()));
+                reassignedLessons.incrementAndGet();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Drop the surplus lessons of every (group, subject) and add the missing ones.
+     * Added lessons are placed in a free slot of their group when there is one.
+     */
+    private boolean adjustLessonCounts(List<Lesson> lessons, OccupancyIndex index) {
+        int[][] counts = new int[catalog.getGroupCount()][Subject.values().length];
+        boolean changed = false;
+        Iterator<Lesson> iterator = lessons.iterator();
+        while (iterator.hasNext()) {
+            Lesson lesson = iterator.next();
+            int groupId = catalog.groupId(lesson.getGroup());
+            if (groupId < 0) {
+                continue;
+            }
+            Subject subject = lesson.getSubject();
+            if (++counts[groupId][subject.ordinal()] > catalog.getWeeklyLessons(subject)) {
+                iterator.remove();
+                adjustedLessons.incrementAndGet();
+                changed = true;
+            }
+        }
+
+        for (Lesson lesson : lessons) {
+            index.add(lesson, 1);
+        }
+        for (Group group : catalog.getGroups()) {
+            int groupId = catalog.groupId(group);
+            for (Subject subject : Subject.values()) {
+                List<Classroom> suitable = catalog.getSuitableClassrooms(subject);
+                if (catalog.getTeachers(subject).isEmpty() || suitable.isEmpty()) {
+                    continue;
+                }
+                Teacher teacher = catalog.getAssignedTeacher(group, subject);
+                for (int n = counts[groupId][subject.ordinal()]; n < catalog.getWeeklyLessons(subject); n++) {
+                    Lesson lesson = new Lesson(subject, teacher, suitable.get(0), index.firstFreeSlot(group), group);
+                    lessons.add(lesson);
+                    index.add(lesson, 1);
+                    adjustedLessons.incrementAndGet();
+                    changed = true;
+                }
+            }
+        }
+        for (Lesson lesson : lessons) {
+            index.add(lesson, -1);
+        }
+        return changed;
+    }
+
+    /**
+     * Move every colliding lesson to the free (time slot, classroom) pair that improves the fitness most
+     */
+    private boolean resolveCollisions(List<Lesson> lessons, OccupancyIndex index) {
+        DeltaFitnessEvaluator.State state = null;
+        boolean changed = false;
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            if (!index.isColliding(lesson)) {
+                continue;
+            }
+            if (state == null) {
+                state = evaluator.evaluate(new Timetable(lessons));
+            }
+
+            index.add(lesson, -1);
+            double bestFitness = state.getFitness();
+            Lesson bestMove = null;
+            for (Classroom classroom : catalog.getSuitableClassrooms(lesson.getSubject())) {
+                for (int day = 0; day < days; day++) {
+                    for (int period = 0; period < periods; period++) {
+                        if (!index.isFree(lesson.getGroup(), lesson.getTeacher(), classroom, day, period)) {
+                            continue;
+                        }
+                        Lesson move = new Lesson(lesson.getSubject(), lesson.getTeacher(), classroom,
+                                catalog.getTimeSlot(day, period), lesson.getGroup());
+                        double fitness = state.replace(i, move);
+                        if (fitness > bestFitness) {
+                            bestFitness = fitness;
+                            bestMove = move;
+                        }
+                    }
+                }
+            }
+
+            Lesson result = bestMove != null ? bestMove : lesson;
+            state.replace(i, result);
+            index.add(result, 1);
+            if (bestMove != null) {
+                lessons.set(i, bestMove);
+                movedLessons.incrementAndGet();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public long getRepairedTimetables() {
+        return repairedTimetables.get();
+    }
+
+    public long getReassignedLessons() {
+        return reassignedLessons.get();
+    }
+
+    public long getAdjustedLessons() {
+        return adjustedLessons.get();
+    }
+
+    public long getMovedLessons() {
+        return movedLessons.get();
+    }
+}
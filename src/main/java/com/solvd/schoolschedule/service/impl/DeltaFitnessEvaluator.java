@@ -0,0 +1,589 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Incremental fitness evaluation.
+ *
+ * <p>A {@link State} keeps per-period occupancy counters for every (group, day),
+ * (teacher, day) and (classroom, day) cell of one timetable, together with the
+ * conflict totals. Replacing a lesson only recomputes the cells the old and the
+ * new lesson touch, so scoring an offspring costs O(changed lessons) instead of
+ * O(all lessons x rules).</p>
+ *
+ * <p>States of evaluated timetables are kept in a registry, so the genetic operators
+ * can derive an offspring's state from its parent's. A derived state shares the lessons,
+ * the (resource, day) rows of occupancy counters and the lessons per (group, subject) with
+ * its parent, in pages of {@value #PAGE_SIZE} entries, and copies a page or a row only when a
+ * changed lesson touches it, so deriving a state costs O(changed lessons). Registered states
+ * are never changed again, so any number of threads can derive from the same parent. Lessons
+ * must use the classrooms of the population service and time slots inside the configured week.
+ * Unlike the other evaluators, states do not mark conflicted lessons.</p>
+ */
+public class DeltaFitnessEvaluator {
+
+    private static final int NUMBER_OF_TYPES = ConflictType.values().length;
+    private static final int NUMBER_OF_SUBJECTS = Subject.values().length;
+    private static final int PAGE_BITS = 6;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final ResourceCatalog catalog;
+    private final int[] weights = new int[NUMBER_OF_TYPES];
+    private final int days;
+    private final int periods;
+    // Timetables compare by identity
+    private final Map<Timetable, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * @param populationService population service providing the school resources
+     * @param weights           penalty per conflict, for every conflict type
+     */
+    public DeltaFitnessEvaluator(IPopulationService populationService, Map<ConflictType, Integer> weights) {
+        this.catalog = populationService.getCatalog();
+        for (ConflictType conflictType : ConflictType.values()) {
+            this.weights[conflictType.ordinal()] = weights.getOrDefault(conflictType, 0);
+        }
+        this.days = catalog.getDays();
+        this.periods = catalog.getPeriods();
+    }
+
+    /**
+     * Build the state of a timetable from scratch
+     *
+     * @param timetable the timetable to evaluate
+     * @return a new state
+     */
+    public State evaluate(Timetable timetable) {
+        State state = new State(timetable.getLessons().size());
+        List<Lesson> lessons = timetable.getLessons();
+        for (int i = 0; i < lessons.size(); i++) {
+            state.replace(i, lessons.get(i));
+        }
+        return state;
+    }
+
+    /**
+     * Returns the registered state of a timetable, evaluating and registering it if needed
+     *
+     * @param timetable the timetable
+     * @return state of the timetable
+     */
+    public State getState(Timetable timetable) {
+        State state = states.get(timetable);
+        if (state == null) {
+            state = evaluate(timetable);
+            states.put(timetable, state);
+        }
+        return state;
+    }
+
+    /**
+     * Checks whether a timetable has a registered state
+     *
+     * @param timetable the timetable
+     * @return true if its state is registered
+     */
+    public boolean hasState(Timetable timetable) {
+        return states.containsKey(timetable);
+    }
+
+    /**
+     * Registers the state of an offspring derived from its parent's state, finding the positions
+     * whose lesson differs from the parent by one reference comparison per position.
+     * Nothing is registered if the parent has no state or a different number of lessons.
+     *
+     * @param parent    evaluated parent timetable
+     * @param offspring offspring with the same lesson positions as the parent
+     */
+    public void deriveState(Timetable parent, Timetable offspring) {
+        if (parent == offspring) {
+            return;
+        }
+        State parentState = states.get(parent);
+        if (parentState == null || parentState.size != offspring.getLessons().size()) {
+            return;
+        }
+        List<Lesson> lessons = offspring.getLessons();
+        BitSet changed = new BitSet(lessons.size());
+        for (int i = 0; i < lessons.size(); i++) {
+            if (lessons.get(i) != parentState.getLesson(i)) {
+                changed.set(i);
+            }
+        }
+        states.put(offspring, newDerivedState(parentState, offspring, changed));
+    }
+
+    /**
+     * Registers the state of an offspring derived from its parent's state, given the positions
+     * the operators changed. Only those positions are re-evaluated: the (resource, day) rows they
+     * touch are copied and their totals recomputed once for all the changes, instead of twice per
+     * changed lesson. Nothing is registered if the parent has no state or a different number of lessons.
+     *
+     * @param parent    evaluated parent timetable
+     * @param offspring offspring with the same lesson positions as the parent
+     * @param changed   every position whose lesson may differ from the parent, not modified
+     */
+    public void deriveState(Timetable parent, Timetable offspring, BitSet changed) {
+        State state = newDerivedState(parent, offspring, changed);
+        if (state != null) {
+            states.put(offspring, state);
+        }
+    }
+
+    /**
+     * Derives the state of an offspring from its parent's state like {@link #deriveState(Timetable, Timetable, BitSet)},
+     * without registering it, so the caller can keep replacing lessons before {@link #register registering} it
+     *
+     * @param parent    evaluated parent timetable
+     * @param offspring offspring with the same lesson positions as the parent
+     * @param changed   every position whose lesson may differ from the parent, not modified
+     * @return unregistered state of the offspring, or null if the parent has no state or a different number of lessons
+     */
+    public State newDerivedState(Timetable parent, Timetable offspring, BitSet changed) {
+        if (parent == offspring) {
+            return null;
+        }
+        State parentState = states.get(parent);
+        if (parentState == null || parentState.size != offspring.getLessons().size()) {
+            return null;
+        }
+        if (changed.length() > parentState.size) {
+            throw new IllegalArgumentException("Changed position outside of the timetable: " + (changed.length() - 1));
+        }
+        return newDerivedState(parentState, offspring, changed);
+    }
+
+    private State newDerivedState(State parentState, Timetable offspring, BitSet changed) {
+        State state = new State(parentState);
+        state.replaceAll(changed, offspring.getLessons());
+        return state;
+    }
+
+    /**
+     * Registers the state of a timetable, which must not be changed afterwards
+     *
+     * @param timetable the timetable
+     * @param state     its state, holding the same lessons
+     */
+    public void register(Timetable timetable, State state) {
+        states.put(timetable, state);
+    }
+
+    /**
+     * Drops the states of every timetable that is not part of the population
+     *
+     * @param population the current population
+     */
+    public void retainStates(List<Timetable> population) {
+        Set<Timetable> alive = Collections.newSetFromMap(new IdentityHashMap<>());
+        alive.addAll(population);
+        states.keySet().retainAll(alive);
+    }
+
+    /**
+     * Occupancy counters and conflict totals of one timetable
+     */
+    public final class State implements ISlotOccupancy {
+        private final int size;
+        private final Pages<Lesson> lessons;
+        private final int[] counts;
+        // lessons per period of every (resource, day) row
+        private final Rows groupSlots;
+        private final Rows physicalCultureSlots;
+        private final Rows teacherSlots;
+        private final Rows roomSlots;
+        // lessons per subject of every group
+        private final Rows subjectCounts;
+
+        private State(int size) {
+            this.size = size;
+            this.lessons = new Pages<>(size);
+            this.counts = new int[NUMBER_OF_TYPES];
+            this.groupSlots = new Rows(catalog.getGroupCount() * days, periods);
+            this.physicalCultureSlots = new Rows(catalog.getGroupCount() * days, periods);
+            this.teacherSlots = new Rows(catalog.getTeacherCount() * days, periods);
+            this.roomSlots = new Rows(catalog.getClassroomCount() * days, periods);
+            this.subjectCounts = new Rows(catalog.getGroupCount(), NUMBER_OF_SUBJECTS);
+            // Every group starts with all its weekly lessons missing
+            for (int groupId = 0; groupId < catalog.getGroupCount(); groupId++) {
+                for (Subject subject : Subject.values()) {
+                    counts[ConflictType.ADJUSTMENT.ordinal()] += catalog.getWeeklyLessons(subject);
+                }
+            }
+        }
+
+        /**
+         * State sharing the lessons and rows of another state, which must not change afterwards
+         */
+        private State(State other) {
+            this.size = other.size;
+            this.lessons = new Pages<>(other.lessons);
+            this.counts = other.counts.clone();
+            this.groupSlots = new Rows(other.groupSlots);
+            this.physicalCultureSlots = new Rows(other.physicalCultureSlots);
+            this.teacherSlots = new Rows(other.teacherSlots);
+            this.roomSlots = new Rows(other.roomSlots);
+            this.subjectCounts = new Rows(other.subjectCounts);
+        }
+
+        public double getFitness() {
+            double fitness = 2000.0;
+            for (int i = 0; i < NUMBER_OF_TYPES; i++) {
+                fitness -= counts[i] * weights[i];
+            }
+            return fitness;
+        }
+
+        public int getConflicts(ConflictType conflictType) {
+            return counts[conflictType.ordinal()];
+        }
+
+        /**
+         * Returns one conflict entry per conflict type, in declaration order
+         *
+         * @return conflicts
+         */
+        public List<Conflict> getConflicts() {
+            List<Conflict> conflicts = new ArrayList<>(NUMBER_OF_TYPES);
+            for (ConflictType conflictType : ConflictType.values()) {
+                conflicts.add(new Conflict(conflictType, counts[conflictType.ordinal()]));
+            }
+            return conflicts;
+        }
+
+        public Lesson getLesson(int position) {
+            return lessons.get(position);
+        }
+
+        @Override
+        public boolean isFree(Group group, Teacher teacher, int day, int period) {
+            int groupId = catalog.groupId(group);
+            int teacherId = catalog.teacherId(teacher);
+            return (groupId < 0 || groupSlots.read(groupId * days + day)[period] == 0)
+                    && (teacherId < 0 || teacherSlots.read(teacherId * days + day)[period] == 0);
+        }
+
+        @Override
+        public boolean isFree(Group group, Teacher teacher, Classroom classroom, int day, int period) {
+            int classroomId = catalog.classroomId(classroom);
+            return isFree(group, teacher, day, period)
+                    && (classroomId < 0 || roomSlots.read(classroomId * days + day)[period] == 0);
+        }
+
+        /**
+         * Replace the lesson at a position and update the affected cells
+         *
+         * @param position lesson position in the timetable
+         * @param lesson   new lesson (null to remove it)
+         * @return fitness after the change
+         */
+        public double replace(int position, Lesson lesson) {
+            Lesson old = lessons.get(position);
+            if (old != null) {
+                apply(old, -1);
+            }
+            lessons.set(position, lesson);
+            if (lesson != null) {
+                apply(lesson, 1);
+            }
+            return getFitness();
+        }
+
+        /**
+         * Replace the lessons at several positions, recomputing the totals of every touched
+         * (group, day) and (teacher, day) row once
+         *
+         * @param positions positions to replace
+         * @param lessons   new lessons, indexed by position
+         */
+        private void replaceAll(BitSet positions, List<Lesson> lessons) {
+            BitSet groupRows = new BitSet();
+            BitSet teacherRows = new BitSet();
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                markRows(this.lessons.get(i), groupRows, teacherRows);
+                markRows(lessons.get(i), groupRows, teacherRows);
+            }
+            updateRows(groupRows, teacherRows, -1);
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                Lesson old = this.lessons.get(i);
+                if (old != null) {
+                    applyCounters(old, -1);
+                }
+                Lesson lesson = lessons.get(i);
+                this.lessons.set(i, lesson);
+                applyCounters(lesson, 1);
+            }
+            updateRows(groupRows, teacherRows, 1);
+        }
+
+        private void markRows(Lesson lesson, BitSet groupRows, BitSet teacherRows) {
+            if (lesson == null) {
+                return;
+            }
+            int groupRow = groupRow(lesson);
+            if (groupRow >= 0) {
+                groupRows.set(groupRow);
+            }
+            int teacherRow = teacherRow(lesson);
+            if (teacherRow >= 0) {
+                teacherRows.set(teacherRow);
+            }
+        }
+
+        private void updateRows(BitSet groupRows, BitSet teacherRows, int sign) {
+            for (int row = groupRows.nextSetBit(0); row >= 0; row = groupRows.nextSetBit(row + 1)) {
+                updateGroupCell(row, sign);
+            }
+            for (int row = teacherRows.nextSetBit(0); row >= 0; row = teacherRows.nextSetBit(row + 1)) {
+                updateTeacherCell(row, sign);
+            }
+        }
+
+        /**
+         * Add (+1) or remove (-1) a lesson from the counters
+         */
+        private void apply(Lesson lesson, int sign) {
+            int groupRow = groupRow(lesson);
+            int teacherRow = teacherRow(lesson);
+            if (groupRow >= 0) {
+                updateGroupCell(groupRow, -1);
+            }
+            if (teacherRow >= 0) {
+                updateTeacherCell(teacherRow, -1);
+            }
+            applyCounters(lesson, sign);
+            if (groupRow >= 0) {
+                updateGroupCell(groupRow, 1);
+            }
+            if (teacherRow >= 0) {
+                updateTeacherCell(teacherRow, 1);
+            }
+        }
+
+        /**
+         * (group, day) row of a lesson, or -1 if the group is not in the catalog
+         */
+        private int groupRow(Lesson lesson) {
+            int groupId = catalog.groupId(lesson.getGroup());
+            return groupId < 0 ? -1 : groupId * days + checkedDay(lesson);
+        }
+
+        /**
+         * (teacher, day) row of a lesson, or -1 if the teacher is not in the catalog
+         */
+        private int teacherRow(Lesson lesson) {
+            int teacherId = catalog.teacherId(lesson.getTeacher());
+            return teacherId < 0 ? -1 : teacherId * days + checkedDay(lesson);
+        }
+
+        private int checkedDay(Lesson lesson) {
+            int day = lesson.getTimeSlot().getDay();
+            int period = lesson.getTimeSlot().getPeriod();
+            if (day < 0 || day >= days || period < 0 || period >= periods) {
+                throw new IllegalArgumentException("Time slot outside of the school week: " + lesson.getTimeSlot());
+            }
+            return day;
+        }
+
+        /**
+         * Add (+1) or remove (-1) a lesson from the counters, leaving the totals of its
+         * (group, day) and (teacher, day) rows to the caller
+         */
+        private void applyCounters(Lesson lesson, int sign) {
+            Subject subject = lesson.getSubject();
+            int day = checkedDay(lesson);
+            int period = lesson.getTimeSlot().getPeriod();
+            int classroomId = catalog.classroomId(lesson.getClassroom());
+            if (classroomId < 0) {
+                throw new IllegalArgumentException("Unknown classroom: " + lesson.getClassroom());
+            }
+
+            // Per-lesson rules
+            if (!lesson.getClassroom().canAccommodate(subject)) {
+                counts[ConflictType.ROOM_ACCOMODATE.ordinal()] += sign;
+                counts[ConflictType.INVALID_ASSIGMENTS.ordinal()] += sign;
+            }
+            if (lesson.getTeacher().getSubject() != subject) {
+                counts[ConflictType.INVALID_ASSIGMENTS.ordinal()] += sign;
+            }
+
+            // Room conflicts: every lesson beyond the first in a room and slot
+            int[] roomRow = roomSlots.write(classroomId * days + day);
+            if (sign > 0 && roomRow[period]++ > 0 || sign < 0 && --roomRow[period] > 0) {
+                counts[ConflictType.ROOM_CONFLICTS.ordinal()] += sign;
+            }
+
+            int groupId = catalog.groupId(lesson.getGroup());
+            if (groupId >= 0) {
+                int[] subjectRow = subjectCounts.write(groupId);
+                int expected = catalog.getWeeklyLessons(subject);
+                counts[ConflictType.ADJUSTMENT.ordinal()] -= Math.abs(expected - subjectRow[subject.ordinal()]);
+                subjectRow[subject.ordinal()] += sign;
+                counts[ConflictType.ADJUSTMENT.ordinal()] += Math.abs(expected - subjectRow[subject.ordinal()]);
+
+                int row = groupId * days + day;
+                groupSlots.write(row)[period] += sign;
+                if (subject == Subject.PHYSICAL_CULTURE) {
+                    physicalCultureSlots.write(row)[period] += sign;
+                }
+            }
+
+            int teacherId = catalog.teacherId(lesson.getTeacher());
+            if (teacherId >= 0) {
+                teacherSlots.write(teacherId * days + day)[period] += sign;
+            }
+        }
+
+        /**
+         * Add (+1) or remove (-1) the contribution of a (group, day) cell to the totals
+         */
+        private void updateGroupCell(int row, int sign) {
+            int[] slots = groupSlots.read(row);
+            int[] physicalCultureRow = physicalCultureSlots.read(row);
+            int lessonsInDay = 0;
+            int collisions = 0;
+            int first = -1;
+            int last = -1;
+            int occupied = 0;
+            int firstPhysicalCulture = -1;
+            int physicalCultureLessons = 0;
+            for (int period = 0; period < periods; period++) {
+                int count = slots[period];
+                if (count > 0) {
+                    lessonsInDay += count;
+                    collisions += count - 1;
+                    occupied++;
+                    if (first < 0) {
+                        first = period;
+                    }
+                    last = period;
+                }
+                int physicalCulture = physicalCultureRow[period];
+                if (physicalCulture > 0) {
+                    physicalCultureLessons += physicalCulture;
+                    if (firstPhysicalCulture < 0) {
+                        firstPhysicalCulture = period;
+                    }
+                }
+            }
+            if (first < 0) {
+                return;
+            }
+            counts[ConflictType.GROUP_COLLISIONS.ordinal()] += sign * collisions;
+            counts[ConflictType.GROUP_GAPS.ordinal()] += sign * (last - first + 1 - occupied);
+            counts[ConflictType.MAX_LESSONS_PER_DAY.ordinal()] += sign * Math.max(0, lessonsInDay - periods);
+            if (physicalCultureLessons > 0) {
+                counts[ConflictType.LAST_LESSON.ordinal()] +=
+                        sign * (last - firstPhysicalCulture - physicalCultureLessons + 1);
+            }
+        }
+
+        /**
+         * Add (+1) or remove (-1) the contribution of a (teacher, day) cell to the totals
+         */
+        private void updateTeacherCell(int row, int sign) {
+            int[] slots = teacherSlots.read(row);
+            int collisions = 0;
+            int first = -1;
+            int last = -1;
+            int occupied = 0;
+            for (int period = 0; period < periods; period++) {
+                int count = slots[period];
+                if (count > 0) {
+                    collisions += count - 1;
+                    occupied++;
+                    if (first < 0) {
+                        first = period;
+                    }
+                    last = period;
+                }
+            }
+            if (first < 0) {
+                return;
+            }
+            counts[ConflictType.TEACHER_COLLISIONS.ordinal()] += sign * collisions;
+            counts[ConflictType.TEACHER_GAPS.ordinal()] += sign * (last - first + 1 - occupied);
+        }
+    }
+
+    /**
+     * Per-period counters of (resource, day) rows. A copy shares the rows of the original
+     * and copies a row on its first write, so the original must not be written afterwards.
+     */
+    private static final class Rows {
+        private final Pages<int[]> rows;
+        // null if every row is owned
+        private final BitSet owned;
+
+        private Rows(int rowCount, int width) {
+            this.rows = new Pages<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                rows.set(row, new int[width]);
+            }
+            this.owned = null;
+        }
+
+        private Rows(Rows other) {
+            this.rows = new Pages<>(other.rows);
+            this.owned = new BitSet();
+        }
+
+        private int[] read(int row) {
+            return rows.get(row);
+        }
+
+        private int[] write(int row) {
+            int[] counters = rows.get(row);
+            if (owned != null && !owned.get(row)) {
+                counters = counters.clone();
+                rows.set(row, counters);
+                owned.set(row);
+            }
+            return counters;
+        }
+    }
+
+    /**
+     * Fixed-size array split into pages. A copy shares the page table and the pages of the original
+     * and copies the table, then a page, on its first write there, so the original must not be
+     * written afterwards.
+     */
+    private static final class Pages<T> {
+        private Object[][] pages;
+        // null while the page table is shared
+        private boolean[] owned;
+
+        private Pages(int length) {
+            this.pages = new Object[(length + PAGE_SIZE - 1) >>> PAGE_BITS][PAGE_SIZE];
+            this.owned = new boolean[pages.length];
+            Arrays.fill(owned, true);
+        }
+
+        private Pages(Pages<T> other) {
+            this.pages = other.pages;
+            this.owned = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int index) {
+            return (T) pages[index >>> PAGE_BITS][index & (PAGE_SIZE - 1)];
+        }
+
+        private void set(int index, T value) {
+            if (owned == null) {
+                pages = pages.clone();
+                owned = new boolean[pages.length];
+            }
+            int page = index >>> PAGE_BITS;
+            if (!owned[page]) {
+                pages[page] = pages[page].clone();
+                owned[page] = true;
+            }
+            pages[page][index & (PAGE_SIZE - 1)] = value;
+        }
+    }
+}
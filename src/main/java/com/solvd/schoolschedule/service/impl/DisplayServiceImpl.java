@@ -15,6 +15,13 @@ public class DisplayServiceImpl implements IDisplayService {
         this.timetableView = new TimetableView();
     }
 
+    /**
+     * @param problem size of the week to lay the schedules out for
+     */
+    public DisplayServiceImpl(ProblemDefinition problem) {
+        this.timetableView = new TimetableView(problem.getDays(), problem.getPeriodsPerDay());
+    }
+
     /**
      * Displays on console a complete summary of the timetable
      *
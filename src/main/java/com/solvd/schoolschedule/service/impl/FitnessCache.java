@@ -0,0 +1,190 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded fitness memo keyed by genome hash, evicting with the clock algorithm.
+ *
+ * <p>Elites, unmutated offspring and offspring that rebuild a parent exactly are scored
+ * again every generation; the cache answers those from a previous evaluation, with the
+ * conflict mask it published so a cache hit still tells the mutation which lessons conflict.
+ * Lookups are thread-safe so parallel evaluation workers can share one cache.</p>
+ *
+ * <p>Lookups read a concurrent map without locking and only set the referenced bit of the entry
+ * they hit. Inserting a new genome takes the clock lock to find a victim: the hand sweeps the
+ * ring of cached genomes, clearing referenced bits, and evicts the first genome not looked up
+ * since the hand last passed it.</p>
+ */
+public class FitnessCache {
+
+    private final int capacity;
+    private final ConcurrentHashMap<Long, Entry> entries;
+    /**
+     * Clock ring of the cached genome hashes, guarded by itself
+     */
+    private final long[] ring;
+    private int ringSize;
+    private int hand;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity maximum number of cached fitness values
+     */
+    public FitnessCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>();
+        this.ring = new long[capacity];
+    }
+
+    /**
+     * Returns the cached fitness of a genome and counts the hit or miss
+     *
+     * @param genomeHash genome hash
+     * @return cached fitness, or null if not cached
+     */
+    public Double get(long genomeHash) {
+        Entry entry = getEntry(genomeHash);
+        return entry != null ? entry.getFitness() : null;
+    }
+
+    /**
+     * Returns the cached evaluation of a genome and counts the hit or miss
+     *
+     * @param genomeHash genome hash
+     * @return cached fitness and conflict mask, or null if not cached
+     */
+    public Entry getEntry(long genomeHash) {
+        Entry entry = entries.get(genomeHash);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Stores the fitness of a genome without a conflict mask, e.g. of an encoded timetable
+     *
+     * @param genomeHash genome hash
+     * @param fitness    fitness of the genome
+     */
+    public void put(long genomeHash, double fitness) {
+        put(genomeHash, fitness, null);
+    }
+
+    /**
+     * Stores the evaluation of a genome, evicting an entry not looked up recently if full
+     *
+     * @param genomeHash   genome hash
+     * @param fitness      fitness of the genome
+     * @param conflictMask conflicted positions published by the evaluation, or null if unknown.
+     *                     Published masks are never modified, so timetables hitting the entry share it.
+     */
+    public void put(long genomeHash, double fitness, BitSet conflictMask) {
+        if (entries.put(genomeHash, new Entry(fitness, conflictMask)) == null) {
+            synchronized (ring) {
+                addToRing(genomeHash);
+            }
+        }
+    }
+
+    /**
+     * Gives a new genome a place on the clock ring, evicting the genome at the hand if full
+     */
+    private void addToRing(long genomeHash) {
+        if (ringSize < capacity) {
+            ring[ringSize++] = genomeHash;
+            return;
+        }
+        // One sweep clears every referenced bit, so the victim is found within one round
+        for (int sweep = 0; sweep < capacity; sweep++) {
+            Entry entry = entries.get(ring[hand]);
+            if (entry == null || !entry.referenced) {
+                break;
+            }
+            entry.referenced = false;
+            hand = (hand + 1) % capacity;
+        }
+        entries.remove(ring[hand]);
+        ring[hand] = genomeHash;
+        hand = (hand + 1) % capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Share of lookups answered from the cache
+     *
+     * @return hit rate between 0 and 1 (0 before the first lookup)
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Removes every entry and resets the counters, while no other thread uses the cache
+     */
+    public void clear() {
+        synchronized (ring) {
+            entries.clear();
+            ringSize = 0;
+            hand = 0;
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Cached evaluation of one genome
+     */
+    public static final class Entry {
+        private final double fitness;
+        private final BitSet conflictMask;
+        /**
+         * Set by lookups, cleared by the clock hand
+         */
+        private volatile boolean referenced;
+
+        private Entry(double fitness, BitSet conflictMask) {
+            this.fitness = fitness;
+            this.conflictMask = conflictMask;
+        }
+
+        public double getFitness() {
+            return fitness;
+        }
+
+        /**
+         * @return conflicted positions, shared and not to be modified, or null if unknown
+         */
+        public BitSet getConflictMask() {
+            return conflictMask;
+        }
+    }
+}
@@ -1,23 +1,142 @@
 package com.solvd.schoolschedule.service.impl;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
 
 import com.solvd.schoolschedule.model.*;
 import com.solvd.schoolschedule.service.impl.conflictstrategies.*;
 import com.solvd.schoolschedule.service.interfaces.*;
+import com.solvd.schoolschedule.util.jfr.ConflictStrategyEvent;
+import com.solvd.schoolschedule.util.jfr.PopulationEvaluationEvent;
+import jdk.jfr.EventType;
 
 /**
  * Service for evaluating timetable fitness based on scheduling constraints.
+ * A service evaluating on several threads owns a thread pool, released by {@link #close()}.
  */
-public class FitnessServiceImpl implements IFitnessService {
+public class FitnessServiceImpl implements IFitnessService, AutoCloseable {
+
+    /**
+     * Number of timetables below which a parallel evaluation task stops splitting
+     */
+    private static final int EVALUATION_CHUNK_SIZE = 4;
+
+    /**
+     * Lets the allocation-free evaluation skip creating an event nobody records
+     */
+    private static final EventType POPULATION_EVALUATION = EventType.getEventType(PopulationEvaluationEvent.class);
+
+    /**
+     * Lets the strategy calls skip sampling while nobody records conflict strategy events
+     */
+    private static final EventType CONFLICT_STRATEGY = EventType.getEventType(ConflictStrategyEvent.class);
 
     private final IPopulationService populationService;
+    private final EvaluationMode evaluationMode;
     private final Map<IConflictStrategy, Integer> rules;
+    private final Map<ConflictType, Integer> weights;
+    private final int[] weightsByType;
+    private final ForkJoinPool evaluationPool;
+    private final FusedConflictEvaluator fusedEvaluator;
+    private final FusedConflictEvaluator encodedEvaluator;
+    private final DeltaFitnessEvaluator deltaEvaluator;
+    private final FitnessCache fitnessCache;
 
     public FitnessServiceImpl(IPopulationService populationService) {
+        this(populationService, 1);
+    }
+
+    public FitnessServiceImpl(IPopulationService populationService, int parallelism) {
+        this(populationService, parallelism, EvaluationMode.STRATEGIES);
+    }
+
+    /**
+     * Creates a fitness service that evaluates populations on the given number of threads
+     *
+     * @param populationService population service
+     * @param parallelism       number of evaluation threads (1 = sequential)
+     * @param evaluationMode    how conflicts are counted
+     */
+    public FitnessServiceImpl(IPopulationService populationService, int parallelism, EvaluationMode evaluationMode) {
+        this(populationService, parallelism, evaluationMode, 0);
+    }
+
+    /**
+     * Creates a fitness service that memoizes population evaluations by genome hash
+     *
+     * @param populationService population service
+     * @param parallelism       number of evaluation threads (1 = sequential)
+     * @param evaluationMode    how conflicts are counted
+     * @param cacheSize         number of cached fitness values (0 = no cache)
+     */
+    public FitnessServiceImpl(IPopulationService populationService, int parallelism, EvaluationMode evaluationMode,
+                              int cacheSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
         this.populationService = populationService;
+        this.evaluationMode = evaluationMode;
         this.rules = createConflictStrategies();
+        this.weights = new EnumMap<>(ConflictType.class);
+        for (Map.Entry<IConflictStrategy, Integer> rule : rules.entrySet()) {
+            weights.put(rule.getKey().getConflictType(), rule.getValue());
+        }
+        this.weightsByType = new int[ConflictType.values().length];
+        for (ConflictType conflictType : ConflictType.values()) {
+            weightsByType[conflictType.ordinal()] = weights.getOrDefault(conflictType, 0);
+        }
+        this.evaluationPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.fusedEvaluator = evaluationMode == EvaluationMode.FUSED
+                ? new FusedConflictEvaluator(populationService) : null;
+        // Encoded timetables are always counted in a single sweep, which also marks the conflicts
+        // of timetables scored without a mask
+        this.encodedEvaluator = fusedEvaluator != null ? fusedEvaluator : new FusedConflictEvaluator(populationService);
+        this.deltaEvaluator = evaluationMode == EvaluationMode.INCREMENTAL
+                ? new DeltaFitnessEvaluator(populationService, weights) : null;
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+        }
+        this.fitnessCache = cacheSize > 0 ? new FitnessCache(cacheSize) : null;
+    }
+
+    /**
+     * Shut down the evaluation threads, a sequential service has none
+     */
+    @Override
+    public void close() {
+        if (evaluationPool != null) {
+            evaluationPool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the incremental evaluator shared with the genetic operators
+     *
+     * @return delta evaluator, or null if the evaluation mode is not INCREMENTAL
+     */
+    public DeltaFitnessEvaluator getDeltaEvaluator() {
+        return deltaEvaluator;
+    }
 
+    /**
+     * Returns the fitness cache consulted by the population evaluations
+     *
+     * @return fitness cache, or null if caching is disabled
+     */
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    /**
+     * Returns the penalty of one conflict, for every conflict type
+     *
+     * @return read-only weights
+     */
+    public Map<ConflictType, Integer> getConflictWeights() {
+        return Collections.unmodifiableMap(weights);
     }
 
     /**
@@ -31,14 +150,91 @@ public class FitnessServiceImpl implements IFitnessService {
     public double calculateFitness(Timetable timetable) {
         double fitness = 2000.0; // Base fitness (increased for more evolution room)
 
+        if (deltaEvaluator != null) {
+            return deltaEvaluator.getState(timetable).getFitness();
+        }
+
+        if (fusedEvaluator != null) {
+            int[] counts = countFusedConflicts(timetable);
+            for (ConflictType conflictType : ConflictType.values()) {
+                fitness -= counts[conflictType.ordinal()] * weights.get(conflictType);
+            }
+            return fitness;
+        }
+
+        ConflictMask mask = new ConflictMask(timetable);
         for (IConflictStrategy conflictStrategy : rules.keySet()) {
-            int NumberOfConflicts = conflictStrategy.calculateConflicts(timetable);
+            int NumberOfConflicts = calculateConflicts(conflictStrategy, timetable, mask);
             fitness -= NumberOfConflicts * rules.get(conflictStrategy);
         }
+        timetable.setConflictMask(mask.toBitSet());
 
         return fitness;
     }
 
+    /**
+     * Run a conflict strategy, recording a sample of the invocations as JFR events
+     *
+     * @param conflictStrategy the strategy
+     * @param timetable        the timetable to check
+     * @param mask             conflict marks of the current evaluation
+     * @return number of conflicts
+     */
+    private int calculateConflicts(IConflictStrategy conflictStrategy, Timetable timetable, ConflictMask mask) {
+        if (!isSampled()) {
+            return conflictStrategy.calculateConflicts(timetable, mask);
+        }
+        ConflictStrategyEvent event = new ConflictStrategyEvent();
+        event.begin();
+        int conflicts = conflictStrategy.calculateConflicts(timetable, mask);
+        event.end();
+        if (event.shouldCommit()) {
+            event.conflictType = conflictStrategy.getConflictType().name();
+            event.conflicts = conflicts;
+            event.lessonCount = timetable.getLessons().size();
+            event.commit();
+        }
+        return conflicts;
+    }
+
+    /**
+     * Count the conflicts with the fused evaluator, recording a sample of the passes as one
+     * JFR event per conflict type
+     *
+     * @param timetable the timetable to check
+     * @return number of conflicts, indexed by conflict type ordinal
+     */
+    private int[] countFusedConflicts(Timetable timetable) {
+        if (!isSampled()) {
+            return fusedEvaluator.countConflicts(timetable);
+        }
+        long start = System.nanoTime();
+        int[] counts = fusedEvaluator.countConflicts(timetable);
+        long pass = System.nanoTime() - start;
+        for (ConflictType conflictType : ConflictType.values()) {
+            ConflictStrategyEvent event = new ConflictStrategyEvent();
+            if (event.shouldCommit()) {
+                event.conflictType = conflictType.name();
+                event.conflicts = counts[conflictType.ordinal()];
+                event.lessonCount = timetable.getLessons().size();
+                event.fused = true;
+                event.fusedPass = pass;
+                event.commit();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Checks whether conflict strategy events are recorded, and draws whether this invocation is in the sample
+     *
+     * @return true if the invocation should be recorded
+     */
+    private static boolean isSampled() {
+        return CONFLICT_STRATEGY.isEnabled() && (SchoolConfig.JFR_STRATEGY_SAMPLE_RATE <= 1
+                || ThreadLocalRandom.current().nextInt(SchoolConfig.JFR_STRATEGY_SAMPLE_RATE) == 0);
+    }
+
     /**
      * Calculate and update conflict list for a timetable
      *
@@ -48,12 +244,28 @@ public class FitnessServiceImpl implements IFitnessService {
         double fitness = 2000.0; // Base fitness (increased for more evolution room)
         timetable.setConflicts(new ArrayList<>());
 
+        if (deltaEvaluator != null) {
+            for (Conflict conflict : deltaEvaluator.getState(timetable).getConflicts()) {
+                timetable.addConflict(conflict);
+            }
+            return;
+        }
+
+        if (fusedEvaluator != null) {
+            for (Conflict conflict : fusedEvaluator.evaluate(timetable)) {
+                timetable.addConflict(conflict);
+            }
+            return;
+        }
+
+        ConflictMask mask = new ConflictMask(timetable);
         for (IConflictStrategy conflictStrategy : rules.keySet()) {
-            int NumberOfConflicts = conflictStrategy.calculateConflicts(timetable);
+            int NumberOfConflicts = conflictStrategy.calculateConflicts(timetable, mask);
             fitness -= NumberOfConflicts * rules.get(conflictStrategy);
             Conflict conflict = new Conflict(conflictStrategy.getConflictType(), NumberOfConflicts);
             timetable.addConflict(conflict);
         }
+        timetable.setConflictMask(mask.toBitSet());
     }
 
     /**
@@ -63,9 +275,160 @@ public class FitnessServiceImpl implements IFitnessService {
      */
     @Override
     public void evaluatePopulation(List<Timetable> population) {
-        for (Timetable timetable : population) {
-            double fitness = calculateFitness(timetable);
+        PopulationEvaluationEvent event = new PopulationEvaluationEvent();
+        event.begin();
+        evaluateAll(population.size(), i -> {
+            Timetable timetable = population.get(i);
+            double fitness = calculateCachedFitness(timetable);
             timetable.setFitness(fitness);
+        });
+        if (deltaEvaluator != null) {
+            deltaEvaluator.retainStates(population);
+        }
+        commitEvaluationEvent(event, population.size(), false);
+    }
+
+    /**
+     * Calculate fitness for an encoded timetable
+     *
+     * @param timetable the encoded timetable to evaluate
+     * @return fitness score
+     */
+    @Override
+    public double calculateFitness(EncodedTimetable timetable) {
+        return 2000.0 - encodedEvaluator.countPenalty(timetable, weightsByType);
+    }
+
+    /**
+     * Evaluate an encoded population and set fitness for each timetable
+     *
+     * @param population the population to evaluate
+     */
+    @Override
+    public void evaluateEncodedPopulation(List<EncodedTimetable> population) {
+        PopulationEvaluationEvent event = new PopulationEvaluationEvent();
+        event.begin();
+        evaluateAll(population.size(), i -> {
+            EncodedTimetable timetable = population.get(i);
+            timetable.setFitness(calculateCachedFitness(timetable));
+        });
+        commitEvaluationEvent(event, population.size(), true);
+    }
+
+    /**
+     * Evaluate an encoded population held in an array, e.g. one buffer of a {@link DoubleBufferedPopulation}.
+     * Sequential evaluation without a fitness cache allocates nothing.
+     *
+     * @param population the population to evaluate
+     */
+    @Override
+    public void evaluateEncodedPopulation(EncodedTimetable[] population) {
+        PopulationEvaluationEvent event = POPULATION_EVALUATION.isEnabled() ? new PopulationEvaluationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        if (evaluationPool == null || population.length <= EVALUATION_CHUNK_SIZE) {
+            for (EncodedTimetable timetable : population) {
+                timetable.setFitness(calculateCachedFitness(timetable));
+            }
+        } else {
+            evaluateAll(population.length, i -> population[i].setFitness(calculateCachedFitness(population[i])));
+        }
+        if (event != null) {
+            commitEvaluationEvent(event, population.length, true);
+        }
+    }
+
+    private void commitEvaluationEvent(PopulationEvaluationEvent event, int populationSize, boolean encoded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.populationSize = populationSize;
+            // Encoded populations are always counted by the fused evaluator
+            event.evaluationMode = (encoded ? EvaluationMode.FUSED : evaluationMode).name();
+            event.encoded = encoded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Calculate fitness, answering from the cache when the genome was already scored.
+     * Offspring with a state derived by the delta evaluator are cheaper to score than to look up.
+     * A cache hit publishes the conflict mask cached with the fitness.
+     *
+     * @param timetable the timetable to evaluate
+     * @return fitness score
+     */
+    private double calculateCachedFitness(Timetable timetable) {
+        if (fitnessCache == null || deltaEvaluator != null && deltaEvaluator.hasState(timetable)) {
+            return calculateFitness(timetable);
+        }
+        long genomeHash = timetable.getGenomeHash();
+        FitnessCache.Entry cached = fitnessCache.getEntry(genomeHash);
+        if (cached != null) {
+            timetable.setConflictMask(cached.getConflictMask());
+            return cached.getFitness();
+        }
+        double fitness = calculateFitness(timetable);
+        fitnessCache.put(genomeHash, fitness, timetable.getConflictMask());
+        return fitness;
+    }
+
+    /**
+     * Publishes the conflict mask of a timetable scored without one, i.e. by the incremental
+     * evaluator or by local search, with one fused sweep. Timetables with a mask are left as they are.
+     *
+     * @param timetable an evaluated timetable
+     */
+    public void markConflicts(Timetable timetable) {
+        if (!timetable.hasConflictMask()) {
+            encodedEvaluator.countConflicts(timetable);
+        }
+    }
+
+    /**
+     * Calculate fitness of an encoded timetable, answering from the cache when possible
+     *
+     * @param timetable the encoded timetable to evaluate
+     * @return fitness score
+     */
+    private double calculateCachedFitness(EncodedTimetable timetable) {
+        if (fitnessCache == null) {
+            return calculateFitness(timetable);
+        }
+        long genomeHash = timetable.getGenomeHash();
+        Double cached = fitnessCache.get(genomeHash);
+        if (cached != null) {
+            return cached;
+        }
+        double fitness = calculateFitness(timetable);
+        fitnessCache.put(genomeHash, fitness);
+        return fitness;
+    }
+
+    /**
+     * Run an evaluation for every index, on the pool when there is one
+     *
+     * @param size       number of individuals
+     * @param evaluation evaluation of the individual at an index
+     */
+    private void evaluateAll(int size, IntConsumer evaluation) {
+        if (evaluationPool == null || size <= EVALUATION_CHUNK_SIZE) {
+            evaluateRange(evaluation, 0, size);
+        } else {
+            evaluationPool.invoke(new EvaluationTask(evaluation, 0, size));
+        }
+    }
+
+    /**
+     * Evaluate a slice of the population on the calling thread
+     *
+     * @param evaluation evaluation of the individual at an index
+     * @param from       first index (inclusive)
+     * @param to         last index (exclusive)
+     */
+    private static void evaluateRange(IntConsumer evaluation, int from, int to) {
+        for (int i = from; i < to; i++) {
+            evaluation.accept(i);
         }
     }
 
@@ -96,4 +459,31 @@ public class FitnessServiceImpl implements IFitnessService {
         return conflictStrategies;
     }
 
+    /**
+     * Fork-join task that splits the population in halves until the slices
+     * are small enough to be evaluated sequentially
+     */
+    private static class EvaluationTask extends RecursiveAction {
+        private final IntConsumer evaluation;
+        private final int from;
+        private final int to;
+
+        EvaluationTask(IntConsumer evaluation, int from, int to) {
+            this.evaluation = evaluation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= EVALUATION_CHUNK_SIZE) {
+                evaluateRange(evaluation, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluationTask(evaluation, from, middle),
+                    new EvaluationTask(evaluation, middle, to));
+        }
+    }
+
 }
@@ -0,0 +1,510 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Evaluates all conflict types of a timetable in a single sweep over its lessons.
+ *
+ * <p>Every (group, day), (teacher, day) and (classroom, day) cell keeps a bitmask of
+ * the occupied periods. Collisions are detected when a bit is already set, gaps are
+ * the span of the mask minus its population count, and the last lesson rule only
+ * needs the first Physical Culture period and the last occupied period of the day.</p>
+ *
+ * <p>The counts and the conflict marks are the same as the ones produced by the
+ * strategies in {@code conflictstrategies}, which stay as the reference implementation.
+ * Marks go to a new mask per evaluation, the lessons are never modified. Periods must be in the range 0-63. Encoded timetables
+ * are evaluated straight from their genes and have no lessons to flag.</p>
+ *
+ * <p>The cell arrays are scratch buffers kept per thread and cleared before every sweep,
+ * so scoring an encoded timetable with {@link #countPenalty} allocates nothing.</p>
+ */
+public class FusedConflictEvaluator {
+
+    private static final int NUMBER_OF_TYPES = ConflictType.values().length;
+    private static final Subject[] SUBJECTS = Subject.values();
+    private static final int NUMBER_OF_SUBJECTS = SUBJECTS.length;
+
+    private final ResourceCatalog catalog;
+    private final int days;
+    private final int periods;
+    private final ThreadLocal<Scratch> scratch;
+
+    public FusedConflictEvaluator(IPopulationService populationService) {
+        this.catalog = populationService.getCatalog();
+        this.days = catalog.getDays();
+        this.periods = catalog.getPeriods();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(catalog.getGroupCount() * days,
+                catalog.getTeacherCount() * days, catalog.getClassroomCount() * days,
+                catalog.getGroupCount() * NUMBER_OF_SUBJECTS));
+    }
+
+    /**
+     * Count the conflicts of every type and publish the conflict mask of the timetable
+     *
+     * @param timetable the timetable to evaluate
+     * @return number of conflicts indexed by {@link ConflictType#ordinal()}
+     */
+    public int[] countConflicts(Timetable timetable) {
+        TimetableSource source = new TimetableSource(timetable.getLessons());
+        int[] counts = countConflicts(source, scratch.get()).clone();
+        timetable.setConflictMask(source.flagged);
+        return counts;
+    }
+
+    /**
+     * Count the conflicts of every type of an encoded timetable, without decoding it
+     *
+     * @param timetable the encoded timetable to evaluate
+     * @return number of conflicts indexed by {@link ConflictType#ordinal()}
+     */
+    public int[] countConflicts(EncodedTimetable timetable) {
+        Scratch buffers = scratch.get();
+        buffers.encoded.reset(timetable);
+        return countConflicts(buffers.encoded, buffers).clone();
+    }
+
+    /**
+     * Weighted number of conflicts of an encoded timetable, counted without allocating
+     *
+     * @param timetable the encoded timetable to evaluate
+     * @param weights   penalty per conflict, indexed by {@link ConflictType#ordinal()}
+     * @return sum of the conflict counts times their weights
+     */
+    public int countPenalty(EncodedTimetable timetable, int[] weights) {
+        Scratch buffers = scratch.get();
+        buffers.encoded.reset(timetable);
+        int[] counts = countConflicts(buffers.encoded, buffers);
+        int penalty = 0;
+        for (int type = 0; type < NUMBER_OF_TYPES; type++) {
+            penalty += counts[type] * weights[type];
+        }
+        return penalty;
+    }
+
+    /**
+     * Count the conflicts of every type into the scratch buffers of the calling thread
+     *
+     * @param lessons lessons to evaluate
+     * @param buffers scratch buffers of the calling thread
+     * @return the scratch counts, valid until the next sweep on this thread
+     */
+    private int[] countConflicts(LessonSource lessons, Scratch buffers) {
+        buffers.clear();
+        int[] counts = buffers.counts;
+
+        Occupancy groups = buffers.groups;
+        Occupancy teachers = buffers.teachers;
+        long[] roomMasks = buffers.roomMasks;
+        Set<Long> otherRoomSlots = null;
+
+        int[] groupLessonsPerDay = buffers.groupLessonsPerDay;
+        long[] physicalCultureMasks = buffers.physicalCultureMasks;
+        int[] physicalCultureCounts = buffers.physicalCultureCounts;
+        int[] subjectCounts = buffers.subjectCounts;
+
+        for (int i = 0; i < lessons.size(); i++) {
+            Subject subject = lessons.subject(i);
+            Classroom classroom = lessons.classroom(i);
+            Teacher teacher = lessons.teacher(i);
+            int day = lessons.timeSlot(i).getDay();
+            int period = lessons.timeSlot(i).getPeriod();
+            boolean onWorkingDay = day >= 0 && day < days;
+
+            // Room conflicts: the same room is used twice in the same time slot
+            int classroomId = catalog.classroomId(classroom);
+            boolean roomTaken;
+            if (classroomId >= 0 && onWorkingDay) {
+                int cell = classroomId * days + day;
+                long bit = 1L << period;
+                roomTaken = (roomMasks[cell] & bit) != 0;
+                roomMasks[cell] |= bit;
+            } else {
+                if (otherRoomSlots == null) {
+                    otherRoomSlots = new HashSet<>();
+                }
+                roomTaken = !otherRoomSlots.add(((long) classroom.getId() << 32) | ((day & 0xFFFFL) << 16) | (period & 0xFFFFL));
+            }
+            if (roomTaken) {
+                counts[ConflictType.ROOM_CONFLICTS.ordinal()]++;
+                lessons.flag(i);
+            }
+
+            // Room accommodation and invalid assignments
+            if (!classroom.canAccommodate(subject)) {
+                counts[ConflictType.ROOM_ACCOMODATE.ordinal()]++;
+                counts[ConflictType.INVALID_ASSIGMENTS.ordinal()]++;
+                lessons.flag(i);
+            }
+            if (teacher.getSubject() != subject) {
+                counts[ConflictType.INVALID_ASSIGMENTS.ordinal()]++;
+                lessons.flag(i);
+            }
+
+            int groupId = catalog.groupId(lessons.group(i));
+            if (groupId >= 0) {
+                subjectCounts[groupId * NUMBER_OF_SUBJECTS + subject.ordinal()]++;
+                if (onWorkingDay) {
+                    int cell = groupId * days + day;
+                    if (groups.occupy(cell, period)) {
+                        counts[ConflictType.GROUP_COLLISIONS.ordinal()]++;
+                    }
+                    groupLessonsPerDay[cell]++;
+                    if (subject == Subject.PHYSICAL_CULTURE) {
+                        physicalCultureMasks[cell] |= 1L << period;
+                        physicalCultureCounts[cell]++;
+                    }
+                }
+            }
+
+            int teacherId = catalog.teacherId(teacher);
+            if (teacherId >= 0 && onWorkingDay) {
+                if (teachers.occupy(teacherId * days + day, period)) {
+                    counts[ConflictType.TEACHER_COLLISIONS.ordinal()]++;
+                }
+            }
+        }
+
+        counts[ConflictType.GROUP_GAPS.ordinal()] = groups.countGaps();
+        counts[ConflictType.TEACHER_GAPS.ordinal()] = teachers.countGaps();
+
+        int[] lastLessonCells = buffers.lastLessonCells;
+        for (int cell = 0; cell < groupLessonsPerDay.length; cell++) {
+            if (groupLessonsPerDay[cell] > periods) {
+                counts[ConflictType.MAX_LESSONS_PER_DAY.ordinal()] += groupLessonsPerDay[cell] - periods;
+            }
+            if (physicalCultureCounts[cell] > 0) {
+                int lastPeriod = highestPeriod(groups.masks[cell]);
+                int firstPhysicalCulture = Long.numberOfTrailingZeros(physicalCultureMasks[cell]);
+                counts[ConflictType.LAST_LESSON.ordinal()] +=
+                        lastPeriod - firstPhysicalCulture - physicalCultureCounts[cell] + 1;
+            }
+            lastLessonCells[cell] = -1;
+        }
+
+        for (int groupId = 0; groupId < catalog.getGroupCount(); groupId++) {
+            for (Subject subject : SUBJECTS) {
+                int expected = catalog.getWeeklyLessons(subject);
+                int actual = subjectCounts[groupId * NUMBER_OF_SUBJECTS + subject.ordinal()];
+                counts[ConflictType.ADJUSTMENT.ordinal()] += Math.abs(expected - actual);
+            }
+        }
+
+        if (lessons.flagsConflicts()) {
+            flagDayConflicts(lessons, groups, teachers, physicalCultureMasks, lastLessonCells);
+        }
+        return counts;
+    }
+
+    /**
+     * Evaluate a timetable and return the number of conflicts per type
+     *
+     * @param timetable the timetable to evaluate
+     * @return one conflict entry per conflict type, in declaration order
+     */
+    public List<Conflict> evaluate(Timetable timetable) {
+        int[] counts = countConflicts(timetable);
+        List<Conflict> conflicts = new ArrayList<>(NUMBER_OF_TYPES);
+        for (ConflictType conflictType : ConflictType.values()) {
+            conflicts.add(new Conflict(conflictType, counts[conflictType.ordinal()]));
+        }
+        return conflicts;
+    }
+
+    /**
+     * Second pass that flags the lessons involved in collisions, gaps and
+     * last lesson violations, once the day masks are complete
+     *
+     * @param lessons              lessons of the timetable
+     * @param groups               group occupancy
+     * @param teachers             teacher occupancy
+     * @param physicalCultureMasks Physical Culture periods per group and day
+     * @param lastLessonCells      scratch array, one entry per group and day
+     */
+    private void flagDayConflicts(LessonSource lessons, Occupancy groups, Occupancy teachers,
+                                  long[] physicalCultureMasks, int[] lastLessonCells) {
+        long[] groupGapsFlagged = new long[groups.masks.length];
+        long[] teacherGapsFlagged = new long[teachers.masks.length];
+
+        for (int i = 0; i < lessons.size(); i++) {
+            int day = lessons.timeSlot(i).getDay();
+            if (day < 0 || day >= days) {
+                continue;
+            }
+            int period = lessons.timeSlot(i).getPeriod();
+
+            int groupId = catalog.groupId(lessons.group(i));
+            if (groupId >= 0) {
+                int cell = groupId * days + day;
+                if (groups.isConflicted(cell, period, groupGapsFlagged)) {
+                    lessons.flag(i);
+                }
+                long physicalCulture = physicalCultureMasks[cell];
+                if (physicalCulture != 0) {
+                    if (lessons.subject(i) == Subject.PHYSICAL_CULTURE && !isContiguous(physicalCulture)) {
+                        lessons.flag(i);
+                    }
+                    int lastPeriod = highestPeriod(groups.masks[cell]);
+                    if (period == lastPeriod && lastPeriod > highestPeriod(physicalCulture)) {
+                        lastLessonCells[cell] = i;
+                    }
+                }
+            }
+
+            int teacherId = catalog.teacherId(lessons.teacher(i));
+            if (teacherId >= 0 && teachers.isConflicted(teacherId * days + day, period, teacherGapsFlagged)) {
+                lessons.flag(i);
+            }
+        }
+
+        // The lesson closing the day after the last Physical Culture lesson
+        for (int index : lastLessonCells) {
+            if (index >= 0) {
+                lessons.flag(index);
+            }
+        }
+    }
+
+    private static int highestPeriod(long mask) {
+        return 63 - Long.numberOfLeadingZeros(mask);
+    }
+
+    private static boolean isContiguous(long mask) {
+        return highestPeriod(mask) - Long.numberOfTrailingZeros(mask) + 1 == Long.bitCount(mask);
+    }
+
+    /**
+     * Read access to the lessons of a timetable, by position
+     */
+    private interface LessonSource {
+        int size();
+
+        Subject subject(int position);
+
+        Teacher teacher(int position);
+
+        Group group(int position);
+
+        Classroom classroom(int position);
+
+        TimeSlot timeSlot(int position);
+
+        boolean flagsConflicts();
+
+        void flag(int position);
+    }
+
+    /**
+     * Lessons of a regular timetable, conflicts are marked by position
+     */
+    private static final class TimetableSource implements LessonSource {
+        private final List<Lesson> lessons;
+        private final BitSet flagged;
+
+        TimetableSource(List<Lesson> lessons) {
+            this.lessons = lessons;
+            this.flagged = new BitSet(lessons.size());
+        }
+
+        @Override
+        public int size() {
+            return lessons.size();
+        }
+
+        @Override
+        public Subject subject(int position) {
+            return lessons.get(position).getSubject();
+        }
+
+        @Override
+        public Teacher teacher(int position) {
+            return lessons.get(position).getTeacher();
+        }
+
+        @Override
+        public Group group(int position) {
+            return lessons.get(position).getGroup();
+        }
+
+        @Override
+        public Classroom classroom(int position) {
+            return lessons.get(position).getClassroom();
+        }
+
+        @Override
+        public TimeSlot timeSlot(int position) {
+            return lessons.get(position).getTimeSlot();
+        }
+
+        @Override
+        public boolean flagsConflicts() {
+            return true;
+        }
+
+        @Override
+        public void flag(int position) {
+            flagged.set(position);
+        }
+    }
+
+    /**
+     * Genes of an encoded timetable, read through its shared encoding
+     */
+    private static final class EncodedSource implements LessonSource {
+        private TimetableEncoding encoding;
+        private short[] genes;
+
+        /**
+         * Point the source at another encoded timetable
+         */
+        void reset(EncodedTimetable timetable) {
+            this.encoding = timetable.getEncoding();
+            this.genes = timetable.getGenes();
+        }
+
+        @Override
+        public int size() {
+            return genes.length;
+        }
+
+        @Override
+        public Subject subject(int position) {
+            return encoding.getSubject(position);
+        }
+
+        @Override
+        public Teacher teacher(int position) {
+            return encoding.getTeacher(position);
+        }
+
+        @Override
+        public Group group(int position) {
+            return encoding.getGroup(position);
+        }
+
+        @Override
+        public Classroom classroom(int position) {
+            return encoding.getClassroom(encoding.classroomOf(genes[position]));
+        }
+
+        @Override
+        public TimeSlot timeSlot(int position) {
+            return encoding.getTimeSlot(encoding.slotOf(genes[position]));
+        }
+
+        @Override
+        public boolean flagsConflicts() {
+            return false;
+        }
+
+        @Override
+        public void flag(int position) {
+        }
+    }
+
+    /**
+     * Occupied and double-booked periods for every (resource, day) cell
+     */
+    private static final class Occupancy {
+        private final long[] masks;
+        private final long[] collisionMasks;
+
+        Occupancy(int cells) {
+            this.masks = new long[cells];
+            this.collisionMasks = new long[cells];
+        }
+
+        void clear() {
+            Arrays.fill(masks, 0L);
+            Arrays.fill(collisionMasks, 0L);
+        }
+
+        /**
+         * Mark a period as occupied
+         *
+         * @return true if the period was already occupied (a collision)
+         */
+        boolean occupy(int cell, int period) {
+            long bit = 1L << period;
+            boolean taken = (masks[cell] & bit) != 0;
+            if (taken) {
+                collisionMasks[cell] |= bit;
+            }
+            masks[cell] |= bit;
+            return taken;
+        }
+
+        /**
+         * Count the free periods between the first and the last lesson of every cell
+         */
+        int countGaps() {
+            int gaps = 0;
+            for (long mask : masks) {
+                if (mask != 0) {
+                    gaps += highestPeriod(mask) - Long.numberOfTrailingZeros(mask) + 1 - Long.bitCount(mask);
+                }
+            }
+            return gaps;
+        }
+
+        /**
+         * Checks if a lesson takes part in a collision, or is the first lesson
+         * (in timetable order) after a gap
+         *
+         * @param flaggedGaps periods already flagged as following a gap, per cell
+         */
+        boolean isConflicted(int cell, int period, long[] flaggedGaps) {
+            long bit = 1L << period;
+            if ((collisionMasks[cell] & bit) != 0) {
+                return true;
+            }
+            long mask = masks[cell];
+            boolean afterGap = period > Long.numberOfTrailingZeros(mask) && (mask & (bit >>> 1)) == 0;
+            if (afterGap && (flaggedGaps[cell] & bit) == 0) {
+                flaggedGaps[cell] |= bit;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Cell arrays of one sweep, reused by the sweeps of a thread
+     */
+    private static final class Scratch {
+        private final int[] counts = new int[NUMBER_OF_TYPES];
+        private final Occupancy groups;
+        private final Occupancy teachers;
+        private final long[] roomMasks;
+        private final int[] groupLessonsPerDay;
+        private final long[] physicalCultureMasks;
+        private final int[] physicalCultureCounts;
+        private final int[] subjectCounts;
+        private final int[] lastLessonCells;
+        private final EncodedSource encoded = new EncodedSource();
+
+        Scratch(int groupCells, int teacherCells, int roomCells, int subjectCells) {
+            this.groups = new Occupancy(groupCells);
+            this.teachers = new Occupancy(teacherCells);
+            this.roomMasks = new long[roomCells];
+            this.groupLessonsPerDay = new int[groupCells];
+            this.physicalCultureMasks = new long[groupCells];
+            this.physicalCultureCounts = new int[groupCells];
+            this.subjectCounts = new int[subjectCells];
+            this.lastLessonCells = new int[groupCells];
+        }
+
+        void clear() {
+            Arrays.fill(counts, 0);
+            groups.clear();
+            teachers.clear();
+            Arrays.fill(roomMasks, 0L);
+            Arrays.fill(groupLessonsPerDay, 0);
+            Arrays.fill(physicalCultureMasks, 0L);
+            Arrays.fill(physicalCultureCounts, 0);
+            Arrays.fill(subjectCounts, 0);
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jdk.jfr.EventType;
+
+import com.solvd.schoolschedule.model.DoubleBufferedPopulation;
+import com.solvd.schoolschedule.model.EncodedTimetable;
+import com.solvd.schoolschedule.model.GeneticAlgorithmSettings;
+import com.solvd.schoolschedule.model.ProfilePhase;
+import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.model.TimetableConflicts;
+import com.solvd.schoolschedule.service.interfaces.IDisplayService;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+import com.solvd.schoolschedule.util.RunProfiler;
+import com.solvd.schoolschedule.util.jfr.GenerationEvent;
+
+/**
+ * One run of the genetic algorithm: a population with its own fitness, selection, operator,
+ * repair and local search services, its own profiler and a random stream split from the generator's.
+ *
+ * <p>Sequential attempts, concurrent attempts and islands all evolve through this class, so
+ * seeding, partial restarts, adaptive parameters and the memetic step apply to every one of them.
+ * Encoded chromosomes are only seeded: {@link GeneticAlgorithmSettings} rejects the other modes with them.
+ * {@link #run(short[], BestTimetableHolder)} evolves until a perfect fitness, the generation limit,
+ * or a solution of a concurrent attempt; islands call {@link #step()} between migrations instead.
+ * An engine is used by one thread at a time, and closed to release the threads of its services.</p>
+ */
+class GeneticAlgorithmEngine implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(GeneticAlgorithmEngine.class);
+    private static final EventType GENERATION = EventType.getEventType(GenerationEvent.class);
+
+    private final String name;
+    private final IPopulationService populationService;
+    private final int populationSize;
+    private final GeneticAlgorithmSettings settings;
+    private final IDisplayService displayService;
+    private final FitnessServiceImpl fitnessService;
+    private final SelectionServiceImpl selectionService;
+    private final GeneticOperatorServiceImpl geneticOperatorService;
+    private final FitnessCache fitnessCache;
+    private final ConstraintRepairOperator repairOperator;
+    private final TabuLocalSearch localSearch;
+    private final SplittableRandom random;
+    private final RunProfiler profiler;
+    private final List<TimetableConflicts> conflictHistory = new ArrayList<>();
+    private AdaptiveParameterController adaptiveController;
+    private StagnationDetector stagnationDetector;
+    private List<Timetable> population;
+    private Timetable bestTimetable;
+    private List<EncodedTimetable> encodedPopulation;
+    private DoubleBufferedPopulation buffers;
+    private EncodedTimetable encodedBest;
+    private double bestFitness;
+    private int generation;
+    private boolean fixedPopulationSize;
+
+    /**
+     * Creates an engine and its services, the population is created by {@link #initialize(short[])}
+     *
+     * @param name              name of the run in progress messages, e.g. "ATTEMPT #2"
+     * @param populationService population service providing the school resources
+     * @param populationSize    initial number of timetables
+     * @param settings          run settings
+     * @param parallel          evaluate and produce offspring with the thread counts of {@link SchoolConfig},
+     *                          false to stay on the calling thread
+     * @param random            random stream of the run, not shared with any other thread
+     * @param displayService    display of progress messages (null for a silent run)
+     */
+    GeneticAlgorithmEngine(String name, IPopulationService populationService, int populationSize,
+                           GeneticAlgorithmSettings settings, boolean parallel, SplittableRandom random,
+                           IDisplayService displayService) {
+        this.name = name;
+        this.populationService = populationService;
+        this.populationSize = populationSize;
+        this.settings = settings;
+        this.displayService = displayService;
+        this.random = random;
+        this.profiler = settings.isProfiling() ? new RunProfiler() : RunProfiler.disabled();
+        this.fitnessService = new FitnessServiceImpl(populationService,
+                parallel ? SchoolConfig.GA_EVALUATION_THREADS : 1, SchoolConfig.GA_EVALUATION_MODE,
+                settings.getFitnessCacheSize());
+        this.fitnessCache = fitnessService.getFitnessCache();
+        this.selectionService = new SelectionServiceImpl(SchoolConfig.GA_TOURNAMENT_SIZE, random.split());
+        this.repairOperator = settings.isConstraintRepair()
+                ? new ConstraintRepairOperator(populationService, fitnessService.getConflictWeights())
+                : null;
+        this.geneticOperatorService = GeneticOperatorServiceImpl.builder(populationService, SchoolConfig.GA_MUTATION_RATE)
+                .deltaEvaluator(fitnessService.getDeltaEvaluator())
+                .parallelism(parallel ? SchoolConfig.GA_OFFSPRING_THREADS : 1)
+                .profiler(profiler)
+                .repairOperator(repairOperator)
+                .mutationMode(settings.getMutationMode(), SchoolConfig.GA_EXPLORATION_RATE)
+                .conflictMarker(fitnessService::markConflicts)
+                .genomeHashing(fitnessCache != null)
+                .random(random.split())
+                .build();
+        this.localSearch = settings.getMemeticElites() > 0
+                ? new TabuLocalSearch(populationService, fitnessService.getConflictWeights(),
+                        SchoolConfig.GA_TABU_ITERATIONS, SchoolConfig.GA_TABU_TENURE, SchoolConfig.GA_TABU_NEIGHBOURHOOD)
+                : null;
+    }
+
+    /**
+     * Creates and evaluates the first population
+     *
+     * @param seedGenes genes of a timetable placed in the population, e.g. the exact solver's solution
+     *                  (null for none), copied so attempts can share them
+     */
+    void initialize(short[] seedGenes) {
+        generation = 0;
+        conflictHistory.clear();
+        if (settings.isEncodedChromosomes()) {
+            encodedPopulation = profiler.measure(ProfilePhase.INITIALIZATION,
+                    () -> populationService.initializeEncodedPopulation(populationSize, random.split()));
+            if (seedGenes != null) {
+                encodedPopulation.set(0, new EncodedTimetable(populationService.getEncoding(), seedGenes.clone()));
+            }
+            evaluateEncoded(encodedPopulation);
+            buffers = SchoolConfig.GA_DOUBLE_BUFFERED_POPULATION ? new DoubleBufferedPopulation(encodedPopulation) : null;
+            encodedBest = buffers != null ? buffers.getBest() : findBestEncodedTimetable(encodedPopulation);
+            bestFitness = encodedBest.getFitness();
+            return;
+        }
+        population = profiler.measure(ProfilePhase.INITIALIZATION,
+                () -> populationService.initializePopulation(populationSize, random.split()));
+        // Start from a timetable meeting every hard rule, the evolution only polishes the soft ones
+        if (seedGenes != null) {
+            population.set(0, populationService.getEncoding().decode(seedGenes));
+        }
+        evaluate(population);
+        bestTimetable = TimetableGeneratorServiceImpl.findBestTimetable(population);
+        bestFitness = bestTimetable.getFitness();
+        adaptiveController = settings.isAdaptiveParameters()
+                ? new AdaptiveParameterController(SchoolConfig.GA_MUTATION_RATE, SchoolConfig.GA_TOURNAMENT_SIZE,
+                        populationSize)
+                : null;
+        stagnationDetector = settings.getStagnationWindow() > 0
+                ? new StagnationDetector(settings.getStagnationWindow(), SchoolConfig.GA_DIVERSITY_THRESHOLD)
+                : null;
+    }
+
+    /**
+     * Runs the attempt: creates the population and evolves it until it reaches a perfect fitness,
+     * runs out of generations or, when a holder is given, any attempt sharing it is solved
+     *
+     * @param seedGenes genes of a timetable placed in the first population (null for none)
+     * @param holder    best timetable shared by concurrent attempts (null for a run on its own)
+     * @return best timetable of the run
+     */
+    Timetable run(short[] seedGenes, BestTimetableHolder holder) {
+        profiler.reset();
+        initialize(seedGenes);
+        if (seedGenes != null) {
+            display(name + ": seeded with the exact solution");
+        }
+        if (holder != null) {
+            holder.offer(getBestTimetable());
+        }
+        displayProgress();
+
+        while (generation < settings.getMaxGenerations() && !isSolved() && (holder == null || !holder.isSolved())) {
+            double previousBest = bestFitness;
+            step();
+            if (holder != null && bestFitness > previousBest) {
+                holder.offer(getBestTimetable());
+            }
+            if (generation % SchoolConfig.PROGRESS_UPDATE_FREQUENCY == 0) {
+                displayProgress();
+            }
+        }
+
+        logRunStatistics();
+        return getBestTimetable();
+    }
+
+    /**
+     * Evolves the population by one generation
+     */
+    void step() {
+        // Only allocate the event while recording, so encoded generations can run allocation-free
+        GenerationEvent event = GENERATION.isEnabled() ? new GenerationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        generation++;
+        if (settings.isEncodedChromosomes()) {
+            int generationSize = stepEncoded();
+            if (event != null) {
+                event.commit(generation, generationSize, bestFitness, encodedBest.getGenes().length);
+            }
+        } else {
+            stepLessons();
+            if (event != null) {
+                event.commit(generation, population.size(), bestFitness, bestTimetable.getLessons().size());
+            }
+        }
+    }
+
+    private void stepLessons() {
+        // Create new generation
+        int generationSize = adaptiveController != null && !fixedPopulationSize
+                ? adaptiveController.getPopulationSize()
+                : population.size();
+        population = geneticOperatorService.createNewGeneration(population, selectionService, random, generationSize);
+
+        // Evaluate new population
+        evaluate(population);
+
+        // Memetic step: polish the best timetables before they breed
+        if (localSearch != null && generation % SchoolConfig.GA_MEMETIC_INTERVAL == 0) {
+            improveElites(settings.getMemeticElites());
+        }
+
+        bestTimetable = TimetableGeneratorServiceImpl.findBestTimetable(population);
+        bestTimetable.setGeneration(generation);
+        bestFitness = bestTimetable.getFitness();
+
+        // Record the conflicts of the best timetable every 20 generations
+        if (generation % 20 == 0) {
+            fitnessService.updateConflicts(bestTimetable);
+            conflictHistory.add(new TimetableConflicts(bestTimetable));
+        }
+
+        // Tune the parameters of the next generation from this one
+        if (adaptiveController != null) {
+            adaptiveController.update(population, bestTimetable);
+            geneticOperatorService.setMutationRate(adaptiveController.getMutationRate());
+            selectionService.setTournamentSize(adaptiveController.getTournamentSize());
+        }
+
+        // Keep the elites and reseed the rest once the population stops improving
+        if (!isSolved() && stagnationDetector != null && stagnationDetector.isStagnant(population, bestTimetable)) {
+            display(name + ": stagnation at generation " + generation + " (diversity "
+                    + String.format("%.3f", stagnationDetector.getLastDiversity()) + "), partial restart");
+            population = restartPopulation(SchoolConfig.GA_RESTART_ELITE_COUNT);
+            stagnationDetector.reset();
+        }
+    }
+
+    /**
+     * Evolves the encoded population by one generation. Only the best individual is decoded,
+     * when its conflicts are recorded.
+     *
+     * @return size of the new generation
+     */
+    private int stepEncoded() {
+        int generationSize;
+        if (buffers != null) {
+            geneticOperatorService.breedEncodedGeneration(buffers, selectionService, random);
+            evaluateEncoded(buffers.getCurrent());
+            encodedBest = buffers.getBest();
+            generationSize = buffers.size();
+        } else {
+            encodedPopulation = geneticOperatorService.createNewEncodedGeneration(encodedPopulation, selectionService,
+                    random);
+            evaluateEncoded(encodedPopulation);
+            encodedBest = findBestEncodedTimetable(encodedPopulation);
+            generationSize = encodedPopulation.size();
+        }
+        encodedBest.setGeneration(generation);
+        bestFitness = encodedBest.getFitness();
+
+        if (generation % 20 == 0) {
+            Timetable decoded = encodedBest.decode();
+            fitnessService.updateConflicts(decoded);
+            conflictHistory.add(new TimetableConflicts(decoded));
+        }
+        return generationSize;
+    }
+
+    /**
+     * Partial restart: keep the best timetables and replace the rest with new random ones
+     *
+     * @param eliteCount number of best timetables to keep
+     * @return evaluated population of the same size
+     */
+    private List<Timetable> restartPopulation(int eliteCount) {
+        List<Timetable> restarted = new ArrayList<>(population.stream()
+                .sorted(Comparator.comparingDouble(Timetable::getFitness).reversed())
+                .limit(Math.max(1, eliteCount))
+                .toList());
+        restarted.addAll(profiler.measure(ProfilePhase.INITIALIZATION,
+                () -> populationService.initializePopulation(population.size() - restarted.size(), random.split())));
+        evaluate(restarted);
+        return restarted;
+    }
+
+    /**
+     * Replace the best timetables of the evaluated population with their tabu search improvements
+     *
+     * @param eliteCount number of timetables to improve
+     */
+    private void improveElites(int eliteCount) {
+        profiler.measure(ProfilePhase.LOCAL_SEARCH, () -> {
+            Integer[] order = new Integer[population.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> population.get(i).getFitness()).reversed());
+            for (int k = 0; k < Math.min(eliteCount, order.length); k++) {
+                int index = order[k];
+                population.set(index, localSearch.improve(population.get(index), random.split()));
+            }
+        });
+    }
+
+    /**
+     * Evaluate a population, recording the evaluation phase and the fitness distribution
+     *
+     * @param population the population to evaluate
+     */
+    private void evaluate(List<Timetable> population) {
+        profiler.measure(ProfilePhase.EVALUATION, () -> fitnessService.evaluatePopulation(population));
+        profiler.recordEvaluations(population.size());
+        if (profiler.isEnabled()) {
+            profiler.recordFitness(population.stream().mapToDouble(Timetable::getFitness).summaryStatistics());
+        }
+    }
+
+    /**
+     * Evaluate an encoded population, recording the evaluation phase and the fitness distribution
+     *
+     * @param population the population to evaluate
+     */
+    private void evaluateEncoded(List<EncodedTimetable> population) {
+        profiler.measure(ProfilePhase.EVALUATION, () -> fitnessService.evaluateEncodedPopulation(population));
+        profiler.recordEvaluations(population.size());
+        if (profiler.isEnabled()) {
+            profiler.recordFitness(population.stream().mapToDouble(EncodedTimetable::getFitness).summaryStatistics());
+        }
+    }
+
+    /**
+     * Evaluate the current buffer of a double-buffered population.
+     * Without profiling this allocates nothing.
+     *
+     * @param population the population to evaluate
+     */
+    private void evaluateEncoded(EncodedTimetable[] population) {
+        if (!profiler.isEnabled()) {
+            fitnessService.evaluateEncodedPopulation(population);
+            return;
+        }
+        profiler.measure(ProfilePhase.EVALUATION, () -> fitnessService.evaluateEncodedPopulation(population));
+        profiler.recordEvaluations(population.length);
+        profiler.recordFitness(Arrays.stream(population).mapToDouble(EncodedTimetable::getFitness).summaryStatistics());
+    }
+
+    /**
+     * Logs the fitness cache and constraint repair counters of the run
+     */
+    private void logRunStatistics() {
+        if (fitnessCache != null) {
+            logger.info("{} fitness cache: {} hits, {} misses ({}% hit rate)", name, fitnessCache.getHits(),
+                    fitnessCache.getMisses(), String.format("%.1f", fitnessCache.getHitRate() * 100));
+        }
+        if (repairOperator != null) {
+            logger.info("{} constraint repair: {} timetables repaired, {} lessons reassigned, {} added or removed, "
+                            + "{} moved", name, repairOperator.getRepairedTimetables(),
+                    repairOperator.getReassignedLessons(), repairOperator.getAdjustedLessons(),
+                    repairOperator.getMovedLessons());
+        }
+    }
+
+    private void displayProgress() {
+        display(name + ", generation " + generation + ": best fitness = " + bestFitness);
+    }
+
+    private void display(String message) {
+        if (displayService != null) {
+            displayService.display(message);
+        }
+    }
+
+    private static EncodedTimetable findBestEncodedTimetable(List<EncodedTimetable> population) {
+        return population.stream()
+                .max(Comparator.comparingDouble(EncodedTimetable::getFitness))
+                .orElseThrow(() -> new IllegalStateException("Population is empty"));
+    }
+
+    /**
+     * Shut down the evaluation and offspring threads of a parallel engine
+     */
+    @Override
+    public void close() {
+        fitnessService.close();
+        geneticOperatorService.close();
+    }
+
+    /**
+     * Keep the population size while the mutation rate and tournament size still adapt,
+     * e.g. on islands, where every migration replaces the same number of timetables
+     */
+    void fixPopulationSize() {
+        fixedPopulationSize = true;
+    }
+
+    /**
+     * Record the conflicts of a timetable with the fitness service of this run
+     *
+     * @param timetable a timetable of the run
+     */
+    void updateConflicts(Timetable timetable) {
+        fitnessService.updateConflicts(timetable);
+    }
+
+    /**
+     * Replace the lesson population, e.g. after a migration
+     *
+     * @param population evaluated timetables
+     */
+    void replacePopulation(List<Timetable> population) {
+        this.population = population;
+        this.bestTimetable = TimetableGeneratorServiceImpl.findBestTimetable(population);
+        this.bestFitness = bestTimetable.getFitness();
+    }
+
+    double getMutationRate() {
+        return geneticOperatorService.getMutationRate();
+    }
+
+    int getTournamentSize() {
+        return selectionService.getTournamentSize();
+    }
+
+    boolean isSolved() {
+        return bestFitness >= 2000;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Best timetable of the current population, decoded in encoded mode
+     *
+     * @return best timetable
+     */
+    Timetable getBestTimetable() {
+        return settings.isEncodedChromosomes() ? encodedBest.decode() : bestTimetable;
+    }
+
+    /**
+     * Lesson population of the current generation
+     *
+     * @return the population, read-only
+     * @throws IllegalStateException if the engine evolves encoded chromosomes
+     */
+    List<Timetable> getPopulation() {
+        if (settings.isEncodedChromosomes()) {
+            throw new IllegalStateException(name + " evolves encoded chromosomes, it has no lesson population");
+        }
+        return Collections.unmodifiableList(population);
+    }
+
+    List<TimetableConflicts> getConflictHistory() {
+        return conflictHistory;
+    }
+
+    RunProfiler getProfiler() {
+        return profiler;
+    }
+}
@@ -1,22 +1,209 @@
 package com.solvd.schoolschedule.service.impl;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 import com.solvd.schoolschedule.model.*;
 import com.solvd.schoolschedule.service.interfaces.*;
+import com.solvd.schoolschedule.util.RunProfiler;
+import com.solvd.schoolschedule.util.ZobristHash;
 
 /**
  * Service for genetic operators: crossover and mutation.
+ * A service producing offspring on several threads owns a thread pool, released by {@link #close()}.
  */
-public class GeneticOperatorServiceImpl implements IGeneticOperatorService {
+public class GeneticOperatorServiceImpl implements IGeneticOperatorService, AutoCloseable {
+
+    /**
+     * Number of offspring slots sharing one random stream in the parallel generation builder.
+     * Fixed, so the result does not depend on the number of threads.
+     */
+    private static final int OFFSPRING_CHUNK_SIZE = 8;
 
     private final IPopulationService populationService;
-    private final Random random;
-    private final double mutationRate;
+    private final SplittableRandom random;
+    private volatile double mutationRate;
+    private final DeltaFitnessEvaluator deltaEvaluator;
+    private final ForkJoinPool offspringPool;
+    private final RunProfiler profiler;
+    private final ConstraintRepairOperator repairOperator;
+    private final MutationMode mutationMode;
+    private final double explorationRate;
+    private final Consumer<Timetable> conflictMarker;
+    private final boolean genomeHashing;
+    private final ResourceCatalog catalog;
 
     public GeneticOperatorServiceImpl(IPopulationService populationService, double mutationRate) {
-        this.populationService = populationService;
-        this.random = new Random();
+        this(builder(populationService, mutationRate));
+    }
+
+    private GeneticOperatorServiceImpl(Builder builder) {
+        this.populationService = builder.populationService;
+        this.random = builder.random;
+        this.mutationRate = builder.mutationRate;
+        this.deltaEvaluator = builder.deltaEvaluator;
+        this.offspringPool = builder.parallelism > 1 ? new ForkJoinPool(builder.parallelism) : null;
+        this.profiler = builder.profiler;
+        this.repairOperator = builder.repairOperator;
+        this.mutationMode = builder.mutationMode;
+        this.explorationRate = builder.explorationRate;
+        this.conflictMarker = builder.conflictMarker;
+        this.genomeHashing = builder.genomeHashing;
+        this.catalog = populationService.getCatalog();
+    }
+
+    /**
+     * Starts building an operator service. Without further options the service mutates at random,
+     * produces offspring on the calling thread and leaves them unevaluated and unrepaired.
+     *
+     * @param populationService population service
+     * @param mutationRate      mutation rate
+     * @return a builder
+     */
+    public static Builder builder(IPopulationService populationService, double mutationRate) {
+        return new Builder(populationService, mutationRate);
+    }
+
+    /**
+     * Options of a {@link GeneticOperatorServiceImpl}
+     */
+    public static final class Builder {
+
+        private final IPopulationService populationService;
+        private final double mutationRate;
+        private DeltaFitnessEvaluator deltaEvaluator;
+        private int parallelism = 1;
+        private RunProfiler profiler = RunProfiler.disabled();
+        private ConstraintRepairOperator repairOperator;
+        private MutationMode mutationMode = MutationMode.RANDOM;
+        private double explorationRate;
+        private Consumer<Timetable> conflictMarker;
+        private boolean genomeHashing = true;
+        private SplittableRandom random = new SplittableRandom();
+
+        private Builder(IPopulationService populationService, double mutationRate) {
+            this.populationService = populationService;
+            this.mutationRate = mutationRate;
+        }
+
+        /**
+         * @param deltaEvaluator evaluator that derives each offspring's fitness state from
+         *                       its first parent's (null to leave offspring unevaluated)
+         * @return this builder
+         */
+        public Builder deltaEvaluator(DeltaFitnessEvaluator deltaEvaluator) {
+            this.deltaEvaluator = deltaEvaluator;
+            return this;
+        }
+
+        /**
+         * @param parallelism number of threads producing offspring (1 = calling thread only)
+         * @return this builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param profiler profiler recording selection, crossover, mutation and repair
+         * @return this builder
+         */
+        public Builder profiler(RunProfiler profiler) {
+            this.profiler = profiler;
+            return this;
+        }
+
+        /**
+         * @param repairOperator repair applied to every offspring (null to keep offspring as produced)
+         * @return this builder
+         */
+        public Builder repairOperator(ConstraintRepairOperator repairOperator) {
+            this.repairOperator = repairOperator;
+            return this;
+        }
+
+        /**
+         * @param mutationMode    how the lessons to mutate are chosen
+         * @param explorationRate probability of mutating a lesson outside any conflict, in targeted mode
+         * @return this builder
+         */
+        public Builder mutationMode(MutationMode mutationMode, double explorationRate) {
+            if (explorationRate < 0 || explorationRate >= 1) {
+                throw new IllegalArgumentException("Exploration rate must be in [0, 1): " + explorationRate);
+            }
+            this.mutationMode = mutationMode;
+            this.explorationRate = explorationRate;
+            return this;
+        }
+
+        /**
+         * @param conflictMarker publishes the conflict mask of a source timetable evaluated without one,
+         *                       e.g. {@link FitnessServiceImpl#markConflicts} (null to mutate unmarked
+         *                       sources at the base rate)
+         * @return this builder
+         */
+        public Builder conflictMarker(Consumer<Timetable> conflictMarker) {
+            this.conflictMarker = conflictMarker;
+            return this;
+        }
+
+        /**
+         * @param genomeHashing keep the genome hashes of the offspring up to date, from the group block
+         *                      hashes of their parents (false when no fitness cache looks them up)
+         * @return this builder
+         */
+        public Builder genomeHashing(boolean genomeHashing) {
+            this.genomeHashing = genomeHashing;
+            return this;
+        }
+
+        /**
+         * @param random random stream of the operators that are not given one, used by one thread at a time
+         * @return this builder
+         */
+        public Builder random(SplittableRandom random) {
+            this.random = random;
+            return this;
+        }
+
+        public GeneticOperatorServiceImpl build() {
+            return new GeneticOperatorServiceImpl(this);
+        }
+    }
+
+    /**
+     * Shut down the offspring threads, a sequential service has none
+     */
+    @Override
+    public void close() {
+        if (offspringPool != null) {
+            offspringPool.shutdown();
+        }
+    }
+
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * Change the mutation rate at runtime, e.g. from an adaptive parameter controller
+     *
+     * @param mutationRate new mutation rate, between 0 and 1
+     */
+    @Override
+    public void setMutationRate(double mutationRate) {
+        if (mutationRate < 0 || mutationRate > 1) {
+            throw new IllegalArgumentException("Mutation rate must be between 0 and 1: " + mutationRate);
+        }
         this.mutationRate = mutationRate;
     }
 
@@ -29,22 +216,87 @@ public class GeneticOperatorServiceImpl implements IGeneticOperatorService {
      */
     @Override
     public Timetable crossover(Timetable parent1, Timetable parent2) {
+        return crossover(parent1, parent2, random, null);
+    }
+
+    /**
+     * Crossover recording the positions the offspring may take from the second parent
+     *
+     * @param changed positions whose lesson may differ from the first parent, every position if the
+     *                offspring is not laid out like the first parent, or null to record nothing
+     */
+    private Timetable crossover(Timetable parent1, Timetable parent2, RandomGenerator random, BitSet changed) {
         List<Lesson> offspringLessons = new ArrayList<>();
+        List<Group> groups = populationService.getGroups();
+
+        // While both parents hold every group block at the same positions, the offspring
+        // blocks keep the hashes of the parent blocks they are taken from
+        long[] parent1Blocks = genomeHashing ? parent1.getGroupBlockHashes(catalog) : null;
+        long[] parent2Blocks = parent1Blocks != null ? parent2.getGroupBlockHashes(catalog) : null;
+        long[] offspringBlocks = parent2Blocks != null && groups.size() == parent1Blocks.length
+                ? new long[parent1Blocks.length] : null;
+        // Offspring positions match the first parent's while its group blocks are in catalog order
+        // and every block keeps its size
+        boolean aligned = changed != null;
+        List<Lesson> parent1Order = parent1.getLessons();
 
         // For each group, take lessons from one parent or the other
-        for (Group group : populationService.getGroups()) {
+        for (int g = 0; g < groups.size(); g++) {
+            Group group = groups.get(g);
             List<Lesson> parent1Lessons = parent1.getLessonsFor(group);
             List<Lesson> parent2Lessons = parent2.getLessonsFor(group);
 
             // Randomly choose which parent's lessons to take for this group
-            List<Lesson> selectedLessons = random.nextBoolean() ? parent1Lessons : parent2Lessons;
+            boolean fromParent1 = random.nextBoolean();
+            List<Lesson> selectedLessons = fromParent1 ? parent1Lessons : parent2Lessons;
+            if (aligned && (parent1Lessons.size() != parent2Lessons.size() || catalog.groupId(group) != g
+                    || !isBlockAt(parent1Order, offspringLessons.size(), parent1Lessons))) {
+                aligned = false;
+            }
+            if (aligned && !fromParent1) {
+                changed.set(offspringLessons.size(), offspringLessons.size() + selectedLessons.size());
+            }
             offspringLessons.addAll(selectedLessons);
+
+            if (offspringBlocks != null) {
+                if (parent1Lessons.size() != parent2Lessons.size() || catalog.groupId(group) != g) {
+                    offspringBlocks = null;
+                } else {
+                    offspringBlocks[g] = fromParent1 ? parent1Blocks[g] : parent2Blocks[g];
+                }
+            }
         }
 
+        if (changed != null && (!aligned || offspringLessons.size() != parent1.getLessons().size())) {
+            changed.set(0, offspringLessons.size());
+        }
         Timetable offspring = new Timetable(offspringLessons);
+        if (offspringBlocks != null) {
+            offspring.setGroupBlockHashes(offspringBlocks);
+        }
         return offspring;
     }
 
+    /**
+     * Checks whether a group's lessons are laid out in one block at an offset of a lesson list
+     *
+     * @param lessons      lessons of a timetable
+     * @param offset       expected position of the block
+     * @param groupLessons lessons of the group, in timetable order
+     * @return true if the positions from the offset hold the group's lessons
+     */
+    private static boolean isBlockAt(List<Lesson> lessons, int offset, List<Lesson> groupLessons) {
+        if (offset + groupLessons.size() > lessons.size()) {
+            return false;
+        }
+        for (int k = 0; k < groupLessons.size(); k++) {
+            if (lessons.get(offset + k) != groupLessons.get(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Perform mutation on a timetable
      *
@@ -53,31 +305,272 @@ public class GeneticOperatorServiceImpl implements IGeneticOperatorService {
      */
     @Override
     public Timetable mutate(Timetable timetable) {
+        markConflicts(timetable);
+        if (mutationMode == MutationMode.TARGETED) {
+            return mutateTargeted(timetable, random, null, null, timetable);
+        }
+        return mutate(timetable, random, null, timetable);
+    }
+
+    /**
+     * Mutate an offspring with the configured mutation mode
+     *
+     * @param offspring offspring of the crossover
+     * @param parents   its parents, whose evaluations locate the conflicted lessons
+     * @param random    random stream to draw from
+     * @param changed   positions changed so far, to add the mutated ones to, or null
+     * @param state     unregistered delta state of the offspring, which targeted mutation updates
+     *                  along with the offspring itself, or null
+     * @return mutated offspring (or the offspring itself if no mutation)
+     */
+    private Timetable mutateOffspring(Timetable offspring, Timetable[] parents, RandomGenerator random,
+                                      BitSet changed, DeltaFitnessEvaluator.State state) {
+        markConflicts(parents);
+        if (mutationMode == MutationMode.TARGETED) {
+            return mutateTargeted(offspring, random, changed, state, parents);
+        }
+        return mutate(offspring, random, changed, parents);
+    }
+
+    /**
+     * Makes sure the sources of a mutation know their conflicted lessons
+     *
+     * @param sources evaluated timetables
+     */
+    private void markConflicts(Timetable... sources) {
+        if (conflictMarker == null) {
+            return;
+        }
+        for (Timetable source : sources) {
+            if (!source.hasConflictMask()) {
+                conflictMarker.accept(source);
+            }
+        }
+    }
+
+    /**
+     * Targeted mutation: the lessons an evaluated source timetable reported in a conflict, and still shared
+     * with this timetable, are mutated with the conflict-adjusted probability. Other lessons are picked at
+     * the exploration rate by skipping geometrically distributed gaps, so the random draws grow with the
+     * number of conflicts instead of the number of lessons. Every picked lesson moves to a time slot where
+     * its group and teacher are free, in a free suitable classroom, when the occupancy has one.
+     *
+     * <p>Given the delta state of the timetable, the timetable and its state are updated in place, the state
+     * serving as the occupancy, so the work grows with the picked lessons. Otherwise a mutated copy is made,
+     * with an occupancy index of all the lessons.</p>
+     *
+     * @param timetable the timetable to mutate
+     * @param random    random stream to draw from
+     * @param changed   positions changed so far, to add the mutated ones to, or null
+     * @param state     unregistered delta state of a timetable owned by the caller, or null
+     * @param sources   evaluated timetables whose conflicted positions apply to lessons they share
+     * @return mutated timetable (or original if no mutation)
+     */
+    private Timetable mutateTargeted(Timetable timetable, RandomGenerator random, BitSet changed,
+                                     DeltaFitnessEvaluator.State state, Timetable... sources) {
+        List<Lesson> lessons = timetable.getLessons();
+        BitSet picked = new BitSet(lessons.size());
+        for (Timetable source : sources) {
+            List<Lesson> sourceLessons = source.getLessons();
+            double probability = adjustProbability(mutationRate, source.getFitness());
+            for (int position = source.nextConflictedPosition(0);
+                 position >= 0 && position < lessons.size() && position < sourceLessons.size();
+                 position = source.nextConflictedPosition(position + 1)) {
+                if (lessons.get(position) == sourceLessons.get(position) && random.nextDouble() < probability) {
+                    picked.set(position);
+                }
+            }
+        }
+        if (explorationRate > 0) {
+            double logSkip = Math.log(1 - explorationRate);
+            for (int position = (int) (Math.log(1 - random.nextDouble()) / logSkip);
+                 position < lessons.size();
+                 position += 1 + (int) (Math.log(1 - random.nextDouble()) / logSkip)) {
+                picked.set(position);
+            }
+        }
+        if (picked.isEmpty()) {
+            return timetable;
+        }
+        if (changed != null) {
+            changed.or(picked);
+        }
+
+        GenomeHashUpdate hashUpdate = new GenomeHashUpdate(timetable);
+        if (state != null) {
+            for (int i = picked.nextSetBit(0); i >= 0; i = picked.nextSetBit(i + 1)) {
+                Lesson originalLesson = state.getLesson(i);
+                state.replace(i, null);
+                Lesson mutatedLesson = moveToFreeSlot(originalLesson, state, random);
+                state.replace(i, mutatedLesson);
+                timetable.setLesson(i, mutatedLesson);
+                hashUpdate.replace(i, originalLesson, mutatedLesson);
+            }
+            hashUpdate.applyTo(timetable);
+            return timetable;
+        }
+
+        OccupancyIndex index = new OccupancyIndex(catalog);
+        for (Lesson lesson : lessons) {
+            if (!index.isInsideWeek(lesson.getTimeSlot())) {
+                return mutate(timetable, random, changed, sources);
+            }
+            index.add(lesson, 1);
+        }
+
+        List<Lesson> mutatedLessons = new ArrayList<>(lessons);
+        for (int i = picked.nextSetBit(0); i >= 0; i = picked.nextSetBit(i + 1)) {
+            Lesson originalLesson = mutatedLessons.get(i);
+            index.add(originalLesson, -1);
+            Lesson mutatedLesson = moveToFreeSlot(originalLesson, index, random);
+            index.add(mutatedLesson, 1);
+            mutatedLessons.set(i, mutatedLesson);
+            hashUpdate.replace(i, originalLesson, mutatedLesson);
+        }
+
+        Timetable mutatedTimetable = new Timetable(mutatedLessons);
+        hashUpdate.applyTo(mutatedTimetable);
+        return mutatedTimetable;
+    }
+
+    /**
+     * Move a lesson to a random slot where it collides with no group, teacher or classroom,
+     * or mutate it at random if there is none
+     *
+     * @param lesson    the lesson, already removed from the occupancy
+     * @param occupancy occupancy of the other lessons
+     * @param random    random stream to draw from
+     * @return moved lesson
+     */
+    private Lesson moveToFreeSlot(Lesson lesson, ISlotOccupancy occupancy, RandomGenerator random) {
+        int periods = catalog.getPeriods();
+        int slots = catalog.getSlotCount();
+        List<Classroom> suitable = catalog.getSuitableClassrooms(lesson.getSubject());
+        if (suitable.isEmpty()) {
+            throw new IllegalStateException("No classroom available for subject: " + lesson.getSubject());
+        }
+        int firstSlot = random.nextInt(slots);
+        int firstClassroom = random.nextInt(suitable.size());
+        for (int s = 0; s < slots; s++) {
+            int slot = (firstSlot + s) % slots;
+            int day = slot / periods;
+            int period = slot % periods;
+            if (!occupancy.isFree(lesson.getGroup(), lesson.getTeacher(), day, period)) {
+                continue;
+            }
+            for (int c = 0; c < suitable.size(); c++) {
+                Classroom classroom = suitable.get((firstClassroom + c) % suitable.size());
+                if (occupancy.isFree(lesson.getGroup(), lesson.getTeacher(), classroom, day, period)) {
+                    return new Lesson(lesson.getSubject(), lesson.getTeacher(), classroom,
+                            catalog.getTimeSlot(slot), lesson.getGroup());
+                }
+            }
+        }
+        return mutateLesson(lesson, random);
+    }
+
+    /**
+     * Random mutation: every lesson rolls against the mutation rate
+     *
+     * @param timetable the timetable to mutate
+     * @param random    random stream to draw from
+     * @param changed   positions changed so far, to add the mutated ones to, or null
+     * @param sources   evaluated timetables whose conflict masks apply to lessons they share
+     * @return mutated timetable (or original if no mutation)
+     */
+    private Timetable mutate(Timetable timetable, RandomGenerator random, BitSet changed, Timetable... sources) {
         List<Lesson> lessons = new ArrayList<>(timetable.getLessons());
         boolean mutated = false;
+        GenomeHashUpdate hashUpdate = new GenomeHashUpdate(timetable);
 
         for (int i = 0; i < lessons.size(); i++) {
             double mutationProbability = mutationRate;
             //if lesson is conflicted, increment the probability of mutation
-            if (lessons.get(i).isConflicted()) {
+            if (isConflicted(lessons.get(i), i, sources)) {
                 mutationProbability = adjustProbability(mutationProbability, timetable.getFitness());
             }
 
             if (random.nextDouble() < mutationProbability) {
                 Lesson originalLesson = lessons.get(i);
-                Lesson mutatedLesson = mutateLesson(originalLesson);
+                Lesson mutatedLesson = mutateLesson(originalLesson, random);
                 lessons.set(i, mutatedLesson);
+                hashUpdate.replace(i, originalLesson, mutatedLesson);
+                if (changed != null) {
+                    changed.set(i);
+                }
                 mutated = true;
             }
         }
 
         if (mutated) {
-            return new Timetable(lessons);
+            Timetable mutatedTimetable = new Timetable(lessons);
+            hashUpdate.applyTo(mutatedTimetable);
+            return mutatedTimetable;
         } else {
             return timetable; // Return original if no mutation occurred
         }
     }
 
+    /**
+     * Genome hash of a mutated copy, updated lesson by lesson from the hashes of the original:
+     * per group block when the original is laid out in blocks, as a whole otherwise.
+     * Does nothing without genome hashing.
+     */
+    private final class GenomeHashUpdate {
+
+        private long[] blockHashes;
+        private boolean blocksCopied;
+        private long genomeHash;
+        private final boolean enabled;
+
+        GenomeHashUpdate(Timetable original) {
+            enabled = genomeHashing;
+            if (enabled) {
+                blockHashes = original.getGroupBlockHashes(catalog);
+                genomeHash = original.getGenomeHash();
+            }
+        }
+
+        void replace(int position, Lesson originalLesson, Lesson mutatedLesson) {
+            if (!enabled) {
+                return;
+            }
+            long delta = ZobristHash.key(position, originalLesson) ^ ZobristHash.key(position, mutatedLesson);
+            genomeHash ^= delta;
+            if (blockHashes != null) {
+                if (!blocksCopied) {
+                    blockHashes = blockHashes.clone();
+                    blocksCopied = true;
+                }
+                // Mutations keep the group of a lesson, so it stays in its block
+                blockHashes[catalog.groupId(mutatedLesson.getGroup())] ^= delta;
+            }
+        }
+
+        void applyTo(Timetable mutated) {
+            if (!enabled) {
+                return;
+            }
+            if (blockHashes != null) {
+                mutated.setGroupBlockHashes(blocksCopied ? blockHashes : blockHashes.clone());
+            } else {
+                mutated.setGenomeHash(genomeHash);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a source timetable holding the same lesson at the same position marked it as conflicted
+     */
+    private static boolean isConflicted(Lesson lesson, int position, Timetable[] sources) {
+        for (Timetable source : sources) {
+            if (source.isConflicted(position) && source.getLessons().get(position) == lesson) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Increment probability, depending on fitness score
      *
@@ -95,26 +588,27 @@ public class GeneticOperatorServiceImpl implements IGeneticOperatorService {
      * Mutate a single lesson by changing its time slot or classroom
      *
      * @param lesson the lesson to mutate
+     * @param random random stream to draw from
      * @return mutated lesson
      */
-    private Lesson mutateLesson(Lesson lesson) {
+    private Lesson mutateLesson(Lesson lesson, RandomGenerator random) {
         // Randomly choose what to mutate
         int mutationType = random.nextInt(3);
 
         switch (mutationType) {
             case 0: // Change time slot
-                TimeSlot newTimeSlot = getRandomTimeSlot();
+                TimeSlot newTimeSlot = getRandomTimeSlot(random);
                 return new Lesson(lesson.getSubject(), lesson.getTeacher(),
                         lesson.getClassroom(), newTimeSlot, lesson.getGroup());
 
             case 1: // Change classroom (if possible)
-                Classroom newClassroom = getRandomClassroomForSubject(lesson.getSubject());
+                Classroom newClassroom = getRandomClassroomForSubject(lesson.getSubject(), random);
                 return new Lesson(lesson.getSubject(), lesson.getTeacher(),
                         newClassroom, lesson.getTimeSlot(), lesson.getGroup());
 
             case 2: // Change both time slot and classroom
-                TimeSlot newTimeSlot2 = getRandomTimeSlot();
-                Classroom newClassroom2 = getRandomClassroomForSubject(lesson.getSubject());
+                TimeSlot newTimeSlot2 = getRandomTimeSlot(random);
+                Classroom newClassroom2 = getRandomClassroomForSubject(lesson.getSubject(), random);
                 return new Lesson(lesson.getSubject(), lesson.getTeacher(),
                         newClassroom2, newTimeSlot2, lesson.getGroup());
 
@@ -126,25 +620,24 @@ public class GeneticOperatorServiceImpl implements IGeneticOperatorService {
     /**
      * Get a random time slot
      *
+     * @param random random stream to draw from
      * @return random time slot
      */
-    private TimeSlot getRandomTimeSlot() {
-        int day = random.nextInt(SchoolConfig.WORKING_DAYS_PER_WEEK);
-        int period = random.nextInt(SchoolConfig.MAX_PERIODS_PER_DAY);
-        return new TimeSlot(day, period);
+    private TimeSlot getRandomTimeSlot(RandomGenerator random) {
+        int day = random.nextInt(catalog.getDays());
+        int period = random.nextInt(catalog.getPeriods());
+        return catalog.getTimeSlot(day, period);
     }
 
     /**
      * Get a random classroom suitable for the subject
      *
      * @param subject the subject
+     * @param random  random stream to draw from
      * @return suitable classroom
      */
-    private Classroom getRandomClassroomForSubject(Subject subject) {
-        List<Classroom> suitableClassrooms = populationService.getClassrooms().stream()
-                .filter(c -> c.canAccommodate(subject))
-                .toList();
-
+    private Classroom getRandomClassroomForSubject(Subject subject, RandomGenerator random) {
+        List<Classroom> suitableClassrooms = catalog.getSuitableClassrooms(subject);
         if (suitableClassrooms.isEmpty()) {
             throw new IllegalStateException("No classroom available for subject: " + subject);
         }
@@ -161,31 +654,337 @@ public class GeneticOperatorServiceImpl implements IGeneticOperatorService {
      */
     @Override
     public List<Timetable> createNewGeneration(List<Timetable> population, ISelectionService selectionService) {
-        List<Timetable> newGeneration = new ArrayList<>();
+        return createNewGeneration(population, selectionService, random);
+    }
+
+    /**
+     * Create a new generation with the offspring slots produced independently across threads.
+     * Every chunk of slots draws from its own stream split from the given random, so the
+     * new generation depends only on the population and the state of random.
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           source of the per-chunk random streams
+     * @return new generation
+     */
+    @Override
+    public List<Timetable> createNewGeneration(List<Timetable> population, ISelectionService selectionService,
+                                               SplittableRandom random) {
+        return createNewGeneration(population, selectionService, random, population.size());
+    }
+
+    /**
+     * Create a new generation of a given size, producing the offspring in parallel
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           source of the per-chunk random streams
+     * @param generationSize   number of timetables in the new generation, elite included
+     * @return new generation
+     */
+    @Override
+    public List<Timetable> createNewGeneration(List<Timetable> population, ISelectionService selectionService,
+                                               SplittableRandom random, int generationSize) {
+        if (generationSize < 1) {
+            throw new IllegalArgumentException("Generation size must be at least 1: " + generationSize);
+        }
+        Timetable[] newGeneration = new Timetable[generationSize];
 
         // Elitism: keep the best individual
-        Timetable best = population.stream()
+        newGeneration[0] = population.stream()
                 .max(Comparator.comparingDouble(Timetable::getFitness))
                 .orElseThrow();
-        newGeneration.add(best);
 
-        // Fill the rest with offspring
-        while (newGeneration.size() < population.size()) {
-            // Select parents
-            Timetable[] parents = selectionService.selectParents(population);
+        // Split the streams on the calling thread, in slot order
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int start = 1; start < newGeneration.length; start += OFFSPRING_CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(start + OFFSPRING_CHUNK_SIZE, newGeneration.length);
+            SplittableRandom chunkRandom = random.split();
+            chunks.add(() -> {
+                for (int slot = from; slot < to; slot++) {
+                    newGeneration[slot] = produceOffspring(population, selectionService, chunkRandom);
+                }
+                return null;
+            });
+        }
+
+        if (offspringPool == null) {
+            for (Callable<Void> chunk : chunks) {
+                try {
+                    chunk.call();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Offspring production failed", e);
+                }
+            }
+        } else {
+            try {
+                for (Future<Void> future : offspringPool.invokeAll(chunks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Offspring production was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Offspring production failed", e.getCause());
+            }
+        }
+
+        return new ArrayList<>(Arrays.asList(newGeneration));
+    }
+
+    /**
+     * Select two parents, cross them over and mutate the offspring. With a delta evaluator, the
+     * offspring state is derived from the first parent's at the positions the operators changed.
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           random stream to draw from
+     * @return offspring
+     */
+    private Timetable produceOffspring(List<Timetable> population, ISelectionService selectionService,
+                                       RandomGenerator random) {
+        Timetable[] parents = profiler.measure(ProfilePhase.SELECTION,
+                () -> selectionService.selectParents(population, random));
+        BitSet changed = deltaEvaluator != null ? new BitSet() : null;
+        Timetable crossed = profiler.measure(ProfilePhase.CROSSOVER,
+                () -> crossover(parents[0], parents[1], random, changed));
+        // Targeted mutation moves lessons through the state of the crossed offspring, which it owns
+        DeltaFitnessEvaluator.State state = deltaEvaluator != null && mutationMode == MutationMode.TARGETED
+                ? deltaEvaluator.newDerivedState(parents[0], crossed, changed) : null;
+        Timetable mutated = profiler.measure(ProfilePhase.MUTATION,
+                () -> mutateOffspring(crossed, parents, random, changed, state));
+        Timetable offspring = repairConstraints(mutated);
+        if (deltaEvaluator != null) {
+            // Repair does not report its changes
+            if (offspring != mutated) {
+                deltaEvaluator.deriveState(parents[0], offspring);
+            } else if (state != null) {
+                deltaEvaluator.register(offspring, state);
+            } else {
+                deltaEvaluator.deriveState(parents[0], offspring, changed);
+            }
+        }
+        return offspring;
+    }
+
+    /**
+     * Repair the cheap hard constraint violations of an offspring, if repair is enabled
+     *
+     * @param offspring the offspring
+     * @return the repaired offspring, or the offspring itself
+     */
+    private Timetable repairConstraints(Timetable offspring) {
+        if (repairOperator == null) {
+            return offspring;
+        }
+        return profiler.measure(ProfilePhase.REPAIR, () -> repairOperator.repair(offspring));
+    }
+
+    /**
+     * Perform crossover between two encoded parents.
+     * Each group block of genes is copied from one parent or the other.
+     *
+     * @param parent1 first parent
+     * @param parent2 second parent
+     * @return offspring encoded timetable
+     */
+    @Override
+    public EncodedTimetable crossover(EncodedTimetable parent1, EncodedTimetable parent2) {
+        TimetableEncoding encoding = parent1.getEncoding();
+        EncodedTimetable offspring = new EncodedTimetable(encoding, new short[encoding.size()]);
+        crossoverInto(parent1, parent2, offspring, random);
+        return offspring;
+    }
+
+    /**
+     * Copy each group block of genes from one parent or the other into an offspring,
+     * together with the block hash when genome hashing is on
+     *
+     * @param parent1   first parent
+     * @param parent2   second parent
+     * @param offspring offspring, its genes and hashes overwritten
+     * @param random    random stream to draw from
+     */
+    private void crossoverInto(EncodedTimetable parent1, EncodedTimetable parent2, EncodedTimetable offspring,
+                               RandomGenerator random) {
+        TimetableEncoding encoding = parent1.getEncoding();
+        short[] genes = offspring.getGenes();
+        for (int block = 0; block < encoding.getBlockCount(); block++) {
+            EncodedTimetable source = random.nextBoolean() ? parent1 : parent2;
+            int start = encoding.getBlockStart(block);
+            System.arraycopy(source.getGenes(), start, genes, start, encoding.getBlockEnd(block) - start);
+            if (genomeHashing) {
+                offspring.setBlockHash(block, source.getBlockHash(block));
+            }
+        }
+        if (genomeHashing) {
+            offspring.completeBlockHashes();
+        } else {
+            offspring.resetGenomeHash();
+        }
+    }
 
-            // Crossover
-            Timetable offspring = crossover(parents[0], parents[1]);
+    /**
+     * Perform mutation on an encoded timetable.
+     * Encoded timetables carry no conflict mask, so every gene uses the plain mutation rate.
+     *
+     * @param timetable the encoded timetable to mutate
+     * @return mutated timetable (or original if no mutation)
+     */
+    @Override
+    public EncodedTimetable mutate(EncodedTimetable timetable) {
+        return mutate(timetable, random);
+    }
 
-            // Mutation
-            offspring = mutate(offspring);
+    /**
+     * Random mutation of an encoded timetable: every gene rolls against the mutation rate
+     *
+     * @param timetable the encoded timetable to mutate
+     * @param random    random stream to draw from
+     * @return mutated copy, or the timetable itself if no gene was mutated
+     */
+    private EncodedTimetable mutate(EncodedTimetable timetable, RandomGenerator random) {
+        TimetableEncoding encoding = timetable.getEncoding();
+        short[] genes = timetable.getGenes();
+        EncodedTimetable mutated = null;
+        if (genomeHashing) {
+            timetable.getGenomeHash();
+        }
 
-            // Repair obvious constraint violations
-            //offspring = repairConstraints(offspring);
+        for (int block = 0; block < encoding.getBlockCount(); block++) {
+            for (int i = encoding.getBlockStart(block); i < encoding.getBlockEnd(block); i++) {
+                if (random.nextDouble() < mutationRate) {
+                    if (mutated == null) {
+                        mutated = timetable.copy();
+                    }
+                    mutated.setGene(block, i, mutateGene(encoding, encoding.getSubject(i), genes[i], random));
+                }
+            }
+        }
 
-            newGeneration.add(offspring);
+        return mutated != null ? mutated : timetable;
+    }
+
+    /**
+     * Mutate a single gene by changing its time slot, its classroom or both
+     *
+     * @param encoding encoding of the gene
+     * @param subject  subject of the lesson
+     * @param gene     the gene to mutate
+     * @param random   random stream to draw from
+     * @return mutated gene
+     */
+    private short mutateGene(TimetableEncoding encoding, Subject subject, short gene, RandomGenerator random) {
+        int slot = encoding.slotOf(gene);
+        int classroom = encoding.classroomOf(gene);
+        int mutationType = random.nextInt(3);
+        if (mutationType != 1) {
+            slot = random.nextInt(encoding.getSlotCount());
+        }
+        if (mutationType != 0) {
+            int[] suitableClassrooms = encoding.getSuitableClassrooms(subject);
+            if (suitableClassrooms.length == 0) {
+                throw new IllegalStateException("No classroom available for subject: " + subject);
+            }
+            classroom = suitableClassrooms[random.nextInt(suitableClassrooms.length)];
+        }
+        return encoding.gene(slot, classroom);
+    }
+
+    /**
+     * Create a new encoded generation through selection, crossover, and mutation
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @return new generation
+     */
+    @Override
+    public List<EncodedTimetable> createNewEncodedGeneration(List<EncodedTimetable> population,
+                                                             ISelectionService selectionService) {
+        return createNewEncodedGeneration(population, selectionService, random);
+    }
+
+    /**
+     * Create a new encoded generation, the offspring drawing from the given random stream
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           random stream of the crossovers and mutations
+     * @return new generation
+     */
+    @Override
+    public List<EncodedTimetable> createNewEncodedGeneration(List<EncodedTimetable> population,
+                                                             ISelectionService selectionService,
+                                                             SplittableRandom random) {
+        List<EncodedTimetable> newGeneration = new ArrayList<>(population.size());
+
+        // Elitism: keep the best individual
+        EncodedTimetable best = population.stream()
+                .max(Comparator.comparingDouble(EncodedTimetable::getFitness))
+                .orElseThrow();
+        newGeneration.add(best);
+
+        while (newGeneration.size() < population.size()) {
+            EncodedTimetable[] parents = selectionService.selectEncodedParents(population);
+            TimetableEncoding encoding = parents[0].getEncoding();
+            EncodedTimetable offspring = new EncodedTimetable(encoding, new short[encoding.size()]);
+            crossoverInto(parents[0], parents[1], offspring, random);
+            newGeneration.add(mutate(offspring, random));
         }
 
         return newGeneration;
     }
+
+    /**
+     * Breed the next encoded generation into the spare buffer of a double-buffered population.
+     * The best timetable is copied over (elitism), every other offspring is crossed and mutated
+     * in place, so nothing is allocated.
+     *
+     * @param population       double-buffered population, its current buffer evaluated
+     * @param selectionService selection service
+     */
+    @Override
+    public void breedEncodedGeneration(DoubleBufferedPopulation population, ISelectionService selectionService) {
+        breedEncodedGeneration(population, selectionService, random);
+    }
+
+    /**
+     * Breed the next encoded generation into the spare buffer, the offspring drawing from the given random stream
+     *
+     * @param population       double-buffered population, its current buffer evaluated
+     * @param selectionService selection service
+     * @param random           random stream of the crossovers and mutations
+     */
+    @Override
+    public void breedEncodedGeneration(DoubleBufferedPopulation population, ISelectionService selectionService,
+                                       SplittableRandom random) {
+        EncodedTimetable[] parents = population.getCurrent();
+        EncodedTimetable[] offspring = population.getNext();
+        offspring[0].copyFrom(population.getBest());
+
+        for (int i = 1; i < offspring.length; i++) {
+            EncodedTimetable parent1 = selectionService.selectEncodedParent(parents);
+            EncodedTimetable parent2 = selectionService.selectEncodedParent(parents);
+            // Ensure different parents if possible
+            while (parent1 == parent2 && parents.length > 1) {
+                parent2 = selectionService.selectEncodedParent(parents);
+            }
+
+            EncodedTimetable child = offspring[i];
+            short[] genes = child.getGenes();
+            crossoverInto(parent1, parent2, child, random);
+            TimetableEncoding encoding = child.getEncoding();
+            for (int block = 0; block < encoding.getBlockCount(); block++) {
+                for (int position = encoding.getBlockStart(block); position < encoding.getBlockEnd(block);
+                     position++) {
+                    if (random.nextDouble() < mutationRate) {
+                        child.setGene(block, position,
+                                mutateGene(encoding, encoding.getSubject(position), genes[position], random));
+                    }
+                }
+            }
+        }
+        population.swap();
+    }
 }
@@ -0,0 +1,204 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+import com.solvd.schoolschedule.model.*;
+
+/**
+ * Randomized greedy construction of timetables, seen as a graph colouring problem.
+ *
+ * <p>Lessons are the vertices, two lessons sharing a group or a teacher are adjacent, and the
+ * colours are (time slot, classroom) pairs. Lessons are coloured hardest first: fewest suitable
+ * classrooms, then busiest teacher, with random tie-breaks, and Physical Culture last so it can
+ * close the day. Each lesson takes a slot where its group, its teacher and a suitable classroom
+ * are free, preferring slots that keep the days of the group and the teacher contiguous and the
+ * group's days balanced. The choice among equally good slots and classrooms is random, so every
+ * call gives a different, nearly feasible timetable.</p>
+ *
+ * <p>Timetables are built as genes of a {@link TimetableEncoding}, so their lesson positions match
+ * the random timetables of the population service.</p>
+ */
+public class GreedyTimetableBuilder {
+
+    private static final int GROUP_GAP_PENALTY = 4;
+    private static final int TEACHER_GAP_PENALTY = 2;
+    private static final int LAST_LESSON_PENALTY = 4;
+
+    private final TimetableEncoding encoding;
+    private final int slots;
+    private final int periods;
+    private final int[] groupIndexes;
+    private final int[] teacherIndexes;
+    private final int teacherCount;
+    private final int[] teacherLoads;
+
+    /**
+     * @param encoding lesson layout to build timetables for
+     */
+    public GreedyTimetableBuilder(TimetableEncoding encoding) {
+        this.encoding = encoding;
+        this.slots = encoding.getSlotCount();
+        this.periods = encoding.getPeriods();
+        this.groupIndexes = new int[encoding.size()];
+        for (int block = 0; block < encoding.getBlockCount(); block++) {
+            Arrays.fill(groupIndexes, encoding.getBlockStart(block), encoding.getBlockEnd(block), block);
+        }
+        Map<Teacher, Integer> teacherIds = new HashMap<>();
+        this.teacherIndexes = new int[encoding.size()];
+        for (int position = 0; position < encoding.size(); position++) {
+            teacherIndexes[position] = teacherIds.computeIfAbsent(encoding.getTeacher(position),
+                    teacher -> teacherIds.size());
+        }
+        this.teacherCount = teacherIds.size();
+        this.teacherLoads = new int[teacherCount];
+        for (int teacher : teacherIndexes) {
+            teacherLoads[teacher]++;
+        }
+    }
+
+    /**
+     * Build a timetable
+     *
+     * @param random random stream for the tie-breaks
+     * @return genes of the timetable, one per lesson position of the encoding
+     */
+    public short[] build(RandomGenerator random) {
+        boolean[] groupBusy = new boolean[encoding.getBlockCount() * slots];
+        boolean[] teacherBusy = new boolean[teacherCount * slots];
+        boolean[] roomBusy = new boolean[encoding.getClassroomCount() * slots];
+        boolean[] physicalCulture = new boolean[encoding.getBlockCount() * slots];
+        short[] genes = new short[encoding.size()];
+
+        int[] candidateSlots = new int[slots];
+        int[] candidateRooms = new int[encoding.getClassroomCount()];
+        for (int position : colouringOrder(random)) {
+            Subject subject = encoding.getSubject(position);
+            int[] suitable = encoding.getSuitableClassrooms(subject);
+            if (suitable.length == 0) {
+                throw new IllegalStateException("No classroom available for subject: " + subject);
+            }
+            int group = groupIndexes[position] * slots;
+            int teacher = teacherIndexes[position] * slots;
+
+            // Best feasible slots
+            int bestScore = Integer.MAX_VALUE;
+            int candidates = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (groupBusy[group + slot] || teacherBusy[teacher + slot] || !hasFreeRoom(roomBusy, suitable, slot)) {
+                    continue;
+                }
+                int score = score(groupBusy, teacherBusy, physicalCulture, group, teacher, subject, slot);
+                if (score < bestScore) {
+                    bestScore = score;
+                    candidates = 0;
+                }
+                if (score == bestScore) {
+                    candidateSlots[candidates++] = slot;
+                }
+            }
+
+            // No feasible slot left: the lesson collides wherever it goes
+            if (candidates == 0) {
+                int slot = random.nextInt(slots);
+                genes[position] = encoding.gene(slot, suitable[random.nextInt(suitable.length)]);
+                continue;
+            }
+
+            int slot = candidateSlots[random.nextInt(candidates)];
+            int rooms = 0;
+            for (int classroom : suitable) {
+                if (!roomBusy[classroom * slots + slot]) {
+                    candidateRooms[rooms++] = classroom;
+                }
+            }
+            int classroom = candidateRooms[random.nextInt(rooms)];
+            genes[position] = encoding.gene(slot, classroom);
+            groupBusy[group + slot] = true;
+            teacherBusy[teacher + slot] = true;
+            roomBusy[classroom * slots + slot] = true;
+            physicalCulture[group + slot] = subject == Subject.PHYSICAL_CULTURE;
+        }
+        return genes;
+    }
+
+    /**
+     * Lesson positions, hardest first: fewest suitable classrooms, then busiest teacher,
+     * random among equals, Physical Culture at the end
+     */
+    private List<Integer> colouringOrder(RandomGenerator random) {
+        List<Integer> order = new ArrayList<>(encoding.size());
+        double[] tieBreaks = new double[encoding.size()];
+        for (int position = 0; position < encoding.size(); position++) {
+            order.add(position);
+            tieBreaks[position] = random.nextDouble();
+        }
+        order.sort(Comparator
+                .comparing((Integer p) -> encoding.getSubject(p) == Subject.PHYSICAL_CULTURE)
+                .thenComparingInt(p -> encoding.getSuitableClassrooms(encoding.getSubject(p)).length)
+                .thenComparingInt(p -> -teacherLoads[teacherIndexes[p]])
+                .thenComparingDouble(p -> tieBreaks[p]));
+        return order;
+    }
+
+    private boolean hasFreeRoom(boolean[] roomBusy, int[] suitable, int slot) {
+        for (int classroom : suitable) {
+            if (!roomBusy[classroom * slots + slot]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cost of placing a lesson in a slot: new gaps of the group and the teacher,
+     * lessons after Physical Culture, and how busy the group's day already is
+     */
+    private int score(boolean[] groupBusy, boolean[] teacherBusy, boolean[] physicalCulture,
+                      int group, int teacher, Subject subject, int slot) {
+        int dayStart = slot - slot % periods;
+        int period = slot - dayStart;
+        int score = GROUP_GAP_PENALTY * gapIncrease(groupBusy, group + dayStart, period)
+                + TEACHER_GAP_PENALTY * gapIncrease(teacherBusy, teacher + dayStart, period);
+
+        int dayLoad = 0;
+        for (int p = 0; p < periods; p++) {
+            if (!groupBusy[group + dayStart + p]) {
+                continue;
+            }
+            dayLoad++;
+            boolean after = p > period;
+            if (subject == Subject.PHYSICAL_CULTURE ? after : !after && physicalCulture[group + dayStart + p]) {
+                score += LAST_LESSON_PENALTY;
+            }
+        }
+        return score + dayLoad;
+    }
+
+    /**
+     * Number of free periods between the first and last busy ones that occupying a period adds
+     * (negative when the period fills a gap)
+     */
+    private int gapIncrease(boolean[] busy, int day, int period) {
+        int first = -1;
+        int last = -1;
+        for (int p = 0; p < periods; p++) {
+            if (busy[day + p]) {
+                if (first < 0) {
+                    first = p;
+                }
+                last = p;
+            }
+        }
+        if (first < 0) {
+            return 0;
+        }
+        if (period < first) {
+            return first - period - 1;
+        }
+        if (period > last) {
+            return period - last - 1;
+        }
+        return -1;
+    }
+}
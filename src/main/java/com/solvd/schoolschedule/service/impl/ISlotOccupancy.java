@@ -0,0 +1,21 @@
+package com.solvd.schoolschedule.service.impl;
+
+import com.solvd.schoolschedule.model.*;
+
+/**
+ * Occupancy of the time slots by group, teacher and classroom, as kept by an
+ * {@link OccupancyIndex} or a {@link DeltaFitnessEvaluator.State}.
+ * Resources unknown to the catalog always look free.
+ */
+interface ISlotOccupancy {
+
+    /**
+     * Checks that neither the group nor the teacher has a lesson in a slot
+     */
+    boolean isFree(Group group, Teacher teacher, int day, int period);
+
+    /**
+     * Checks that neither the group, the teacher nor the classroom has a lesson in a slot
+     */
+    boolean isFree(Group group, Teacher teacher, Classroom classroom, int day, int period);
+}
@@ -0,0 +1,148 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.*;
+import com.solvd.schoolschedule.util.RunProfiler;
+
+/**
+ * One population of the island-model genetic algorithm.
+ *
+ * <p>An island evolves its population with its own {@link GeneticAlgorithmEngine}, so islands
+ * can evolve on separate threads without sharing mutable state.
+ * Individuals only cross islands through {@link #getEmigrants(int)} and
+ * {@link #acceptMigrants(List)}, which the generator calls between evolution epochs.
+ * The generator closes its islands after the run.</p>
+ */
+class Island implements AutoCloseable {
+
+    private final int id;
+    private final GeneticAlgorithmEngine engine;
+
+    /**
+     * Creates an island with the default settings and a random, evaluated population
+     *
+     * @param id                island number
+     * @param populationService population service providing the school resources
+     * @param populationSize    number of timetables on the island
+     */
+    Island(int id, IPopulationService populationService, int populationSize) {
+        this(id, "ISLAND #" + id, populationService, populationSize, GeneticAlgorithmSettings.defaults(),
+                new SplittableRandom(), null);
+    }
+
+    /**
+     * Creates an island with a random, evaluated population
+     *
+     * @param id                island number
+     * @param name              name of the island in profile reports, e.g. "ATTEMPT #2, ISLAND #0"
+     * @param populationService population service providing the school resources
+     * @param populationSize    number of timetables on the island
+     * @param settings          run settings, islands always evolve lesson timetables
+     * @param random            random stream of the island
+     * @param seedGenes         genes of a timetable placed in the population, e.g. the exact solver's
+     *                          solution (null for none)
+     */
+    Island(int id, String name, IPopulationService populationService, int populationSize,
+           GeneticAlgorithmSettings settings, SplittableRandom random, short[] seedGenes) {
+        this.id = id;
+        // Islands already run in parallel, so each one evolves on its own thread
+        this.engine = new GeneticAlgorithmEngine(name, populationService, populationSize,
+                settings.withEncodedChromosomes(false), false, random, null);
+        engine.fixPopulationSize();
+        engine.initialize(seedGenes);
+    }
+
+    /**
+     * Evolve the population for a number of generations, stopping early on a perfect timetable
+     *
+     * @param generations number of generations to run
+     * @return best timetable of the island
+     */
+    Timetable evolve(int generations) {
+        for (int i = 0; i < generations && !engine.isSolved(); i++) {
+            engine.step();
+        }
+        return engine.getBestTimetable();
+    }
+
+    /**
+     * Copies of the best individuals, safe to hand to another island
+     *
+     * @param count number of emigrants
+     * @return best timetables, best first
+     */
+    List<Timetable> getEmigrants(int count) {
+        return engine.getPopulation().stream()
+                .sorted(Comparator.comparingDouble(Timetable::getFitness).reversed())
+                .limit(count)
+                .map(Island::migrantCopy)
+                .toList();
+    }
+
+    /**
+     * Replace the worst individuals with incoming migrants
+     *
+     * @param migrants evaluated timetables from other islands
+     */
+    void acceptMigrants(List<Timetable> migrants) {
+        if (migrants.isEmpty()) {
+            return;
+        }
+        List<Timetable> newPopulation = new ArrayList<>(engine.getPopulation());
+        newPopulation.sort(Comparator.comparingDouble(Timetable::getFitness));
+        int replaced = Math.min(migrants.size(), newPopulation.size() - 1);
+        for (int i = 0; i < replaced; i++) {
+            newPopulation.set(i, migrants.get(i));
+        }
+        engine.replacePopulation(newPopulation);
+    }
+
+    /**
+     * Record the conflicts of a timetable of this island with the island's own fitness service
+     *
+     * @param timetable a timetable of the island
+     */
+    void updateConflicts(Timetable timetable) {
+        engine.updateConflicts(timetable);
+    }
+
+    @Override
+    public void close() {
+        engine.close();
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getGeneration() {
+        return engine.getGeneration();
+    }
+
+    Timetable getBestTimetable() {
+        return engine.getBestTimetable();
+    }
+
+    List<Timetable> getPopulation() {
+        return engine.getPopulation();
+    }
+
+    RunProfiler getProfiler() {
+        return engine.getProfiler();
+    }
+
+    /**
+     * Copy a timetable for another island. Lessons are immutable and shared, only the timetable
+     * is copied, so the fitness and conflicts set by one island never race with another island's
+     * evaluation. The published conflict mask is never modified and travels along.
+     */
+    private static Timetable migrantCopy(Timetable timetable) {
+        Timetable copy = new Timetable(timetable.getLessons(), timetable.getGeneration());
+        copy.setFitness(timetable.getFitness());
+        copy.setGenomeHash(timetable.getGenomeHash());
+        copy.setConflictMask(timetable.getConflictMask());
+        return copy;
+    }
+}
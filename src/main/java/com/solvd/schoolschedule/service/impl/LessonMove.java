@@ -0,0 +1,137 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.util.ZobristHash;
+
+/**
+ * Neighbourhood move of the single-solution searches: one lesson moved to another time slot
+ * and classroom, or two lessons exchanging their time slots.
+ * Moves are tried on an incremental {@link DeltaFitnessEvaluator.State} and reverted if rejected.
+ */
+final class LessonMove {
+    private final int first;
+    private final Lesson oldFirst;
+    private final Lesson newFirst;
+    private final int second;
+    private final Lesson oldSecond;
+    private final Lesson newSecond;
+
+    private LessonMove(int first, Lesson oldFirst, Lesson newFirst, int second, Lesson oldSecond, Lesson newSecond) {
+        this.first = first;
+        this.oldFirst = oldFirst;
+        this.newFirst = newFirst;
+        this.second = second;
+        this.oldSecond = oldSecond;
+        this.newSecond = newSecond;
+    }
+
+    /**
+     * Draw a random move: a relocation three times out of four, a swap otherwise
+     *
+     * @param lessons current lessons
+     * @param catalog classrooms able to host each subject and time slots of the week
+     * @param random  random stream
+     * @return the move, or null if the drawn move would change nothing
+     */
+    static LessonMove random(Lesson[] lessons, ResourceCatalog catalog, RandomGenerator random) {
+        if (random.nextInt(4) == 0) {
+            return swap(lessons, random.nextInt(lessons.length), random.nextInt(lessons.length));
+        }
+        int position = random.nextInt(lessons.length);
+        return relocate(lessons, position, catalog, random);
+    }
+
+    /**
+     * Move one lesson to a random time slot and suitable classroom
+     *
+     * @param lessons  current lessons
+     * @param position position of the lesson to move
+     * @param catalog  classrooms able to host the lesson's subject and time slots of the week
+     * @param random   random stream
+     * @return the move, or null if no classroom can host the lesson
+     */
+    static LessonMove relocate(Lesson[] lessons, int position, ResourceCatalog catalog, RandomGenerator random) {
+        Lesson lesson = lessons[position];
+        List<Classroom> suitable = catalog.getSuitableClassrooms(lesson.getSubject());
+        if (suitable.isEmpty()) {
+            return null;
+        }
+        Classroom classroom = suitable.get(random.nextInt(suitable.size()));
+        int day = random.nextInt(catalog.getDays());
+        int period = random.nextInt(catalog.getPeriods());
+        Lesson moved = new Lesson(lesson.getSubject(), lesson.getTeacher(), classroom,
+                catalog.getTimeSlot(day, period), lesson.getGroup());
+        return new LessonMove(position, lesson, moved, -1, null, null);
+    }
+
+    /**
+     * Exchange the time slots of two lessons, each keeping its classroom
+     *
+     * @param lessons current lessons
+     * @param first   position of the first lesson
+     * @param second  position of the second lesson
+     * @return the move, or null if both lessons share their time slot
+     */
+    static LessonMove swap(Lesson[] lessons, int first, int second) {
+        Lesson a = lessons[first];
+        Lesson b = lessons[second];
+        if (first == second || a.getTimeSlot().equals(b.getTimeSlot())) {
+            return null;
+        }
+        Lesson movedA = new Lesson(a.getSubject(), a.getTeacher(), a.getClassroom(), b.getTimeSlot(), a.getGroup());
+        Lesson movedB = new Lesson(b.getSubject(), b.getTeacher(), b.getClassroom(), a.getTimeSlot(), b.getGroup());
+        return new LessonMove(first, a, movedA, second, b, movedB);
+    }
+
+    /**
+     * Apply the move to a state
+     *
+     * @param state incremental state of the current lessons
+     * @return fitness after the move
+     */
+    double apply(DeltaFitnessEvaluator.State state) {
+        double result = state.replace(first, newFirst);
+        return second >= 0 ? state.replace(second, newSecond) : result;
+    }
+
+    /**
+     * Undo the move on a state it was applied to
+     *
+     * @param state incremental state
+     */
+    void revert(DeltaFitnessEvaluator.State state) {
+        if (second >= 0) {
+            state.replace(second, oldSecond);
+        }
+        state.replace(first, oldFirst);
+    }
+
+    /**
+     * Apply the move to the current lessons
+     *
+     * @param lessons current lessons
+     */
+    void applyTo(Lesson[] lessons) {
+        lessons[first] = newFirst;
+        if (second >= 0) {
+            lessons[second] = newSecond;
+        }
+    }
+
+    /**
+     * Genome hash after the move
+     *
+     * @param hash genome hash before the move
+     * @return updated hash
+     */
+    long hash(long hash) {
+        hash ^= ZobristHash.key(first, oldFirst) ^ ZobristHash.key(first, newFirst);
+        if (second >= 0) {
+            hash ^= ZobristHash.key(second, oldSecond) ^ ZobristHash.key(second, newSecond);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,87 @@
+package com.solvd.schoolschedule.service.impl;
+
+import com.solvd.schoolschedule.model.*;
+
+/**
+ * Lessons per (group, slot), (teacher, slot) and (classroom, slot), for the resources of a catalog.
+ * Lessons of unknown resources are not counted, and their slots always look free.
+ */
+final class OccupancyIndex implements ISlotOccupancy {
+    private final ResourceCatalog catalog;
+    private final int slots;
+    private final int[] groupSlots;
+    private final int[] teacherSlots;
+    private final int[] roomSlots;
+
+    /**
+     * @param catalog dense ids of the known resources and the week
+     */
+    OccupancyIndex(ResourceCatalog catalog) {
+        this.catalog = catalog;
+        this.slots = catalog.getSlotCount();
+        this.groupSlots = new int[catalog.getGroupCount() * slots];
+        this.teacherSlots = new int[catalog.getTeacherCount() * slots];
+        this.roomSlots = new int[catalog.getClassroomCount() * slots];
+    }
+
+    boolean isInsideWeek(TimeSlot timeSlot) {
+        return catalog.slotOf(timeSlot) >= 0;
+    }
+
+    /**
+     * Add (+1) or remove (-1) a lesson, its time slot must be inside the week
+     */
+    void add(Lesson lesson, int sign) {
+        int slot = catalog.slotOf(lesson.getTimeSlot());
+        int groupId = catalog.groupId(lesson.getGroup());
+        if (groupId >= 0) {
+            groupSlots[groupId * slots + slot] += sign;
+        }
+        int teacherId = catalog.teacherId(lesson.getTeacher());
+        if (teacherId >= 0) {
+            teacherSlots[teacherId * slots + slot] += sign;
+        }
+        int classroomId = catalog.classroomId(lesson.getClassroom());
+        if (classroomId >= 0) {
+            roomSlots[classroomId * slots + slot] += sign;
+        }
+    }
+
+    boolean isColliding(Lesson lesson) {
+        int slot = catalog.slotOf(lesson.getTimeSlot());
+        return count(groupSlots, catalog.groupId(lesson.getGroup()), slot) > 1
+                || count(teacherSlots, catalog.teacherId(lesson.getTeacher()), slot) > 1
+                || count(roomSlots, catalog.classroomId(lesson.getClassroom()), slot) > 1;
+    }
+
+    @Override
+    public boolean isFree(Group group, Teacher teacher, int day, int period) {
+        int slot = slot(day, period);
+        return count(groupSlots, catalog.groupId(group), slot) == 0
+                && count(teacherSlots, catalog.teacherId(teacher), slot) == 0;
+    }
+
+    @Override
+    public boolean isFree(Group group, Teacher teacher, Classroom classroom, int day, int period) {
+        return isFree(group, teacher, day, period)
+                && count(roomSlots, catalog.classroomId(classroom), slot(day, period)) == 0;
+    }
+
+    TimeSlot firstFreeSlot(Group group) {
+        int groupId = catalog.groupId(group);
+        for (int slot = 0; slot < slots; slot++) {
+            if (groupSlots[groupId * slots + slot] == 0) {
+                return catalog.getTimeSlot(slot);
+            }
+        }
+        return catalog.getTimeSlot(0);
+    }
+
+    private int slot(int day, int period) {
+        return day * catalog.getPeriods() + period;
+    }
+
+    private int count(int[] cells, int id, int slot) {
+        return id < 0 ? 0 : cells[id * slots + slot];
+    }
+}
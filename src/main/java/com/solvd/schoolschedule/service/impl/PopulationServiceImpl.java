@@ -1,7 +1,9 @@
 package com.solvd.schoolschedule.service.impl;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.solvd.schoolschedule.model.*;
 import com.solvd.schoolschedule.service.interfaces.*;
@@ -12,20 +14,83 @@ import com.solvd.schoolschedule.service.interfaces.*;
  */
 public class PopulationServiceImpl implements IPopulationService {
 
+    /**
+     * Number of timetables sharing one random stream in parallel initialization.
+     * Fixed, so the result does not depend on the number of threads.
+     */
+    private static final int INITIALIZATION_CHUNK_SIZE = 8;
+
+    /**
+     * Names of the first teacher of every subject, in subject order
+     */
+    private static final String[] STOCK_TEACHER_NAMES = {"Mr. Smith", "Ms. Johnson", "Dr. Brown", "Mrs. Davis"};
+
+    private final ProblemDefinition problem;
     private final List<Teacher> teachers;
     private final List<Classroom> classrooms;
     private final List<Group> groups;
+    private final ResourceCatalog catalog;
+    private final TimetableEncoding encoding;
+    private final GreedyTimetableBuilder greedyBuilder;
+    private final double seedingRatio;
     private final Random random;
 
     public PopulationServiceImpl() {
-        this.teachers = initializeTeachers();
-        this.classrooms = initializeClassrooms();
-        this.groups = initializeGroups();
+        this(ProblemDefinition.defaults());
+    }
+
+    /**
+     * Creates the school with a custom number of groups, e.g. for scaled benchmarks
+     *
+     * @param numberOfGroups number of student groups
+     */
+    public PopulationServiceImpl(int numberOfGroups) {
+        this(numberOfGroups, 0.0);
+    }
+
+    /**
+     * Creates the school, building part of every new population with a greedy heuristic
+     *
+     * @param numberOfGroups number of student groups
+     * @param seedingRatio   share of each population built by {@link GreedyTimetableBuilder}, the rest is random
+     */
+    public PopulationServiceImpl(int numberOfGroups, double seedingRatio) {
+        this(ProblemDefinition.defaults().withGroups(numberOfGroups), seedingRatio);
+    }
+
+    /**
+     * Creates the school of a problem definition
+     *
+     * @param problem size of the week and of the school
+     */
+    public PopulationServiceImpl(ProblemDefinition problem) {
+        this(problem, 0.0);
+    }
+
+    /**
+     * Creates the school of a problem definition, building part of every new population with a greedy heuristic
+     *
+     * @param problem      size of the week and of the school
+     * @param seedingRatio share of each population built by {@link GreedyTimetableBuilder}, the rest is random
+     */
+    public PopulationServiceImpl(ProblemDefinition problem, double seedingRatio) {
+        if (seedingRatio < 0 || seedingRatio > 1) {
+            throw new IllegalArgumentException("Seeding ratio must be between 0 and 1: " + seedingRatio);
+        }
+        this.problem = problem;
+        this.teachers = initializeTeachers(problem);
+        this.classrooms = initializeClassrooms(problem);
+        this.groups = initializeGroups(problem.getNumberOfGroups());
+        this.catalog = new ResourceCatalog(groups, teachers, classrooms, problem.getDays(), problem.getPeriodsPerDay(),
+                problem::getWeeklyLessons);
+        this.encoding = new TimetableEncoding(catalog, catalog::getAssignedTeacher);
+        this.greedyBuilder = new GreedyTimetableBuilder(encoding);
+        this.seedingRatio = seedingRatio;
         this.random = new Random();
     }
 
     /**
-     * Initialize a population of random timetables
+     * Initialize a population of random timetables, the first ones greedily built if seeding is enabled
      *
      * @param populationSize the size of the population
      * @return list of timetables
@@ -33,27 +98,128 @@ public class PopulationServiceImpl implements IPopulationService {
     @Override
     public List<Timetable> initializePopulation(int populationSize) {
         List<Timetable> population = new ArrayList<>();
+        int seeded = getSeededCount(populationSize);
         for (int i = 0; i < populationSize; i++) {
-            population.add(generateRandomTimetable());
+            population.add(i < seeded ? generateGreedyTimetable(random) : generateRandomTimetable(random));
         }
         return population;
     }
 
+    /**
+     * Initialize a population of random timetables in parallel.
+     * Every chunk of timetables draws from its own stream split from the given random.
+     *
+     * @param populationSize the size of the population
+     * @param random         source of the per-worker random streams
+     * @return list of timetables
+     */
+    @Override
+    public List<Timetable> initializePopulation(int populationSize, SplittableRandom random) {
+        Timetable[] population = new Timetable[populationSize];
+        int chunks = (populationSize + INITIALIZATION_CHUNK_SIZE - 1) / INITIALIZATION_CHUNK_SIZE;
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            chunkRandoms[chunk] = random.split();
+        }
+        int seeded = getSeededCount(populationSize);
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int to = Math.min((chunk + 1) * INITIALIZATION_CHUNK_SIZE, populationSize);
+            for (int i = chunk * INITIALIZATION_CHUNK_SIZE; i < to; i++) {
+                population[i] = i < seeded ? generateGreedyTimetable(chunkRandoms[chunk])
+                        : generateRandomTimetable(chunkRandoms[chunk]);
+            }
+        });
+        return new ArrayList<>(Arrays.asList(population));
+    }
+
+    /**
+     * Initialize a population of random encoded timetables
+     *
+     * @param populationSize the size of the population
+     * @return list of encoded timetables
+     */
+    @Override
+    public List<EncodedTimetable> initializeEncodedPopulation(int populationSize) {
+        return buildEncodedPopulation(populationSize, random);
+    }
+
+    /**
+     * Initialize a population of random encoded timetables, reproducible for a given state of random
+     *
+     * @param populationSize the size of the population
+     * @param random         random stream to draw from
+     * @return list of encoded timetables
+     */
+    @Override
+    public List<EncodedTimetable> initializeEncodedPopulation(int populationSize, SplittableRandom random) {
+        return buildEncodedPopulation(populationSize, random);
+    }
+
+    private List<EncodedTimetable> buildEncodedPopulation(int populationSize, RandomGenerator random) {
+        List<EncodedTimetable> population = new ArrayList<>();
+        int seeded = getSeededCount(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            population.add(i < seeded ? new EncodedTimetable(encoding, greedyBuilder.build(random))
+                    : generateRandomEncodedTimetable(random));
+        }
+        return population;
+    }
+
+    /**
+     * Number of greedily built timetables in a new population
+     *
+     * @param populationSize the size of the population
+     * @return number of seeded timetables
+     */
+    private int getSeededCount(int populationSize) {
+        return (int) Math.round(populationSize * seedingRatio);
+    }
+
+    /**
+     * Generate a nearly feasible timetable with the greedy colouring heuristic
+     *
+     * @param random random stream to draw from
+     * @return a greedily built timetable
+     */
+    private Timetable generateGreedyTimetable(RandomGenerator random) {
+        return encoding.decode(greedyBuilder.build(random));
+    }
+
+    /**
+     * Generate a random encoded timetable: a random slot and suitable classroom per lesson
+     *
+     * @param random random stream to draw from
+     * @return a randomly generated encoded timetable
+     */
+    private EncodedTimetable generateRandomEncodedTimetable(RandomGenerator random) {
+        short[] genes = new short[encoding.size()];
+        for (int i = 0; i < genes.length; i++) {
+            int[] suitableClassrooms = encoding.getSuitableClassrooms(encoding.getSubject(i));
+            if (suitableClassrooms.length == 0) {
+                throw new IllegalStateException("No classroom available for subject: " + encoding.getSubject(i));
+            }
+            genes[i] = encoding.gene(random.nextInt(encoding.getSlotCount()),
+                    suitableClassrooms[random.nextInt(suitableClassrooms.length)]);
+        }
+        return new EncodedTimetable(encoding, genes);
+    }
+
     /**
      * Generate a random timetable with all required lessons
      *
+     * @param random random stream to draw from
      * @return a randomly generated timetable
      */
-    private Timetable generateRandomTimetable() {
+    private Timetable generateRandomTimetable(RandomGenerator random) {
         Timetable timetable = new Timetable();
         List<Lesson> lessons = new ArrayList<>();
 
         // Generate lessons for each group and subject
         for (Group group : groups) {
             for (Subject subject : Subject.values()) {
-                int weeklyLessons = SubjectConfig.getWeeklyLessons(subject);
+                int weeklyLessons = catalog.getWeeklyLessons(subject);
                 for (int i = 0; i < weeklyLessons; i++) {
-                    Lesson lesson = generateRandomLesson(subject, group);
+                    Lesson lesson = generateRandomLesson(subject, group, random);
                     lessons.add(lesson);
                 }
             }
@@ -72,40 +238,26 @@ public class PopulationServiceImpl implements IPopulationService {
      *
      * @param subject the subject
      * @param group   the group
+     * @param random  random stream to draw from
      * @return a random lesson
      */
-    private Lesson generateRandomLesson(Subject subject, Group group) {
-        Teacher teacher = getTeacherForSubject(subject);
-        Classroom classroom = getRandomClassroomForSubject(subject);
-        TimeSlot timeSlot = getRandomTimeSlot();
+    private Lesson generateRandomLesson(Subject subject, Group group, RandomGenerator random) {
+        Teacher teacher = catalog.getAssignedTeacher(group, subject);
+        Classroom classroom = getRandomClassroomForSubject(subject, random);
+        TimeSlot timeSlot = getRandomTimeSlot(random);
 
         return new Lesson(subject, teacher, classroom, timeSlot, group);
     }
 
-    /**
-     * Get teacher for a specific subject
-     *
-     * @param subject the subject
-     * @return the teacher for that subject
-     */
-    private Teacher getTeacherForSubject(Subject subject) {
-        return teachers.stream()
-                .filter(t -> t.getSubject() == subject)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No teacher found for subject: " + subject));
-    }
-
     /**
      * Get a random classroom that can accommodate the subject
      *
      * @param subject the subject
+     * @param random  random stream to draw from
      * @return a suitable classroom
      */
-    private Classroom getRandomClassroomForSubject(Subject subject) {
-        List<Classroom> suitableClassrooms = classrooms.stream()
-                .filter(c -> c.canAccommodate(subject))
-                .toList();
-
+    private Classroom getRandomClassroomForSubject(Subject subject, RandomGenerator random) {
+        List<Classroom> suitableClassrooms = catalog.getSuitableClassrooms(subject);
         if (suitableClassrooms.isEmpty()) {
             throw new IllegalStateException("No classroom available for subject: " + subject);
         }
@@ -116,56 +268,74 @@ public class PopulationServiceImpl implements IPopulationService {
     /**
      * Get a random time slot
      *
+     * @param random random stream to draw from
      * @return a random time slot
      */
-    private TimeSlot getRandomTimeSlot() {
-        int day = random.nextInt(SchoolConfig.WORKING_DAYS_PER_WEEK);
-        int period = random.nextInt(SchoolConfig.MAX_PERIODS_PER_DAY);
-        return new TimeSlot(day, period);
+    private TimeSlot getRandomTimeSlot(RandomGenerator random) {
+        int day = random.nextInt(catalog.getDays());
+        int period = random.nextInt(catalog.getPeriods());
+        return catalog.getTimeSlot(day, period);
     }
 
     /**
-     * Initialize teachers (one per subject)
+     * Initialize teachers: the stock teacher of every subject first, then the extra teachers of each subject
      *
+     * @param problem number of teachers per subject
      * @return list of teachers
      */
-    private List<Teacher> initializeTeachers() {
+    private List<Teacher> initializeTeachers(ProblemDefinition problem) {
         List<Teacher> teacherList = new ArrayList<>();
-        teacherList.add(new Teacher(1, "Mr. Smith", Subject.MATH));
-        teacherList.add(new Teacher(2, "Ms. Johnson", Subject.PHYSICS));
-        teacherList.add(new Teacher(3, "Dr. Brown", Subject.INFORMATICS));
-        teacherList.add(new Teacher(4, "Mrs. Davis", Subject.PHYSICAL_CULTURE));
+        Subject[] subjects = Subject.values();
+        for (int s = 0; s < subjects.length; s++) {
+            String name = s < STOCK_TEACHER_NAMES.length ? STOCK_TEACHER_NAMES[s] : subjects[s].getDisplayName() + " Teacher 1";
+            teacherList.add(new Teacher(teacherList.size() + 1, name, subjects[s]));
+        }
+        for (Subject subject : subjects) {
+            for (int n = 2; n <= problem.getTeachers(subject); n++) {
+                teacherList.add(new Teacher(teacherList.size() + 1, subject.getDisplayName() + " Teacher " + n, subject));
+            }
+        }
         return teacherList;
     }
 
     /**
      * Initialize classrooms (some specialized)
      *
+     * @param problem number of general classrooms and labs
      * @return list of classrooms
      */
-    private List<Classroom> initializeClassrooms() {
+    private List<Classroom> initializeClassrooms(ProblemDefinition problem) {
         List<Classroom> classroomList = new ArrayList<>();
         Set<Subject> usualSubjects = Arrays.stream(Subject.values())
                 .filter(s -> !s.equals(Subject.INFORMATICS))
                 .collect(Collectors.toSet());
         // General classrooms
-        classroomList.add(new Classroom(1, "Room 101", usualSubjects));
-        classroomList.add(new Classroom(2, "Room 102", usualSubjects));
-        classroomList.add(new Classroom(3, "Room 103", usualSubjects));
+        for (int n = 1; n <= problem.getGeneralClassrooms(); n++) {
+            classroomList.add(new Classroom(classroomList.size() + 1, "Room " + (100 + n), usualSubjects));
+        }
         // Specialized classrooms
-        classroomList.add(new Classroom(4, "Physics Lab", Set.of(Subject.PHYSICS)));
-        classroomList.add(new Classroom(5, "Computer Lab", Set.of(Subject.INFORMATICS)));
+        for (int n = 1; n <= problem.getPhysicsLabs(); n++) {
+            classroomList.add(new Classroom(classroomList.size() + 1, labName("Physics Lab", n), Set.of(Subject.PHYSICS)));
+        }
+        for (int n = 1; n <= problem.getComputerLabs(); n++) {
+            classroomList.add(new Classroom(classroomList.size() + 1, labName("Computer Lab", n), Set.of(Subject.INFORMATICS)));
+        }
         return classroomList;
     }
 
+    private static String labName(String name, int n) {
+        return n == 1 ? name : name + " " + n;
+    }
+
     /**
      * Initialize student groups
      *
+     * @param numberOfGroups number of groups
      * @return list of groups
      */
-    private List<Group> initializeGroups() {
+    private List<Group> initializeGroups(int numberOfGroups) {
         List<Group> groupList = new ArrayList<>();
-        for (int i = 1; i <= SchoolConfig.NUM_GROUPS; i++) {
+        for (int i = 1; i <= numberOfGroups; i++) {
             groupList.add(new Group(i, "Group " + i));
         }
         return groupList;
@@ -200,4 +370,34 @@ public class PopulationServiceImpl implements IPopulationService {
     public List<Group> getGroups() {
         return groups;
     }
+
+    /**
+     * Get the size of the problem this school was built from
+     *
+     * @return the problem definition
+     */
+    @Override
+    public ProblemDefinition getProblem() {
+        return problem;
+    }
+
+    /**
+     * Get the lookup tables of the school resources
+     *
+     * @return the catalog
+     */
+    @Override
+    public ResourceCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Get the chromosome layout shared by the encoded timetables
+     *
+     * @return the encoding
+     */
+    @Override
+    public TimetableEncoding getEncoding() {
+        return encoding;
+    }
 }
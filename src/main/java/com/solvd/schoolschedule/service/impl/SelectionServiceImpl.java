@@ -1,6 +1,7 @@
 package com.solvd.schoolschedule.service.impl;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 import com.solvd.schoolschedule.model.*;
 import com.solvd.schoolschedule.service.interfaces.*;
@@ -11,11 +12,36 @@ import com.solvd.schoolschedule.service.interfaces.*;
  */
 public class SelectionServiceImpl implements ISelectionService {
 
-    private final Random random;
-    private final int tournamentSize;
+    private final RandomGenerator random;
+    private volatile int tournamentSize;
 
     public SelectionServiceImpl(int tournamentSize) {
-        this.random = new Random();
+        this(tournamentSize, new Random());
+    }
+
+    /**
+     * @param tournamentSize tournament size
+     * @param random         random stream of the selections that are not given one, used by one thread at a time
+     */
+    public SelectionServiceImpl(int tournamentSize, RandomGenerator random) {
+        this.random = random;
+        this.tournamentSize = tournamentSize;
+    }
+
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    /**
+     * Change the selection pressure at runtime, e.g. from an adaptive parameter controller
+     *
+     * @param tournamentSize new tournament size
+     */
+    @Override
+    public void setTournamentSize(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("Tournament size must be at least 1: " + tournamentSize);
+        }
         this.tournamentSize = tournamentSize;
     }
 
@@ -27,6 +53,10 @@ public class SelectionServiceImpl implements ISelectionService {
      */
     @Override
     public Timetable selectParent(List<Timetable> population) {
+        return selectParent(population, random);
+    }
+
+    private Timetable selectParent(List<Timetable> population, RandomGenerator random) {
         List<Timetable> tournament = new ArrayList<>();
 
         // Select random individuals for tournament
@@ -49,12 +79,24 @@ public class SelectionServiceImpl implements ISelectionService {
      */
     @Override
     public Timetable[] selectParents(List<Timetable> population) {
-        Timetable parent1 = selectParent(population);
-        Timetable parent2 = selectParent(population);
+        return selectParents(population, random);
+    }
+
+    /**
+     * Select two parents for crossover, drawing from the given random stream
+     *
+     * @param population the population to select from
+     * @param random     random stream to draw from
+     * @return array of two parent timetables
+     */
+    @Override
+    public Timetable[] selectParents(List<Timetable> population, RandomGenerator random) {
+        Timetable parent1 = selectParent(population, random);
+        Timetable parent2 = selectParent(population, random);
 
         // Ensure different parents if possible
         while (parent1 == parent2 && population.size() > 1) {
-            parent2 = selectParent(population);
+            parent2 = selectParent(population, random);
         }
 
         return new Timetable[]{parent1, parent2};
@@ -75,4 +117,65 @@ public class SelectionServiceImpl implements ISelectionService {
         }
         return parents;
     }
+
+    /**
+     * Select a parent from an encoded population using tournament selection
+     *
+     * @param population the population to select from
+     * @return the selected encoded timetable
+     */
+    @Override
+    public EncodedTimetable selectEncodedParent(List<EncodedTimetable> population) {
+        if (population.isEmpty()) {
+            throw new IllegalStateException("Tournament selection failed");
+        }
+        EncodedTimetable best = null;
+        for (int i = 0; i < tournamentSize; i++) {
+            EncodedTimetable candidate = population.get(random.nextInt(population.size()));
+            if (best == null || candidate.getFitness() > best.getFitness()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Select a parent from an encoded population held in an array using tournament selection
+     *
+     * @param population the population to select from
+     * @return the selected encoded timetable
+     */
+    @Override
+    public EncodedTimetable selectEncodedParent(EncodedTimetable[] population) {
+        if (population.length == 0) {
+            throw new IllegalStateException("Tournament selection failed");
+        }
+        EncodedTimetable best = null;
+        for (int i = 0; i < tournamentSize; i++) {
+            EncodedTimetable candidate = population[random.nextInt(population.length)];
+            if (best == null || candidate.getFitness() > best.getFitness()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Select two encoded parents for crossover
+     *
+     * @param population the population to select from
+     * @return array of two parent encoded timetables
+     */
+    @Override
+    public EncodedTimetable[] selectEncodedParents(List<EncodedTimetable> population) {
+        EncodedTimetable parent1 = selectEncodedParent(population);
+        EncodedTimetable parent2 = selectEncodedParent(population);
+
+        // Ensure different parents if possible
+        while (parent1 == parent2 && population.size() > 1) {
+            parent2 = selectEncodedParent(population);
+        }
+
+        return new EncodedTimetable[]{parent1, parent2};
+    }
 }
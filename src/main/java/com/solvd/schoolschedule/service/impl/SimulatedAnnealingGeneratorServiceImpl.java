@@ -0,0 +1,212 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.solvd.schoolschedule.dao.impl.TimetableDAOImpl;
+import com.solvd.schoolschedule.dao.interfaces.ITimetableDAO;
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IDisplayService;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+import com.solvd.schoolschedule.service.interfaces.ITimetableGeneratorService;
+import com.solvd.schoolschedule.util.ConflictJSONParser;
+
+/**
+ * Service that generates the timetable with simulated annealing over a single timetable.
+ *
+ * <p>Every step draws a neighbourhood move (one lesson to a new slot and classroom, or two
+ * lessons swapping slots) and scores it incrementally on a {@link DeltaFitnessEvaluator.State}.
+ * Improving moves are always accepted, worsening ones with probability {@code exp(delta / T)}.
+ * The temperature follows a {@link CoolingSchedule}, and is raised again after a number of
+ * steps without improvement of the best timetable (reheat).</p>
+ */
+public class SimulatedAnnealingGeneratorServiceImpl implements ITimetableGeneratorService {
+
+    private static final Logger logger = LogManager.getLogger(SimulatedAnnealingGeneratorServiceImpl.class);
+
+    private final IPopulationService populationService;
+    private final FitnessServiceImpl fitnessService;
+    private final IDisplayService displayService;
+    private final ITimetableDAO timetableDAO;
+    private final DeltaFitnessEvaluator evaluator;
+    private final ResourceCatalog catalog;
+    private final CoolingSchedule coolingSchedule;
+    private final long maxIterations;
+    private final SplittableRandom random;
+    private long lastIterations;
+    private int lastReheats;
+
+    public SimulatedAnnealingGeneratorServiceImpl() {
+        this(ProblemDefinition.defaults());
+    }
+
+    /**
+     * Creates the annealing service for a problem loaded at runtime
+     *
+     * @param problem size of the week and of the school
+     */
+    public SimulatedAnnealingGeneratorServiceImpl(ProblemDefinition problem) {
+        this(new PopulationServiceImpl(problem), new DisplayServiceImpl(problem), new TimetableDAOImpl(),
+                SchoolConfig.SA_COOLING_SCHEDULE, SchoolConfig.SA_MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates the annealing service
+     *
+     * @param populationService population service providing the school and the starting timetable
+     * @param displayService    display service
+     * @param timetableDAO      DAO saving the solution
+     * @param coolingSchedule   cooling schedule of the temperature
+     * @param maxIterations     maximum number of moves tried per attempt
+     */
+    public SimulatedAnnealingGeneratorServiceImpl(IPopulationService populationService, IDisplayService displayService,
+                                                  ITimetableDAO timetableDAO, CoolingSchedule coolingSchedule,
+                                                  long maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Maximum iterations must be at least 1: " + maxIterations);
+        }
+        this.populationService = populationService;
+        this.fitnessService = new FitnessServiceImpl(populationService, 1, EvaluationMode.FUSED);
+        this.displayService = displayService;
+        this.timetableDAO = timetableDAO;
+        this.evaluator = new DeltaFitnessEvaluator(populationService, fitnessService.getConflictWeights());
+        this.catalog = populationService.getCatalog();
+        this.coolingSchedule = coolingSchedule;
+        this.maxIterations = maxIterations;
+        this.random = SchoolConfig.GA_RANDOM_SEED == 0 ? new SplittableRandom()
+                : new SplittableRandom(SchoolConfig.GA_RANDOM_SEED);
+    }
+
+    /**
+     * Generates a timetable by annealing a random one, then displays and saves it if it is perfect
+     *
+     * @return best timetable found
+     */
+    @Override
+    public Timetable generateAndDisplayTimetable() {
+        List<TimetableConflicts> bestTimetables = new ArrayList<>();
+        Timetable initial = populationService.initializePopulation(1, random.split()).get(0);
+
+        long start = System.nanoTime();
+        Timetable bestTimetable = anneal(initial, random.split(), bestTimetables);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        displayService.display(String.format("Annealing: %d moves, %d reheats, %d ms (%.0f moves/s), best fitness %.0f",
+                lastIterations, lastReheats, elapsedMillis, lastIterations * 1000.0 / Math.max(1, elapsedMillis),
+                bestTimetable.getFitness()));
+        if (bestTimetable.getFitness() >= 2000) {
+            presentSolution(bestTimetable, bestTimetables);
+        }
+        return bestTimetable;
+    }
+
+    /**
+     * Anneal a timetable until it is perfect or the moves run out
+     *
+     * @param initial        starting timetable, lessons in the school's known classrooms and week
+     * @param random         random stream of the moves and acceptances
+     * @param bestTimetables conflicts of the best timetable, recorded at every progress update
+     * @return best timetable found, with its fitness set
+     */
+    public Timetable anneal(Timetable initial, SplittableRandom random, List<TimetableConflicts> bestTimetables) {
+        DeltaFitnessEvaluator.State state = evaluator.evaluate(initial);
+        Lesson[] current = initial.getLessons().toArray(new Lesson[0]);
+        Lesson[] best = current.clone();
+        double fitness = state.getFitness();
+        double bestFitness = fitness;
+
+        double heatTemperature = SchoolConfig.SA_INITIAL_TEMPERATURE;
+        long step = 0;
+        long withoutImprovement = 0;
+        lastReheats = 0;
+        long iteration = 0;
+        while (iteration < maxIterations && bestFitness < 2000 && current.length > 0) {
+            iteration++;
+            double temperature = coolingSchedule.temperature(heatTemperature, SchoolConfig.SA_COOLING_RATE, step++);
+            LessonMove move = LessonMove.random(current, catalog, random);
+            if (move != null) {
+                double moved = move.apply(state);
+                double delta = moved - fitness;
+                if (delta >= 0 || temperature > 0 && random.nextDouble() < Math.exp(delta / temperature)) {
+                    move.applyTo(current);
+                    fitness = moved;
+                } else {
+                    move.revert(state);
+                }
+            }
+
+            if (fitness > bestFitness) {
+                bestFitness = fitness;
+                best = current.clone();
+                withoutImprovement = 0;
+            } else if (++withoutImprovement >= SchoolConfig.SA_REHEAT_AFTER) {
+                heatTemperature = SchoolConfig.SA_INITIAL_TEMPERATURE * SchoolConfig.SA_REHEAT_RATIO;
+                step = 0;
+                withoutImprovement = 0;
+                lastReheats++;
+            }
+
+            if (iteration % SchoolConfig.SA_PROGRESS_UPDATE_FREQUENCY == 0) {
+                displayService.display(String.format("Move %d: fitness %.0f, best %.0f, temperature %.3f",
+                        iteration, fitness, bestFitness, temperature));
+                Timetable snapshot = new Timetable(Arrays.asList(best));
+                fitnessService.updateConflicts(snapshot);
+                bestTimetables.add(new TimetableConflicts(snapshot));
+            }
+        }
+        lastIterations = iteration;
+
+        Timetable bestTimetable = new Timetable(Arrays.asList(best));
+        bestTimetable.setFitness(bestFitness);
+        return bestTimetable;
+    }
+
+    /**
+     * Number of moves tried by the last annealing run
+     *
+     * @return moves tried
+     */
+    public long getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Number of reheats of the last annealing run
+     *
+     * @return reheats
+     */
+    public int getLastReheats() {
+        return lastReheats;
+    }
+
+    /**
+     * Displays a perfect timetable, saves it to the database and writes the conflict history
+     *
+     * @param bestTimetable  the solution
+     * @param bestTimetables conflicts of the best timetable, recorded during the annealing
+     */
+    private void presentSolution(Timetable bestTimetable, List<TimetableConflicts> bestTimetables) {
+        displayService.displayFinalResults(bestTimetable);
+        displayService.display("Number of moves: " + lastIterations);
+        displayService.displayTimetableSummary(bestTimetable, populationService);
+
+        logger.info("=== Saving timetable to database... ===");
+        timetableDAO.create(bestTimetable);
+        ConflictJSONParser.serealize(bestTimetables);
+        logger.info("=== Timetable saved successfully!   ===");
+    }
+
+    @Override
+    public void findSolution(int maxNumberOfTries) {
+        int attempt = 0;
+        boolean solutionFound = false;
+        while (attempt < maxNumberOfTries & !solutionFound) {
+            displayService.display("ATTEMPT #" + (attempt + 1) + ":");
+            Timetable bestTimeTable = generateAndDisplayTimetable();
+            solutionFound = bestTimeTable.getFitness() >= 2000;
+            attempt++;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.List;
+
+import com.solvd.schoolschedule.model.Lesson;
+import com.solvd.schoolschedule.model.Timetable;
+
+/**
+ * Detects a stagnating genetic algorithm run.
+ *
+ * <p>A run is stagnant when the best fitness has not improved for a whole window of
+ * generations, or when the population has converged: its diversity, the average share
+ * of lessons scheduled differently from the best timetable, fell below a threshold.</p>
+ */
+public class StagnationDetector {
+
+    private final int window;
+    private final double diversityThreshold;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private int generationsWithoutImprovement;
+    private double lastDiversity = 1.0;
+
+    /**
+     * @param window             generations without improvement before the run is stagnant
+     * @param diversityThreshold diversity (0..1) below which the population has converged
+     */
+    public StagnationDetector(int window, double diversityThreshold) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Stagnation window must be at least 1: " + window);
+        }
+        if (diversityThreshold < 0 || diversityThreshold > 1) {
+            throw new IllegalArgumentException("Diversity threshold must be between 0 and 1: " + diversityThreshold);
+        }
+        this.window = window;
+        this.diversityThreshold = diversityThreshold;
+    }
+
+    /**
+     * Record a generation and check whether the run stagnates
+     *
+     * @param population    evaluated population of the generation
+     * @param bestTimetable best timetable of the population
+     * @return true if the run is stagnant
+     */
+    public boolean isStagnant(List<Timetable> population, Timetable bestTimetable) {
+        if (bestTimetable.getFitness() > bestFitness) {
+            bestFitness = bestTimetable.getFitness();
+            generationsWithoutImprovement = 0;
+        } else {
+            generationsWithoutImprovement++;
+        }
+        lastDiversity = diversity(population, bestTimetable);
+        return generationsWithoutImprovement >= window
+                || generationsWithoutImprovement > 0 && lastDiversity < diversityThreshold;
+    }
+
+    /**
+     * Start a new observation, e.g. after a restart. The best fitness seen so far is kept.
+     */
+    public void reset() {
+        generationsWithoutImprovement = 0;
+        lastDiversity = 1.0;
+    }
+
+    public int getGenerationsWithoutImprovement() {
+        return generationsWithoutImprovement;
+    }
+
+    public double getLastDiversity() {
+        return lastDiversity;
+    }
+
+    /**
+     * Average share of lesson positions whose time slot or classroom differs from the reference
+     *
+     * @param population the population
+     * @param reference  timetable to compare with, usually the best one
+     * @return diversity between 0 (all copies of the reference) and 1
+     */
+    public static double diversity(List<Timetable> population, Timetable reference) {
+        List<Lesson> referenceLessons = reference.getLessons();
+        long compared = 0;
+        long different = 0;
+        for (Timetable timetable : population) {
+            List<Lesson> lessons = timetable.getLessons();
+            int size = Math.min(lessons.size(), referenceLessons.size());
+            for (int i = 0; i < size; i++) {
+                Lesson lesson = lessons.get(i);
+                Lesson referenceLesson = referenceLessons.get(i);
+                if (lesson != referenceLesson && (!lesson.getTimeSlot().equals(referenceLesson.getTimeSlot())
+                        || !lesson.getClassroom().equals(referenceLesson.getClassroom()))) {
+                    different++;
+                }
+            }
+            compared += size;
+        }
+        return compared == 0 ? 0.0 : (double) different / compared;
+    }
+}
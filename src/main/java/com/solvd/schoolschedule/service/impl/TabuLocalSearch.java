@@ -0,0 +1,154 @@
+package com.solvd.schoolschedule.service.impl;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Tabu search over one timetable, used as the local search of the memetic mode.
+ *
+ * <p>Each iteration samples a neighbourhood of single-lesson moves (new time slot and suitable
+ * classroom) and swaps (two lessons exchange their time slots), scores every candidate through
+ * an incremental {@link DeltaFitnessEvaluator.State}, and takes the best one whose resulting
+ * timetable is not tabu, even if it is worse than the current one. Visited timetables are
+ * recognised by their Zobrist genome hash, kept for a fixed tenure. A tabu candidate is still
+ * taken when it beats the best timetable found so far (aspiration).</p>
+ */
+public class TabuLocalSearch {
+
+    private final DeltaFitnessEvaluator evaluator;
+    private final Set<Classroom> knownClassrooms;
+    private final ResourceCatalog catalog;
+    private final int iterations;
+    private final int tenure;
+    private final int neighbourhoodSize;
+
+    /**
+     * @param populationService population service providing the school resources
+     * @param weights           penalty per conflict
+     * @param iterations        tabu iterations per search
+     * @param tenure            number of recently visited timetables that are tabu
+     * @param neighbourhoodSize candidate moves and swaps sampled per iteration
+     */
+    public TabuLocalSearch(IPopulationService populationService, Map<ConflictType, Integer> weights,
+                           int iterations, int tenure, int neighbourhoodSize) {
+        if (iterations < 1 || tenure < 1 || neighbourhoodSize < 1) {
+            throw new IllegalArgumentException("Iterations, tenure and neighbourhood size must be at least 1");
+        }
+        this.evaluator = new DeltaFitnessEvaluator(populationService, weights);
+        this.knownClassrooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.knownClassrooms.addAll(populationService.getClassrooms());
+        this.catalog = populationService.getCatalog();
+        this.iterations = iterations;
+        this.tenure = tenure;
+        this.neighbourhoodSize = neighbourhoodSize;
+    }
+
+    /**
+     * Search the neighbourhood of a timetable
+     *
+     * @param timetable the starting timetable
+     * @param random    random stream for the neighbourhood sampling
+     * @return the best timetable found with its fitness set, or the timetable itself if none was better
+     */
+    public Timetable improve(Timetable timetable, RandomGenerator random) {
+        List<Lesson> lessons = timetable.getLessons();
+        if (lessons.size() < 2 || !isSearchable(lessons)) {
+            return timetable;
+        }
+
+        DeltaFitnessEvaluator.State state = evaluator.evaluate(timetable);
+        Lesson[] current = lessons.toArray(new Lesson[0]);
+        Lesson[] best = current.clone();
+        double initialFitness = state.getFitness();
+        double currentFitness = initialFitness;
+        double bestFitness = initialFitness;
+        long hash = timetable.getGenomeHash();
+        TabuList tabuList = new TabuList(tenure);
+        tabuList.add(hash);
+
+        for (int iteration = 0; iteration < iterations && bestFitness < 2000; iteration++) {
+            LessonMove chosen = null;
+            double chosenFitness = Double.NEGATIVE_INFINITY;
+            for (int n = 0; n < neighbourhoodSize; n++) {
+                LessonMove move = LessonMove.random(current, catalog, random);
+                if (move == null) {
+                    continue;
+                }
+                double fitness = move.apply(state);
+                move.revert(state);
+                long movedHash = move.hash(hash);
+                boolean allowed = !tabuList.contains(movedHash) || fitness > bestFitness;
+                if (allowed && fitness > chosenFitness) {
+                    chosenFitness = fitness;
+                    chosen = move;
+                }
+            }
+            if (chosen == null) {
+                continue;
+            }
+
+            currentFitness = chosen.apply(state);
+            hash = chosen.hash(hash);
+            chosen.applyTo(current);
+            tabuList.add(hash);
+            if (currentFitness > bestFitness) {
+                bestFitness = currentFitness;
+                best = current.clone();
+            }
+        }
+
+        if (bestFitness <= initialFitness) {
+            return timetable;
+        }
+        Timetable improved = new Timetable(Arrays.asList(best), timetable.getGeneration());
+        improved.setFitness(bestFitness);
+        return improved;
+    }
+
+    /**
+     * Incremental evaluation only knows the school classrooms and the configured week
+     */
+    private boolean isSearchable(List<Lesson> lessons) {
+        for (Lesson lesson : lessons) {
+            if (!knownClassrooms.contains(lesson.getClassroom()) || catalog.slotOf(lesson.getTimeSlot()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Genome hashes of the most recently visited timetables
+     */
+    private static final class TabuList {
+        private final long[] ring;
+        private final Set<Long> hashes = new HashSet<>();
+        private int next;
+        private int size;
+
+        private TabuList(int tenure) {
+            this.ring = new long[tenure];
+        }
+
+        boolean contains(long hash) {
+            return hashes.contains(hash);
+        }
+
+        void add(long hash) {
+            if (hashes.contains(hash)) {
+                return;
+            }
+            if (size == ring.length) {
+                hashes.remove(ring[next]);
+            } else {
+                size++;
+            }
+            ring[next] = hash;
+            hashes.add(hash);
+            next = (next + 1) % ring.length;
+        }
+    }
+}
@@ -2,45 +2,93 @@ package com.solvd.schoolschedule.service.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.solvd.schoolschedule.model.GeneticAlgorithmSettings;
+import com.solvd.schoolschedule.model.MigrationTopology;
+import com.solvd.schoolschedule.model.ProblemDefinition;
+import com.solvd.schoolschedule.model.ProfilePhase;
 import com.solvd.schoolschedule.model.TimetableConflicts;
 import com.solvd.schoolschedule.util.ConflictJSONParser;
+import com.solvd.schoolschedule.util.RunProfiler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.solvd.schoolschedule.dao.impl.TimetableDAOImpl;
 import com.solvd.schoolschedule.dao.interfaces.ITimetableDAO;
 import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.model.SolverStatus;
 import com.solvd.schoolschedule.model.Timetable;
 import com.solvd.schoolschedule.service.interfaces.IDisplayService;
-import com.solvd.schoolschedule.service.interfaces.IFitnessService;
-import com.solvd.schoolschedule.service.interfaces.IGeneticOperatorService;
 import com.solvd.schoolschedule.service.interfaces.IPopulationService;
-import com.solvd.schoolschedule.service.interfaces.ISelectionService;
 import com.solvd.schoolschedule.service.interfaces.ITimetableGeneratorService;
 
 /**
- * Service that orchestrates the timetable generation using genetic algorithm
+ * Service that orchestrates the timetable generation using genetic algorithm.
+ * Every attempt, sequential or concurrent, goes through {@link #generate(int, SplittableRandom, BestTimetableHolder)}
+ * and evolves with its own {@link GeneticAlgorithmEngine}, or with one per island in the island model.
  */
 public class TimetableGeneratorServiceImpl implements ITimetableGeneratorService {
 
     private static final Logger logger = LogManager.getLogger(TimetableGeneratorServiceImpl.class);
 
     private final IPopulationService populationService;
-    private final IFitnessService fitnessService;
-    private final ISelectionService selectionService;
-    private final IGeneticOperatorService geneticOperatorService;
     private final IDisplayService displayService;
     private final ITimetableDAO timetableDAO;
+    private final BacktrackingSolver exactSolver;
+    private BacktrackingSolver.Result exactResult;
+    private final SplittableRandom random;
+    private final GeneticAlgorithmSettings settings;
+    private final int populationSize;
 
     public TimetableGeneratorServiceImpl() {
-        // Initialize all required services
-        this.populationService = new PopulationServiceImpl();
-        this.fitnessService = new FitnessServiceImpl(populationService);
-        this.selectionService = new SelectionServiceImpl(SchoolConfig.GA_TOURNAMENT_SIZE);
-        this.geneticOperatorService = new GeneticOperatorServiceImpl(populationService, SchoolConfig.GA_MUTATION_RATE);
-        this.displayService = new DisplayServiceImpl();
-        this.timetableDAO = new TimetableDAOImpl();
+        this(ProblemDefinition.defaults());
+    }
+
+    /**
+     * Creates the genetic algorithm for a problem loaded at runtime
+     *
+     * @param problem size of the week, of the school and of the population
+     */
+    public TimetableGeneratorServiceImpl(ProblemDefinition problem) {
+        this(problem, GeneticAlgorithmSettings.defaults());
+    }
+
+    /**
+     * Creates the genetic algorithm for a problem loaded at runtime, with its own run settings
+     *
+     * @param problem  size of the week, of the school and of the population
+     * @param settings run settings of the genetic algorithm
+     */
+    public TimetableGeneratorServiceImpl(ProblemDefinition problem, GeneticAlgorithmSettings settings) {
+        this(problem, settings, new DisplayServiceImpl(problem), new TimetableDAOImpl());
+    }
+
+    /**
+     * Creates the genetic algorithm with the display and the persistence of solutions given
+     *
+     * @param problem        size of the week, of the school and of the population
+     * @param settings       run settings of the genetic algorithm
+     * @param displayService display of progress and results
+     * @param timetableDAO   persistence of solutions
+     */
+    TimetableGeneratorServiceImpl(ProblemDefinition problem, GeneticAlgorithmSettings settings,
+                                  IDisplayService displayService, ITimetableDAO timetableDAO) {
+        this.populationService = new PopulationServiceImpl(problem, settings.getSeedingRatio());
+        this.populationSize = problem.getPopulationSize();
+        this.settings = settings;
+        this.exactSolver = settings.isExactPresolve()
+                ? new BacktrackingSolver(populationService.getEncoding(), SchoolConfig.EXACT_SOLVER_NODE_LIMIT)
+                : null;
+        this.random = SchoolConfig.GA_RANDOM_SEED == 0 ? new SplittableRandom()
+                : new SplittableRandom(SchoolConfig.GA_RANDOM_SEED);
+        this.displayService = displayService;
+        this.timetableDAO = timetableDAO;
     }
 
     /**
@@ -49,70 +97,201 @@ public class TimetableGeneratorServiceImpl implements ITimetableGeneratorService
      */
     @Override
     public Timetable generateAndDisplayTimetable() {
-        List<TimetableConflicts> bestTimetables = new ArrayList<>();
-
-        // Initialize population
-        List<Timetable> population = populationService.initializePopulation(SchoolConfig.GA_POPULATION_SIZE);
-
-        // Evaluate initial population
-        fitnessService.evaluatePopulation(population);
+        return generate(1, random.split(), null);
+    }
 
-        // Find and display initial best fitness
-        Timetable bestTimetable = findBestTimetable(population);
-        displayService.displayGenerationProgress(0, bestTimetable.getFitness());
+    /**
+     * One attempt: the island model with {@link GeneticAlgorithmSettings#getIslandCount()} islands,
+     * or a single engine
+     *
+     * @param attempt attempt number
+     * @param random  random stream of the attempt
+     * @param holder  best timetable shared by the concurrent attempts (null for an attempt on its own)
+     * @return best timetable of the attempt, or null if it was cancelled before starting
+     */
+    private Timetable generate(int attempt, SplittableRandom random, BestTimetableHolder holder) {
+        if (settings.getIslandCount() > 1) {
+            return generateWithIslands(attempt, random, holder);
+        }
+        return runAttempt(attempt, random, holder);
+    }
 
-        // Run genetic algorithm for specified generations
-        int generation = 1;
-        boolean solutionFound = false;
-        while (generation <= SchoolConfig.GA_MAX_GENERATIONS & !solutionFound) {
-            // Create new generation
-            population = geneticOperatorService.createNewGeneration(population, selectionService);
+    /**
+     * Runs the island-model genetic algorithm: independent populations evolve on separate
+     * threads and exchange their best individuals every GA_MIGRATION_INTERVAL generations.
+     * Every island is seeded by the exact solver and has its own profiler.
+     *
+     * @param attempt attempt number
+     * @param random  random stream of the attempt
+     * @param holder  best timetable shared by the concurrent attempts (null for an attempt on its own)
+     * @return best timetable over all islands, or null if it was cancelled before starting
+     */
+    private Timetable generateWithIslands(int attempt, SplittableRandom random, BestTimetableHolder holder) {
+        if (holder != null && holder.isSolved()) {
+            return null;
+        }
+        String name = "ATTEMPT #" + attempt;
+        displayService.display(name + " started");
+        short[] seedGenes = presolve();
+        int islandCount = settings.getIslandCount();
+        List<TimetableConflicts> bestTimetables = new ArrayList<>();
+        List<Island> islands = new ArrayList<>();
+        for (int i = 0; i < islandCount; i++) {
+            islands.add(new Island(i, name + ", ISLAND #" + i, populationService, populationSize, settings,
+                    random.split(), seedGenes));
+        }
+        try {
+            if (seedGenes != null) {
+                displayService.display(name + ": seeded with the exact solution");
+            }
 
-            // Evaluate new population
-            fitnessService.evaluatePopulation(population);
+            Timetable bestTimetable = findBestOnIslands(islands);
+            if (holder != null) {
+                holder.offer(bestTimetable);
+            }
+            displayService.display(name + ", generation 0: best fitness = " + bestTimetable.getFitness());
 
-            // Find best timetable in current generation
-            bestTimetable = findBestTimetable(population);
-            bestTimetable.setGeneration(generation);
+            int generation = 0;
+            boolean solutionFound = bestTimetable.getFitness() >= 2000;
+            try (ExecutorService executor = Executors.newFixedThreadPool(islandCount)) {
+                while (generation < settings.getMaxGenerations() && !solutionFound
+                        && (holder == null || !holder.isSolved())) {
+                    int epoch = Math.min(SchoolConfig.GA_MIGRATION_INTERVAL, settings.getMaxGenerations() - generation);
+                    evolveIslands(executor, islands, epoch);
+                    int previousGeneration = generation;
+                    generation += epoch;
 
+                    bestTimetable = findBestOnIslands(islands);
+                    solutionFound = bestTimetable.getFitness() >= 2000;
+                    if (holder != null) {
+                        holder.offer(bestTimetable);
+                    }
+                    if (!solutionFound) {
+                        migrate(islands, SchoolConfig.GA_MIGRATION_TOPOLOGY, SchoolConfig.GA_MIGRANT_COUNT);
+                    }
 
-            // Print progress every 20 generations
-            if (generation % 20 == 0) {
-                fitnessService.updateConflicts(bestTimetable);
-                TimetableConflicts timetableConflicts = new TimetableConflicts(bestTimetable);
-                bestTimetables.add(timetableConflicts);
+                    if (generation / 20 > previousGeneration / 20) {
+                        findBestIsland(islands).updateConflicts(bestTimetable);
+                        bestTimetables.add(new TimetableConflicts(bestTimetable));
+                    }
+                    if (generation / SchoolConfig.PROGRESS_UPDATE_FREQUENCY
+                            > previousGeneration / SchoolConfig.PROGRESS_UPDATE_FREQUENCY) {
+                        displayService.display(name + ", generation " + generation + ": best fitness = "
+                                + bestTimetable.getFitness());
+                    }
+                }
             }
 
+            if (solutionFound && (holder == null || holder.claimSolution())) {
+                displayService.display(name + " found the solution");
+                presentSolution(bestTimetable, bestTimetable.getGeneration(), bestTimetables,
+                        findBestIsland(islands).getProfiler());
+            }
+            for (Island island : islands) {
+                if (island.getProfiler().isEnabled()) {
+                    displayService.display(island.getProfiler().report(name + ", ISLAND #" + island.getId()));
+                }
+            }
+            return bestTimetable;
+        } finally {
+            // Release the threads of the island engines, also when the evolution failed
+            for (Island island : islands) {
+                island.close();
+            }
+        }
+    }
 
-            solutionFound = bestTimetable.getFitness() >= 2000;
-
-            // Print progress every N generations
-            if (generation % SchoolConfig.PROGRESS_UPDATE_FREQUENCY == 0) {
-                displayService.displayGenerationProgress(generation, bestTimetable.getFitness());
-
+    /**
+     * Evolve every island for one epoch, each on its own thread, and wait for all of them
+     *
+     * @param executor    thread pool with one thread per island
+     * @param islands     the islands
+     * @param generations generations per island
+     */
+    private void evolveIslands(ExecutorService executor, List<Island> islands, int generations) {
+        List<Callable<Timetable>> tasks = new ArrayList<>();
+        for (Island island : islands) {
+            tasks.add(() -> island.evolve(generations));
+        }
+        try {
+            for (Future<Timetable> future : executor.invokeAll(tasks)) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Island evolution was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island evolution failed", e.getCause());
+        }
+    }
 
-            generation++;
+    /**
+     * Send the best individuals of every island to its neighbours.
+     * Emigrants are collected from all islands before any island receives migrants.
+     *
+     * @param islands  the islands
+     * @param topology which islands receive the emigrants of an island
+     * @param count    number of emigrants per island
+     */
+    static void migrate(List<Island> islands, MigrationTopology topology, int count) {
+        int islandCount = islands.size();
+        List<List<Timetable>> incoming = new ArrayList<>();
+        for (int i = 0; i < islandCount; i++) {
+            incoming.add(new ArrayList<>());
+        }
+        for (int i = 0; i < islandCount; i++) {
+            Island source = islands.get(i);
+            switch (topology) {
+                case RING -> incoming.get((i + 1) % islandCount).addAll(source.getEmigrants(count));
+                case FULLY_CONNECTED -> {
+                    for (int j = 0; j < islandCount; j++) {
+                        if (j != i) {
+                            incoming.get(j).addAll(source.getEmigrants(count));
+                        }
+                    }
+                }
+            }
         }
+        for (int i = 0; i < islandCount; i++) {
+            islands.get(i).acceptMigrants(incoming.get(i));
+        }
+    }
 
-        if (solutionFound) {
-            displayService.displayFinalResults(bestTimetable);
+    private Timetable findBestOnIslands(List<Island> islands) {
+        return findBestIsland(islands).getBestTimetable();
+    }
 
-            displayService.display("Number of generations: " + (generation - 1));
+    private Island findBestIsland(List<Island> islands) {
+        return islands.stream()
+                .max((i1, i2) -> Double.compare(i1.getBestTimetable().getFitness(), i2.getBestTimetable().getFitness()))
+                .orElseThrow(() -> new IllegalStateException("No islands"));
+    }
 
-            displayService.displayTimetableSummary(bestTimetable, populationService);
+    /**
+     * Displays a perfect timetable, saves it to the database and writes the conflict history
+     *
+     * @param bestTimetable  the solution
+     * @param generations    number of generations it took
+     * @param bestTimetables conflicts of the best timetable, recorded during the evolution
+     * @param profiler       profiler of the attempt, records the persistence
+     */
+    private void presentSolution(Timetable bestTimetable, int generations, List<TimetableConflicts> bestTimetables,
+                                 RunProfiler profiler) {
+        displayService.displayFinalResults(bestTimetable);
 
-            displayService.displayFinalResults(bestTimetable);
+        displayService.display("Number of generations: " + generations);
 
-            // Save the best timetable to database
-            logger.info("=== Saving timetable to database... ===");
-            timetableDAO.create(bestTimetable);
-            logger.info("=== Timetable saved successfully!   ===");
+        displayService.displayTimetableSummary(bestTimetable, populationService);
 
-            ConflictJSONParser.serealize(bestTimetables);
-        }
-        return bestTimetable;
+        displayService.displayFinalResults(bestTimetable);
 
+        // Save the best timetable to database
+        logger.info("=== Saving timetable to database... ===");
+        profiler.measure(ProfilePhase.PERSISTENCE, () -> {
+            timetableDAO.create(bestTimetable);
+            ConflictJSONParser.serealize(bestTimetables);
+        });
+        logger.info("=== Timetable saved successfully!   ===");
     }
 
     /**
@@ -121,7 +300,7 @@ public class TimetableGeneratorServiceImpl implements ITimetableGeneratorService
      * @param population list of timetables
      * @return timetable with highest fitness
      */
-    private Timetable findBestTimetable(List<Timetable> population) {
+    static Timetable findBestTimetable(List<Timetable> population) {
         return population.stream()
                 .max((t1, t2) -> Double.compare(t1.getFitness(), t2.getFitness()))
                 .orElseThrow(() -> new IllegalStateException("Population is empty"));
@@ -133,13 +312,126 @@ public class TimetableGeneratorServiceImpl implements ITimetableGeneratorService
      * @param maxNumberOfTries list of timetables
      */
     public void findSolution(int maxNumberOfTries) {
+        if (exactSolver != null && !isFeasible()) {
+            return;
+        }
+        if (settings.getAttemptConcurrency() > 1 && maxNumberOfTries > 1) {
+            findSolutionConcurrently(maxNumberOfTries, settings.getAttemptConcurrency());
+            return;
+        }
         int attempt = 0;
         boolean solutionFound = false;
         while (attempt < maxNumberOfTries & !solutionFound) {
-            displayService.display("ATTEMPT #" + (attempt + 1) + ":");
-            Timetable bestTimeTable = generateAndDisplayTimetable();
+            Timetable bestTimeTable = generate(attempt + 1, random.split(), null);
             solutionFound = bestTimeTable.getFitness() >= 2000;
             attempt++;
         }
     }
+
+    /**
+     * Checks with the exact solver that some timetable meets the hard rules
+     *
+     * @return false if the school is proven infeasible, true if it is feasible or the solver gave up
+     */
+    private boolean isFeasible() {
+        long start = System.nanoTime();
+        BacktrackingSolver.Result result = solveExactly();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        displayService.display("Exact solver: " + result.getStatus() + " after " + result.getNodes()
+                + " nodes, " + elapsedMillis + " ms" + (result.getReason() != null ? " (" + result.getReason() + ")" : ""));
+        return result.getStatus() != SolverStatus.INFEASIBLE;
+    }
+
+    /**
+     * Genes of a timetable meeting every hard rule, to seed an attempt with.
+     * Every attempt shares the same genes, the engine copies them before evolving.
+     *
+     * @return genes of the exact solution, or null without presolve or if the solver gave up
+     */
+    private short[] presolve() {
+        if (exactSolver == null) {
+            return null;
+        }
+        BacktrackingSolver.Result result = solveExactly();
+        return result.getStatus() == SolverStatus.SOLVED ? result.getGenes() : null;
+    }
+
+    /**
+     * Solves the hard rules once, the first result is kept for every later attempt.
+     * Concurrent attempts may ask at the same time, so the first one solves and the others wait for it.
+     *
+     * @return result of the exact solver
+     */
+    private synchronized BacktrackingSolver.Result solveExactly() {
+        if (exactResult == null) {
+            exactResult = exactSolver.solve(random.split());
+        }
+        return exactResult;
+    }
+
+    /**
+     * Races up to maxNumberOfTries attempts, running concurrency of them at a time.
+     * The first attempt reaching a perfect fitness makes the others stop at their next generation.
+     *
+     * @param maxNumberOfTries maximum number of attempts
+     * @param concurrency      attempts running at the same time
+     * @return best timetable over all attempts
+     */
+    public Timetable findSolutionConcurrently(int maxNumberOfTries, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+        }
+        BestTimetableHolder holder = new BestTimetableHolder(2000);
+        List<Callable<Timetable>> attempts = new ArrayList<>();
+        for (int attempt = 1; attempt <= maxNumberOfTries; attempt++) {
+            int attemptNumber = attempt;
+            // Split the attempt streams on the calling thread, in attempt order
+            SplittableRandom attemptRandom = random.split();
+            attempts.add(() -> generate(attemptNumber, attemptRandom, holder));
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, maxNumberOfTries))) {
+            for (Future<Timetable> future : executor.invokeAll(attempts)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generation attempts were interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generation attempt failed", e.getCause());
+        }
+        return holder.get();
+    }
+
+    /**
+     * One attempt with a single engine: an engine with its own services evolves a population seeded by the
+     * exact solver until it reaches a perfect fitness, runs out of generations or, in a race, another attempt wins.
+     * The engine is closed at the end of the attempt, releasing its threads
+     *
+     * @param attempt attempt number
+     * @param random  random stream of the attempt
+     * @param holder  best timetable shared by the concurrent attempts (null for an attempt on its own)
+     * @return best timetable of this attempt, or null if it was cancelled before starting
+     */
+    private Timetable runAttempt(int attempt, SplittableRandom random, BestTimetableHolder holder) {
+        if (holder != null && holder.isSolved()) {
+            return null;
+        }
+        String name = "ATTEMPT #" + attempt;
+        displayService.display(name + " started");
+        // Concurrent attempts already keep the cores busy, so each one stays on its own thread
+        try (GeneticAlgorithmEngine engine = new GeneticAlgorithmEngine(name, populationService, populationSize,
+                settings, holder == null, random, displayService)) {
+            Timetable bestTimetable = engine.run(presolve(), holder);
+
+            if (bestTimetable.getFitness() >= 2000 && (holder == null || holder.claimSolution())) {
+                displayService.display(name + " found the solution");
+                presentSolution(bestTimetable, engine.getGeneration(), engine.getConflictHistory(),
+                        engine.getProfiler());
+            }
+            if (engine.getProfiler().isEnabled()) {
+                displayService.display(engine.getProfiler().report(name));
+            }
+            return bestTimetable;
+        }
+    }
 }
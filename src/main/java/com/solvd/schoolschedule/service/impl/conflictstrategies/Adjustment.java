@@ -20,7 +20,7 @@ public class Adjustment implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int totalViolations = 0;
 
         for (Group group : populationService.getGroups()) {
@@ -44,7 +44,7 @@ public class Adjustment implements IConflictStrategy {
         int violations = 0;
 
         for (Subject subject : Subject.values()) {
-            int lessonsNumberConfig = SubjectConfig.getWeeklyLessons(subject);
+            int lessonsNumberConfig = populationService.getCatalog().getWeeklyLessons(subject);
 
             int lessonsNumber = (int) lessons.stream()
                     .filter(lesson -> lesson.getSubject().equals(subject))
@@ -22,14 +22,14 @@ public class GroupCollisions implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int totalCollisions = 0;
 
         for (Group group : populationService.getGroups()) {
-            for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+            for (int day = 0; day < populationService.getCatalog().getDays(); day++) {
                 List<Lesson> dayLessons = timetable.getLessonsOnDayFor(group, day);
                 if (!dayLessons.isEmpty()) {
-                    totalCollisions += calculateCollisionsInDay(dayLessons);
+                    totalCollisions += calculateCollisionsInDay(dayLessons, mask);
                 }
             }
         }
@@ -41,15 +41,17 @@ public class GroupCollisions implements IConflictStrategy {
      * Count invalid number of lessons at the same timeslot for one day
      *
      * @param dayLessons list of lessons for the day
+     * @param mask       conflict marks of the current evaluation
      * @return number of lesson collisions
      */
-    private int calculateCollisionsInDay(List<Lesson> dayLessons) {
+    private int calculateCollisionsInDay(List<Lesson> dayLessons, ConflictMask mask) {
         if (dayLessons.size() <= 1) return 0;
 
         int collisions = 0;
 
-        ArrayList<Integer> collisionsList = new ArrayList<>(6);
-        IntStream.range(0, 6).forEach(i -> collisionsList.add(0));
+        int periods = populationService.getCatalog().getPeriods();
+        ArrayList<Integer> collisionsList = new ArrayList<>(periods);
+        IntStream.range(0, periods).forEach(i -> collisionsList.add(0));
         for (Lesson lesson : dayLessons) {
             int period = lesson.getTimeSlot().getPeriod();
             int accumulated = collisionsList.get(period);
@@ -63,7 +65,7 @@ public class GroupCollisions implements IConflictStrategy {
         for (Lesson lesson : dayLessons) {
             int period = lesson.getTimeSlot().getPeriod();
             if (collisionsList.get(period) > 1) {
-                lesson.setConflicted(true);
+                mask.mark(lesson);
             }
         }
 
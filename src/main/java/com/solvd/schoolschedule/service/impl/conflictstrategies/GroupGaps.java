@@ -20,14 +20,14 @@ public class GroupGaps implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int totalGaps = 0;
 
         for (Group group : populationService.getGroups()) {
-            for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+            for (int day = 0; day < populationService.getCatalog().getDays(); day++) {
                 List<Lesson> dayLessons = timetable.getLessonsOnDayFor(group, day);
                 if (!dayLessons.isEmpty()) {
-                    totalGaps += calculateGapsInDay(dayLessons);
+                    totalGaps += calculateGapsInDay(dayLessons, mask);
                 }
             }
         }
@@ -38,9 +38,10 @@ public class GroupGaps implements IConflictStrategy {
      * Calculate gaps in a day's lessons
      *
      * @param dayLessons lessons for one day, sorted by period
+     * @param mask       conflict marks of the current evaluation
      * @return number of gaps
      */
-    private int calculateGapsInDay(List<Lesson> dayLessons) {
+    private int calculateGapsInDay(List<Lesson> dayLessons, ConflictMask mask) {
         if (dayLessons.size() <= 1) return 0;
 
         int gaps = 0;
@@ -49,7 +50,7 @@ public class GroupGaps implements IConflictStrategy {
         for (Lesson lesson : dayLessons) {
             int currentPeriod = lesson.getTimeSlot().getPeriod();
             if (previousPeriod != -1 && currentPeriod > previousPeriod + 1) {
-                lesson.setConflicted(true);
+                mask.mark(lesson);
                 //set conflicted for previous lesson true??
                 gaps += currentPeriod - previousPeriod - 1;
             }
@@ -1,5 +1,6 @@
 package com.solvd.schoolschedule.service.impl.conflictstrategies;
 
+import com.solvd.schoolschedule.model.ConflictMask;
 import com.solvd.schoolschedule.model.ConflictType;
 import com.solvd.schoolschedule.model.Lesson;
 import com.solvd.schoolschedule.model.Timetable;
@@ -14,19 +15,19 @@ public class InvalidAssignments implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int invalid = 0;
 
         for (Lesson lesson : timetable.getLessons()) {
             // Check teacher-subject match
             if (lesson.getTeacher().getSubject() != lesson.getSubject()) {
-                lesson.setConflicted(true);
+                mask.mark(lesson);
                 invalid++;
             }
 
             // Check room-subject compatibility
             if (!lesson.getClassroom().canAccommodate(lesson.getSubject())) {
-                lesson.setConflicted(true);
+                mask.mark(lesson);
                 invalid++;
             }
         }
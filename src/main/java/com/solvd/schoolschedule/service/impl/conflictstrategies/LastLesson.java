@@ -21,14 +21,14 @@ public class LastLesson implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int totalViolations = 0;
 
         for (Group group : populationService.getGroups()) {
-            for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+            for (int day = 0; day < populationService.getCatalog().getDays(); day++) {
                 List<Lesson> dayLessons = timetable.getLessonsOnDayFor(group, day);
                 if (!dayLessons.isEmpty()) {
-                    totalViolations += calculateLastLessonInDay(dayLessons);
+                    totalViolations += calculateLastLessonInDay(dayLessons, mask);
                 }
             }
         }
@@ -41,9 +41,10 @@ public class LastLesson implements IConflictStrategy {
      * Last lesson should be Physical Culture
      *
      * @param dayLessons list of lessons for the day
+     * @param mask       conflict marks of the current evaluation
      * @return 0 or 1, depending on if that day violates the rule
      */
-    private int calculateLastLessonInDay(List<Lesson> dayLessons) {
+    private int calculateLastLessonInDay(List<Lesson> dayLessons, ConflictMask mask) {
         if (dayLessons.isEmpty()) return 0;
 
         List<Integer> periods = dayLessons.stream()
@@ -58,7 +59,7 @@ public class LastLesson implements IConflictStrategy {
             if (newGaps > 0) {
                 dayLessons.stream()
                         .filter(lesson -> lesson.getSubject().equals(Subject.PHYSICAL_CULTURE))
-                        .forEach(lesson -> lesson.setConflicted(true));
+                        .forEach(mask::mark);
             }
             phyCulGaps += newGaps;
         }
@@ -66,7 +67,7 @@ public class LastLesson implements IConflictStrategy {
             int lastPeriod = dayLessons.getLast().getTimeSlot().getPeriod();
             int newGaps = lastPeriod - periods.getLast();
             if (newGaps > 0) {
-                dayLessons.getLast().setConflicted(true);
+                mask.mark(dayLessons.getLast());
             }
             phyCulGaps += newGaps;
         }
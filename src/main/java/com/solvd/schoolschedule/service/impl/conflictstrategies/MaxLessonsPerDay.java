@@ -20,14 +20,14 @@ public class MaxLessonsPerDay implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int violations = 0;
 
         for (Group group : populationService.getGroups()) {
-            for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+            for (int day = 0; day < populationService.getCatalog().getDays(); day++) {
                 List<Lesson> dayLessons = timetable.getLessonsOnDayFor(group, day);
-                if (dayLessons.size() > SchoolConfig.MAX_PERIODS_PER_DAY) {
-                    violations += dayLessons.size() - SchoolConfig.MAX_PERIODS_PER_DAY;
+                if (dayLessons.size() > populationService.getCatalog().getPeriods()) {
+                    violations += dayLessons.size() - populationService.getCatalog().getPeriods();
                 }
             }
         }
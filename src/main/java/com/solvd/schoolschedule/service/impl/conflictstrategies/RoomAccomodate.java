@@ -12,11 +12,11 @@ public class RoomAccomodate implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
 
         return (int) timetable.getLessons().stream()
                 .filter(lesson -> lesson.getClassroom().canAccommodate(lesson.getSubject()) == false)
-                .peek(lesson -> lesson.setConflicted(true))
+                .peek(mask::mark)
                 .count();
     }
 }
@@ -17,7 +17,7 @@ public class RoomConflicts implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int conflicts = 0;
         Map<TimeSlot, Set<Classroom>> timeSlotRooms = new HashMap<>();
 
@@ -27,7 +27,7 @@ public class RoomConflicts implements IConflictStrategy {
 
             timeSlotRooms.computeIfAbsent(timeSlot, k -> new HashSet<>());
             if (!timeSlotRooms.get(timeSlot).add(classroom)) {
-                lesson.setConflicted(true);
+                mask.mark(lesson);
                 conflicts++;
             }
         }
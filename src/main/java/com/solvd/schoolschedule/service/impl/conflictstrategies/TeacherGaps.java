@@ -20,14 +20,14 @@ public class TeacherGaps implements IConflictStrategy {
     }
 
     @Override
-    public int calculateConflicts(Timetable timetable) {
+    public int calculateConflicts(Timetable timetable, ConflictMask mask) {
         int totalGaps = 0;
 
         for (Teacher teacher : populationService.getTeachers()) {
-            for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+            for (int day = 0; day < populationService.getCatalog().getDays(); day++) {
                 List<Lesson> dayLessons = timetable.getLessonsOnDayFor(teacher, day);
                 if (!dayLessons.isEmpty()) {
-                    totalGaps += calculateGapsInDay(dayLessons);
+                    totalGaps += calculateGapsInDay(dayLessons, mask);
                 }
             }
         }
@@ -39,9 +39,10 @@ public class TeacherGaps implements IConflictStrategy {
      * Calculate gaps in a day's lessons
      *
      * @param dayLessons lessons for one day, sorted by period
+     * @param mask       conflict marks of the current evaluation
      * @return number of gaps
      */
-    private int calculateGapsInDay(List<Lesson> dayLessons) {
+    private int calculateGapsInDay(List<Lesson> dayLessons, ConflictMask mask) {
         if (dayLessons.size() <= 1) return 0;
 
         int gaps = 0;
@@ -50,7 +51,7 @@ public class TeacherGaps implements IConflictStrategy {
         for (Lesson lesson : dayLessons) {
             int currentPeriod = lesson.getTimeSlot().getPeriod();
             if (previousPeriod != -1 && currentPeriod > previousPeriod + 1) {
-                lesson.setConflicted(true);
+                mask.mark(lesson);
                 //set conflicted for previous lesson true??
                 gaps += currentPeriod - previousPeriod - 1;
             }
@@ -1,5 +1,6 @@
 package com.solvd.schoolschedule.service.interfaces;
 
+import com.solvd.schoolschedule.model.ConflictMask;
 import com.solvd.schoolschedule.model.ConflictType;
 import com.solvd.schoolschedule.model.Timetable;
 
@@ -11,7 +12,19 @@ public interface IConflictStrategy {
      * @param timetable the timetable
      * @return number of conflicts
      */
-    int calculateConflicts(Timetable timetable);
+    default int calculateConflicts(Timetable timetable) {
+        return calculateConflicts(timetable, ConflictMask.discarding());
+    }
+
+    /**
+     * Calculate the number of times the timetable doesn't fit a rule,
+     * marking the lessons that break it
+     *
+     * @param timetable the timetable
+     * @param mask      conflict marks of the current evaluation
+     * @return number of conflicts
+     */
+    int calculateConflicts(Timetable timetable, ConflictMask mask);
 
     /**
      * Returns the ConflictType of the strategy
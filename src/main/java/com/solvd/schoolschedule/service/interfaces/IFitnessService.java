@@ -25,5 +25,27 @@ public interface IFitnessService {
      */
     void evaluatePopulation(List<Timetable> population);
 
+    /**
+     * Calculate fitness for an encoded timetable
+     *
+     * @param timetable the encoded timetable to evaluate
+     * @return fitness score
+     */
+    double calculateFitness(EncodedTimetable timetable);
+
+    /**
+     * Evaluate an encoded population and set fitness for each timetable
+     *
+     * @param population the population to evaluate
+     */
+    void evaluateEncodedPopulation(List<EncodedTimetable> population);
+
+    /**
+     * Evaluate an encoded population held in an array and set fitness for each timetable
+     *
+     * @param population the population to evaluate
+     */
+    void evaluateEncodedPopulation(EncodedTimetable[] population);
+
     public void updateConflicts(Timetable timetable);
 }
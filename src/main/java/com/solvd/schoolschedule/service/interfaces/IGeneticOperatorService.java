@@ -1,7 +1,10 @@
 package com.solvd.schoolschedule.service.interfaces;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
+import com.solvd.schoolschedule.model.DoubleBufferedPopulation;
+import com.solvd.schoolschedule.model.EncodedTimetable;
 import com.solvd.schoolschedule.model.Timetable;
 
 /**
@@ -34,4 +37,92 @@ public interface IGeneticOperatorService {
      * @return new generation
      */
     List<Timetable> createNewGeneration(List<Timetable> population, ISelectionService selectionService);
+
+    /**
+     * Create a new generation, producing the offspring in parallel.
+     * The result is reproducible for a given state of random.
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           source of the per-worker random streams
+     * @return new generation
+     */
+    List<Timetable> createNewGeneration(List<Timetable> population, ISelectionService selectionService,
+                                        SplittableRandom random);
+
+    /**
+     * Create a new generation of a given size, producing the offspring in parallel
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           source of the per-worker random streams
+     * @param generationSize   number of timetables in the new generation, elite included
+     * @return new generation
+     */
+    List<Timetable> createNewGeneration(List<Timetable> population, ISelectionService selectionService,
+                                        SplittableRandom random, int generationSize);
+
+    /**
+     * Perform crossover between two encoded parents
+     *
+     * @param parent1 first parent
+     * @param parent2 second parent
+     * @return offspring encoded timetable
+     */
+    EncodedTimetable crossover(EncodedTimetable parent1, EncodedTimetable parent2);
+
+    /**
+     * Perform mutation on an encoded timetable
+     *
+     * @param timetable the encoded timetable to mutate
+     * @return mutated timetable (or original if no mutation)
+     */
+    EncodedTimetable mutate(EncodedTimetable timetable);
+
+    /**
+     * Create a new encoded generation through selection, crossover, and mutation
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @return new generation
+     */
+    List<EncodedTimetable> createNewEncodedGeneration(List<EncodedTimetable> population,
+                                                      ISelectionService selectionService);
+
+    /**
+     * Create a new encoded generation, reproducible for a given state of random
+     *
+     * @param population       current population
+     * @param selectionService selection service
+     * @param random           random stream of the crossovers and mutations
+     * @return new generation
+     */
+    List<EncodedTimetable> createNewEncodedGeneration(List<EncodedTimetable> population,
+                                                      ISelectionService selectionService, SplittableRandom random);
+
+    /**
+     * Breed the next encoded generation into the spare buffer of a double-buffered population,
+     * then swap the buffers. Offspring genes are written into recycled timetables.
+     *
+     * @param population       double-buffered population, its current buffer evaluated
+     * @param selectionService selection service
+     */
+    void breedEncodedGeneration(DoubleBufferedPopulation population, ISelectionService selectionService);
+
+    /**
+     * Breed the next encoded generation into the spare buffer, reproducible for a given state of random
+     *
+     * @param population       double-buffered population, its current buffer evaluated
+     * @param selectionService selection service
+     * @param random           random stream of the crossovers and mutations
+     */
+    void breedEncodedGeneration(DoubleBufferedPopulation population, ISelectionService selectionService,
+                                SplittableRandom random);
+
+    /**
+     * Change the mutation rate used by subsequent generations
+     *
+     * @param mutationRate new mutation rate, between 0 and 1
+     */
+    void setMutationRate(double mutationRate);
 }
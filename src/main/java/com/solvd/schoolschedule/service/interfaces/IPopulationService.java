@@ -1,6 +1,7 @@
 package com.solvd.schoolschedule.service.interfaces;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
 import com.solvd.schoolschedule.model.*;
 
@@ -17,6 +18,56 @@ public interface IPopulationService {
      */
     List<Timetable> initializePopulation(int populationSize);
 
+    /**
+     * Initialize a population of random timetables in parallel,
+     * reproducible for a given state of random
+     *
+     * @param populationSize the size of the population
+     * @param random         source of the per-worker random streams
+     * @return list of timetables
+     */
+    List<Timetable> initializePopulation(int populationSize, SplittableRandom random);
+
+    /**
+     * Initialize a population of random timetables in the compact encoding
+     *
+     * @param populationSize the size of the population
+     * @return list of encoded timetables
+     */
+    List<EncodedTimetable> initializeEncodedPopulation(int populationSize);
+
+    /**
+     * Initialize a population of random timetables in the compact encoding,
+     * reproducible for a given state of random
+     *
+     * @param populationSize the size of the population
+     * @param random         random stream to draw from
+     * @return list of encoded timetables
+     */
+    List<EncodedTimetable> initializeEncodedPopulation(int populationSize, SplittableRandom random);
+
+    /**
+     * Get the chromosome layout shared by the encoded timetables
+     *
+     * @return the encoding
+     */
+    TimetableEncoding getEncoding();
+
+    /**
+     * Get the size of the week and of the school the populations are built for
+     *
+     * @return the problem definition
+     */
+    ProblemDefinition getProblem();
+
+    /**
+     * Get the lookup tables of the school resources: dense ids, interned time slots,
+     * suitable classrooms and teachers per subject
+     *
+     * @return the catalog, built once
+     */
+    ResourceCatalog getCatalog();
+
     /**
      * Get all teachers
      *
@@ -1,7 +1,9 @@
 package com.solvd.schoolschedule.service.interfaces;
 
 import java.util.List;
+import java.util.random.RandomGenerator;
 
+import com.solvd.schoolschedule.model.EncodedTimetable;
 import com.solvd.schoolschedule.model.Timetable;
 
 /**
@@ -25,6 +27,15 @@ public interface ISelectionService {
      */
     Timetable[] selectParents(List<Timetable> population);
 
+    /**
+     * Select two parents for crossover, drawing from the given random stream
+     *
+     * @param population the population to select from
+     * @param random     random stream to draw from
+     * @return array of two parent timetables
+     */
+    Timetable[] selectParents(List<Timetable> population, RandomGenerator random);
+
     /**
      * Select multiple parents for reproduction
      *
@@ -33,4 +44,35 @@ public interface ISelectionService {
      * @return list of selected parents
      */
     List<Timetable> selectParents(List<Timetable> population, int numberOfParents);
+
+    /**
+     * Select a parent from an encoded population using tournament selection
+     *
+     * @param population the population to select from
+     * @return the selected encoded timetable
+     */
+    EncodedTimetable selectEncodedParent(List<EncodedTimetable> population);
+
+    /**
+     * Select a parent from an encoded population held in an array, without allocating
+     *
+     * @param population the population to select from
+     * @return the selected encoded timetable
+     */
+    EncodedTimetable selectEncodedParent(EncodedTimetable[] population);
+
+    /**
+     * Select two parents from an encoded population for crossover
+     *
+     * @param population the population to select from
+     * @return array of two parent encoded timetables
+     */
+    EncodedTimetable[] selectEncodedParents(List<EncodedTimetable> population);
+
+    /**
+     * Change the tournament size used by subsequent selections
+     *
+     * @param tournamentSize new tournament size
+     */
+    void setTournamentSize(int tournamentSize);
 }
@@ -12,6 +12,8 @@ import java.util.concurrent.BlockingQueue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.solvd.schoolschedule.util.jfr.ConnectionWaitEvent;
+
 /**
  * Thread-safe database connection pool implementation using the Singleton pattern.
  * Manages a pool of reusable database connections to improve performance and resource utilization.
@@ -109,8 +111,16 @@ public class ConnectionPool {
      * @throws RuntimeException if the thread is interrupted while waiting for a connection
      */
     public Connection getConnection() {
+        ConnectionWaitEvent event = new ConnectionWaitEvent();
+        if (event.isEnabled()) {
+            event.poolSize = poolSize;
+            event.availableConnections = pool.size();
+        }
+        event.begin();
         try {
-            return pool.take();
+            Connection connection = pool.take();
+            event.commit();
+            return connection;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("Failed to get connection from pool", e);
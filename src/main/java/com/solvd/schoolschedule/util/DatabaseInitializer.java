@@ -1,28 +1,38 @@
 package com.solvd.schoolschedule.util;
 
 import java.sql.*;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.solvd.schoolschedule.model.Classroom;
+import com.solvd.schoolschedule.model.Group;
+import com.solvd.schoolschedule.model.ResourceCatalog;
+import com.solvd.schoolschedule.model.Subject;
+import com.solvd.schoolschedule.model.Teacher;
+
 /**
- * Utility class for initializing the database with reference data.
- * Populates the database tables with predefined subjects, student groups, teachers,
- * classrooms, and classroom-subject capability mappings.
+ * Utility class for initializing the database with the reference data of a school.
+ * Populates the database tables with the subjects, student groups, teachers,
+ * classrooms, and classroom-subject capabilities of a {@link ResourceCatalog}.
  *
- * <p>This class performs a check before populating to avoid duplicate insertions.
- * If the database already contains data, the population process is skipped.</p>
+ * <p>Lessons reference groups, teachers and classrooms by the ids of the catalog, so every
+ * resource is written with its catalog id. Rows are inserted or updated, never duplicated:
+ * the stock school always gets the same rows, and a larger school loaded at runtime adds its
+ * extra groups, teachers and classrooms before any of its timetables is persisted.</p>
  *
  * <p>The following tables are populated:
  * <ul>
- *   <li>subject - 4 subjects (MATH, PHYSICS, INFORMATICS, PHYSICAL_CULTURE)</li>
- *   <li>student_group - 4 groups with 30 students each</li>
- *   <li>teacher - 4 teachers (one per subject)</li>
- *   <li>classroom - 5 classrooms (3 general, 1 physics lab, 1 computer lab)</li>
- *   <li>classroom_subject_capability - Subject-to-classroom mappings</li>
+ *   <li>subject - every subject with its weekly lessons in the catalog</li>
+ *   <li>student_group - every group of the catalog</li>
+ *   <li>teacher - every teacher of the catalog with its subject</li>
+ *   <li>classroom - every classroom of the catalog (general rooms, physics and computer labs)</li>
+ *   <li>classroom_subject_capability - the subjects every classroom can accommodate</li>
  * </ul></p>
  *
- * @see DatabaseInitializer#populateDatabase()
+ * @see DatabaseInitializer#populateDatabase(ResourceCatalog)
  */
 public class DatabaseInitializer {
 
@@ -31,34 +41,29 @@ public class DatabaseInitializer {
     private final ConnectionPool connectionPool = ConnectionPool.getInstance();
 
     /**
-     * Populates the database with initial reference data if not already populated.
-     * Performs a check on multiple tables to verify if data exists before inserting.
+     * Populates the database with the reference data of a school.
      *
      * <p>This method is idempotent - it can be called multiple times safely.
-     * If data already exists, the method returns early without making any changes.</p>
+     * Existing rows with a catalog id are updated to the catalog, missing rows are inserted.</p>
      *
-     * <p>All inserts are performed using PreparedStatements to prevent SQL injection
-     * and improve performance.</p>
+     * <p>All inserts are performed using batched PreparedStatements to prevent SQL injection
+     * and to write thousands of groups in a few round trips.</p>
      *
+     * @param catalog resources of the school whose timetables will be persisted
      * @throws RuntimeException if a database error occurs during population
      */
-    public void populateDatabase() {
-        if (isDatabasePopulated()) {
-            logger.info("=== Database is already populated. Skipping initialization. ===");
-            return;
-        }
-
-        logger.info("=== Populating database with initial data... ===");
+    public void populateDatabase(ResourceCatalog catalog) {
+        logger.info("=== Populating database with the reference data of " + catalog.getGroupCount() + " groups... ===");
 
         Connection conn = null;
         try {
             conn = connectionPool.getConnection();
 
-            insertSubjects(conn);
-            insertStudentGroups(conn);
-            insertTeachers(conn);
-            insertClassrooms(conn);
-            insertClassroomSubjectCapabilities(conn);
+            insertSubjects(conn, catalog);
+            insertStudentGroups(conn, catalog.getGroups());
+            insertTeachers(conn, catalog.getTeachers());
+            insertClassrooms(conn, catalog.getClassrooms());
+            insertClassroomSubjectCapabilities(conn, catalog.getClassrooms());
 
         } catch (SQLException e) {
             throw new RuntimeException("Error populating database", e);
@@ -72,203 +77,154 @@ public class DatabaseInitializer {
     }
 
     /**
-     * Checks if the database is already populated by verifying if key tables contain data.
-     * Queries the subject table to determine if initialization has already occurred.
-     * <p>
-     * If any table is empty, the database is considered unpopulated.</p>
+     * Inserts or updates every subject with its display name and weekly lessons.
      *
-     * @return true if all checked tables contain data, false otherwise
-     */
-    private boolean isDatabasePopulated() {
-        Connection conn = null;
-        try {
-            conn = connectionPool.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM subject");
-            if (rs.next()) {
-                return rs.getInt("count") > 0;
-            }
-            return false;
-        } catch (SQLException e) {
-            // If query fails, assume not populated
-            return false;
-        } finally {
-            if (conn != null) {
-                connectionPool.releaseConnection(conn);
-            }
-        }
-    }
-
-    /**
-     * Inserts the predefined subjects into the subject table.
-     * Populates subjects with their display names and weekly lesson counts.
-     *
-     * <p>Subjects inserted:
-     * <ul>
-     *   <li>MATH - Mathematics (5 weekly lessons)</li>
-     *   <li>PHYSICS - Physics (4 weekly lessons)</li>
-     *   <li>INFORMATICS - Informatics (3 weekly lessons)</li>
-     *   <li>PHYSICAL_CULTURE - Physical Culture (2 weekly lessons)</li>
-     * </ul></p>
-     *
-     * @param conn the database connection to use
+     * @param conn    the database connection to use
+     * @param catalog the weekly lessons of every subject
      * @throws SQLException if a database error occurs
      */
-    private void insertSubjects(Connection conn) throws SQLException {
+    private void insertSubjects(Connection conn, ResourceCatalog catalog) throws SQLException {
         logger.info("=== Inserting subjects... ===");
-        String sql = "INSERT INTO subject (subject_code, display_name, weekly_lessons) VALUES (?, ?, ?)";
-
-        String[][] subjects = {
-                {"MATH", "Mathematics", "5"},
-                {"PHYSICS", "Physics", "4"},
-                {"INFORMATICS", "Informatics", "3"},
-                {"PHYSICAL_CULTURE", "Physical Culture", "2"}
-        };
-
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        for (String[] subject : subjects) {
-            stmt.setString(1, subject[0]);
-            stmt.setString(2, subject[1]);
-            stmt.setInt(3, Integer.parseInt(subject[2]));
-            stmt.executeUpdate();
+        String sql = "INSERT INTO subject (subject_code, display_name, weekly_lessons) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE display_name = VALUES(display_name), weekly_lessons = VALUES(weekly_lessons)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Subject subject : Subject.values()) {
+                stmt.setString(1, subject.name());
+                stmt.setString(2, subject.getDisplayName());
+                stmt.setInt(3, catalog.getWeeklyLessons(subject));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
-        logger.info("=== Inserted " + subjects.length + " subjects" + " ===");
+        logger.info("=== Inserted " + Subject.values().length + " subjects" + " ===");
     }
 
     /**
-     * Inserts the predefined student groups into the student_group table.
-     * Creates 4 groups, each with 30 students.
+     * Inserts or updates the student groups under their catalog ids.
      *
-     * @param conn the database connection to use
+     * @param conn   the database connection to use
+     * @param groups the groups of the catalog
      * @throws SQLException if a database error occurs
      */
-    private void insertStudentGroups(Connection conn) throws SQLException {
+    private void insertStudentGroups(Connection conn, List<Group> groups) throws SQLException {
         logger.info("=== Inserting student groups... ===");
-        String sql = "INSERT INTO student_group (name, student_count) VALUES (?, ?)";
-
-        String[][] groups = {
-                {"Group 1", "30"},
-                {"Group 2", "30"},
-                {"Group 3", "30"},
-                {"Group 4", "30"}
-        };
-
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        for (String[] group : groups) {
-            stmt.setString(1, group[0]);
-            stmt.setInt(2, Integer.parseInt(group[1]));
-            stmt.executeUpdate();
+        String sql = "INSERT INTO student_group (group_id, name, student_count) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE name = VALUES(name), student_count = VALUES(student_count)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Group group : groups) {
+                stmt.setInt(1, group.getId());
+                stmt.setString(2, group.getName());
+                stmt.setInt(3, group.getNumberOfStudents());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
-        logger.info("=== Inserted " + groups.length + " student groups" + " ===");
+        logger.info("=== Inserted " + groups.size() + " student groups" + " ===");
     }
 
     /**
-     * Inserts the predefined teachers into the teacher table.
-     * Creates one teacher per subject.
-     *
-     * <p>Teachers created:
-     * <ul>
-     *   <li>Mr. Smith - Mathematics</li>
-     *   <li>Ms. Johnson - Physics</li>
-     *   <li>Dr. Brown - Informatics</li>
-     *   <li>Mrs. Davis - Physical Culture</li>
-     * </ul></p>
+     * Inserts or updates the teachers under their catalog ids.
+     * The stock school has one teacher per subject: Mr. Smith, Ms. Johnson, Dr. Brown and Mrs. Davis.
      *
-     * @param conn the database connection to use
+     * @param conn     the database connection to use
+     * @param teachers the teachers of the catalog
      * @throws SQLException if a database error occurs
      */
-    private void insertTeachers(Connection conn) throws SQLException {
+    private void insertTeachers(Connection conn, List<Teacher> teachers) throws SQLException {
         logger.info("=== Inserting teachers... ===");
-        String sql = "INSERT INTO teacher (name, subject_code) VALUES (?, ?)";
-
-        String[][] teachers = {
-                {"Mr. Smith", "MATH"},
-                {"Ms. Johnson", "PHYSICS"},
-                {"Dr. Brown", "INFORMATICS"},
-                {"Mrs. Davis", "PHYSICAL_CULTURE"}
-        };
-
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        for (String[] teacher : teachers) {
-            stmt.setString(1, teacher[0]);
-            stmt.setString(2, teacher[1]);
-            stmt.executeUpdate();
+        String sql = "INSERT INTO teacher (teacher_id, name, subject_code) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE name = VALUES(name), subject_code = VALUES(subject_code)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Teacher teacher : teachers) {
+                stmt.setInt(1, teacher.getId());
+                stmt.setString(2, teacher.getName());
+                stmt.setString(3, teacher.getSubject().name());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
-        logger.info("=== Inserted " + teachers.length + " teachers" + " ===");
+        logger.info("=== Inserted " + teachers.size() + " teachers" + " ===");
     }
 
     /**
-     * Inserts the predefined classrooms into the classroom table.
-     * Creates a mix of general-purpose rooms and specialized labs.
-     *
-     * <p>Classrooms created:
-     * <ul>
-     *   <li>Room 101, 102, 103 - General purpose classrooms</li>
-     *   <li>Physics Lab - Specialized for physics classes</li>
-     *   <li>Computer Lab - Specialized for informatics classes</li>
-     * </ul></p>
+     * Inserts or updates the classrooms under their catalog ids.
+     * The room type is derived from the subjects a classroom can accommodate.
      *
-     * @param conn the database connection to use
+     * @param conn       the database connection to use
+     * @param classrooms the classrooms of the catalog
      * @throws SQLException if a database error occurs
      */
-    private void insertClassrooms(Connection conn) throws SQLException {
+    private void insertClassrooms(Connection conn, List<Classroom> classrooms) throws SQLException {
         logger.info("=== Inserting classrooms... ===");
-        String sql = "INSERT INTO classroom (name, room_type) VALUES (?, ?)";
-
-        String[][] classrooms = {
-                {"Room 101", "GENERAL"},
-                {"Room 102", "GENERAL"},
-                {"Room 103", "GENERAL"},
-                {"Physics Lab", "PHYSICS_LAB"},
-                {"Computer Lab", "COMPUTER_LAB"}
-        };
-
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        for (String[] classroom : classrooms) {
-            stmt.setString(1, classroom[0]);
-            stmt.setString(2, classroom[1]);
-            stmt.executeUpdate();
+        String sql = "INSERT INTO classroom (classroom_id, name, room_type) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE name = VALUES(name), room_type = VALUES(room_type)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Classroom classroom : classrooms) {
+                stmt.setInt(1, classroom.getId());
+                stmt.setString(2, classroom.getName());
+                stmt.setString(3, roomType(classroom));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
-        logger.info("=== Inserted " + classrooms.length + " classrooms" + " ===");
+        logger.info("=== Inserted " + classrooms.size() + " classrooms" + " ===");
     }
 
     /**
-     * Inserts classroom-subject capability mappings into the classroom_subject_capability table.
+     * Replaces the classroom-subject capability mappings of the catalog classrooms.
      * Defines which subjects can be taught in which classrooms.
      *
-     * <p>Capability mappings:
-     * <ul>
-     *   <li>Rooms 101-103: Can accommodate MATH, PHYSICS, and PHYSICAL_CULTURE</li>
-     *   <li>Physics Lab: Can only accommodate PHYSICS</li>
-     *   <li>Computer Lab: Can only accommodate INFORMATICS</li>
-     * </ul></p>
-     *
      * <p>This creates a many-to-many relationship between classrooms and subjects,
      * ensuring that specialized subjects are only scheduled in appropriate facilities.</p>
      *
-     * @param conn the database connection to use
+     * @param conn       the database connection to use
+     * @param classrooms the classrooms of the catalog
      * @throws SQLException if a database error occurs
      */
-    private void insertClassroomSubjectCapabilities(Connection conn) throws SQLException {
+    private void insertClassroomSubjectCapabilities(Connection conn, List<Classroom> classrooms) throws SQLException {
         logger.info("=== Inserting classroom-subject capabilities... ===");
+        String deleteSql = "DELETE FROM classroom_subject_capability WHERE classroom_id = ?";
         String sql = "INSERT INTO classroom_subject_capability (classroom_id, subject_code) VALUES (?, ?)";
 
-        int[][] capabilities = {
-                {1, 1}, {1, 2}, {1, 4},  // Room 101: MATH, PHYSICS, PHYSICAL_CULTURE
-                {2, 1}, {2, 2}, {2, 4},  // Room 102: MATH, PHYSICS, PHYSICAL_CULTURE
-                {3, 1}, {3, 2}, {3, 4},  // Room 103: MATH, PHYSICS, PHYSICAL_CULTURE
-                {4, 2},                   // Physics Lab: PHYSICS
-                {5, 3}                    // Computer Lab: INFORMATICS
-        };
-
-        String[] subjectCodes = {"MATH", "PHYSICS", "INFORMATICS", "PHYSICAL_CULTURE"};
+        int count = 0;
+        try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Classroom classroom : classrooms) {
+                delete.setInt(1, classroom.getId());
+                delete.addBatch();
+                for (Subject subject : Subject.values()) {
+                    if (classroom.canAccommodate(subject)) {
+                        stmt.setInt(1, classroom.getId());
+                        stmt.setString(2, subject.name());
+                        stmt.addBatch();
+                        count++;
+                    }
+                }
+            }
+            delete.executeBatch();
+            stmt.executeBatch();
+        }
+        logger.info("=== Inserted " + count + " classroom-subject capabilities" + " ===");
+    }
 
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        for (int[] capability : capabilities) {
-            stmt.setInt(1, capability[0]);
-            stmt.setString(2, subjectCodes[capability[1] - 1]);
-            stmt.executeUpdate();
+    /**
+     * Room type column of a classroom
+     *
+     * @param classroom the classroom
+     * @return PHYSICS_LAB or COMPUTER_LAB for a single-subject lab, GENERAL otherwise
+     */
+    private static String roomType(Classroom classroom) {
+        Set<Subject> subjects = classroom.getAllowedSubjects();
+        if (subjects.equals(Set.of(Subject.PHYSICS))) {
+            return "PHYSICS_LAB";
+        }
+        if (subjects.equals(Set.of(Subject.INFORMATICS))) {
+            return "COMPUTER_LAB";
         }
-        logger.info("=== Inserted " + capabilities.length + " classroom-subject capabilities" + " ===");
+        return "GENERAL";
     }
 }
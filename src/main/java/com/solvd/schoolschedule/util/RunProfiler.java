@@ -0,0 +1,240 @@
+package com.solvd.schoolschedule.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.DoubleSummaryStatistics;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.solvd.schoolschedule.model.ProfilePhase;
+
+/**
+ * Per-phase instrumentation of a generation run.
+ *
+ * <p>For every {@link ProfilePhase} the profiler accumulates the number of calls, wall time,
+ * CPU time and allocated bytes. CPU time and allocations come from the per-thread counters of
+ * the ThreadMXBean and are read on the thread running the measured code, so work the phase
+ * hands over to a thread pool only shows up in its wall time. Measurements can be recorded
+ * from several threads at once.</p>
+ */
+public class RunProfiler {
+
+    private static final RunProfiler DISABLED = new RunProfiler(false);
+
+    /**
+     * Reminds the reader of a report that CPU time and allocations are per thread
+     */
+    static final String WORKER_NOTE = "CPU ms and Alloc MB cover the calling thread only, "
+            + "work of pool threads (parallel evaluation, offspring) is counted as wall time only";
+
+    private final boolean enabled;
+    private final ThreadMXBean threadBean;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final boolean cpuTimeSupported;
+    private final boolean allocationSupported;
+    private final Map<ProfilePhase, PhaseStatistics> phases = new EnumMap<>(ProfilePhase.class);
+    private final LongAdder evaluations = new LongAdder();
+    private volatile DoubleSummaryStatistics initialFitness;
+    private volatile DoubleSummaryStatistics lastFitness;
+
+    public RunProfiler() {
+        this(true);
+    }
+
+    private RunProfiler(boolean enabled) {
+        this.enabled = enabled;
+        this.threadBean = ManagementFactory.getThreadMXBean();
+        this.allocationBean = threadBean instanceof com.sun.management.ThreadMXBean bean ? bean : null;
+        this.cpuTimeSupported = enabled && threadBean.isCurrentThreadCpuTimeSupported()
+                && threadBean.isThreadCpuTimeEnabled();
+        this.allocationSupported = enabled && allocationBean != null
+                && allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled();
+        for (ProfilePhase phase : ProfilePhase.values()) {
+            phases.put(phase, new PhaseStatistics());
+        }
+    }
+
+    /**
+     * Returns a profiler that runs the measured code without recording anything
+     *
+     * @return shared disabled profiler
+     */
+    public static RunProfiler disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run an action and record it under a phase
+     *
+     * @param phase  the phase
+     * @param action the measured code
+     * @param <T>    result type
+     * @return result of the action
+     */
+    public <T> T measure(ProfilePhase phase, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        long cpuStart = cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+        long allocatedStart = allocationSupported ? allocationBean.getCurrentThreadAllocatedBytes() : 0;
+        long wallStart = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long wall = System.nanoTime() - wallStart;
+            long cpu = cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() - cpuStart : 0;
+            long allocated = allocationSupported ? allocationBean.getCurrentThreadAllocatedBytes() - allocatedStart : 0;
+            phases.get(phase).add(wall, cpu, allocated);
+        }
+    }
+
+    /**
+     * Run an action and record it under a phase
+     *
+     * @param phase  the phase
+     * @param action the measured code
+     */
+    public void measure(ProfilePhase phase, Runnable action) {
+        measure(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Count fitness evaluations, reported per second of evaluation wall time
+     *
+     * @param count number of evaluated individuals
+     */
+    public void recordEvaluations(long count) {
+        if (enabled) {
+            evaluations.add(count);
+        }
+    }
+
+    /**
+     * Record the fitness distribution of the latest evaluated population.
+     * The first recorded distribution is kept as the initial one.
+     *
+     * @param statistics fitness statistics of the population
+     */
+    public void recordFitness(DoubleSummaryStatistics statistics) {
+        if (!enabled) {
+            return;
+        }
+        if (initialFitness == null) {
+            initialFitness = statistics;
+        }
+        lastFitness = statistics;
+    }
+
+    /**
+     * Forget every measurement, e.g. before a new attempt
+     */
+    public void reset() {
+        for (PhaseStatistics statistics : phases.values()) {
+            statistics.reset();
+        }
+        evaluations.reset();
+        initialFitness = null;
+        lastFitness = null;
+    }
+
+    public long getCalls(ProfilePhase phase) {
+        return phases.get(phase).calls.sum();
+    }
+
+    public long getWallNanos(ProfilePhase phase) {
+        return phases.get(phase).wallNanos.sum();
+    }
+
+    public long getCpuNanos(ProfilePhase phase) {
+        return phases.get(phase).cpuNanos.sum();
+    }
+
+    public long getAllocatedBytes(ProfilePhase phase) {
+        return phases.get(phase).allocatedBytes.sum();
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Evaluations per second of evaluation wall time
+     *
+     * @return evaluation throughput (0 if nothing was evaluated)
+     */
+    public double getEvaluationsPerSecond() {
+        long wallNanos = getWallNanos(ProfilePhase.EVALUATION);
+        return wallNanos == 0 ? 0.0 : evaluations.sum() * 1e9 / wallNanos;
+    }
+
+    /**
+     * Build a compact report: one line per phase, evaluation throughput and fitness distribution
+     *
+     * @return multi-line report
+     */
+    public String report() {
+        return report(null);
+    }
+
+    /**
+     * Build a compact report headed by the name of the profiled run
+     *
+     * @param label name of the run, e.g. of the attempt (null for none)
+     * @return multi-line report
+     */
+    public String report(String label) {
+        StringBuilder report = new StringBuilder(label == null
+                ? "=== Run profile ===\n"
+                : "=== Run profile: " + label + " ===\n");
+        report.append(String.format("%-15s %8s %10s %10s %11s%n", "Phase", "Calls", "Wall ms", "CPU ms", "Alloc MB"));
+        for (ProfilePhase phase : ProfilePhase.values()) {
+            report.append(String.format("%-15s %8d %10.1f %10.1f %11.1f%n", phase.getDisplayName(), getCalls(phase),
+                    getWallNanos(phase) / 1e6, getCpuNanos(phase) / 1e6, getAllocatedBytes(phase) / 1e6));
+        }
+        report.append(String.format("%s%n", WORKER_NOTE));
+        report.append(String.format("Evaluations: %d (%.0f/s)%n", getEvaluations(), getEvaluationsPerSecond()));
+        appendFitness(report, "Initial fitness", initialFitness);
+        appendFitness(report, "Final fitness", lastFitness);
+        return report.toString();
+    }
+
+    private static void appendFitness(StringBuilder report, String label, DoubleSummaryStatistics statistics) {
+        if (statistics != null && statistics.getCount() > 0) {
+            report.append(String.format("%-15s best %.1f, avg %.1f, worst %.1f%n", label + ":",
+                    statistics.getMax(), statistics.getAverage(), statistics.getMin()));
+        }
+    }
+
+    /**
+     * Accumulated measurements of one phase
+     */
+    private static final class PhaseStatistics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private void add(long wall, long cpu, long allocated) {
+            calls.increment();
+            wallNanos.add(wall);
+            cpuNanos.add(cpu);
+            allocatedBytes.add(allocated);
+        }
+
+        private void reset() {
+            calls.reset();
+            wallNanos.reset();
+            cpuNanos.reset();
+            allocatedBytes.reset();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.solvd.schoolschedule.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.solvd.schoolschedule.model.ProblemDefinition;
+import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.model.Subject;
+import com.solvd.schoolschedule.model.SubjectConfig;
+
+/**
+ * Generates synthetic problem definitions of any size for benchmarks and scaling tests.
+ *
+ * <p>The tightness is the share of the week every resource is busy. Each group gets about
+ * {@code tightness * slots} weekly lessons, split over the subjects in the proportions of
+ * {@link SubjectConfig}, and there are just enough teachers and
+ * classrooms for none of them to teach or host more than {@code tightness * slots} lessons.
+ * Since a teacher always teaches whole groups, every instance has enough teacher and room
+ * capacity; a tightness close to 1 leaves little free space and makes it hard to solve.</p>
+ *
+ * <p>The seed draws the lessons left over by rounding and the share of the physics lessons
+ * taught in labs. The same seed, week, number of groups and tightness always give the same problem.
+ * The week and the population size default to those of {@link SchoolConfig}; with that week the gene
+ * size of the encoding limits instances to about 2000 groups, longer weeks allow fewer.</p>
+ */
+public class SyntheticInstanceGenerator {
+
+    /**
+     * Average share of the physics lessons taught in physics labs, the rest go to general rooms
+     */
+    private static final double PHYSICS_LAB_SHARE = 0.5;
+
+    private final long seed;
+    private final int days;
+    private final int periods;
+    private final int populationSize;
+
+    /**
+     * Generator of problems with the week and the population size of {@link SchoolConfig}
+     *
+     * @param seed seed of the random draws
+     */
+    public SyntheticInstanceGenerator(long seed) {
+        this(seed, SchoolConfig.WORKING_DAYS_PER_WEEK, SchoolConfig.MAX_PERIODS_PER_DAY, SchoolConfig.GA_POPULATION_SIZE);
+    }
+
+    /**
+     * @param seed           seed of the random draws
+     * @param days           working days per week
+     * @param periods        periods per day, at most {@value ProblemDefinition#MAX_PERIODS_PER_DAY}
+     * @param populationSize population size of the genetic algorithm, at least 2
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public SyntheticInstanceGenerator(long seed, int days, int periods, int populationSize) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Working days must be at least 1: " + days);
+        }
+        if (periods < 1 || periods > ProblemDefinition.MAX_PERIODS_PER_DAY) {
+            throw new IllegalArgumentException("Periods per day must be in [1, "
+                    + ProblemDefinition.MAX_PERIODS_PER_DAY + "]: " + periods);
+        }
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("Population size must be at least 2: " + populationSize);
+        }
+        this.seed = seed;
+        this.days = days;
+        this.periods = periods;
+        this.populationSize = populationSize;
+    }
+
+    /**
+     * Generates a problem
+     *
+     * @param numberOfGroups number of student groups
+     * @param tightness      share of the week every group, teacher and classroom is busy, in (0, 1]
+     * @return the problem
+     * @throws IllegalArgumentException if the tightness is out of range, if there are no groups,
+     *                                  or if the school is too large for the encoding
+     */
+    public ProblemDefinition generate(int numberOfGroups, double tightness) {
+        if (!(tightness > 0 && tightness <= 1)) {
+            throw new IllegalArgumentException("Tightness must be in (0, 1]: " + tightness);
+        }
+        if (numberOfGroups < 1) {
+            throw new IllegalArgumentException("Number of groups must be at least 1: " + numberOfGroups);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        double capacity = tightness * days * periods;
+
+        Map<Subject, Integer> weeklyLessons = generateWeeklyLessons(
+                Math.max((int) Math.round(capacity), Subject.values().length), random);
+
+        Map<Subject, Integer> teachers = new EnumMap<>(Subject.class);
+        for (Subject subject : Subject.values()) {
+            int groupsPerTeacher = Math.max(1, (int) (capacity / weeklyLessons.get(subject)));
+            teachers.put(subject, ceilDiv(numberOfGroups, groupsPerTeacher));
+        }
+
+        long physicsLessons = (long) numberOfGroups * weeklyLessons.get(Subject.PHYSICS);
+        long informaticsLessons = (long) numberOfGroups * weeklyLessons.get(Subject.INFORMATICS);
+        long generalLessons = (long) numberOfGroups * (weeklyLessons.get(Subject.MATH)
+                + weeklyLessons.get(Subject.PHYSICAL_CULTURE)) + physicsLessons;
+        double labShare = PHYSICS_LAB_SHARE * (0.5 + random.nextDouble());
+        int physicsLabs = Math.max(1, (int) Math.round(labShare * physicsLessons / capacity));
+        int computerLabs = Math.max(1, (int) Math.ceil(informaticsLessons / capacity));
+        long labLessons = Math.min((long) Math.floor(physicsLabs * capacity), physicsLessons);
+        int generalClassrooms = Math.max(1, (int) Math.ceil((generalLessons - labLessons) / capacity));
+
+        return new ProblemDefinition(days, periods, numberOfGroups, populationSize,
+                weeklyLessons, teachers, generalClassrooms, physicsLabs, computerLabs);
+    }
+
+    /**
+     * Splits the weekly lessons of a group over the subjects in the proportions of {@link SubjectConfig},
+     * at least one lesson each. The lessons left over by rounding down are drawn with the same weights.
+     *
+     * @param total  weekly lessons of a group, at least one per subject
+     * @param random random stream to draw from
+     * @return lessons per subject
+     */
+    private static Map<Subject, Integer> generateWeeklyLessons(int total, SplittableRandom random) {
+        int totalWeight = SubjectConfig.getTotalWeeklyLessons();
+        Map<Subject, Integer> weeklyLessons = new EnumMap<>(Subject.class);
+        int assigned = 0;
+        for (Subject subject : Subject.values()) {
+            int lessons = Math.max(1, total * SubjectConfig.getWeeklyLessons(subject) / totalWeight);
+            weeklyLessons.put(subject, lessons);
+            assigned += lessons;
+        }
+        for (; assigned < total; assigned++) {
+            int draw = random.nextInt(totalWeight);
+            for (Subject subject : Subject.values()) {
+                draw -= SubjectConfig.getWeeklyLessons(subject);
+                if (draw < 0) {
+                    weeklyLessons.merge(subject, 1, Integer::sum);
+                    break;
+                }
+            }
+        }
+        return weeklyLessons;
+    }
+
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,60 @@
+package com.solvd.schoolschedule.util;
+
+import com.solvd.schoolschedule.model.Lesson;
+
+/**
+ * Zobrist-style genome hashing.
+ *
+ * <p>The hash of a timetable is the XOR of one pseudo-random key per (position, gene) pair,
+ * so replacing the gene at one position updates the hash with two XORs:
+ * {@code hash ^ key(position, oldGene) ^ key(position, newGene)}.
+ * Keys are derived on demand with a SplitMix64 finalizer instead of a precomputed table,
+ * which keeps large instances cheap.</p>
+ */
+public final class ZobristHash {
+
+    private static final long SEED = 0x5DEECE66DL;
+    private static final long POSITION_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long VALUE_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+    private ZobristHash() {
+        throw new AssertionError("ZobristHash is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Returns the random key of a gene value at a position
+     *
+     * @param position gene position
+     * @param value    gene value
+     * @return 64-bit key
+     */
+    public static long key(int position, long value) {
+        return mix(SEED ^ (position + 1L) * POSITION_MULTIPLIER ^ value * VALUE_MULTIPLIER);
+    }
+
+    /**
+     * Returns the key of a lesson at a position, based on every field that affects fitness
+     *
+     * @param position lesson position
+     * @param lesson   the lesson
+     * @return 64-bit key
+     */
+    public static long key(int position, Lesson lesson) {
+        long value = lesson.getSubject().ordinal();
+        value = value * 31 + lesson.getTeacher().getId();
+        value = value * 31 + lesson.getClassroom().getId();
+        value = value * 31 + lesson.getGroup().getId();
+        value = value * 31 + lesson.getTimeSlot().getDay();
+        value = value * 31 + lesson.getTimeSlot().getPeriod();
+        return key(position, value);
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
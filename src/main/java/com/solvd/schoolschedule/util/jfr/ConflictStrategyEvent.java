@@ -0,0 +1,35 @@
+package com.solvd.schoolschedule.util.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event spanning one conflict strategy invocation.
+ * Strategies run millions of times per run, so only a sample of the invocations is recorded.
+ * The fused evaluator counts every conflict type in one pass, so it records one event per type
+ * without a duration of its own, all carrying the duration of the pass.
+ */
+@Name("com.solvd.schoolschedule.ConflictStrategy")
+@Label("Conflict Strategy")
+@Description("Sampled conflict strategy invocation")
+@Category({"School Schedule", "Solver"})
+@StackTrace(false)
+public class ConflictStrategyEvent extends Event {
+
+    @Label("Conflict Type")
+    public String conflictType;
+
+    @Label("Conflicts")
+    public int conflicts;
+
+    @Label("Lesson Count")
+    public int lessonCount;
+
+    @Label("Fused")
+    @Description("Counted with the other conflict types in one pass of the fused evaluator")
+    public boolean fused;
+
+    @Label("Fused Pass")
+    @Description("Duration of the fused pass counting every conflict type, 0 for a strategy")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fusedPass;
+}
@@ -0,0 +1,21 @@
+package com.solvd.schoolschedule.util.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event spanning the wait for a pooled database connection.
+ * The event duration is the wait time.
+ */
+@Name("com.solvd.schoolschedule.ConnectionWait")
+@Label("Connection Wait")
+@Description("Wait for a connection from the connection pool")
+@Category({"School Schedule", "Persistence"})
+public class ConnectionWaitEvent extends Event {
+
+    @Label("Pool Size")
+    public int poolSize;
+
+    @Label("Available Connections")
+    @Description("Idle connections when the wait started")
+    public int availableConnections;
+}
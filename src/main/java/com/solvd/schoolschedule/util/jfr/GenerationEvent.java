@@ -0,0 +1,46 @@
+package com.solvd.schoolschedule.util.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event spanning one generation: offspring production and evaluation.
+ */
+@Name("com.solvd.schoolschedule.Generation")
+@Label("Generation")
+@Description("One generation of the genetic algorithm")
+@Category({"School Schedule", "Solver"})
+@StackTrace(false)
+public class GenerationEvent extends Event {
+
+    @Label("Generation")
+    public int generation;
+
+    @Label("Population Size")
+    public int populationSize;
+
+    @Label("Best Fitness")
+    public double bestFitness;
+
+    @Label("Lesson Count")
+    @Description("Lessons of the best timetable")
+    public int lessonCount;
+
+    /**
+     * End the event and commit it with the generation results, if recording is on
+     *
+     * @param generation     generation number
+     * @param populationSize number of timetables in the generation
+     * @param bestFitness    fitness of the best timetable
+     * @param lessonCount    lessons of the best timetable
+     */
+    public void commit(int generation, int populationSize, double bestFitness, int lessonCount) {
+        end();
+        if (shouldCommit()) {
+            this.generation = generation;
+            this.populationSize = populationSize;
+            this.bestFitness = bestFitness;
+            this.lessonCount = lessonCount;
+            commit();
+        }
+    }
+}
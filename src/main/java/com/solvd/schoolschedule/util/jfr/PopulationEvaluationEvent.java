@@ -0,0 +1,24 @@
+package com.solvd.schoolschedule.util.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event spanning the fitness evaluation of a whole population.
+ */
+@Name("com.solvd.schoolschedule.PopulationEvaluation")
+@Label("Population Evaluation")
+@Description("Fitness evaluation of a population")
+@Category({"School Schedule", "Solver"})
+@StackTrace(false)
+public class PopulationEvaluationEvent extends Event {
+
+    @Label("Population Size")
+    public int populationSize;
+
+    @Label("Evaluation Mode")
+    public String evaluationMode;
+
+    @Label("Encoded")
+    @Description("Whether the population uses the compact chromosome encoding")
+    public boolean encoded;
+}
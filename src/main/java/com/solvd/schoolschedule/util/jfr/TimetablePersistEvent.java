@@ -0,0 +1,22 @@
+package com.solvd.schoolschedule.util.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event spanning the insertion of a timetable and its lessons in the database.
+ */
+@Name("com.solvd.schoolschedule.TimetablePersist")
+@Label("Timetable Persist")
+@Description("Timetable saved to the database")
+@Category({"School Schedule", "Persistence"})
+public class TimetablePersistEvent extends Event {
+
+    @Label("Fitness")
+    public double fitness;
+
+    @Label("Generation")
+    public int generation;
+
+    @Label("Lesson Count")
+    public int lessonCount;
+}
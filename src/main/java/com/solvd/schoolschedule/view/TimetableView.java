@@ -15,6 +15,22 @@ public class TimetableView {
 
     private static final Logger LOGGER = LogManager.getLogger(TimetableView.class);
 
+    private final int days;
+    private final int periods;
+
+    public TimetableView() {
+        this(SchoolConfig.WORKING_DAYS_PER_WEEK, SchoolConfig.MAX_PERIODS_PER_DAY);
+    }
+
+    /**
+     * @param days    working days per week
+     * @param periods periods per day
+     */
+    public TimetableView(int days, int periods) {
+        this.days = days;
+        this.periods = periods;
+    }
+
     /**
      * Displays the header for the timetable summary
      */
@@ -45,9 +61,9 @@ public class TimetableView {
     public void displayGroupSchedule(Timetable timetable, Group group) {
         LOGGER.info("Group: " + group.getName());
 
-        int max = Math.max(6, maxNumberOfDayLessons(timetable, group));
+        int max = Math.max(periods, maxNumberOfDayLessons(timetable, group));
 
-        for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+        for (int day = 0; day < days; day++) {
             List<Lesson> dayLessons = timetable.getLessonsOnDayFor(group, day);
             if (!dayLessons.isEmpty()) {
                 StringBuilder lineBuilder = new StringBuilder();
@@ -83,9 +99,9 @@ public class TimetableView {
 
         LOGGER.info("" + teacher.getName() + " (" + subjectName + " - " + abbreviate(subjectName) + "):");
 
-        int max = Math.max(6, maxNumberOfDayLessons(timetable, teacher));
+        int max = Math.max(periods, maxNumberOfDayLessons(timetable, teacher));
 
-        for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+        for (int day = 0; day < days; day++) {
             List<Lesson> dayLessons = timetable.getLessonsOnDayFor(teacher, day);
 
             if (!dayLessons.isEmpty()) {
@@ -118,9 +134,9 @@ public class TimetableView {
     public void displayClassroomSchedule(Timetable timetable, Classroom classroom) {
         LOGGER.info("Classroom: " + classroom.getName() + " - " + formatClassroom(classroom));
 
-        int max = Math.max(6, maxNumberOfDayLessons(timetable, classroom));
+        int max = Math.max(periods, maxNumberOfDayLessons(timetable, classroom));
 
-        for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+        for (int day = 0; day < days; day++) {
             List<Lesson> dayLessons = timetable.getLessonsOnDayFor(classroom, day);
             if (!dayLessons.isEmpty()) {
                 StringBuilder lineBuilder = new StringBuilder();
@@ -184,11 +200,11 @@ public class TimetableView {
     /**
      * Fills the String of each day with spaces, so every day has the same length
      *
-     * @param day day as an integer (0 Mon - 4 Fri)
+     * @param day day as an integer (0 Mon - 4 Fri), later days are numbered
      * @return formatted string
      */
     private String formatDay(int day) {
-        String dayString = SchoolConfig.DAY_NAMES[day];
+        String dayString = day < SchoolConfig.DAY_NAMES.length ? SchoolConfig.DAY_NAMES[day] : "Day " + (day + 1);
         String spaceString = " ".repeat(11 - dayString.length());
         return dayString + ":" + spaceString;
     }
@@ -203,7 +219,7 @@ public class TimetableView {
     private int maxNumberOfDayLessons(Timetable timetable, ITimetableFilter object) {
         int max = 0;
 
-        for (int day = 0; day < SchoolConfig.WORKING_DAYS_PER_WEEK; day++) {
+        for (int day = 0; day < days; day++) {
             List<Lesson> dayLessons = timetable.getLessonsOnDayFor(object, day);
             int number = dayLessons.size();
             int periodOfFirstLesson = dayLessons.isEmpty() ? 0 : dayLessons.getFirst().getTimeSlot().getPeriod();
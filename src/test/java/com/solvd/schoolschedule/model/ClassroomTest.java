@@ -295,4 +295,15 @@ class ClassroomTest {
         assertFalse(classroom2.canAccommodate(Subject.MATH));
         assertTrue(classroom2.canAccommodate(Subject.INFORMATICS));
     }
+
+    @Test
+    @DisplayName("Equal Classrooms should have equal hash codes")
+    void testHashCodeConsistency() {
+        // Given
+        Classroom classroom1 = new Classroom(3, "Room 103", Set.of(Subject.MATH));
+        Classroom classroom2 = new Classroom(3, "Other name", Set.of(Subject.PHYSICS));
+
+        // Then
+        assertEquals(classroom1.hashCode(), classroom2.hashCode());
+    }
 }
@@ -0,0 +1,49 @@
+package com.solvd.schoolschedule.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Unit tests for the CoolingSchedule enum.
+ */
+@DisplayName("CoolingSchedule Tests")
+class CoolingScheduleTest {
+
+    @ParameterizedTest
+    @EnumSource(CoolingSchedule.class)
+    @DisplayName("Every schedule should start at the initial temperature and cool down")
+    void testCoolsDown(CoolingSchedule schedule) {
+        double previous = schedule.temperature(100, 0.999, 0);
+        assertEquals(100, previous, 1e-9);
+        for (long step = 100; step <= 10_000; step += 100) {
+            double temperature = schedule.temperature(100, 0.999, step);
+            assertTrue(temperature <= previous, schedule + " should not warm up at step " + step);
+            assertTrue(temperature >= 0);
+            previous = temperature;
+        }
+    }
+
+    @Test
+    @DisplayName("Geometric cooling should multiply the temperature by the rate at every step")
+    void testGeometric() {
+        assertEquals(100 * 0.9 * 0.9, CoolingSchedule.GEOMETRIC.temperature(100, 0.9, 2), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Linear cooling should reach zero and stay there")
+    void testLinearReachesZero() {
+        assertEquals(50, CoolingSchedule.LINEAR.temperature(100, 0.99, 50), 1e-9);
+        assertEquals(0, CoolingSchedule.LINEAR.temperature(100, 0.99, 100), 1e-9);
+        assertEquals(0, CoolingSchedule.LINEAR.temperature(100, 0.99, 1000), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Logarithmic cooling should stay above zero")
+    void testLogarithmicStaysPositive() {
+        assertTrue(CoolingSchedule.LOGARITHMIC.temperature(100, 0.99, 1_000_000_000L) > 0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.solvd.schoolschedule.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.solvd.schoolschedule.service.impl.PopulationServiceImpl;
+
+/**
+ * Unit tests for the DoubleBufferedPopulation class.
+ * Tests buffer allocation, swapping and best individual lookup.
+ */
+@DisplayName("DoubleBufferedPopulation Tests")
+class DoubleBufferedPopulationTest {
+
+    private List<EncodedTimetable> initial;
+
+    @BeforeEach
+    void setUp() {
+        initial = new PopulationServiceImpl(1).initializeEncodedPopulation(3);
+        for (int i = 0; i < initial.size(); i++) {
+            initial.get(i).setFitness(i == 1 ? 100 : 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should start from the initial timetables with a spare buffer of copies")
+    void testBuffers() {
+        // When
+        DoubleBufferedPopulation population = new DoubleBufferedPopulation(initial);
+
+        // Then
+        assertEquals(3, population.size());
+        for (int i = 0; i < initial.size(); i++) {
+            assertSame(initial.get(i), population.getCurrent()[i]);
+            assertNotSame(initial.get(i), population.getNext()[i]);
+            assertNotSame(initial.get(i).getGenes(), population.getNext()[i].getGenes());
+        }
+    }
+
+    @Test
+    @DisplayName("Swap should exchange the current and the next buffer")
+    void testSwap() {
+        // Given
+        DoubleBufferedPopulation population = new DoubleBufferedPopulation(initial);
+        EncodedTimetable[] current = population.getCurrent();
+        EncodedTimetable[] next = population.getNext();
+
+        // When
+        population.swap();
+
+        // Then
+        assertSame(next, population.getCurrent());
+        assertSame(current, population.getNext());
+    }
+
+    @Test
+    @DisplayName("Should find the best timetable of the current buffer")
+    void testGetBest() {
+        // When
+        DoubleBufferedPopulation population = new DoubleBufferedPopulation(initial);
+
+        // Then
+        assertSame(initial.get(1), population.getBest());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty population")
+    void testEmptyPopulation() {
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> new DoubleBufferedPopulation(List.of()));
+    }
+}
@@ -0,0 +1,99 @@
+package com.solvd.schoolschedule.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the GeneticAlgorithmSettings class.
+ * Tests the default modes, loading from properties and validation.
+ */
+@DisplayName("GeneticAlgorithmSettings Tests")
+class GeneticAlgorithmSettingsTest {
+
+    @Test
+    @DisplayName("Defaults should leave every optional search mode off")
+    void testDefaultModesOff() {
+        // When
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.defaults();
+
+        // Then
+        assertEquals(MutationMode.RANDOM, settings.getMutationMode());
+        assertEquals(0.0, settings.getSeedingRatio());
+        assertEquals(0, settings.getMemeticElites());
+        assertFalse(settings.isAdaptiveParameters());
+        assertFalse(settings.isConstraintRepair());
+        assertFalse(settings.isExactPresolve());
+        assertEquals(0, settings.getStagnationWindow());
+    }
+
+    @Test
+    @DisplayName("Should load the modes from properties and keep defaults for missing keys")
+    void testLoadProperties() {
+        // Given
+        Properties properties = new Properties();
+        properties.setProperty("ga.maxGenerations", "2000");
+        properties.setProperty("ga.mutationMode", " targeted ");
+        properties.setProperty("ga.seedingRatio", "0.2");
+        properties.setProperty("ga.constraintRepair", "true");
+        properties.setProperty("ga.islandCount", "4");
+
+        // When
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.load(properties);
+
+        // Then
+        assertEquals(2000, settings.getMaxGenerations());
+        assertEquals(MutationMode.TARGETED, settings.getMutationMode());
+        assertEquals(0.2, settings.getSeedingRatio());
+        assertTrue(settings.isConstraintRepair());
+        assertEquals(4, settings.getIslandCount());
+        assertEquals(SchoolConfig.GA_FITNESS_CACHE_SIZE, settings.getFitnessCacheSize());
+        assertFalse(settings.isAdaptiveParameters());
+    }
+
+    @Test
+    @DisplayName("Should reject values that are not numbers, booleans or mutation modes")
+    void testLoadInvalidValues() {
+        for (String[] entry : new String[][]{
+                {"ga.memeticElites", "two"}, {"ga.profiling", "yes"}, {"ga.mutationMode", "SMART"}}) {
+            // Given
+            Properties properties = new Properties();
+            properties.setProperty(entry[0], entry[1]);
+
+            // Then
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> GeneticAlgorithmSettings.load(properties));
+            assertTrue(exception.getMessage().contains(entry[0]));
+        }
+    }
+
+    @Test
+    @DisplayName("Encoded chromosomes should reject the modes of lesson chromosomes")
+    void testEncodedRejectsLessonModes() {
+        // Given
+        GeneticAlgorithmSettings.Builder builder = GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(true)
+                .adaptiveParameters(true)
+                .mutationMode(MutationMode.TARGETED);
+
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, builder::build);
+
+        // Then
+        assertTrue(exception.getMessage().contains("adaptiveParameters"));
+        assertTrue(exception.getMessage().contains("mutationMode=TARGETED"));
+        assertTrue(GeneticAlgorithmSettings.builder().encodedChromosomes(true).build().isEncodedChromosomes());
+    }
+
+    @Test
+    @DisplayName("Builder should reject out-of-range values")
+    void testBuilderValidation() {
+        GeneticAlgorithmSettings.Builder builder = GeneticAlgorithmSettings.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.seedingRatio(1.5));
+        assertThrows(IllegalArgumentException.class, () -> builder.islandCount(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.mutationMode(null));
+    }
+}
@@ -0,0 +1,105 @@
+package com.solvd.schoolschedule.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the ProblemDefinition class.
+ * Tests the stock problem, loading from properties and validation.
+ */
+@DisplayName("ProblemDefinition Tests")
+class ProblemDefinitionTest {
+
+    @Test
+    @DisplayName("Defaults should describe the stock school")
+    void testDefaults() {
+        // When
+        ProblemDefinition problem = ProblemDefinition.defaults();
+
+        // Then
+        assertEquals(SchoolConfig.WORKING_DAYS_PER_WEEK, problem.getDays());
+        assertEquals(SchoolConfig.MAX_PERIODS_PER_DAY, problem.getPeriodsPerDay());
+        assertEquals(SchoolConfig.NUM_GROUPS, problem.getNumberOfGroups());
+        assertEquals(SchoolConfig.GA_POPULATION_SIZE, problem.getPopulationSize());
+        for (Subject subject : Subject.values()) {
+            assertEquals(1, problem.getTeachers(subject));
+        }
+        assertEquals(SchoolConfig.NUM_CLASSROOMS,
+                problem.getGeneralClassrooms() + problem.getPhysicsLabs() + problem.getComputerLabs());
+    }
+
+    @Test
+    @DisplayName("Should load a district from properties and keep defaults for missing keys")
+    void testLoadProperties() {
+        // Given
+        Properties properties = new Properties();
+        properties.setProperty("school.periodsPerDay", "8");
+        properties.setProperty("school.groups", "300");
+        properties.setProperty("school.teachers.math", " 50 ");
+        properties.setProperty("school.lessons.physics", "6");
+        properties.setProperty("school.classrooms.general", "120");
+
+        // When
+        ProblemDefinition problem = ProblemDefinition.load(properties);
+
+        // Then
+        assertEquals(SchoolConfig.WORKING_DAYS_PER_WEEK, problem.getDays());
+        assertEquals(8, problem.getPeriodsPerDay());
+        assertEquals(300, problem.getNumberOfGroups());
+        assertEquals(50, problem.getTeachers(Subject.MATH));
+        assertEquals(1, problem.getTeachers(Subject.PHYSICS));
+        assertEquals(6, problem.getWeeklyLessons(Subject.PHYSICS));
+        assertEquals(SubjectConfig.getWeeklyLessons(Subject.MATH), problem.getWeeklyLessons(Subject.MATH));
+        assertEquals(SubjectConfig.getTotalWeeklyLessons() + 2, problem.getTotalWeeklyLessons());
+        assertEquals(120, problem.getGeneralClassrooms());
+        assertEquals(1, problem.getPhysicsLabs());
+        assertEquals(10, problem.withGroups(10).getNumberOfGroups());
+        assertEquals(50, problem.withGroups(10).getTeachers(Subject.MATH));
+    }
+
+    @Test
+    @DisplayName("Should load a problem from a properties file")
+    void testLoadFile(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("district.properties");
+        Files.writeString(file, "school.days=6\nschool.teachers.informatics=3\n");
+
+        // When
+        ProblemDefinition problem = ProblemDefinition.load(file);
+
+        // Then
+        assertEquals(6, problem.getDays());
+        assertEquals(3, problem.getTeachers(Subject.INFORMATICS));
+        assertThrows(UncheckedIOException.class, () -> ProblemDefinition.load(directory.resolve("missing")));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizes")
+    void testValidation() {
+        // Given
+        Properties notANumber = new Properties();
+        notANumber.setProperty("school.groups", "many");
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> ProblemDefinition.load(notANumber));
+        assertThrows(IllegalArgumentException.class, () -> ProblemDefinition.defaults().withGroups(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProblemDefinition(5, 65, 4, 100, Map.of(), 3, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProblemDefinition(5, 6, 4, 100, Map.of(Subject.MATH, 0), 3, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProblemDefinition(5, 6, 4, 100, Map.of(), -1, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProblemDefinition(5, 6, 4, 100, Map.of(Subject.PHYSICS, 0), Map.of(), 3, 1, 1));
+    }
+}
@@ -0,0 +1,104 @@
+package com.solvd.schoolschedule.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ResourceCatalog class.
+ * Tests dense ids, interned time slots and the per-subject lookup tables.
+ */
+@DisplayName("ResourceCatalog Tests")
+class ResourceCatalogTest {
+
+    private Group group1;
+    private Group group2;
+    private Teacher mathTeacher;
+    private Teacher secondMathTeacher;
+    private Teacher physicsTeacher;
+    private Classroom room;
+    private Classroom physicsLab;
+    private ResourceCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        group1 = new Group(1, "Group 1");
+        group2 = new Group(2, "Group 2");
+        mathTeacher = new Teacher(1, "Mr. Smith", Subject.MATH);
+        secondMathTeacher = new Teacher(2, "Ms. Lee", Subject.MATH);
+        physicsTeacher = new Teacher(3, "Ms. Johnson", Subject.PHYSICS);
+        room = new Classroom(1, "Room 101", Set.of(Subject.MATH, Subject.PHYSICS));
+        physicsLab = new Classroom(2, "Physics Lab", Set.of(Subject.PHYSICS));
+        catalog = new ResourceCatalog(List.of(group1, group2),
+                List.of(mathTeacher, secondMathTeacher, physicsTeacher), List.of(room, physicsLab),
+                SchoolConfig.WORKING_DAYS_PER_WEEK, SchoolConfig.MAX_PERIODS_PER_DAY);
+    }
+
+    @Test
+    @DisplayName("Should give dense ids in list order and -1 to unknown resources")
+    void testDenseIds() {
+        // Then
+        assertEquals(0, catalog.groupId(group1));
+        assertEquals(1, catalog.groupId(new Group(2, "Group 2")));
+        assertEquals(2, catalog.teacherId(physicsTeacher));
+        assertEquals(1, catalog.classroomId(physicsLab));
+        assertSame(physicsLab, catalog.getClassroom(1));
+        assertEquals(-1, catalog.groupId(new Group(9, "Group 9")));
+        assertEquals(-1, catalog.classroomId(new Classroom(9, "Gym", Set.of())));
+        assertEquals(2, catalog.getGroupCount());
+        assertEquals(3, catalog.getTeacherCount());
+        assertEquals(2, catalog.getClassroomCount());
+    }
+
+    @Test
+    @DisplayName("Should intern one time slot per day and period of the week")
+    void testTimeSlots() {
+        // Then
+        assertEquals(SchoolConfig.WORKING_DAYS_PER_WEEK * SchoolConfig.MAX_PERIODS_PER_DAY, catalog.getSlotCount());
+        for (int slot = 0; slot < catalog.getSlotCount(); slot++) {
+            TimeSlot timeSlot = catalog.getTimeSlot(slot);
+            assertEquals(slot, catalog.slotOf(timeSlot));
+            assertSame(timeSlot, catalog.getTimeSlot(timeSlot.getDay(), timeSlot.getPeriod()));
+        }
+        assertEquals(-1, catalog.slotOf(new TimeSlot(SchoolConfig.WORKING_DAYS_PER_WEEK, 0)));
+        assertEquals(-1, catalog.slotOf(new TimeSlot(0, -1)));
+    }
+
+    @Test
+    @DisplayName("Should list the suitable classrooms and the teachers of every subject")
+    void testSubjectTables() {
+        // Then
+        assertEquals(List.of(room, physicsLab), catalog.getSuitableClassrooms(Subject.PHYSICS));
+        assertArrayEquals(new int[]{0, 1}, catalog.getSuitableClassroomIds(Subject.PHYSICS));
+        assertEquals(List.of(room), catalog.getSuitableClassrooms(Subject.MATH));
+        assertTrue(catalog.getSuitableClassrooms(Subject.INFORMATICS).isEmpty());
+        assertEquals(List.of(mathTeacher, secondMathTeacher), catalog.getTeachers(Subject.MATH));
+        assertThrows(IllegalStateException.class, () -> catalog.getAssignedTeacher(group1, Subject.INFORMATICS));
+    }
+
+    @Test
+    @DisplayName("Should spread the groups of a subject over its least loaded teachers")
+    void testAssignedTeachers() {
+        // Then
+        assertSame(mathTeacher, catalog.getAssignedTeacher(group1, Subject.MATH));
+        assertSame(secondMathTeacher, catalog.getAssignedTeacher(group2, Subject.MATH));
+        assertSame(physicsTeacher, catalog.getAssignedTeacher(group2, Subject.PHYSICS));
+        assertSame(mathTeacher, catalog.getAssignedTeacher(new Group(9, "Group 9"), Subject.MATH));
+        assertEquals(SubjectConfig.getWeeklyLessons(Subject.MATH), catalog.getTeacherLoad(mathTeacher));
+        assertEquals(SubjectConfig.getWeeklyLessons(Subject.MATH), catalog.getTeacherLoad(secondMathTeacher));
+        assertEquals(2 * SubjectConfig.getWeeklyLessons(Subject.PHYSICS), catalog.getTeacherLoad(physicsTeacher));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty week")
+    void testEmptyWeek() {
+        // Then
+        assertThrows(IllegalArgumentException.class,
+                () -> new ResourceCatalog(List.of(group1), List.of(mathTeacher), List.of(room), 0, 6));
+    }
+}
@@ -258,4 +258,15 @@ class TeacherTest {
         assertNotEquals(teacher3, teacher4);
         assertEquals(4, Set.of(teacher1, teacher2, teacher3, teacher4).size());
     }
+
+    @Test
+    @DisplayName("Equal Teachers should have equal hash codes")
+    void testHashCodeConsistency() {
+        // Given
+        Teacher teacher1 = new Teacher(7, "Teacher A", Subject.MATH);
+        Teacher teacher2 = new Teacher(7, "Teacher B", Subject.PHYSICS);
+
+        // Then
+        assertEquals(teacher1.hashCode(), teacher2.hashCode());
+    }
 }
@@ -0,0 +1,155 @@
+package com.solvd.schoolschedule.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.service.impl.PopulationServiceImpl;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the TimetableEncoding and EncodedTimetable classes.
+ * Tests the chromosome layout, gene packing and decoding.
+ */
+@DisplayName("TimetableEncoding Tests")
+class TimetableEncodingTest {
+
+    private IPopulationService populationService;
+    private TimetableEncoding encoding;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        encoding = populationService.getEncoding();
+    }
+
+    @Test
+    @DisplayName("Should lay out the weekly lessons of every group in group blocks")
+    void testLayout() {
+        // Then
+        int lessonsPerGroup = 0;
+        for (Subject subject : Subject.values()) {
+            lessonsPerGroup += SubjectConfig.getWeeklyLessons(subject);
+        }
+        assertEquals(populationService.getGroups().size() * lessonsPerGroup, encoding.size());
+        assertEquals(populationService.getGroups().size(), encoding.getBlockCount());
+        for (int block = 0; block < encoding.getBlockCount(); block++) {
+            Group group = populationService.getGroups().get(block);
+            for (int i = encoding.getBlockStart(block); i < encoding.getBlockEnd(block); i++) {
+                assertEquals(group, encoding.getGroup(i));
+                assertEquals(encoding.getSubject(i), encoding.getTeacher(i).getSubject());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should pack and unpack slot and classroom")
+    void testGenePacking() {
+        for (int slot = 0; slot < encoding.getSlotCount(); slot++) {
+            for (int classroom = 0; classroom < encoding.getClassroomCount(); classroom++) {
+                // When
+                short gene = encoding.gene(slot, classroom);
+
+                // Then
+                assertEquals(slot, encoding.slotOf(gene));
+                assertEquals(classroom, encoding.classroomOf(gene));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should use the whole unsigned gene range")
+    void testUnsignedGenes() {
+        // Given - 30 slots x 2000 classrooms do not fit in a signed short
+        ProblemDefinition problem = new ProblemDefinition(5, 6, 1, 2, Map.of(), 2000, 0, 1);
+        TimetableEncoding large = new PopulationServiceImpl(problem).getEncoding();
+        int lastSlot = large.getSlotCount() - 1;
+        int lastClassroom = large.getClassroomCount() - 1;
+
+        // When
+        short gene = large.gene(lastSlot, lastClassroom);
+
+        // Then
+        assertTrue(gene < 0);
+        assertEquals(lastSlot, large.slotOf(gene));
+        assertEquals(lastClassroom, large.classroomOf(gene));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProblemDefinition(5, 6, 1, 2, Map.of(), 2200, 0, 1));
+    }
+
+    @Test
+    @DisplayName("Should share one time slot instance per slot")
+    void testTimeSlotFlyweights() {
+        TimeSlot timeSlot = encoding.getTimeSlot(SchoolConfig.MAX_PERIODS_PER_DAY + 2);
+
+        assertSame(timeSlot, encoding.getTimeSlot(SchoolConfig.MAX_PERIODS_PER_DAY + 2));
+        assertEquals(new TimeSlot(1, 2), timeSlot);
+    }
+
+    @Test
+    @DisplayName("Should decode and encode back to the same genes")
+    void testRoundTrip() {
+        // Given
+        EncodedTimetable encoded = populationService.initializeEncodedPopulation(1).get(0);
+        encoded.setFitness(1500);
+        encoded.setGeneration(7);
+
+        // When
+        Timetable decoded = encoded.decode();
+
+        // Then
+        assertEquals(encoding.size(), decoded.getLessons().size());
+        assertEquals(1500, decoded.getFitness());
+        assertEquals(7, decoded.getGeneration());
+        assertArrayEquals(encoded.getGenes(), encoding.encode(decoded));
+        List<Lesson> lessons = decoded.getLessons();
+        for (int i = 0; i < lessons.size(); i++) {
+            assertTrue(lessons.get(i).getClassroom().canAccommodate(lessons.get(i).getSubject()),
+                "Random genes should only use suitable classrooms");
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode timetables generated by the population service")
+    void testEncodeGeneratedTimetable() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+
+        // When
+        Timetable decoded = encoding.decode(encoding.encode(timetable));
+
+        // Then
+        assertEquals(timetable.getLessons().size(), decoded.getLessons().size());
+        for (int i = 0; i < decoded.getLessons().size(); i++) {
+            Lesson expected = timetable.getLessons().get(i);
+            Lesson actual = decoded.getLessons().get(i);
+            assertEquals(expected.getTimeSlot(), actual.getTimeSlot());
+            assertEquals(expected.getClassroom(), actual.getClassroom());
+            assertEquals(expected.getGroup(), actual.getGroup());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject timetables that do not follow the layout")
+    void testEncodeMismatch() {
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.MATH, populationService.getTeachers().get(0),
+            populationService.getClassrooms().get(0), new TimeSlot(0, 0), populationService.getGroups().get(0)));
+
+        assertThrows(IllegalArgumentException.class, () -> encoding.encode(timetable));
+    }
+
+    @Test
+    @DisplayName("Should copy genes into an independent timetable")
+    void testCopy() {
+        EncodedTimetable original = populationService.initializeEncodedPopulation(1).get(0);
+
+        EncodedTimetable copy = original.copy();
+        copy.getGenes()[0] = (short) (copy.getGenes()[0] == 0 ? 1 : 0);
+
+        assertNotEquals(original.getGenes()[0], copy.getGenes()[0]);
+    }
+}
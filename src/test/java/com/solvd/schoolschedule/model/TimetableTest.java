@@ -371,4 +371,118 @@ class TimetableTest {
             assertEquals(i, mondayLessons.get(i).getTimeSlot().getPeriod());
         }
     }
+
+    @Test
+    @DisplayName("Repeated lookups should return the same cached list")
+    void testLessonLookupIsCached() {
+        // Given
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.MATH, mathTeacher, classroom1, new TimeSlot(0, 1), group1));
+        timetable.addLesson(new Lesson(Subject.PHYSICS, physicsTeacher, classroom2, new TimeSlot(0, 0), group1));
+
+        // When
+        List<Lesson> first = timetable.getLessonsOnDayFor(group1, 0);
+        List<Lesson> second = timetable.getLessonsOnDayFor(group1, 0);
+
+        // Then
+        assertSame(first, second);
+        assertSame(timetable.getLessonsFor(mathTeacher), timetable.getLessonsFor(mathTeacher));
+    }
+
+    @Test
+    @DisplayName("Adding a lesson should refresh the lesson lookups")
+    void testLessonLookupRefreshedAfterAdd() {
+        // Given
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.MATH, mathTeacher, classroom1, new TimeSlot(0, 2), group1));
+        assertEquals(1, timetable.getLessonsOnDayFor(group1, 0).size());
+
+        // When
+        Lesson earlier = new Lesson(Subject.PHYSICS, physicsTeacher, classroom2, new TimeSlot(0, 0), group1);
+        timetable.addLesson(earlier);
+
+        // Then
+        List<Lesson> mondayLessons = timetable.getLessonsOnDayFor(group1, 0);
+        assertEquals(2, mondayLessons.size());
+        assertSame(earlier, mondayLessons.get(0));
+        assertEquals(1, timetable.getLessonsFor(classroom2).size());
+    }
+
+    @Test
+    @DisplayName("Lookups should match equal resources built from different instances")
+    void testLessonLookupByEqualResource() {
+        // Given
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.MATH, mathTeacher, classroom1, new TimeSlot(1, 0), group1));
+
+        // When
+        Teacher sameTeacher = new Teacher(1, "Mr. Smith", Subject.MATH);
+        Classroom sameClassroom = new Classroom(1, "Room 101", Set.of(Subject.MATH));
+
+        // Then
+        assertEquals(1, timetable.getLessonsOnDayFor(sameTeacher, 1).size());
+        assertEquals(1, timetable.getLessonsOnDayFor(sameClassroom, 1).size());
+    }
+
+    @Test
+    @DisplayName("Lesson lists returned by the timetable should be read-only")
+    void testLessonListsAreReadOnly() {
+        // Given
+        Timetable timetable = new Timetable();
+        Lesson lesson = new Lesson(Subject.MATH, mathTeacher, classroom1, new TimeSlot(0, 0), group1);
+        timetable.addLesson(lesson);
+
+        // Then
+        assertThrows(UnsupportedOperationException.class, () -> timetable.getLessons().add(lesson));
+        assertThrows(UnsupportedOperationException.class, () -> timetable.getLessonsFor(group1).add(lesson));
+        assertThrows(UnsupportedOperationException.class,
+            () -> timetable.getLessonsOnDayFor(group1, 0).add(lesson));
+    }
+
+    @Test
+    @DisplayName("Should reject group block hashes for a lesson of a group unknown to the catalog")
+    void testGroupBlockHashesUnknownGroup() {
+        // Given - the catalog knows group 1 only
+        ResourceCatalog catalog = new ResourceCatalog(List.of(group1), List.of(mathTeacher, physicsTeacher),
+            List.of(classroom1, classroom2), 5, 6, subject -> 1);
+        Timetable timetable = new Timetable(List.of(
+            new Lesson(Subject.MATH, mathTeacher, classroom1, new TimeSlot(0, 0), group1),
+            new Lesson(Subject.PHYSICS, physicsTeacher, classroom2, new TimeSlot(0, 1), group2)));
+
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> timetable.getGroupBlockHashes(catalog));
+
+        // Then
+        assertTrue(exception.getMessage().contains("position 1"));
+    }
+
+    @Test
+    @DisplayName("Should mark a lesson at every position holding it and drop the marks when lessons change")
+    void testConflictMask() {
+        // Given - the same lesson object at positions 0 and 2
+        Lesson shared = new Lesson(Subject.MATH, mathTeacher, classroom1, new TimeSlot(0, 0), group1);
+        Lesson other = new Lesson(Subject.PHYSICS, physicsTeacher, classroom2, new TimeSlot(0, 1), group1);
+        Timetable timetable = new Timetable(List.of(shared, other, shared));
+        ConflictMask mask = new ConflictMask(timetable);
+
+        // When
+        mask.mark(shared);
+        timetable.setConflictMask(mask.toBitSet());
+
+        // Then
+        assertArrayEquals(new int[]{0, 2}, timetable.getPositionsOf(shared));
+        assertTrue(timetable.hasConflictMask());
+        assertTrue(timetable.isConflicted(0));
+        assertFalse(timetable.isConflicted(1));
+        assertEquals(2, timetable.nextConflictedPosition(1));
+
+        // When
+        timetable.addLesson(other);
+
+        // Then
+        assertFalse(timetable.hasConflictMask());
+        assertFalse(timetable.isConflicted(0));
+        assertEquals(-1, timetable.nextConflictedPosition(0));
+    }
 }
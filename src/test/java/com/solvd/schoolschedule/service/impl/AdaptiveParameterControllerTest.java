@@ -0,0 +1,119 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the AdaptiveParameterController class.
+ */
+@DisplayName("AdaptiveParameterController Tests")
+class AdaptiveParameterControllerTest {
+
+    private IPopulationService populationService;
+    private List<Timetable> population;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        population = populationService.initializePopulation(20);
+        new FitnessServiceImpl(populationService).evaluatePopulation(population);
+    }
+
+    @Test
+    @DisplayName("Should raise selection pressure and lower mutation on a diverse population")
+    void testDiversePopulation() {
+        // Given - random timetables
+        AdaptiveParameterController controller = new AdaptiveParameterController(0.05, 5, 20);
+
+        // When
+        controller.update(population, population.get(0));
+
+        // Then
+        assertEquals(6, controller.getTournamentSize());
+        assertTrue(controller.getMutationRate() < 0.05);
+    }
+
+    @Test
+    @DisplayName("Should lower selection pressure and raise mutation on a converged population")
+    void testConvergedPopulation() {
+        // Given - twenty copies of the same timetable
+        Timetable best = population.get(0);
+        List<Timetable> converged = Collections.nCopies(20, best);
+        AdaptiveParameterController controller = new AdaptiveParameterController(0.05, 5, 20);
+
+        // When
+        controller.update(converged, best);
+
+        // Then
+        assertEquals(4, controller.getTournamentSize());
+        assertTrue(controller.getMutationRate() > 0.05);
+    }
+
+    @Test
+    @DisplayName("Should keep the parameters within their bounds")
+    void testBounds() {
+        // Given
+        Timetable best = population.get(0);
+        List<Timetable> converged = Collections.nCopies(20, best);
+        AdaptiveParameterController controller = new AdaptiveParameterController(0.05, 5, 20);
+
+        // When - many generations without improvement on a converged population
+        for (int i = 0; i < 500; i++) {
+            controller.update(converged, best);
+        }
+
+        // Then
+        assertEquals(2, controller.getTournamentSize());
+        assertEquals(0.1, controller.getMutationRate(), 1e-9);
+        assertEquals(40, controller.getPopulationSize());
+    }
+
+    @Test
+    @DisplayName("Should shrink the population while the best fitness improves")
+    void testShrinkWhileImproving() {
+        // Given
+        Timetable best = population.get(0);
+        AdaptiveParameterController controller = new AdaptiveParameterController(0.05, 5, 100);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            best.setFitness(1000 + i);
+            controller.update(population, best);
+        }
+
+        // Then
+        assertEquals(50, controller.getPopulationSize());
+    }
+
+    @Test
+    @DisplayName("Should grow the population after generations without improvement")
+    void testGrowWhenStuck() {
+        // Given
+        Timetable best = population.get(0);
+        AdaptiveParameterController controller = new AdaptiveParameterController(0.05, 5, 100);
+        controller.update(population, best);
+        int afterImprovement = controller.getPopulationSize();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            controller.update(population, best);
+        }
+
+        // Then
+        assertTrue(controller.getPopulationSize() > afterImprovement);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveParameterController(0, 5, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveParameterController(0.05, 5, 1));
+    }
+}
@@ -0,0 +1,135 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.util.SyntheticInstanceGenerator;
+
+/**
+ * Unit tests for the BacktrackingSolver class.
+ */
+@DisplayName("BacktrackingSolver Tests")
+class BacktrackingSolverTest {
+
+    @Test
+    @DisplayName("Should find a timetable meeting every hard rule")
+    void testSolvesStockSchool() {
+        // Given
+        TimetableEncoding encoding = new PopulationServiceImpl().getEncoding();
+        BacktrackingSolver solver = new BacktrackingSolver(encoding, 100_000);
+
+        // When
+        BacktrackingSolver.Result result = solver.solve(new SplittableRandom(1));
+
+        // Then
+        assertEquals(SolverStatus.SOLVED, result.getStatus());
+        assertHardRulesMet(encoding.decode(result.getGenes()), encoding);
+    }
+
+    @Test
+    @DisplayName("Should solve the tightest feasible school, where a teacher fills every slot")
+    void testSolvesTightSchool() {
+        // Given - six groups give the math teacher 30 lessons for 30 slots
+        TimetableEncoding encoding = new PopulationServiceImpl(6).getEncoding();
+        BacktrackingSolver solver = new BacktrackingSolver(encoding, 100_000);
+
+        // When
+        BacktrackingSolver.Result result = solver.solve(new SplittableRandom(2));
+
+        // Then
+        assertEquals(SolverStatus.SOLVED, result.getStatus());
+        assertHardRulesMet(encoding.decode(result.getGenes()), encoding);
+    }
+
+    @Test
+    @DisplayName("Should report an overloaded teacher as infeasible without searching")
+    void testReportsInfeasibleSchool() {
+        // Given - eight groups give the math teacher 40 lessons for 30 slots
+        TimetableEncoding encoding = new PopulationServiceImpl(8).getEncoding();
+        BacktrackingSolver solver = new BacktrackingSolver(encoding, 100_000);
+
+        // When
+        BacktrackingSolver.Result result = solver.solve(new SplittableRandom(3));
+
+        // Then
+        assertEquals(SolverStatus.INFEASIBLE, result.getStatus());
+        assertNull(result.getGenes());
+        assertEquals(0, result.getNodes());
+        assertTrue(result.getReason().contains("40 lessons for 30 slots"));
+    }
+
+    @Test
+    @DisplayName("Should give up with an unknown status at the node limit")
+    void testNodeLimit() {
+        // Given
+        BacktrackingSolver solver = new BacktrackingSolver(new PopulationServiceImpl().getEncoding(), 1);
+
+        // When
+        BacktrackingSolver.Result result = solver.solve(new SplittableRandom(4));
+
+        // Then
+        assertEquals(SolverStatus.UNKNOWN, result.getStatus());
+        assertNull(result.getGenes());
+    }
+
+    @Test
+    @DisplayName("Should search a large school within the node limit without a worst-case trail")
+    void testLargeSchool() {
+        // Given - about 8000 lessons, a trail sized for the worst case would need about a gigabyte
+        ProblemDefinition problem = new SyntheticInstanceGenerator(11).generate(300, 0.9);
+        BacktrackingSolver solver = new BacktrackingSolver(new PopulationServiceImpl(problem).getEncoding(), 1_000);
+
+        // When
+        BacktrackingSolver.Result result = solver.solve(new SplittableRandom(6));
+
+        // Then - every node assigns one lesson, so the search stops long before a solution
+        assertEquals(SolverStatus.UNKNOWN, result.getStatus(), result.getReason());
+        assertEquals(1_001, result.getNodes());
+    }
+
+    @Test
+    @DisplayName("Should give the same solution for the same random seed")
+    void testReproducible() {
+        // Given
+        BacktrackingSolver solver = new BacktrackingSolver(new PopulationServiceImpl().getEncoding(), 100_000);
+
+        // When
+        short[] first = solver.solve(new SplittableRandom(5)).getGenes();
+        short[] second = solver.solve(new SplittableRandom(5)).getGenes();
+
+        // Then
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Should reject a node limit below 1")
+    void testInvalidNodeLimit() {
+        TimetableEncoding encoding = new PopulationServiceImpl().getEncoding();
+        assertThrows(IllegalArgumentException.class, () -> new BacktrackingSolver(encoding, 0));
+    }
+
+    private static void assertHardRulesMet(Timetable timetable, TimetableEncoding encoding) {
+        Set<String> occupied = new HashSet<>();
+        Map<Group, Map<Subject, Integer>> lessonCounts = new HashMap<>();
+        for (Lesson lesson : timetable.getLessons()) {
+            TimeSlot slot = lesson.getTimeSlot();
+            String time = slot.getDay() + "/" + slot.getPeriod();
+            assertTrue(occupied.add("group " + lesson.getGroup().getName() + " " + time), "group collision");
+            assertTrue(occupied.add("teacher " + lesson.getTeacher().getName() + " " + time), "teacher collision");
+            assertTrue(occupied.add("room " + lesson.getClassroom().getName() + " " + time), "room collision");
+            assertTrue(lesson.getClassroom().canAccommodate(lesson.getSubject()));
+            lessonCounts.computeIfAbsent(lesson.getGroup(), group -> new EnumMap<>(Subject.class))
+                    .merge(lesson.getSubject(), 1, Integer::sum);
+        }
+        assertEquals(encoding.size(), timetable.getLessons().size());
+        for (Map<Subject, Integer> counts : lessonCounts.values()) {
+            for (Subject subject : Subject.values()) {
+                assertEquals(SubjectConfig.getWeeklyLessons(subject), counts.getOrDefault(subject, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.Timetable;
+
+/**
+ * Unit tests for the BestTimetableHolder class.
+ */
+@DisplayName("BestTimetableHolder Tests")
+class BestTimetableHolderTest {
+
+    @Test
+    @DisplayName("Should keep only better timetables")
+    void testOfferKeepsBest() {
+        // Given
+        BestTimetableHolder holder = new BestTimetableHolder(2000);
+
+        // When / Then
+        assertTrue(holder.offer(timetableWithFitness(1500)));
+        assertFalse(holder.offer(timetableWithFitness(1200)));
+        assertTrue(holder.offer(timetableWithFitness(1800)));
+        assertEquals(1800, holder.get().getFitness());
+        assertFalse(holder.isSolved());
+    }
+
+    @Test
+    @DisplayName("Should let only one caller claim the solution")
+    void testClaimSolution() {
+        // Given
+        BestTimetableHolder holder = new BestTimetableHolder(2000);
+        assertFalse(holder.claimSolution(), "Nothing to claim before the target is reached");
+
+        // When
+        holder.offer(timetableWithFitness(2000));
+
+        // Then
+        assertTrue(holder.isSolved());
+        assertTrue(holder.claimSolution());
+        assertFalse(holder.claimSolution());
+    }
+
+    @Test
+    @DisplayName("Concurrent offers should end with the best timetable")
+    void testConcurrentOffers() throws InterruptedException {
+        // Given
+        BestTimetableHolder holder = new BestTimetableHolder(2000);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 1000; i++) {
+                    holder.offer(timetableWithFitness(i * 8 + offset));
+                }
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(7999, holder.get().getFitness());
+    }
+
+    private Timetable timetableWithFitness(double fitness) {
+        Timetable timetable = new Timetable();
+        timetable.setFitness(fitness);
+        return timetable;
+    }
+}
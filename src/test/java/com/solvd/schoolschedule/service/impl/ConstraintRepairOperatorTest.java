@@ -0,0 +1,167 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+import com.solvd.schoolschedule.util.RunProfiler;
+
+/**
+ * Unit tests for the ConstraintRepairOperator class.
+ */
+@DisplayName("ConstraintRepairOperator Tests")
+class ConstraintRepairOperatorTest {
+
+    private IPopulationService populationService;
+    private FitnessServiceImpl fitnessService;
+    private FusedConflictEvaluator conflictEvaluator;
+    private ConstraintRepairOperator repairOperator;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        fitnessService = new FitnessServiceImpl(populationService);
+        conflictEvaluator = new FusedConflictEvaluator(populationService);
+        repairOperator = new ConstraintRepairOperator(populationService, fitnessService.getConflictWeights());
+    }
+
+    @Test
+    @DisplayName("Should give lessons the teacher of their subject and a suitable classroom")
+    void testReassignsTeacherAndClassroom() {
+        // Given - Informatics taught by the Math teacher in a general room
+        Group group = populationService.getGroups().get(0);
+        Teacher mathTeacher = populationService.getTeachers().get(0);
+        Classroom generalRoom = populationService.getClassrooms().get(0);
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.INFORMATICS, mathTeacher, generalRoom, new TimeSlot(0, 0), group));
+
+        // When
+        Timetable repaired = repairOperator.repair(timetable);
+
+        // Then
+        int[] counts = conflictEvaluator.countConflicts(repaired);
+        assertEquals(0, counts[ConflictType.INVALID_ASSIGMENTS.ordinal()]);
+        assertEquals(0, counts[ConflictType.ROOM_ACCOMODATE.ordinal()]);
+        assertTrue(repairOperator.getReassignedLessons() > 0);
+    }
+
+    @Test
+    @DisplayName("Should add missing and drop surplus lessons of every group")
+    void testAdjustsLessonCounts() {
+        // Given - one group has one Math lesson too many, every other lesson is missing
+        Group group = populationService.getGroups().get(0);
+        Teacher mathTeacher = populationService.getTeachers().get(0);
+        Classroom room = populationService.getClassrooms().get(0);
+        Timetable timetable = new Timetable();
+        for (int i = 0; i <= SubjectConfig.getWeeklyLessons(Subject.MATH); i++) {
+            timetable.addLesson(new Lesson(Subject.MATH, mathTeacher, room, new TimeSlot(i % 5, i / 5), group));
+        }
+
+        // When
+        Timetable repaired = repairOperator.repair(timetable);
+
+        // Then
+        assertEquals(0, conflictEvaluator.countConflicts(repaired)[ConflictType.ADJUSTMENT.ordinal()]);
+        assertEquals(populationService.getGroups().size() * SubjectConfig.getTotalWeeklyLessons(),
+            repaired.getLessons().size());
+    }
+
+    @Test
+    @DisplayName("Should move a colliding lesson to a free slot")
+    void testResolvesCollision() {
+        // Given - two lessons of the same group in the same slot
+        Group group = populationService.getGroups().get(0);
+        Teacher mathTeacher = populationService.getTeachers().get(0);
+        Teacher physicsTeacher = populationService.getTeachers().get(1);
+        Classroom room = populationService.getClassrooms().get(0);
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.MATH, mathTeacher, room, new TimeSlot(0, 0), group));
+        timetable.addLesson(new Lesson(Subject.PHYSICS, physicsTeacher, room, new TimeSlot(0, 0), group));
+
+        // When
+        Timetable repaired = repairOperator.repair(timetable);
+
+        // Then
+        int[] counts = conflictEvaluator.countConflicts(repaired);
+        assertEquals(0, counts[ConflictType.GROUP_COLLISIONS.ordinal()]);
+        assertEquals(0, counts[ConflictType.ROOM_CONFLICTS.ordinal()]);
+        assertTrue(repairOperator.getMovedLessons() > 0);
+    }
+
+    @Test
+    @DisplayName("Should never lower the fitness of generated timetables")
+    void testNeverLowersFitness() {
+        for (Timetable timetable : populationService.initializePopulation(30)) {
+            // Given
+            double before = fitnessService.calculateFitness(timetable);
+
+            // When
+            Timetable repaired = repairOperator.repair(timetable);
+
+            // Then
+            assertTrue(fitnessService.calculateFitness(repaired) >= before);
+            assertEquals(timetable.getLessons().size(), repaired.getLessons().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same result for the same timetable")
+    void testDeterministic() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+
+        // When
+        List<Lesson> first = repairOperator.repair(timetable).getLessons();
+        List<Lesson> second = repairOperator.repair(timetable).getLessons();
+
+        // Then
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).toString(), second.get(i).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the timetable itself when there is nothing to repair")
+    void testNothingToRepair() {
+        // Given - a timetable repaired until no move improves it, every move raises the fitness
+        Timetable repaired = populationService.initializePopulation(1).get(0);
+        for (Timetable previous = null; previous != repaired; ) {
+            previous = repaired;
+            repaired = repairOperator.repair(repaired);
+        }
+        long repairedTimetables = repairOperator.getRepairedTimetables();
+
+        // When
+        Timetable again = repairOperator.repair(repaired);
+
+        // Then
+        assertSame(repaired, again);
+        assertEquals(repairedTimetables, repairOperator.getRepairedTimetables());
+    }
+
+    @Test
+    @DisplayName("Should repair every offspring and record the repair phase")
+    void testRepairInGeneticOperator() {
+        // Given
+        RunProfiler profiler = new RunProfiler();
+        GeneticOperatorServiceImpl geneticOperatorService = GeneticOperatorServiceImpl.builder(populationService, 0.05)
+            .profiler(profiler).repairOperator(repairOperator).build();
+        List<Timetable> population = populationService.initializePopulation(10);
+        fitnessService.evaluatePopulation(population);
+
+        // When
+        List<Timetable> newGeneration = geneticOperatorService.createNewGeneration(population,
+            new SelectionServiceImpl(3), new SplittableRandom(11));
+
+        // Then
+        assertEquals(10, newGeneration.size());
+        assertEquals(9, profiler.getCalls(ProfilePhase.REPAIR));
+        assertTrue(repairOperator.getRepairedTimetables() > 0);
+    }
+}
@@ -0,0 +1,189 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the DeltaFitnessEvaluator class.
+ * Checks that incremental updates give the same fitness as a full evaluation.
+ */
+@DisplayName("DeltaFitnessEvaluator Tests")
+class DeltaFitnessEvaluatorTest {
+
+    private IPopulationService populationService;
+    private FitnessServiceImpl referenceService;
+    private DeltaFitnessEvaluator deltaEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        referenceService = new FitnessServiceImpl(populationService);
+        deltaEvaluator = new DeltaFitnessEvaluator(populationService, referenceService.getConflictWeights());
+    }
+
+    @Test
+    @DisplayName("Full evaluation should match the conflict strategies")
+    void testEvaluateMatchesStrategies() {
+        for (Timetable timetable : populationService.initializePopulation(20)) {
+            assertEquals(referenceService.calculateFitness(timetable),
+                deltaEvaluator.evaluate(timetable).getFitness());
+        }
+    }
+
+    @Test
+    @DisplayName("Replacing lessons one by one should keep the fitness exact")
+    void testReplaceMatchesFullEvaluation() {
+        // Given
+        Random random = new Random(7);
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        DeltaFitnessEvaluator.State state = deltaEvaluator.evaluate(timetable);
+        List<Lesson> lessons = new ArrayList<>(timetable.getLessons());
+
+        for (int i = 0; i < 300; i++) {
+            // When - move a random lesson to a random slot and classroom
+            int position = random.nextInt(lessons.size());
+            Lesson lesson = lessons.get(position);
+            List<Classroom> classrooms = populationService.getClassrooms();
+            Lesson moved = new Lesson(lesson.getSubject(), lesson.getTeacher(),
+                classrooms.get(random.nextInt(classrooms.size())),
+                new TimeSlot(random.nextInt(SchoolConfig.WORKING_DAYS_PER_WEEK),
+                    random.nextInt(SchoolConfig.MAX_PERIODS_PER_DAY)),
+                lesson.getGroup());
+            lessons.set(position, moved);
+            double fitness = state.replace(position, moved);
+
+            // Then
+            Timetable expected = new Timetable(lessons);
+            assertEquals(referenceService.calculateFitness(expected), fitness, "Mismatch after move " + i);
+            for (ConflictType conflictType : ConflictType.values()) {
+                assertEquals(deltaEvaluator.evaluate(expected).getConflicts(conflictType),
+                    state.getConflicts(conflictType));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Offspring state derived from the parent should match a full evaluation")
+    void testDerivedOffspringState() {
+        // Given
+        GeneticOperatorServiceImpl operators =
+            GeneticOperatorServiceImpl.builder(populationService, 0.2).deltaEvaluator(deltaEvaluator).build();
+        List<Timetable> population = populationService.initializePopulation(30);
+        for (Timetable timetable : population) {
+            timetable.setFitness(deltaEvaluator.getState(timetable).getFitness());
+        }
+
+        // When
+        List<Timetable> offspring = operators.createNewGeneration(population, new SelectionServiceImpl(3));
+
+        // Then
+        for (Timetable timetable : offspring) {
+            assertEquals(referenceService.calculateFitness(timetable),
+                deltaEvaluator.getState(timetable).getFitness());
+        }
+    }
+
+    @Test
+    @DisplayName("Offspring sharing rows with their parent should leave the parent state unchanged")
+    void testDerivedStatesShareRows() {
+        // Given
+        GeneticOperatorServiceImpl operators = GeneticOperatorServiceImpl.builder(populationService, 0.3).build();
+        List<Timetable> parents = populationService.initializePopulation(2);
+        Timetable parent = parents.get(0);
+        double parentFitness = deltaEvaluator.getState(parent).getFitness();
+
+        for (int i = 0; i < 20; i++) {
+            // When - derive offspring from the same parent, and from the offspring
+            Timetable child = operators.mutate(operators.crossover(parent, parents.get(1)));
+            Timetable grandchild = operators.mutate(child);
+            deltaEvaluator.deriveState(parent, child);
+            deltaEvaluator.deriveState(child, grandchild);
+
+            // Then
+            assertEquals(referenceService.calculateFitness(child), deltaEvaluator.getState(child).getFitness());
+            assertEquals(referenceService.calculateFitness(grandchild),
+                deltaEvaluator.getState(grandchild).getFitness());
+            assertEquals(parentFitness, deltaEvaluator.getState(parent).getFitness());
+        }
+    }
+
+    @Test
+    @DisplayName("Offspring state derived at the given changed positions should match a full evaluation")
+    void testDerivedStateAtChangedPositions() {
+        // Given
+        Random random = new Random(11);
+        Timetable parent = populationService.initializePopulation(1).get(0);
+        double parentFitness = deltaEvaluator.getState(parent).getFitness();
+        List<Lesson> lessons = new ArrayList<>(parent.getLessons());
+        List<Classroom> classrooms = populationService.getClassrooms();
+        BitSet changed = new BitSet();
+        for (int i = 0; i < 10; i++) {
+            int position = random.nextInt(lessons.size());
+            Lesson lesson = lessons.get(position);
+            lessons.set(position, new Lesson(lesson.getSubject(), lesson.getTeacher(),
+                classrooms.get(random.nextInt(classrooms.size())),
+                new TimeSlot(random.nextInt(SchoolConfig.WORKING_DAYS_PER_WEEK),
+                    random.nextInt(SchoolConfig.MAX_PERIODS_PER_DAY)),
+                lesson.getGroup()));
+            changed.set(position);
+        }
+        // An unchanged position may be reported too
+        changed.set(0);
+        Timetable offspring = new Timetable(lessons);
+
+        // When
+        deltaEvaluator.deriveState(parent, offspring, changed);
+
+        // Then
+        assertTrue(deltaEvaluator.hasState(offspring));
+        assertEquals(referenceService.calculateFitness(offspring), deltaEvaluator.getState(offspring).getFitness());
+        assertEquals(parentFitness, deltaEvaluator.getState(parent).getFitness());
+        BitSet outside = new BitSet();
+        outside.set(lessons.size());
+        assertThrows(IllegalArgumentException.class,
+            () -> deltaEvaluator.deriveState(parent, new Timetable(lessons), outside));
+    }
+
+    @Test
+    @DisplayName("Incremental fitness service should give the same fitness as the strategies")
+    void testIncrementalFitnessService() {
+        // Given
+        FitnessServiceImpl incremental = new FitnessServiceImpl(populationService, 1, EvaluationMode.INCREMENTAL);
+        GeneticOperatorServiceImpl operators =
+            GeneticOperatorServiceImpl.builder(populationService, 0.05)
+                .deltaEvaluator(incremental.getDeltaEvaluator()).build();
+        List<Timetable> population = populationService.initializePopulation(20);
+
+        // When
+        for (int generation = 0; generation < 5; generation++) {
+            incremental.evaluatePopulation(population);
+            for (Timetable timetable : population) {
+                assertEquals(referenceService.calculateFitness(timetable), timetable.getFitness());
+            }
+            population = operators.createNewGeneration(population, new SelectionServiceImpl(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject classrooms unknown to the population service")
+    void testUnknownClassroom() {
+        // Given
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.MATH, populationService.getTeachers().get(0),
+            new Classroom(42, "Room 420", Set.of(Subject.MATH)), new TimeSlot(0, 0),
+            populationService.getGroups().get(0)));
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> deltaEvaluator.evaluate(timetable));
+    }
+}
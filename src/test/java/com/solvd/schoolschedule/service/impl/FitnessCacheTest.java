@@ -0,0 +1,256 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the FitnessCache class and the cached population evaluation.
+ */
+@DisplayName("FitnessCache Tests")
+class FitnessCacheTest {
+
+    private IPopulationService populationService;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses")
+    void testHitAndMissCounters() {
+        // Given
+        FitnessCache cache = new FitnessCache(4);
+
+        // When
+        assertNull(cache.get(1L));
+        cache.put(1L, 1500.0);
+        Double cached = cache.get(1L);
+
+        // Then
+        assertEquals(1500.0, cached);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    @DisplayName("Should evict an entry not looked up since the clock hand passed it")
+    void testClockEviction() {
+        // Given
+        FitnessCache cache = new FitnessCache(2);
+        cache.put(1L, 1.0);
+        cache.put(2L, 2.0);
+
+        // When - touch 1, then add a third entry
+        cache.get(1L);
+        cache.put(3L, 3.0);
+
+        // Then
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+    }
+
+    @Test
+    @DisplayName("Lookups and inserts from several threads should keep the cache bounded and consistent")
+    void testConcurrentAccess() throws InterruptedException {
+        // Given
+        FitnessCache cache = new FitnessCache(64);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t * 50;
+            threads[t] = new Thread(() -> {
+                for (long key = offset; key < offset + 200; key++) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            });
+        }
+
+        // When
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then - every surviving entry holds its own fitness
+        assertEquals(800, cache.getHits() + cache.getMisses());
+        assertTrue(cache.size() <= 64, "Size: " + cache.size());
+        for (long key = 0; key < 350; key++) {
+            Double fitness = cache.get(key);
+            assertTrue(fitness == null || fitness == key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive capacity")
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new FitnessCache(0));
+    }
+
+    @Test
+    @DisplayName("Genome hash should depend only on the lessons and their positions")
+    void testGenomeHash() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        Timetable copy = timetable.copy();
+        List<Lesson> lessons = new ArrayList<>(timetable.getLessons());
+        Collections.swap(lessons, 0, lessons.size() - 1);
+
+        // Then
+        assertEquals(timetable.getGenomeHash(), copy.getGenomeHash());
+        assertNotEquals(timetable.getGenomeHash(), new Timetable(lessons).getGenomeHash());
+    }
+
+    @Test
+    @DisplayName("Mutation should update the genome hash incrementally")
+    void testIncrementalHashAfterMutation() {
+        // Given
+        GeneticOperatorServiceImpl operators = new GeneticOperatorServiceImpl(populationService, 0.2);
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        EncodedTimetable encoded = populationService.initializeEncodedPopulation(1).get(0);
+
+        // When
+        Timetable mutated = operators.mutate(timetable);
+        EncodedTimetable mutatedEncoded = operators.mutate(encoded);
+
+        // Then - the maintained hash equals a hash computed from scratch
+        assertEquals(new Timetable(mutated.getLessons()).getGenomeHash(), mutated.getGenomeHash());
+        assertEquals(new EncodedTimetable(encoded.getEncoding(), mutatedEncoded.getGenes().clone()).getGenomeHash(),
+            mutatedEncoded.getGenomeHash());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @DisplayName("Crossover offspring should carry the genome hash of their parents' group blocks")
+    void testCrossoverHash(boolean genomeHashing) {
+        // Given
+        GeneticOperatorServiceImpl operators = GeneticOperatorServiceImpl.builder(populationService, 0.05)
+            .genomeHashing(genomeHashing)
+            .build();
+        List<Timetable> parents = populationService.initializePopulation(2);
+        List<EncodedTimetable> encodedParents = populationService.initializeEncodedPopulation(2);
+
+        for (int i = 0; i < 10; i++) {
+            // When
+            Timetable offspring = operators.mutate(operators.crossover(parents.get(0), parents.get(1)));
+            EncodedTimetable encodedOffspring = operators.mutate(
+                operators.crossover(encodedParents.get(0), encodedParents.get(1)));
+
+            // Then - the hashes equal hashes computed from scratch
+            Timetable scratch = new Timetable(offspring.getLessons());
+            assertEquals(scratch.getGenomeHash(), offspring.getGenomeHash());
+            assertArrayEquals(scratch.getGroupBlockHashes(populationService.getCatalog()),
+                offspring.getGroupBlockHashes(populationService.getCatalog()));
+            assertEquals(new EncodedTimetable(encodedOffspring.getEncoding(), encodedOffspring.getGenes().clone())
+                .getGenomeHash(), encodedOffspring.getGenomeHash());
+            parents.set(i % 2, offspring);
+            encodedParents.set(i % 2, encodedOffspring);
+        }
+    }
+
+    @Test
+    @DisplayName("Lessons outside group blocks should have no block hashes")
+    void testScatteredGroupBlocks() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        List<Lesson> lessons = new ArrayList<>(timetable.getLessons());
+        Collections.swap(lessons, 0, lessons.size() - 1);
+
+        // Then
+        assertNotNull(timetable.getGroupBlockHashes(populationService.getCatalog()));
+        assertNull(new Timetable(lessons).getGroupBlockHashes(populationService.getCatalog()));
+    }
+
+    @Test
+    @DisplayName("Cached evaluation should give the same fitness and hit on repeated individuals")
+    void testCachedEvaluation() {
+        // Given
+        FitnessServiceImpl reference = new FitnessServiceImpl(populationService);
+        FitnessServiceImpl cached = new FitnessServiceImpl(populationService, 2, EvaluationMode.FUSED, 64);
+        List<Timetable> population = populationService.initializePopulation(20);
+
+        // When - evaluate twice
+        cached.evaluatePopulation(population);
+        cached.evaluatePopulation(population);
+
+        // Then
+        for (Timetable timetable : population) {
+            assertEquals(reference.calculateFitness(timetable), timetable.getFitness());
+        }
+        assertEquals(20, cached.getFitnessCache().getMisses());
+        assertEquals(20, cached.getFitnessCache().getHits());
+    }
+
+    @Test
+    @DisplayName("A cache hit should publish the conflict mask of the cached evaluation")
+    void testCacheHitPublishesConflictMask() {
+        // Given
+        FitnessServiceImpl cached = new FitnessServiceImpl(populationService, 1, EvaluationMode.STRATEGIES, 64);
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        cached.evaluatePopulation(List.of(timetable));
+
+        // When
+        Timetable copy = timetable.copy();
+        cached.evaluatePopulation(List.of(copy));
+
+        // Then
+        assertEquals(1, cached.getFitnessCache().getHits());
+        assertTrue(copy.hasConflictMask());
+        assertEquals(timetable.getConflictMask(), copy.getConflictMask());
+        assertTrue(copy.nextConflictedPosition(0) >= 0);
+    }
+
+    @Test
+    @DisplayName("Marking should give a timetable scored incrementally the mask of a full evaluation")
+    void testMarkConflicts() {
+        // Given
+        FitnessServiceImpl incremental = new FitnessServiceImpl(populationService, 1, EvaluationMode.INCREMENTAL, 64);
+        FitnessServiceImpl reference = new FitnessServiceImpl(populationService);
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        incremental.evaluatePopulation(List.of(timetable));
+        Timetable expected = timetable.copy();
+        reference.calculateFitness(expected);
+
+        // When
+        boolean maskedBefore = timetable.hasConflictMask();
+        incremental.markConflicts(timetable);
+
+        // Then
+        assertFalse(maskedBefore);
+        assertEquals(expected.getConflictMask(), timetable.getConflictMask());
+    }
+
+    @Test
+    @DisplayName("Cached encoded evaluation should hit on repeated individuals")
+    void testCachedEncodedEvaluation() {
+        // Given
+        FitnessServiceImpl cached = new FitnessServiceImpl(populationService, 1, EvaluationMode.FUSED, 64);
+        List<EncodedTimetable> population = populationService.initializeEncodedPopulation(10);
+        cached.evaluateEncodedPopulation(population);
+        double expected = population.get(0).getFitness();
+
+        // When
+        EncodedTimetable copy = population.get(0).copy();
+        cached.evaluateEncodedPopulation(List.of(copy));
+
+        // Then
+        assertEquals(expected, copy.getFitness());
+        assertEquals(1, cached.getFitnessCache().getHits());
+    }
+}
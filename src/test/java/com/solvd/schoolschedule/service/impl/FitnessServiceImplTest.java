@@ -2,9 +2,16 @@ package com.solvd.schoolschedule.service.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.*;
 
 import com.solvd.schoolschedule.model.*;
@@ -294,4 +301,153 @@ class FitnessServiceImplTest {
         assertEquals(fitness1, fitness2, 0.001);
         assertEquals(fitness2, fitness3, 0.001);
     }
+
+    @Test
+    @DisplayName("Parallel evaluation should give the same scores as sequential evaluation")
+    void testParallelEvaluationMatchesSequential() {
+        // Given
+        FitnessServiceImpl parallelService = new FitnessServiceImpl(populationService, 4);
+        List<Timetable> population = populationService.initializePopulation(50);
+        double[] expected = population.stream()
+            .mapToDouble(fitnessService::calculateFitness)
+            .toArray();
+
+        // When
+        parallelService.evaluatePopulation(population);
+
+        // Then
+        for (int i = 0; i < population.size(); i++) {
+            assertEquals(expected[i], population.get(i).getFitness(),
+                "Timetable " + i + " should have the same fitness in parallel mode");
+        }
+    }
+
+    @Test
+    @DisplayName("Strategies and fused evaluation should agree on a longer day with several teachers per subject")
+    void testLongerDayMatchesFused() {
+        // Given
+        ProblemDefinition problem = new ProblemDefinition(5, 8, 12, 20,
+                Map.of(Subject.MATH, 3, Subject.PHYSICS, 2), 4, 2, 2);
+        PopulationServiceImpl district = new PopulationServiceImpl(problem);
+        FitnessServiceImpl strategies = new FitnessServiceImpl(district, 1, EvaluationMode.STRATEGIES, 0);
+        FitnessServiceImpl fused = new FitnessServiceImpl(district, 1, EvaluationMode.FUSED, 0);
+
+        // When
+        List<Timetable> population = district.initializePopulation(20);
+
+        // Then
+        for (Timetable timetable : population) {
+            assertEquals(strategies.calculateFitness(timetable), fused.calculateFitness(timetable));
+        }
+    }
+
+    @Test
+    @DisplayName("Closing should shut down the evaluation threads of a parallel service only")
+    void testClose() {
+        // Given
+        FitnessServiceImpl parallelService = new FitnessServiceImpl(populationService, 4);
+        List<Timetable> population = populationService.initializePopulation(50);
+
+        // When
+        parallelService.close();
+        fitnessService.close();
+
+        // Then
+        assertThrows(RejectedExecutionException.class, () -> parallelService.evaluatePopulation(population));
+        fitnessService.evaluatePopulation(population);
+        assertEquals(fitnessService.calculateFitness(population.get(0).copy()), population.get(0).getFitness());
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive parallelism")
+    void testInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new FitnessServiceImpl(populationService, 0));
+    }
+
+    @Test
+    @DisplayName("Encoded timetables should score like their decoded timetable")
+    void testEncodedFitnessMatchesDecoded() {
+        // Given
+        FitnessServiceImpl parallelService = new FitnessServiceImpl(populationService, 4);
+        List<EncodedTimetable> population = populationService.initializeEncodedPopulation(30);
+
+        // When
+        parallelService.evaluateEncodedPopulation(population);
+
+        // Then
+        for (EncodedTimetable encoded : population) {
+            assertEquals(fitnessService.calculateFitness(encoded.decode()), encoded.getFitness());
+        }
+    }
+
+    @Test
+    @DisplayName("Should emit a JFR event per population evaluation")
+    void testPopulationEvaluationEvent() throws Exception {
+        // Given
+        List<Timetable> population = populationService.initializePopulation(20);
+        Path dump = Files.createTempFile("evaluation", ".jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable("com.solvd.schoolschedule.PopulationEvaluation").withoutThreshold();
+            recording.enable("com.solvd.schoolschedule.ConflictStrategy").withoutThreshold();
+            recording.start();
+            fitnessService.evaluatePopulation(population);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            List<RecordedEvent> evaluations = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.solvd.schoolschedule.PopulationEvaluation"))
+                .toList();
+            assertEquals(1, evaluations.size());
+            assertEquals(20, evaluations.get(0).getInt("populationSize"));
+            assertEquals("STRATEGIES", evaluations.get(0).getString("evaluationMode"));
+            events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.solvd.schoolschedule.ConflictStrategy"))
+                .forEach(e -> assertEquals(population.get(0).getLessons().size(), e.getInt("lessonCount")));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    @DisplayName("Should emit sampled per-type conflict events from the fused evaluation")
+    void testFusedConflictEvents() throws Exception {
+        // Given
+        FitnessServiceImpl fusedService = new FitnessServiceImpl(populationService, 1, EvaluationMode.FUSED);
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        int[] expected = new FusedConflictEvaluator(populationService).countConflicts(timetable);
+        Path dump = Files.createTempFile("fused", ".jfr");
+
+        // When - enough evaluations for one in 100 to be sampled almost surely
+        try (Recording recording = new Recording()) {
+            recording.enable("com.solvd.schoolschedule.ConflictStrategy").withoutThreshold();
+            recording.start();
+            for (int i = 0; i < 2000; i++) {
+                fusedService.calculateFitness(timetable);
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then - every sampled pass records all the conflict types
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().equals("com.solvd.schoolschedule.ConflictStrategy"))
+                .toList();
+            assertFalse(events.isEmpty());
+            assertEquals(0, events.size() % ConflictType.values().length);
+            for (RecordedEvent event : events) {
+                assertTrue(event.getBoolean("fused"));
+                ConflictType conflictType = ConflictType.valueOf(event.getString("conflictType"));
+                assertEquals(expected[conflictType.ordinal()], event.getInt("conflicts"));
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
 }
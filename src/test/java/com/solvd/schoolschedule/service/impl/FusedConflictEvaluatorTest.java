@@ -0,0 +1,184 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IConflictStrategy;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the FusedConflictEvaluator class.
+ * Checks that the single sweep matches the reference conflict strategies.
+ */
+@DisplayName("FusedConflictEvaluator Tests")
+class FusedConflictEvaluatorTest {
+
+    private IPopulationService populationService;
+    private FusedConflictEvaluator evaluator;
+    private Map<IConflictStrategy, Integer> strategies;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        evaluator = new FusedConflictEvaluator(populationService);
+        strategies = new FitnessServiceImpl(populationService).createConflictStrategies();
+    }
+
+    @Test
+    @DisplayName("Should match every strategy on random timetables")
+    void testMatchesStrategiesOnRandomTimetables() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            // Given - the same lessons twice, one timetable per evaluator
+            List<Lesson> lessons = randomLessons(random, 20 + random.nextInt(60));
+            Timetable reference = new Timetable(copyOf(lessons));
+            Timetable fused = new Timetable(copyOf(lessons));
+            ConflictMask referenceMask = new ConflictMask(reference);
+
+            // When
+            int[] counts = evaluator.countConflicts(fused);
+
+            // Then
+            for (IConflictStrategy strategy : strategies.keySet()) {
+                assertEquals(strategy.calculateConflicts(reference, referenceMask),
+                    counts[strategy.getConflictType().ordinal()],
+                    strategy.getConflictType().getDisplayName() + " count differs on timetable " + i);
+            }
+            for (int j = 0; j < lessons.size(); j++) {
+                assertEquals(referenceMask.isMarked(j), fused.isConflicted(j),
+                    "Conflict mark differs for lesson " + j + " of timetable " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the conflict marks of timetables sharing lessons apart")
+    void testSharedLessonsKeepSeparateMarks() {
+        // Given - the math lesson collides with its group in the first timetable only
+        Group group = populationService.getGroups().get(0);
+        Teacher math = populationService.getTeachers().get(0);
+        Teacher physics = populationService.getTeachers().get(1);
+        Classroom classroom = populationService.getClassrooms().stream()
+            .filter(room -> room.canAccommodate(Subject.MATH) && room.canAccommodate(Subject.PHYSICS))
+            .findFirst().orElseThrow();
+        Lesson shared = new Lesson(Subject.MATH, math, classroom, new TimeSlot(0, 0), group);
+        Lesson colliding = new Lesson(Subject.PHYSICS, physics, classroom, new TimeSlot(0, 0), group);
+        Timetable conflicted = new Timetable(List.of(shared, colliding));
+        Timetable clean = new Timetable(List.of(shared));
+
+        // When
+        evaluator.countConflicts(conflicted);
+        evaluator.countConflicts(clean);
+
+        // Then
+        assertTrue(conflicted.isConflicted(0));
+        assertTrue(conflicted.isConflicted(1));
+        assertFalse(clean.isConflicted(0));
+        assertEquals(-1, clean.nextConflictedPosition(0));
+    }
+
+    @Test
+    @DisplayName("Should match the strategies on generated populations")
+    void testMatchesStrategiesOnPopulation() {
+        for (Timetable timetable : populationService.initializePopulation(20)) {
+            int[] counts = evaluator.countConflicts(timetable);
+
+            for (IConflictStrategy strategy : strategies.keySet()) {
+                assertEquals(strategy.calculateConflicts(timetable), counts[strategy.getConflictType().ordinal()]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should count repeated Physical Culture periods like the LastLesson strategy")
+    void testLastLessonWithRepeatedPeriods() {
+        // Given - two Physical Culture lessons in the same period, followed by Math
+        Group group = populationService.getGroups().get(0);
+        Teacher peTeacher = populationService.getTeachers().get(3);
+        Teacher mathTeacher = populationService.getTeachers().get(0);
+        Classroom room = populationService.getClassrooms().get(0);
+        Timetable timetable = new Timetable();
+        timetable.addLesson(new Lesson(Subject.PHYSICAL_CULTURE, peTeacher, room, new TimeSlot(0, 1), group));
+        timetable.addLesson(new Lesson(Subject.PHYSICAL_CULTURE, peTeacher, room, new TimeSlot(0, 1), group));
+        timetable.addLesson(new Lesson(Subject.MATH, mathTeacher, room, new TimeSlot(0, 4), group));
+
+        // When
+        int[] counts = evaluator.countConflicts(timetable);
+
+        // Then
+        int expected = strategies.keySet().stream()
+            .filter(s -> s.getConflictType() == ConflictType.LAST_LESSON)
+            .findFirst().orElseThrow()
+            .calculateConflicts(timetable);
+        assertEquals(expected, counts[ConflictType.LAST_LESSON.ordinal()]);
+    }
+
+    @Test
+    @DisplayName("Should return one conflict entry per conflict type")
+    void testEvaluateReturnsAllTypes() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+
+        // When
+        List<Conflict> conflicts = evaluator.evaluate(timetable);
+
+        // Then
+        assertEquals(ConflictType.values().length, conflicts.size());
+        for (int i = 0; i < conflicts.size(); i++) {
+            assertEquals(ConflictType.values()[i], conflicts.get(i).getConflictType());
+        }
+    }
+
+    @Test
+    @DisplayName("Fused fitness service should give the same fitness as the strategies")
+    void testFusedFitnessServiceMatches() {
+        // Given
+        FitnessServiceImpl reference = new FitnessServiceImpl(populationService);
+        FitnessServiceImpl fused = new FitnessServiceImpl(populationService, 1, EvaluationMode.FUSED);
+
+        // Then
+        for (Timetable timetable : populationService.initializePopulation(20)) {
+            assertEquals(reference.calculateFitness(timetable), fused.calculateFitness(timetable));
+        }
+    }
+
+    /**
+     * Helper method to create lessons with frequent collisions, wrong rooms,
+     * wrong teachers and lessons of groups unknown to the population service
+     */
+    private List<Lesson> randomLessons(Random random, int size) {
+        List<Teacher> teachers = populationService.getTeachers();
+        List<Classroom> classrooms = new ArrayList<>(populationService.getClassrooms());
+        classrooms.add(new Classroom(99, "Room 999", Set.of(Subject.MATH)));
+        List<Group> groups = new ArrayList<>(populationService.getGroups());
+        groups.add(new Group(99, "Group 99"));
+
+        List<Lesson> lessons = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Subject subject = Subject.values()[random.nextInt(Subject.values().length)];
+            Teacher teacher = random.nextInt(10) == 0
+                ? teachers.get(random.nextInt(teachers.size()))
+                : teachers.get(subject.ordinal());
+            Classroom classroom = classrooms.get(random.nextInt(classrooms.size()));
+            TimeSlot timeSlot = new TimeSlot(random.nextInt(SchoolConfig.WORKING_DAYS_PER_WEEK),
+                random.nextInt(SchoolConfig.MAX_PERIODS_PER_DAY));
+            Group group = groups.get(random.nextInt(groups.size()));
+            lessons.add(new Lesson(subject, teacher, classroom, timeSlot, group));
+        }
+        return lessons;
+    }
+
+    private List<Lesson> copyOf(List<Lesson> lessons) {
+        return lessons.stream()
+            .map(l -> new Lesson(l.getSubject(), l.getTeacher(), l.getClassroom(), l.getTimeSlot(), l.getGroup()))
+            .toList();
+    }
+}
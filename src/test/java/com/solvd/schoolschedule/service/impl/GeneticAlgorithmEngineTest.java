@@ -0,0 +1,457 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.solvd.schoolschedule.dao.interfaces.ITimetableDAO;
+import com.solvd.schoolschedule.model.GeneticAlgorithmSettings;
+import com.solvd.schoolschedule.model.ProblemDefinition;
+import com.solvd.schoolschedule.model.ProfilePhase;
+import com.solvd.schoolschedule.model.SchoolConfig;
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.interfaces.IDisplayService;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+import com.solvd.schoolschedule.util.SyntheticInstanceGenerator;
+
+/**
+ * Unit tests for the GeneticAlgorithmEngine class.
+ * Tests the features of the shared attempt loop, through findSolution where they concern every attempt.
+ */
+@DisplayName("GeneticAlgorithmEngine Tests")
+class GeneticAlgorithmEngineTest {
+
+    /**
+     * A school the genetic algorithm cannot solve in a few generations
+     */
+    private static final ProblemDefinition TIGHT_PROBLEM = new SyntheticInstanceGenerator(5).generate(4, 0.9);
+
+    @Test
+    @DisplayName("Concurrent attempts of findSolution should restart stagnating populations")
+    void testConcurrentAttemptsRestart() {
+        // Given
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(20)
+                .attemptConcurrency(2)
+                .exactPresolve(false)
+                .stagnationWindow(1)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(TIGHT_PROBLEM, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        generator.findSolution(2);
+
+        // Then
+        assertTrue(display.contains("ATTEMPT #1: stagnation"), "Attempt 1 should have restarted");
+        assertTrue(display.contains("ATTEMPT #2: stagnation"), "Attempt 2 should have restarted");
+    }
+
+    @Test
+    @DisplayName("Sequential attempts of findSolution should display one header per attempt")
+    void testSequentialAttemptHeaders() {
+        // Given
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(2)
+                .exactPresolve(false)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(TIGHT_PROBLEM, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        generator.findSolution(2);
+
+        // Then
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            String prefix = "ATTEMPT #" + attempt;
+            assertEquals(List.of(prefix + " started"), display.getMessages().stream()
+                    .filter(message -> message.equals(prefix + " started") || message.equals(prefix + ":"))
+                    .toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Every concurrent attempt should display its own profile report")
+    void testConcurrentAttemptsReportProfile() {
+        // Given
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(5)
+                .attemptConcurrency(2)
+                .exactPresolve(false)
+                .profiling(true)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(TIGHT_PROBLEM, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        generator.findSolution(2);
+
+        // Then
+        assertTrue(display.contains("=== Run profile: ATTEMPT #1 ==="));
+        assertTrue(display.contains("=== Run profile: ATTEMPT #2 ==="));
+    }
+
+    @Test
+    @DisplayName("Without profiling no attempt should display a profile report")
+    void testNoProfileReport() {
+        // Given
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(5)
+                .attemptConcurrency(2)
+                .exactPresolve(false)
+                .profiling(false)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(TIGHT_PROBLEM, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        generator.findSolution(2);
+
+        // Then
+        assertFalse(display.contains("Run profile"));
+    }
+
+    @Test
+    @DisplayName("Concurrent attempts should evolve islands, each seeded and profiled")
+    void testConcurrentAttemptsWithIslands() {
+        // Given
+        ProblemDefinition solvableProblem = new SyntheticInstanceGenerator(5).generate(8, 0.7);
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(5)
+                .attemptConcurrency(2)
+                .islandCount(2)
+                .exactPresolve(true)
+                .profiling(true)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(solvableProblem, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        Timetable best = generator.findSolutionConcurrently(2, 2);
+
+        // Then
+        assertNotNull(best);
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            assertTrue(display.contains("ATTEMPT #" + attempt + ": seeded with the exact solution"));
+            assertTrue(display.contains("=== Run profile: ATTEMPT #" + attempt + ", ISLAND #0 ==="));
+            assertTrue(display.contains("=== Run profile: ATTEMPT #" + attempt + ", ISLAND #1 ==="));
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent attempts should be seeded by the one exact solution of the feasibility check")
+    void testConcurrentAttemptsSeeded() {
+        // Given - a school the exact solver solves but no attempt solves without generations
+        ProblemDefinition solvableProblem = new SyntheticInstanceGenerator(5).generate(8, 0.7);
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(0)
+                .attemptConcurrency(2)
+                .exactPresolve(true)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(solvableProblem, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        generator.findSolution(2);
+
+        // Then
+        assertEquals(1, display.getMessages().stream().filter(message -> message.startsWith("Exact solver:")).count());
+        assertTrue(display.contains("Exact solver: SOLVED"));
+        assertTrue(display.contains("ATTEMPT #1: seeded with the exact solution"));
+        assertTrue(display.contains("ATTEMPT #2: seeded with the exact solution"));
+    }
+
+    @Test
+    @DisplayName("A zero stagnation window should never restart")
+    void testNoRestartWithoutWindow() {
+        // Given
+        RecordingDisplayService display = new RecordingDisplayService();
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .maxGenerations(20)
+                .attemptConcurrency(1)
+                .exactPresolve(false)
+                .stagnationWindow(0)
+                .build();
+        TimetableGeneratorServiceImpl generator = new TimetableGeneratorServiceImpl(TIGHT_PROBLEM, settings,
+                display, new RecordingTimetableDAO());
+
+        // When
+        generator.findSolution(1);
+
+        // Then
+        assertTrue(display.contains("ATTEMPT #1, generation 0"));
+        assertFalse(display.contains("stagnation"));
+    }
+
+    @Test
+    @DisplayName("Restarts should keep the population size and never lose the best timetable")
+    void testRestartKeepsBest() {
+        // Given
+        IPopulationService populationService = new PopulationServiceImpl(TIGHT_PROBLEM);
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(false)
+                .stagnationWindow(1)
+                .build();
+        GeneticAlgorithmEngine engine = new GeneticAlgorithmEngine("TEST", populationService, 20, settings, false,
+                new SplittableRandom(3), null);
+        engine.fixPopulationSize();
+        engine.initialize(null);
+        double best = engine.getBestTimetable().getFitness();
+
+        // When
+        for (int generation = 0; generation < 10; generation++) {
+            engine.step();
+
+            // Then
+            assertTrue(engine.getBestTimetable().getFitness() >= best);
+            assertEquals(20, engine.getPopulation().size());
+            best = engine.getBestTimetable().getFitness();
+        }
+    }
+
+    @Test
+    @DisplayName("Adaptive parameters should tune mutation rate, tournament size and population size")
+    void testAdaptiveParameters() {
+        // Given
+        GeneticAlgorithmEngine engine = newLessonEngine(true);
+        engine.initialize(null);
+
+        // When
+        for (int generation = 0; generation < 10; generation++) {
+            engine.step();
+        }
+
+        // Then
+        assertNotEquals(SchoolConfig.GA_MUTATION_RATE, engine.getMutationRate());
+        assertNotEquals(SchoolConfig.GA_TOURNAMENT_SIZE, engine.getTournamentSize());
+        assertNotEquals(20, engine.getPopulation().size());
+    }
+
+    @Test
+    @DisplayName("Without adaptive parameters the configured parameters should stay")
+    void testFixedParameters() {
+        // Given
+        GeneticAlgorithmEngine engine = newLessonEngine(false);
+        engine.initialize(null);
+
+        // When
+        for (int generation = 0; generation < 10; generation++) {
+            engine.step();
+        }
+
+        // Then
+        assertEquals(SchoolConfig.GA_MUTATION_RATE, engine.getMutationRate());
+        assertEquals(SchoolConfig.GA_TOURNAMENT_SIZE, engine.getTournamentSize());
+        assertEquals(20, engine.getPopulation().size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @DisplayName("Concurrent (single-threaded) and sequential (parallel) attempts should improve their elites")
+    void testMemeticStep(boolean parallel) {
+        // Given
+        GeneticAlgorithmEngine engine = newEngine(GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(false)
+                .stagnationWindow(0)
+                .memeticElites(2)
+                .profiling(true)
+                .build(), parallel);
+        engine.initialize(null);
+
+        // When
+        for (int generation = 0; generation < SchoolConfig.GA_MEMETIC_INTERVAL; generation++) {
+            engine.step();
+        }
+
+        // Then
+        assertEquals(1, engine.getProfiler().getCalls(ProfilePhase.LOCAL_SEARCH));
+    }
+
+    @Test
+    @DisplayName("Zero memetic elites should skip the local search")
+    void testNoMemeticStep() {
+        // Given
+        GeneticAlgorithmEngine engine = newEngine(GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(false)
+                .stagnationWindow(0)
+                .memeticElites(0)
+                .profiling(true)
+                .build(), false);
+        engine.initialize(null);
+
+        // When
+        for (int generation = 0; generation < SchoolConfig.GA_MEMETIC_INTERVAL; generation++) {
+            engine.step();
+        }
+
+        // Then
+        assertEquals(0, engine.getProfiler().getCalls(ProfilePhase.LOCAL_SEARCH));
+    }
+
+    @Test
+    @DisplayName("Double-buffered encoded generations should allocate nothing between conflict snapshots")
+    void testEncodedStepAllocationFree() {
+        // Given - the flags the allocation-free loop depends on
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        GeneticAlgorithmEngine engine = newEngine(GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(true)
+                .stagnationWindow(0)
+                .profiling(false)
+                .fitnessCacheSize(0)
+                .build(), false);
+        engine.initialize(null);
+
+        // When - the generations after each snapshot of the best timetable's conflicts, until the JIT has settled
+        long allocated = -1;
+        for (int window = 0; window < 200 && allocated != 0; window++) {
+            while (engine.getGeneration() % 20 != 0) {
+                engine.step();
+            }
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int generation = 0; generation < 19; generation++) {
+                engine.step();
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            engine.step();
+        }
+
+        // Then
+        assertEquals(0, allocated, "Bytes allocated by 19 generations");
+    }
+
+    @Test
+    @DisplayName("An encoded run should report its best timetable but have no lesson population")
+    void testEncodedPopulation() {
+        // Given
+        GeneticAlgorithmEngine engine = newEngine(GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(true)
+                .build(), false);
+
+        // When
+        engine.initialize(null);
+        engine.step();
+
+        // Then
+        assertNotNull(engine.getBestTimetable());
+        assertThrows(IllegalStateException.class, engine::getPopulation);
+    }
+
+    @Test
+    @DisplayName("Encoded runs with the same random stream should breed the same generations")
+    void testEncodedRunReproducible() {
+        // Given
+        GeneticAlgorithmSettings settings = GeneticAlgorithmSettings.builder().encodedChromosomes(true).build();
+        GeneticAlgorithmEngine first = newEngine(settings, false);
+        GeneticAlgorithmEngine second = newEngine(settings, false);
+        first.initialize(null);
+        second.initialize(null);
+
+        // When
+        for (int generation = 0; generation < 10; generation++) {
+            first.step();
+            second.step();
+        }
+
+        // Then
+        assertEquals(first.getBestTimetable().getFitness(), second.getBestTimetable().getFitness());
+        assertEquals(first.getBestTimetable().getGenomeHash(), second.getBestTimetable().getGenomeHash());
+    }
+
+    private static GeneticAlgorithmEngine newLessonEngine(boolean adaptiveParameters) {
+        return newEngine(GeneticAlgorithmSettings.builder()
+                .encodedChromosomes(false)
+                .stagnationWindow(0)
+                .adaptiveParameters(adaptiveParameters)
+                .build(), false);
+    }
+
+    private static GeneticAlgorithmEngine newEngine(GeneticAlgorithmSettings settings, boolean parallel) {
+        return new GeneticAlgorithmEngine("TEST", new PopulationServiceImpl(TIGHT_PROBLEM), 20, settings, parallel,
+                new SplittableRandom(3), null);
+    }
+
+    /**
+     * Display keeping the messages, attempts may display from several threads
+     */
+    static class RecordingDisplayService implements IDisplayService {
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        boolean contains(String text) {
+            return messages.stream().anyMatch(message -> message.contains(text));
+        }
+
+        List<String> getMessages() {
+            return messages;
+        }
+
+        @Override
+        public void displayTimetableSummary(Timetable timetable, IPopulationService populationService) {
+        }
+
+        @Override
+        public void displayGenerationProgress(int generation, double fitness) {
+            messages.add("Generation " + generation + ": best fitness = " + fitness);
+        }
+
+        @Override
+        public void displayFinalResults(Timetable timetable) {
+        }
+
+        @Override
+        public void display(String string) {
+            messages.add(string);
+        }
+    }
+
+    /**
+     * Persistence keeping the solutions in memory
+     */
+    static class RecordingTimetableDAO implements ITimetableDAO {
+
+        private final List<Timetable> timetables = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void create(Timetable timetable) {
+            timetables.add(timetable);
+        }
+
+        @Override
+        public Timetable getById(int timetableId) {
+            return timetables.get(timetableId);
+        }
+
+        @Override
+        public List<Timetable> getAll() {
+            return timetables;
+        }
+
+        @Override
+        public void update(Timetable timetable) {
+            throw new UnsupportedOperationException("Timetables are immutable");
+        }
+
+        @Override
+        public void delete(int timetableId) {
+            timetables.remove(timetableId);
+        }
+    }
+}
@@ -2,15 +2,21 @@ package com.solvd.schoolschedule.service.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.junit.jupiter.api.*;
 
 import com.solvd.schoolschedule.model.*;
 import com.solvd.schoolschedule.service.interfaces.IPopulationService;
 import com.solvd.schoolschedule.service.interfaces.ISelectionService;
+import com.solvd.schoolschedule.util.RunProfiler;
 
 /**
  * Unit tests for the GeneticOperatorServiceImpl class.
@@ -366,4 +372,335 @@ class GeneticOperatorServiceImplTest {
 
         return population;
     }
+
+    @Test
+    @DisplayName("Encoded crossover should copy whole group blocks from the parents")
+    void testEncodedCrossover() {
+        // Given
+        List<EncodedTimetable> parents = populationService.initializeEncodedPopulation(2);
+        TimetableEncoding encoding = populationService.getEncoding();
+
+        // When
+        EncodedTimetable offspring = geneticOperatorService.crossover(parents.get(0), parents.get(1));
+
+        // Then
+        for (int block = 0; block < encoding.getBlockCount(); block++) {
+            int start = encoding.getBlockStart(block);
+            int end = encoding.getBlockEnd(block);
+            short[] expected = Arrays.equals(offspring.getGenes(), start, end,
+                parents.get(0).getGenes(), start, end) ? parents.get(0).getGenes() : parents.get(1).getGenes();
+            assertArrayEquals(Arrays.copyOfRange(expected, start, end),
+                Arrays.copyOfRange(offspring.getGenes(), start, end));
+        }
+    }
+
+    @Test
+    @DisplayName("Encoded mutation should keep suitable classrooms and leave the original untouched")
+    void testEncodedMutation() {
+        // Given
+        GeneticOperatorServiceImpl alwaysMutate = new GeneticOperatorServiceImpl(populationService, 1.0);
+        EncodedTimetable original = populationService.initializeEncodedPopulation(1).get(0);
+        short[] originalGenes = original.getGenes().clone();
+
+        // When
+        EncodedTimetable mutated = alwaysMutate.mutate(original);
+
+        // Then
+        assertNotSame(original, mutated);
+        assertArrayEquals(originalGenes, original.getGenes());
+        for (Lesson lesson : mutated.decode().getLessons()) {
+            assertTrue(lesson.getClassroom().canAccommodate(lesson.getSubject()));
+        }
+    }
+
+    @Test
+    @DisplayName("Encoded generation should keep the size and the best individual")
+    void testCreateNewEncodedGeneration() {
+        // Given
+        List<EncodedTimetable> population = populationService.initializeEncodedPopulation(10);
+        new FitnessServiceImpl(populationService).evaluateEncodedPopulation(population);
+        EncodedTimetable best = population.stream()
+            .max(Comparator.comparingDouble(EncodedTimetable::getFitness))
+            .orElseThrow();
+
+        // When
+        List<EncodedTimetable> newGeneration =
+            geneticOperatorService.createNewEncodedGeneration(population, selectionService);
+
+        // Then
+        assertEquals(population.size(), newGeneration.size());
+        assertSame(best, newGeneration.get(0));
+    }
+
+    @Test
+    @DisplayName("Double-buffered generation should recycle the timetables and keep the best individual")
+    void testBreedEncodedGeneration() {
+        // Given
+        List<EncodedTimetable> initial = populationService.initializeEncodedPopulation(10);
+        new FitnessServiceImpl(populationService).evaluateEncodedPopulation(initial);
+        DoubleBufferedPopulation population = new DoubleBufferedPopulation(initial);
+        EncodedTimetable[] parents = population.getCurrent();
+        EncodedTimetable[] spare = population.getNext();
+        EncodedTimetable best = population.getBest();
+
+        // When
+        geneticOperatorService.breedEncodedGeneration(population, selectionService);
+
+        // Then
+        assertSame(spare, population.getCurrent());
+        assertSame(parents, population.getNext());
+        assertArrayEquals(best.getGenes(), population.getCurrent()[0].getGenes());
+        assertEquals(best.getFitness(), population.getCurrent()[0].getFitness());
+        TimetableEncoding encoding = populationService.getEncoding();
+        for (EncodedTimetable offspring : population.getCurrent()) {
+            for (int i = 0; i < encoding.size(); i++) {
+                int classroom = encoding.classroomOf(offspring.getGenes()[i]);
+                assertTrue(Arrays.stream(encoding.getSuitableClassrooms(encoding.getSubject(i)))
+                    .anyMatch(suitable -> suitable == classroom));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Steady-state double-buffered generations should allocate nothing")
+    void testBreedEncodedGenerationAllocationFree() {
+        // Given - sequential evaluation without a fitness cache
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        FitnessServiceImpl fitnessService = new FitnessServiceImpl(populationService, 1, EvaluationMode.FUSED);
+        List<EncodedTimetable> initial = populationService.initializeEncodedPopulation(20);
+        fitnessService.evaluateEncodedPopulation(initial);
+        DoubleBufferedPopulation population = new DoubleBufferedPopulation(initial);
+
+        // When - windows of 100 generations, until the JIT has settled
+        long allocated = -1;
+        for (int window = 0; window < 100 && allocated != 0; window++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int generation = 0; generation < 100; generation++) {
+                geneticOperatorService.breedEncodedGeneration(population, selectionService);
+                fitnessService.evaluateEncodedPopulation(population.getCurrent());
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        // Then
+        assertEquals(0, allocated, "Bytes allocated by 100 generations");
+    }
+
+    @Test
+    @DisplayName("Parallel generation should be reproducible for a seed, whatever the thread count")
+    void testParallelGenerationReproducible() {
+        // Given
+        List<Timetable> population = populationService.initializePopulation(30);
+        new FitnessServiceImpl(populationService).evaluatePopulation(population);
+        GeneticOperatorServiceImpl parallel = GeneticOperatorServiceImpl.builder(populationService, 0.05).parallelism(4).build();
+        GeneticOperatorServiceImpl sequential = GeneticOperatorServiceImpl.builder(populationService, 0.05).parallelism(1).build();
+
+        // When
+        List<Timetable> first = parallel.createNewGeneration(population, selectionService, new SplittableRandom(7));
+        List<Timetable> second = sequential.createNewGeneration(population, selectionService, new SplittableRandom(7));
+
+        // Then
+        assertEquals(population.size(), first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getGenomeHash(), second.get(i).getGenomeHash(),
+                "Offspring " + i + " should not depend on the thread count");
+        }
+    }
+
+    @Test
+    @DisplayName("Should grow or shrink the next generation to the requested size")
+    void testGenerationSize() {
+        // Given
+        List<Timetable> population = populationService.initializePopulation(10);
+        new FitnessServiceImpl(populationService).evaluatePopulation(population);
+        Timetable best = population.stream().max(Comparator.comparingDouble(Timetable::getFitness)).orElseThrow();
+
+        // When
+        List<Timetable> larger = geneticOperatorService.createNewGeneration(population, selectionService,
+            new SplittableRandom(5), 15);
+        List<Timetable> smaller = geneticOperatorService.createNewGeneration(population, selectionService,
+            new SplittableRandom(5), 6);
+
+        // Then - the elite survives either way
+        assertEquals(15, larger.size());
+        assertEquals(6, smaller.size());
+        assertSame(best, larger.get(0));
+        assertSame(best, smaller.get(0));
+        assertThrows(IllegalArgumentException.class, () -> geneticOperatorService.createNewGeneration(population,
+            selectionService, new SplittableRandom(5), 0));
+    }
+
+    @Test
+    @DisplayName("Should validate mutation rate changes")
+    void testSetMutationRate() {
+        geneticOperatorService.setMutationRate(0.1);
+
+        assertEquals(0.1, geneticOperatorService.getMutationRate());
+        assertThrows(IllegalArgumentException.class, () -> geneticOperatorService.setMutationRate(1.5));
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive offspring parallelism")
+    void testInvalidOffspringParallelism() {
+        assertThrows(IllegalArgumentException.class,
+            () -> GeneticOperatorServiceImpl.builder(populationService, 0.05).parallelism(0));
+    }
+
+    @Test
+    @DisplayName("Should record selection, crossover and mutation in the run profiler")
+    void testProfiledGeneration() {
+        // Given
+        RunProfiler profiler = new RunProfiler();
+        GeneticOperatorServiceImpl profiled = GeneticOperatorServiceImpl.builder(populationService, 0.05)
+            .parallelism(2).profiler(profiler).build();
+        List<Timetable> population = populationService.initializePopulation(10);
+        new FitnessServiceImpl(populationService).evaluatePopulation(population);
+
+        // When
+        profiled.createNewGeneration(population, selectionService, new SplittableRandom(3));
+        profiler.recordFitness(population.stream().mapToDouble(Timetable::getFitness).summaryStatistics());
+
+        // Then - one call per offspring, the elite is kept as is
+        assertEquals(9, profiler.getCalls(ProfilePhase.SELECTION));
+        assertEquals(9, profiler.getCalls(ProfilePhase.CROSSOVER));
+        assertEquals(9, profiler.getCalls(ProfilePhase.MUTATION));
+        assertTrue(profiler.getWallNanos(ProfilePhase.CROSSOVER) > 0);
+        assertEquals(0, profiler.getCalls(ProfilePhase.PERSISTENCE));
+        String report = profiler.report();
+        assertTrue(report.contains("Crossover"));
+        assertTrue(report.contains("Final fitness"));
+
+        // When
+        profiler.reset();
+
+        // Then
+        assertEquals(0, profiler.getCalls(ProfilePhase.SELECTION));
+    }
+
+    @Test
+    @DisplayName("Should mutate only the conflicted lessons in targeted mode, moving them to free slots")
+    void testTargetedMutation() {
+        // Given - every conflicted lesson is picked, no exploration
+        GeneticOperatorServiceImpl targeted = GeneticOperatorServiceImpl.builder(populationService, 1.0)
+            .mutationMode(MutationMode.TARGETED, 0.0).build();
+        FusedConflictEvaluator evaluator = new FusedConflictEvaluator(populationService);
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        int[] before = evaluator.countConflicts(timetable);
+
+        // When
+        Timetable mutated = targeted.mutate(timetable);
+
+        // Then
+        assertTrue(timetable.nextConflictedPosition(0) >= 0);
+        for (int i = 0; i < timetable.getLessons().size(); i++) {
+            boolean conflicted = timetable.isConflicted(i);
+            assertEquals(conflicted, timetable.getLessons().get(i) != mutated.getLessons().get(i),
+                "Lesson " + i + " conflicted: " + conflicted);
+        }
+        int[] after = evaluator.countConflicts(mutated);
+        assertTrue(after[ConflictType.GROUP_COLLISIONS.ordinal()] < before[ConflictType.GROUP_COLLISIONS.ordinal()]);
+        assertTrue(after[ConflictType.TEACHER_COLLISIONS.ordinal()] < before[ConflictType.TEACHER_COLLISIONS.ordinal()]);
+        assertEquals(mutated.copy().getGenomeHash(), mutated.getGenomeHash());
+    }
+
+    @Test
+    @DisplayName("Should mark the conflicts of a timetable scored incrementally before targeting them")
+    void testTargetedMutationOfIncrementalTimetable() {
+        // Given - scored by the delta evaluator, which publishes no conflict mask
+        FitnessServiceImpl incremental = new FitnessServiceImpl(populationService, 1, EvaluationMode.INCREMENTAL);
+        GeneticOperatorServiceImpl targeted = GeneticOperatorServiceImpl.builder(populationService, 1.0)
+            .mutationMode(MutationMode.TARGETED, 0.0)
+            .conflictMarker(incremental::markConflicts)
+            .build();
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        incremental.evaluatePopulation(List.of(timetable));
+        assertFalse(timetable.hasConflictMask());
+
+        // When
+        Timetable mutated = targeted.mutate(timetable);
+
+        // Then - the conflicted lessons are mutated, not skipped for lack of a mask
+        assertTrue(timetable.nextConflictedPosition(0) >= 0);
+        for (int i = 0; i < timetable.getLessons().size(); i++) {
+            assertEquals(timetable.isConflicted(i), timetable.getLessons().get(i) != mutated.getLessons().get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should register exact states for offspring mutated in targeted mode through the delta state")
+    void testTargetedMutationWithDeltaStates() {
+        // Given
+        FitnessServiceImpl incremental = new FitnessServiceImpl(populationService, 1, EvaluationMode.INCREMENTAL);
+        FitnessServiceImpl reference = new FitnessServiceImpl(populationService);
+        GeneticOperatorServiceImpl targeted = GeneticOperatorServiceImpl.builder(populationService, 0.5)
+            .mutationMode(MutationMode.TARGETED, 0.01)
+            .deltaEvaluator(incremental.getDeltaEvaluator())
+            .conflictMarker(incremental::markConflicts)
+            .genomeHashing(true)
+            .build();
+        List<Timetable> population = populationService.initializePopulation(20);
+
+        for (int generation = 0; generation < 3; generation++) {
+            // When
+            incremental.evaluatePopulation(population);
+            population = targeted.createNewGeneration(population, new SelectionServiceImpl(3));
+
+            // Then
+            for (Timetable offspring : population) {
+                assertTrue(incremental.getDeltaEvaluator().hasState(offspring));
+                assertEquals(reference.calculateFitness(offspring),
+                    incremental.getDeltaEvaluator().getState(offspring).getFitness());
+                assertEquals(offspring.copy().getGenomeHash(), offspring.getGenomeHash());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should return a timetable without conflicts unchanged in targeted mode without exploration")
+    void testTargetedMutationWithoutConflicts() {
+        // Given
+        GeneticOperatorServiceImpl targeted = GeneticOperatorServiceImpl.builder(populationService, 1.0)
+            .mutationMode(MutationMode.TARGETED, 0.0).build();
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        timetable.setConflictMask(new BitSet());
+
+        // When / Then
+        assertSame(timetable, targeted.mutate(timetable));
+    }
+
+    @Test
+    @DisplayName("Should explore lessons outside any conflict at the exploration rate")
+    void testTargetedMutationExploration() {
+        // Given - no conflict reported, every other lesson expected to be explored
+        GeneticOperatorServiceImpl targeted = GeneticOperatorServiceImpl.builder(populationService, 0.05)
+            .mutationMode(MutationMode.TARGETED, 0.5).build();
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        timetable.setConflictMask(new BitSet());
+        int lessons = timetable.getLessons().size();
+
+        // When
+        int changed = 0;
+        for (int run = 0; run < 100; run++) {
+            Timetable mutated = targeted.mutate(timetable);
+            for (int i = 0; i < lessons; i++) {
+                if (mutated.getLessons().get(i) != timetable.getLessons().get(i)) {
+                    changed++;
+                }
+            }
+        }
+
+        // Then
+        double rate = changed / (100.0 * lessons);
+        assertTrue(rate > 0.4 && rate < 0.6, "Exploration rate " + rate);
+    }
+
+    @Test
+    @DisplayName("Should reject an exploration rate outside [0, 1)")
+    void testInvalidExplorationRate() {
+        assertThrows(IllegalArgumentException.class, () -> GeneticOperatorServiceImpl.builder(populationService, 0.05)
+            .mutationMode(MutationMode.TARGETED, 1.0));
+    }
 }
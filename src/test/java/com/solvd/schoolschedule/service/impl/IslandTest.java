@@ -0,0 +1,103 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the Island class and the island migration topologies.
+ */
+@DisplayName("Island Tests")
+class IslandTest {
+
+    private IPopulationService populationService;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+    }
+
+    @Test
+    @DisplayName("Evolution should never lose the best timetable")
+    void testEvolveKeepsBest() {
+        // Given
+        Island island = new Island(0, populationService, 10);
+        double initialBest = island.getBestTimetable().getFitness();
+
+        // When
+        Timetable best = island.evolve(5);
+
+        // Then
+        assertTrue(best.getFitness() >= initialBest);
+        assertEquals(5, island.getGeneration());
+        assertEquals(10, island.getPopulation().size());
+    }
+
+    @Test
+    @DisplayName("Emigrants should be copies of the best timetables sharing their immutable lessons")
+    void testEmigrants() {
+        // Given
+        Island island = new Island(0, populationService, 10);
+
+        // When
+        List<Timetable> emigrants = island.getEmigrants(3);
+
+        // Then
+        assertEquals(3, emigrants.size());
+        assertEquals(island.getBestTimetable().getFitness(), emigrants.get(0).getFitness());
+        assertFalse(island.getPopulation().contains(emigrants.get(0)));
+        assertNotSame(island.getBestTimetable(), emigrants.get(0));
+        assertSame(island.getBestTimetable().getLessons().get(0), emigrants.get(0).getLessons().get(0));
+        assertEquals(island.getBestTimetable().getGenomeHash(), emigrants.get(0).getGenomeHash());
+    }
+
+    @Test
+    @DisplayName("Ring migration should send each island's best to the next island")
+    void testRingMigration() {
+        // Given
+        List<Island> islands = createIslands(3);
+        double[] bestBefore = islands.stream().mapToDouble(i -> i.getBestTimetable().getFitness()).toArray();
+
+        // When
+        TimetableGeneratorServiceImpl.migrate(islands, MigrationTopology.RING, 1);
+
+        // Then
+        for (int i = 0; i < islands.size(); i++) {
+            int next = (i + 1) % islands.size();
+            double sent = bestBefore[i];
+            assertTrue(islands.get(next).getPopulation().stream().anyMatch(t -> t.getFitness() == sent),
+                "Island " + next + " should have received the best of island " + i);
+            assertEquals(10, islands.get(next).getPopulation().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Fully connected migration should share the global best with every island")
+    void testFullyConnectedMigration() {
+        // Given
+        List<Island> islands = createIslands(4);
+        double globalBest = islands.stream().mapToDouble(i -> i.getBestTimetable().getFitness()).max().orElseThrow();
+
+        // When
+        TimetableGeneratorServiceImpl.migrate(islands, MigrationTopology.FULLY_CONNECTED, 1);
+
+        // Then
+        for (Island island : islands) {
+            assertEquals(globalBest, island.getBestTimetable().getFitness());
+        }
+    }
+
+    private List<Island> createIslands(int count) {
+        List<Island> islands = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            islands.add(new Island(i, populationService, 10));
+        }
+        return islands;
+    }
+}
@@ -3,6 +3,8 @@ package com.solvd.schoolschedule.service.impl;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -382,4 +384,131 @@ class PopulationServiceImplTest {
             assertTrue(timetable.getLessons().size() > 0);
         }
     }
+
+    @Test
+    @DisplayName("Parallel initialization should be reproducible for a seed")
+    void testParallelInitializationReproducible() {
+        // When
+        List<Timetable> first = populationService.initializePopulation(20, new SplittableRandom(11));
+        List<Timetable> second = populationService.initializePopulation(20, new SplittableRandom(11));
+
+        // Then
+        assertEquals(20, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getGenomeHash(), second.get(i).getGenomeHash());
+            assertFalse(first.get(i).getLessons().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should create a scaled school with a custom number of groups")
+    void testCustomNumberOfGroups() {
+        // When
+        PopulationServiceImpl scaled = new PopulationServiceImpl(16);
+
+        // Then
+        assertEquals(16, scaled.getGroups().size());
+        assertEquals(scaled.getEncoding().size(), scaled.initializePopulation(1).get(0).getLessons().size());
+        assertThrows(IllegalArgumentException.class, () -> new PopulationServiceImpl(0));
+    }
+
+    @Test
+    @DisplayName("Greedy seeding should build timetables without group, teacher or room collisions")
+    void testGreedySeedingAvoidsCollisions() {
+        // Given
+        PopulationServiceImpl seeded = new PopulationServiceImpl(SchoolConfig.NUM_GROUPS, 1.0);
+        FusedConflictEvaluator evaluator = new FusedConflictEvaluator(seeded);
+
+        // When
+        List<Timetable> population = seeded.initializePopulation(20, new SplittableRandom(5));
+
+        // Then
+        for (Timetable timetable : population) {
+            int[] counts = evaluator.countConflicts(timetable);
+            assertEquals(0, counts[ConflictType.GROUP_COLLISIONS.ordinal()]);
+            assertEquals(0, counts[ConflictType.TEACHER_COLLISIONS.ordinal()]);
+            assertEquals(0, counts[ConflictType.ROOM_CONFLICTS.ordinal()]);
+            assertEquals(0, counts[ConflictType.ROOM_ACCOMODATE.ordinal()]);
+            assertEquals(0, counts[ConflictType.ADJUSTMENT.ordinal()]);
+        }
+    }
+
+    @Test
+    @DisplayName("Greedy seeding should start far fitter than random initialization")
+    void testGreedySeedingFitness() {
+        // Given
+        PopulationServiceImpl seeded = new PopulationServiceImpl(SchoolConfig.NUM_GROUPS, 1.0);
+        FitnessServiceImpl fitnessService = new FitnessServiceImpl(seeded);
+        List<Timetable> greedy = seeded.initializePopulation(20);
+        List<Timetable> random = populationService.initializePopulation(20);
+
+        // When
+        fitnessService.evaluatePopulation(greedy);
+        fitnessService.evaluatePopulation(random);
+
+        // Then
+        double greedyAverage = greedy.stream().mapToDouble(Timetable::getFitness).average().orElseThrow();
+        double randomAverage = random.stream().mapToDouble(Timetable::getFitness).average().orElseThrow();
+        assertTrue(greedyAverage > 1500, "Greedy timetables should be nearly feasible: " + greedyAverage);
+        assertTrue(greedyAverage > randomAverage);
+    }
+
+    @Test
+    @DisplayName("Greedy seeding should keep the lesson layout and vary between timetables")
+    void testGreedySeedingLayout() {
+        // Given
+        PopulationServiceImpl seeded = new PopulationServiceImpl(SchoolConfig.NUM_GROUPS, 0.5);
+        TimetableEncoding encoding = seeded.getEncoding();
+
+        // When
+        List<Timetable> population = seeded.initializePopulation(10);
+        List<EncodedTimetable> encoded = seeded.initializeEncodedPopulation(10);
+
+        // Then - the same subject and group at every position, seeded or not
+        for (Timetable timetable : population) {
+            for (int i = 0; i < encoding.size(); i++) {
+                assertEquals(encoding.getSubject(i), timetable.getLessons().get(i).getSubject());
+                assertSame(encoding.getGroup(i), timetable.getLessons().get(i).getGroup());
+            }
+        }
+        assertNotEquals(population.get(0).getGenomeHash(), population.get(1).getGenomeHash());
+        assertEquals(10, encoded.size());
+        assertThrows(IllegalArgumentException.class, () -> new PopulationServiceImpl(4, 1.5));
+    }
+
+    @Test
+    @DisplayName("Should build a district with longer days and balanced teachers")
+    void testDistrictProblem() {
+        // Given
+        Map<Subject, Integer> teachers = Map.of(Subject.MATH, 50, Subject.PHYSICS, 40,
+                Subject.INFORMATICS, 30, Subject.PHYSICAL_CULTURE, 20);
+        ProblemDefinition problem = new ProblemDefinition(5, 8, 300, 20, teachers, 90, 30, 24);
+        PopulationServiceImpl district = new PopulationServiceImpl(problem);
+        ResourceCatalog catalog = district.getCatalog();
+
+        // When
+        Timetable timetable = district.initializePopulation(1).getFirst();
+
+        // Then
+        assertSame(problem, district.getProblem());
+        assertEquals(300, district.getGroups().size());
+        assertEquals(140, district.getTeachers().size());
+        assertEquals(144, district.getClassrooms().size());
+        assertEquals("Mr. Smith", district.getTeachers().getFirst().getName());
+        assertEquals(300 * SubjectConfig.getTotalWeeklyLessons(), timetable.getLessons().size());
+        for (Subject subject : Subject.values()) {
+            List<Teacher> subjectTeachers = catalog.getTeachers(subject);
+            assertEquals(problem.getTeachers(subject), subjectTeachers.size());
+            int min = subjectTeachers.stream().mapToInt(catalog::getTeacherLoad).min().orElseThrow();
+            int max = subjectTeachers.stream().mapToInt(catalog::getTeacherLoad).max().orElseThrow();
+            assertTrue(max - min <= SubjectConfig.getWeeklyLessons(subject),
+                    subject + " loads should be balanced: " + min + ".." + max);
+        }
+        for (Lesson lesson : timetable.getLessons()) {
+            assertSame(catalog.getAssignedTeacher(lesson.getGroup(), lesson.getSubject()), lesson.getTeacher());
+            assertTrue(lesson.getTimeSlot().getPeriod() < 8);
+        }
+        assertTrue(timetable.getLessons().stream().anyMatch(lesson -> lesson.getTimeSlot().getPeriod() >= 6),
+                "Lessons should use the extra periods");
+    }
 }
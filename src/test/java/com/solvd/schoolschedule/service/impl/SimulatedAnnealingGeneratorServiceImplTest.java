@@ -0,0 +1,95 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the SimulatedAnnealingGeneratorServiceImpl class.
+ * Tests the annealing itself, without database operations.
+ */
+@DisplayName("SimulatedAnnealingGeneratorServiceImpl Tests")
+class SimulatedAnnealingGeneratorServiceImplTest {
+
+    private IPopulationService populationService;
+    private FitnessServiceImpl fitnessService;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        fitnessService = new FitnessServiceImpl(populationService);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CoolingSchedule.class, names = {"GEOMETRIC", "LINEAR"})
+    @DisplayName("Should anneal a random timetable to a perfect one")
+    void testReachesPerfectFitness(CoolingSchedule schedule) {
+        // Given
+        SimulatedAnnealingGeneratorServiceImpl annealing = annealing(schedule, 2_000_000L);
+        Timetable initial = populationService.initializePopulation(1, new SplittableRandom(1)).get(0);
+
+        // When
+        Timetable best = annealing.anneal(initial, new SplittableRandom(2), new ArrayList<>());
+
+        // Then
+        assertEquals(2000, best.getFitness());
+        assertEquals(best.getFitness(), fitnessService.calculateFitness(best));
+        assertTrue(annealing.getLastIterations() < 2_000_000L, "Should stop once the timetable is perfect");
+    }
+
+    @Test
+    @DisplayName("Should keep the lesson layout and report the true fitness when the moves run out")
+    void testStopsAfterMaxIterations() {
+        // Given
+        SimulatedAnnealingGeneratorServiceImpl annealing = annealing(CoolingSchedule.LOGARITHMIC, 500);
+        Timetable initial = populationService.initializePopulation(1, new SplittableRandom(3)).get(0);
+
+        // When
+        Timetable best = annealing.anneal(initial, new SplittableRandom(4), new ArrayList<>());
+
+        // Then
+        assertEquals(500, annealing.getLastIterations());
+        assertEquals(fitnessService.calculateFitness(best), best.getFitness());
+        assertTrue(best.getFitness() >= fitnessService.calculateFitness(initial));
+        List<Lesson> before = initial.getLessons();
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getSubject(), best.getLessons().get(i).getSubject());
+            assertSame(before.get(i).getGroup(), best.getLessons().get(i).getGroup());
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same result for the same random seeds")
+    void testReproducible() {
+        // Given
+        SimulatedAnnealingGeneratorServiceImpl annealing = annealing(CoolingSchedule.GEOMETRIC, 5_000);
+        Timetable initial = populationService.initializePopulation(1, new SplittableRandom(5)).get(0);
+
+        // When
+        Timetable first = annealing.anneal(initial, new SplittableRandom(6), new ArrayList<>());
+        Timetable second = annealing.anneal(initial, new SplittableRandom(6), new ArrayList<>());
+
+        // Then
+        assertEquals(first.getGenomeHash(), second.getGenomeHash());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive number of iterations")
+    void testInvalidIterations() {
+        assertThrows(IllegalArgumentException.class, () -> annealing(CoolingSchedule.GEOMETRIC, 0));
+    }
+
+    private SimulatedAnnealingGeneratorServiceImpl annealing(CoolingSchedule schedule, long maxIterations) {
+        return new SimulatedAnnealingGeneratorServiceImpl(populationService, new DisplayServiceImpl(), null,
+            schedule, maxIterations);
+    }
+}
@@ -0,0 +1,94 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.Timetable;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the StagnationDetector class.
+ */
+@DisplayName("StagnationDetector Tests")
+class StagnationDetectorTest {
+
+    private IPopulationService populationService;
+    private List<Timetable> population;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        population = populationService.initializePopulation(10);
+    }
+
+    @Test
+    @DisplayName("Should report stagnation after a window without improvement")
+    void testNoImprovementWindow() {
+        // Given
+        StagnationDetector detector = new StagnationDetector(3, 0.0);
+        Timetable best = withFitness(population.get(0), 1000);
+
+        // When / Then - the first generation sets the reference fitness
+        assertFalse(detector.isStagnant(population, best));
+        assertFalse(detector.isStagnant(population, best));
+        assertFalse(detector.isStagnant(population, best));
+        assertTrue(detector.isStagnant(population, best));
+        assertEquals(3, detector.getGenerationsWithoutImprovement());
+    }
+
+    @Test
+    @DisplayName("Should restart the window when the best fitness improves")
+    void testImprovementResetsWindow() {
+        // Given
+        StagnationDetector detector = new StagnationDetector(2, 0.0);
+        Timetable best = withFitness(population.get(0), 1000);
+        detector.isStagnant(population, best);
+        detector.isStagnant(population, best);
+
+        // When
+        best.setFitness(1100);
+
+        // Then
+        assertFalse(detector.isStagnant(population, best));
+        assertEquals(0, detector.getGenerationsWithoutImprovement());
+    }
+
+    @Test
+    @DisplayName("Should report a converged population that stopped improving")
+    void testLowDiversity() {
+        // Given - ten copies of the same timetable
+        Timetable best = withFitness(population.get(0), 1000);
+        List<Timetable> converged = Collections.nCopies(10, best);
+        StagnationDetector detector = new StagnationDetector(100, 0.05);
+
+        // When / Then
+        assertFalse(detector.isStagnant(converged, best), "An improving population is not stagnant");
+        assertTrue(detector.isStagnant(converged, best));
+        assertEquals(0.0, detector.getLastDiversity());
+    }
+
+    @Test
+    @DisplayName("Random populations should be diverse")
+    void testDiversityOfRandomPopulation() {
+        double diversity = StagnationDetector.diversity(population, population.get(0));
+
+        assertTrue(diversity > 0.5, "Random timetables should differ from each other: " + diversity);
+        assertTrue(diversity <= 1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new StagnationDetector(0, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new StagnationDetector(10, 1.5));
+    }
+
+    private Timetable withFitness(Timetable timetable, double fitness) {
+        timetable.setFitness(fitness);
+        return timetable;
+    }
+}
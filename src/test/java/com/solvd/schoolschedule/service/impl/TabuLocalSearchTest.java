@@ -0,0 +1,105 @@
+package com.solvd.schoolschedule.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.*;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.interfaces.IPopulationService;
+
+/**
+ * Unit tests for the TabuLocalSearch class.
+ */
+@DisplayName("TabuLocalSearch Tests")
+class TabuLocalSearchTest {
+
+    private IPopulationService populationService;
+    private FitnessServiceImpl fitnessService;
+    private TabuLocalSearch localSearch;
+
+    @BeforeEach
+    void setUp() {
+        populationService = new PopulationServiceImpl();
+        fitnessService = new FitnessServiceImpl(populationService);
+        localSearch = new TabuLocalSearch(populationService, fitnessService.getConflictWeights(), 100, 50, 40);
+    }
+
+    @Test
+    @DisplayName("Should improve a random timetable and report its true fitness")
+    void testImprovesRandomTimetable() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+        timetable.setFitness(fitnessService.calculateFitness(timetable));
+
+        // When
+        Timetable improved = localSearch.improve(timetable, new SplittableRandom(1));
+
+        // Then
+        assertNotSame(timetable, improved);
+        assertTrue(improved.getFitness() > timetable.getFitness());
+        assertEquals(fitnessService.calculateFitness(improved), improved.getFitness());
+        assertEquals(timetable.getLessons().size(), improved.getLessons().size());
+    }
+
+    @Test
+    @DisplayName("Should keep subjects, teachers and groups at every position")
+    void testKeepsLessonLayout() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+
+        // When
+        Timetable improved = localSearch.improve(timetable, new SplittableRandom(2));
+
+        // Then
+        for (int i = 0; i < timetable.getLessons().size(); i++) {
+            Lesson before = timetable.getLessons().get(i);
+            Lesson after = improved.getLessons().get(i);
+            assertEquals(before.getSubject(), after.getSubject());
+            assertSame(before.getTeacher(), after.getTeacher());
+            assertSame(before.getGroup(), after.getGroup());
+            assertTrue(after.getClassroom().canAccommodate(after.getSubject()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same result for the same random seed")
+    void testReproducible() {
+        // Given
+        Timetable timetable = populationService.initializePopulation(1).get(0);
+
+        // When
+        Timetable first = localSearch.improve(timetable, new SplittableRandom(3));
+        Timetable second = localSearch.improve(timetable, new SplittableRandom(3));
+
+        // Then
+        assertEquals(first.getGenomeHash(), second.getGenomeHash());
+        assertEquals(first.getFitness(), second.getFitness());
+    }
+
+    @Test
+    @DisplayName("Should return timetables it cannot search unchanged")
+    void testUnsearchableTimetable() {
+        // Given - a classroom unknown to the population service
+        Classroom unknown = new Classroom(99, "Room 999", Set.of(Subject.MATH));
+        Timetable timetable = new Timetable();
+        Group group = populationService.getGroups().get(0);
+        Teacher teacher = populationService.getTeachers().get(0);
+        timetable.addLesson(new Lesson(Subject.MATH, teacher, unknown, new TimeSlot(0, 0), group));
+        timetable.addLesson(new Lesson(Subject.MATH, teacher, unknown, new TimeSlot(0, 0), group));
+
+        // When / Then
+        assertSame(timetable, localSearch.improve(timetable, new SplittableRandom(4)));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new TabuLocalSearch(populationService, fitnessService.getConflictWeights(), 0, 50, 40));
+        assertThrows(IllegalArgumentException.class,
+            () -> new TabuLocalSearch(populationService, fitnessService.getConflictWeights(), 100, 0, 40));
+    }
+}
@@ -0,0 +1,132 @@
+package com.solvd.schoolschedule.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.stream.DoubleStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.solvd.schoolschedule.model.ProfilePhase;
+
+/**
+ * Unit tests for the RunProfiler class.
+ * Tests the recorded measurements, the report format, reset and the disabled profiler.
+ */
+@DisplayName("RunProfiler Tests")
+class RunProfilerTest {
+
+    @Test
+    @DisplayName("Should record calls, wall time and evaluations per phase")
+    void testMeasure() {
+        // Given
+        RunProfiler profiler = new RunProfiler();
+
+        // When
+        int result = profiler.measure(ProfilePhase.EVALUATION, () -> busyWork(100_000));
+        profiler.measure(ProfilePhase.EVALUATION, () -> busyWork(100_000));
+        profiler.recordEvaluations(20);
+
+        // Then
+        assertTrue(result > 0);
+        assertEquals(2, profiler.getCalls(ProfilePhase.EVALUATION));
+        assertTrue(profiler.getWallNanos(ProfilePhase.EVALUATION) > 0);
+        assertEquals(0, profiler.getCalls(ProfilePhase.CROSSOVER));
+        assertEquals(20, profiler.getEvaluations());
+        assertTrue(profiler.getEvaluationsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("The report should have a header, one line per phase, the throughput and the fitness")
+    void testReportFormat() {
+        // Given
+        RunProfiler profiler = new RunProfiler();
+        profiler.measure(ProfilePhase.MUTATION, () -> busyWork(1000));
+        profiler.recordEvaluations(5);
+        profiler.recordFitness(statistics(100, 200, 300));
+        profiler.recordFitness(statistics(500, 1000, 2000));
+
+        // When
+        String[] lines = profiler.report("ATTEMPT #2").split("\\R");
+
+        // Then
+        assertEquals("=== Run profile: ATTEMPT #2 ===", lines[0]);
+        assertTrue(lines[1].matches("Phase\\s+Calls\\s+Wall ms\\s+CPU ms\\s+Alloc MB"), lines[1]);
+        ProfilePhase[] phases = ProfilePhase.values();
+        for (int i = 0; i < phases.length; i++) {
+            assertTrue(lines[2 + i].startsWith(phases[i].getDisplayName()), lines[2 + i]);
+        }
+        assertTrue(lines[2 + ProfilePhase.MUTATION.ordinal()].matches("Mutation\\s+1\\s+.*"));
+        assertEquals(RunProfiler.WORKER_NOTE, lines[2 + phases.length]);
+        assertTrue(lines[3 + phases.length].startsWith("Evaluations: 5 ("), lines[3 + phases.length]);
+        assertEquals("Initial fitness: best 300.0, avg 200.0, worst 100.0", lines[4 + phases.length]);
+        assertEquals("Final fitness:  best 2000.0, avg 1166.7, worst 500.0", lines[5 + phases.length]);
+        assertEquals(6 + phases.length, lines.length);
+    }
+
+    @Test
+    @DisplayName("The report without a label should keep the plain header and skip missing fitness")
+    void testReportWithoutLabel() {
+        // When
+        String report = new RunProfiler().report();
+
+        // Then
+        assertTrue(report.startsWith("=== Run profile ===\n"));
+        assertFalse(report.contains("fitness"));
+    }
+
+    @Test
+    @DisplayName("Reset should forget every measurement")
+    void testReset() {
+        // Given
+        RunProfiler profiler = new RunProfiler();
+        profiler.measure(ProfilePhase.SELECTION, () -> busyWork(1000));
+        profiler.recordEvaluations(10);
+        profiler.recordFitness(statistics(1, 2));
+
+        // When
+        profiler.reset();
+        profiler.recordFitness(statistics(7));
+
+        // Then
+        assertEquals(0, profiler.getCalls(ProfilePhase.SELECTION));
+        assertEquals(0, profiler.getWallNanos(ProfilePhase.SELECTION));
+        assertEquals(0, profiler.getEvaluations());
+        assertTrue(profiler.report().contains("Initial fitness: best 7.0"), "The next fitness is the initial one");
+    }
+
+    @Test
+    @DisplayName("A disabled profiler should run the measured code without recording anything")
+    void testDisabled() {
+        // Given
+        RunProfiler profiler = RunProfiler.disabled();
+        int[] runs = new int[1];
+
+        // When
+        profiler.measure(ProfilePhase.REPAIR, () -> runs[0]++);
+        int result = profiler.measure(ProfilePhase.REPAIR, () -> 42);
+        profiler.recordEvaluations(10);
+        profiler.recordFitness(statistics(1, 2));
+
+        // Then
+        assertFalse(profiler.isEnabled());
+        assertEquals(1, runs[0]);
+        assertEquals(42, result);
+        assertEquals(0, profiler.getCalls(ProfilePhase.REPAIR));
+        assertEquals(0, profiler.getEvaluations());
+        assertFalse(profiler.report().contains("fitness"));
+    }
+
+    private static DoubleSummaryStatistics statistics(double... fitness) {
+        return DoubleStream.of(fitness).summaryStatistics();
+    }
+
+    private static int busyWork(int iterations) {
+        int sum = 1;
+        for (int i = 0; i < iterations; i++) {
+            sum = sum * 31 + i;
+        }
+        return sum | 1;
+    }
+}
@@ -0,0 +1,149 @@
+package com.solvd.schoolschedule.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.solvd.schoolschedule.model.*;
+import com.solvd.schoolschedule.service.impl.BacktrackingSolver;
+import com.solvd.schoolschedule.service.impl.PopulationServiceImpl;
+
+/**
+ * Unit tests for the SyntheticInstanceGenerator class.
+ * Tests reproducibility, the meaning of the tightness and the supported sizes.
+ */
+@DisplayName("SyntheticInstanceGenerator Tests")
+class SyntheticInstanceGeneratorTest {
+
+    private static final int SLOTS = SchoolConfig.WORKING_DAYS_PER_WEEK * SchoolConfig.MAX_PERIODS_PER_DAY;
+
+    @Test
+    @DisplayName("Should give the same problem for the same seed")
+    void testReproducible() {
+        // When
+        ProblemDefinition first = new SyntheticInstanceGenerator(42).generate(100, 0.6);
+        ProblemDefinition second = new SyntheticInstanceGenerator(42).generate(100, 0.6);
+
+        // Then
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the stock curriculum at the stock tightness")
+    void testStockTightness() {
+        // When
+        ProblemDefinition problem = new SyntheticInstanceGenerator(1)
+                .generate(SchoolConfig.NUM_GROUPS, (double) SubjectConfig.getTotalWeeklyLessons() / SLOTS);
+
+        // Then
+        for (Subject subject : Subject.values()) {
+            assertEquals(SubjectConfig.getWeeklyLessons(subject), problem.getWeeklyLessons(subject));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"4, 0.3", "4, 0.95", "40, 0.5", "300, 0.7", "300, 1.0"})
+    @DisplayName("No group, teacher or classroom kind should be busier than the tightness")
+    void testCapacity(int groups, double tightness) {
+        // Given
+        double capacity = tightness * SLOTS;
+
+        // When
+        ProblemDefinition problem = new SyntheticInstanceGenerator(groups).generate(groups, tightness);
+        ResourceCatalog catalog = new PopulationServiceImpl(problem).getCatalog();
+
+        // Then
+        assertEquals(groups, problem.getNumberOfGroups());
+        assertTrue(problem.getTotalWeeklyLessons() <= Math.max(Math.round(capacity), Subject.values().length));
+        for (Teacher teacher : catalog.getTeachers()) {
+            assertTrue(catalog.getTeacherLoad(teacher) <= Math.max(capacity, problem.getWeeklyLessons(teacher.getSubject())),
+                    teacher.getName() + " teaches " + catalog.getTeacherLoad(teacher));
+        }
+        long informatics = (long) groups * problem.getWeeklyLessons(Subject.INFORMATICS);
+        long others = (long) groups * problem.getTotalWeeklyLessons() - informatics;
+        assertTrue(problem.getComputerLabs() * capacity >= informatics);
+        assertTrue((problem.getGeneralClassrooms() + problem.getPhysicsLabs()) * capacity >= others);
+    }
+
+    @Test
+    @DisplayName("Should generate the given week and population size")
+    void testCustomWeek() {
+        // Given
+        SyntheticInstanceGenerator generator = new SyntheticInstanceGenerator(1, 6, 10, 50);
+
+        // When
+        ProblemDefinition problem = generator.generate(20, 0.6);
+
+        // Then
+        assertEquals(6, problem.getDays());
+        assertEquals(10, problem.getPeriodsPerDay());
+        assertEquals(50, problem.getPopulationSize());
+        assertEquals(36, problem.getTotalWeeklyLessons());
+        ResourceCatalog catalog = new PopulationServiceImpl(problem).getCatalog();
+        for (Teacher teacher : catalog.getTeachers()) {
+            assertTrue(catalog.getTeacherLoad(teacher) <= 36, teacher.getName() + " teaches " + catalog.getTeacherLoad(teacher));
+        }
+    }
+
+    @Test
+    @DisplayName("The one-argument generator should use the week and population size of SchoolConfig")
+    void testDefaultWeek() {
+        // When
+        ProblemDefinition problem = new SyntheticInstanceGenerator(1).generate(10, 0.5);
+
+        // Then
+        assertEquals(SchoolConfig.WORKING_DAYS_PER_WEEK, problem.getDays());
+        assertEquals(SchoolConfig.MAX_PERIODS_PER_DAY, problem.getPeriodsPerDay());
+        assertEquals(SchoolConfig.GA_POPULATION_SIZE, problem.getPopulationSize());
+    }
+
+    @Test
+    @DisplayName("A loose instance should have a conflict-free timetable")
+    void testLooseInstanceSolvable() {
+        // Given
+        ProblemDefinition problem = new SyntheticInstanceGenerator(3).generate(8, 0.5);
+        BacktrackingSolver solver = new BacktrackingSolver(new PopulationServiceImpl(problem).getEncoding(), 1_000_000);
+
+        // When
+        BacktrackingSolver.Result result = solver.solve(new SplittableRandom(1));
+
+        // Then
+        assertEquals(SolverStatus.SOLVED, result.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should build a school with thousands of groups")
+    void testThousandsOfGroups() {
+        // When
+        ProblemDefinition problem = new SyntheticInstanceGenerator(7).generate(2000, 0.8);
+        PopulationServiceImpl populationService = new PopulationServiceImpl(problem);
+
+        // Then
+        assertEquals(2000 * problem.getTotalWeeklyLessons(), populationService.getEncoding().size());
+        assertEquals(1, populationService.initializeEncodedPopulation(1).size());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters and schools too large for the encoding")
+    void testValidation() {
+        // Given
+        SyntheticInstanceGenerator generator = new SyntheticInstanceGenerator(1);
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(10, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(10, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(5000, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticInstanceGenerator(1, 0, 8, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticInstanceGenerator(1, 5, 0, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticInstanceGenerator(1, 5, ProblemDefinition.MAX_PERIODS_PER_DAY + 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticInstanceGenerator(1, 5, 8, 1));
+    }
+}